@@ -0,0 +1,66 @@
+package uk.co.epsilontechnologies.taximeter.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.co.epsilontechnologies.taximeter.utils.AsyncLogger;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks the cost, to the thread logging it, of logging a message or an exception - such as a failing odometer
+ * logs on every tick of its meter - to a writer thread writing to a discarding stream.
+ *
+ * @author Shane Gibson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsyncLoggerBenchmark {
+
+    private final RuntimeException exception = new RuntimeException("odometer failed");
+
+    private AsyncLogger logger;
+
+    @Setup
+    public void setUp() {
+        this.logger = new AsyncLogger(new PrintStream(new OutputStream() {
+            @Override
+            public void write(final int b) {
+            }
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+            }
+        }));
+        logger.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        logger.shutdown();
+    }
+
+    @Benchmark
+    public boolean info() {
+        return logger.info("Recalculating fare");
+    }
+
+    @Benchmark
+    public boolean exception() {
+        return logger.exception(exception);
+    }
+
+}
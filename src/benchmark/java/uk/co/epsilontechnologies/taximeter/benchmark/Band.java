@@ -0,0 +1,40 @@
+package uk.co.epsilontechnologies.taximeter.benchmark;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+/**
+ * <p>The tariff bands benchmarked, each with a time of day at which it applies.
+ *
+ * <p>On a public holiday the third tariff applies all day, whichever band is chosen - but the holiday is still looked
+ * up at the band's time of day.
+ *
+ * @author Shane Gibson
+ */
+public enum Band {
+
+    TARIFF_1(10),
+    TARIFF_2(21),
+    TARIFF_3(23);
+
+    static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    private final int hourOfDay;
+
+    Band(final int hourOfDay) {
+        this.hourOfDay = hourOfDay;
+    }
+
+    /**
+     * A Wednesday at the band's time of day - either Christmas Day 2013 or the working Wednesday before.
+     *
+     * @param holiday whether the date should be a public holiday
+     * @return the date time
+     */
+    public DateTime dateTime(final boolean holiday) {
+        return holiday
+                ? new DateTime(2013, 12, 25, hourOfDay, 0, LONDON)
+                : new DateTime(2013, 12, 18, hourOfDay, 0, LONDON);
+    }
+
+}
@@ -0,0 +1,60 @@
+package uk.co.epsilontechnologies.taximeter.benchmark;
+
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.co.epsilontechnologies.taximeter.utils.CalendarUtils;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks the calendar utilities used on every fare calculation.
+ *
+ * @author Shane Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalendarUtilsBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean holiday;
+
+    private DateTime now;
+    private DateTime journeyStart;
+
+    @Setup
+    public void setUp() {
+        this.now = Band.TARIFF_1.dateTime(holiday);
+        this.journeyStart = now.minusMinutes(17).minusMillis(300);
+    }
+
+    @Benchmark
+    public boolean isPublicHoliday() {
+        return CalendarUtils.isPublicHoliday(now);
+    }
+
+    @Benchmark
+    public boolean isPublicHolidayOnEpochMillis() {
+        return CalendarUtils.isPublicHoliday(now.getMillis(), Band.LONDON);
+    }
+
+    @Benchmark
+    public BigDecimal differenceInSeconds() {
+        return CalendarUtils.differenceInSeconds(now, journeyStart);
+    }
+
+}
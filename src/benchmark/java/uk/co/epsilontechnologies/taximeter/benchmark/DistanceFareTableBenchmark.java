@@ -0,0 +1,77 @@
+package uk.co.epsilontechnologies.taximeter.benchmark;
+
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.calculator.FixedPointFareCalculator;
+import uk.co.epsilontechnologies.taximeter.model.FixedPointFare;
+import uk.co.epsilontechnologies.taximeter.tariff.DistanceFareTable;
+import uk.co.epsilontechnologies.taximeter.tariff.FixedPointTariff;
+import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks finding the fare of a journey by distance alone, for a spread of journeys of up to 40 kilometres in the
+ * given band - by looking it up in a distance fare table, and by catching up the fare from the flag fall. The footprint
+ * of the table is printed on setup.
+ *
+ * @author Shane Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceFareTableBenchmark {
+
+    private static final int JOURNEYS = 1024;
+
+    @Param({ "TARIFF_1", "TARIFF_2", "TARIFF_3" })
+    public Band band;
+
+    private DistanceFareTable table;
+    private FixedPointFareCalculator fareCalculator;
+    private DateTime now;
+    private final FixedPointFare fare = new FixedPointFare();
+    private final long[] distances = new long[JOURNEYS];
+    private int journey;
+
+    @Setup
+    public void setUp() {
+        final TariffLookup tariffLookup = TflTaxiMeter.standardTariffLookup();
+        this.now = band.dateTime(false);
+        this.table = new DistanceFareTable(new FixedPointTariff(tariffLookup.lookupTariff(now)));
+        this.fareCalculator = new FixedPointFareCalculator(tariffLookup);
+        for (int i = 0; i < JOURNEYS; i++) {
+            distances[i] = i * 39062L;
+        }
+        System.out.println(band+": "+table);
+    }
+
+    @Benchmark
+    public long lookUpFare() {
+        journey = (journey + 1) & (JOURNEYS - 1);
+        return table.getFare(distances[journey]);
+    }
+
+    @Benchmark
+    public long catchUpFare() {
+        journey = (journey + 1) & (JOURNEYS - 1);
+        fareCalculator.getFlagFall(now, fare);
+        fareCalculator.catchUpFare(fare, 0, distances[journey], now);
+        return fare.getAmount();
+    }
+
+}
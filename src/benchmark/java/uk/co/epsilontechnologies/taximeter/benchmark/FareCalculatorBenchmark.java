@@ -0,0 +1,101 @@
+package uk.co.epsilontechnologies.taximeter.benchmark;
+
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.calculator.FareCalculator;
+import uk.co.epsilontechnologies.taximeter.calculator.FixedPointFareCalculator;
+import uk.co.epsilontechnologies.taximeter.model.Fare;
+import uk.co.epsilontechnologies.taximeter.model.FixedPointFare;
+import uk.co.epsilontechnologies.taximeter.tariff.Tariff;
+import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.toMillimetres;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.toMillis;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.toPence;
+
+/**
+ * <p>Benchmarks a single fare calculation, with both fare engines.
+ *
+ * <p>Each calculation applies one increment (the journey has just passed the distance accounted for), from a fare in
+ * either the low or the high fare sub-tariff of the band.
+ *
+ * @author Shane Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FareCalculatorBenchmark {
+
+    @Param({ "TARIFF_1", "TARIFF_2", "TARIFF_3" })
+    public Band band;
+
+    @Param({ "false", "true" })
+    public boolean holiday;
+
+    @Param({ "false", "true" })
+    public boolean highFare;
+
+    private FareCalculator fareCalculator;
+    private FixedPointFareCalculator fixedPointFareCalculator;
+    private DateTime now;
+
+    private Fare fare;
+    private BigDecimal duration;
+    private BigDecimal distance;
+
+    private final FixedPointFare fixedPointFare = new FixedPointFare();
+    private long fixedPointDuration;
+    private long fixedPointDistance;
+
+    @Setup
+    public void setUp() {
+        final TariffLookup tariffLookup = TflTaxiMeter.standardTariffLookup();
+        this.fareCalculator = new FareCalculator(tariffLookup);
+        this.fixedPointFareCalculator = new FixedPointFareCalculator(tariffLookup);
+        this.now = band.dateTime(holiday);
+
+        final Tariff tariff = tariffLookup.lookupTariff(now);
+        final BigDecimal amount = highFare ? tariff.getHighLowFareBoundary() : tariff.getFlagFallAmount();
+        this.fare = new Fare(amount, new BigDecimal("1000.0"), new BigDecimal("600.0"));
+        this.duration = new BigDecimal("500.0");
+        this.distance = new BigDecimal("1000.5");
+        this.fixedPointDuration = toMillis(duration);
+        this.fixedPointDistance = toMillimetres(distance);
+        this.fixedPointFare.set(toPence(amount), toMillimetres(fare.getJourneyDistanceAccountedFor()), toMillis(fare.getJourneyDurationAccountedFor()));
+    }
+
+    @Benchmark
+    public Fare calculateFare() {
+        return fareCalculator.calculateFare(fare, duration, distance, now);
+    }
+
+    @Benchmark
+    public long calculateFixedPointFare() {
+        // reset the fare in place, so that every invocation applies the same increment
+        final long amount = fixedPointFare.getAmount();
+        final long distanceAccountedFor = fixedPointFare.getJourneyDistanceAccountedFor();
+        final long durationAccountedFor = fixedPointFare.getJourneyDurationAccountedFor();
+        fixedPointFareCalculator.calculateFare(fixedPointFare, fixedPointDuration, fixedPointDistance, now);
+        final long result = fixedPointFare.getAmount();
+        fixedPointFare.set(amount, distanceAccountedFor, durationAccountedFor);
+        return result;
+    }
+
+}
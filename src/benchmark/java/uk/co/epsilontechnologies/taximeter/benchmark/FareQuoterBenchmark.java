@@ -0,0 +1,80 @@
+package uk.co.epsilontechnologies.taximeter.benchmark;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.calculator.FareQuoter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks quoting a fare upfront, for a spread of half-hour journeys (at 2-20 metres per second) starting in the
+ * given band - with and without the cache. A Monday evening start takes the journeys through the 20:00 change of
+ * tariff, so they are never cached.
+ *
+ * @author Shane Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FareQuoterBenchmark {
+
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    private static final int JOURNEYS = 1024;
+
+    @Param({ "WEEKDAY", "TARIFF_CHANGE" })
+    public Start start;
+
+    @Param({ "0", "10000" })
+    public int cacheSize;
+
+    private FareQuoter quoter;
+    private long pickupTime;
+    private final long[] distances = new long[JOURNEYS];
+    private int journey;
+
+    @Setup
+    public void setUp() {
+        this.quoter = new FareQuoter(TflTaxiMeter.standardTariffLookup(),
+                FareQuoter.DEFAULT_DISTANCE_BUCKET, FareQuoter.DEFAULT_DURATION_BUCKET, cacheSize);
+        this.pickupTime = start.pickupTime.getMillis();
+        for (int i = 0; i < JOURNEYS; i++) {
+            distances[i] = 3600000 + i * 32000L;
+        }
+    }
+
+    @Benchmark
+    public long quote() {
+        journey = (journey + 1) & (JOURNEYS - 1);
+        return quoter.quote(pickupTime, LONDON, distances[journey], 1800000);
+    }
+
+    public enum Start {
+
+        WEEKDAY(new DateTime(2013, 11, 25, 10, 0, LONDON)),
+        TARIFF_CHANGE(new DateTime(2013, 11, 25, 19, 45, LONDON));
+
+        private final DateTime pickupTime;
+
+        Start(final DateTime pickupTime) {
+            this.pickupTime = pickupTime;
+        }
+
+    }
+
+}
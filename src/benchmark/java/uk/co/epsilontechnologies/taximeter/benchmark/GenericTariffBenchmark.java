@@ -0,0 +1,59 @@
+package uk.co.epsilontechnologies.taximeter.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.epsilontechnologies.taximeter.tariff.Tariff;
+import uk.co.epsilontechnologies.taximeter.tariff.Tariff1;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks reading the rates of a tariff, as the fare calculator does.
+ *
+ * @author Shane Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenericTariffBenchmark {
+
+    private Tariff tariff;
+
+    @Setup
+    public void setUp() {
+        this.tariff = new Tariff1();
+    }
+
+    @Benchmark
+    public BigDecimal getFlagFallAmount() {
+        return tariff.getFlagFallAmount();
+    }
+
+    @Benchmark
+    public void getAllRates(final Blackhole blackhole) {
+        blackhole.consume(tariff.getFlagFallAmount());
+        blackhole.consume(tariff.getFlagFallDistanceLimit());
+        blackhole.consume(tariff.getFlagFallTimeLimit());
+        blackhole.consume(tariff.getHighLowFareBoundary());
+        blackhole.consume(tariff.getLowFareSubTariff().getIncrementAmount());
+        blackhole.consume(tariff.getLowFareSubTariff().getDistanceLimit());
+        blackhole.consume(tariff.getLowFareSubTariff().getTimeLimit());
+        blackhole.consume(tariff.getHighFareSubTariff().getIncrementAmount());
+        blackhole.consume(tariff.getHighFareSubTariff().getDistanceLimit());
+        blackhole.consume(tariff.getHighFareSubTariff().getTimeLimit());
+    }
+
+}
@@ -0,0 +1,92 @@
+package uk.co.epsilontechnologies.taximeter.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.co.epsilontechnologies.taximeter.journal.ForcePolicy;
+import uk.co.epsilontechnologies.taximeter.journal.JourneyJournal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Benchmarks appending a fare change to the journey journal, from several meters (threads) at once - to compare
+ * with the cost of a tick, see {@link TaxiMeterBenchmark}.
+ *
+ * <p>The cost includes rolling segments as they fill. Forcing every record is orders of magnitude slower, so is not a
+ * parameter.
+ *
+ * @author Shane Gibson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class JourneyJournalBenchmark {
+
+    @Param({ "NEVER", "ON_ROLL" })
+    public ForcePolicy forcePolicy;
+
+    private File directory;
+    private JourneyJournal journal;
+
+    private final AtomicLong meterIds = new AtomicLong();
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        this.directory = File.createTempFile("journal", "");
+        directory.delete();
+        this.journal = new JourneyJournal(directory, JourneyJournal.DEFAULT_SEGMENT_SIZE, forcePolicy);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        journal.close();
+        final File[] segments = directory.listFiles();
+        if (segments != null) {
+            for (final File segment : segments) {
+                segment.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public void append(final Meter meter) throws IOException {
+        final long sequence = meter.sequence++;
+        journal.append(meter.id, sequence, 1371029400000L + sequence * 100, sequence * 1000, sequence * 100, 240 + sequence, 0);
+    }
+
+    /**
+     * <p>The state of the meter appending on each thread.
+     */
+    @State(Scope.Thread)
+    public static class Meter {
+
+        private long id;
+        private long sequence;
+
+        @Setup
+        public void setUp(final JourneyJournalBenchmark benchmark) {
+            this.id = benchmark.meterIds.incrementAndGet();
+        }
+
+    }
+
+}
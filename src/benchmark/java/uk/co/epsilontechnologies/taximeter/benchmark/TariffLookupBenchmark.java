@@ -0,0 +1,75 @@
+package uk.co.epsilontechnologies.taximeter.benchmark;
+
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.tariff.CachedTariffLookup;
+import uk.co.epsilontechnologies.taximeter.tariff.Tariff;
+import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks looking up the tariff that applies at a given time, both by evaluating each tariff's time filter in
+ * turn, with the compiled minute-of-week table, and with the table behind a meter's cache of the latest tariff.
+ *
+ * @author Shane Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TariffLookupBenchmark {
+
+    @Param({ "TARIFF_1", "TARIFF_2", "TARIFF_3" })
+    public Band band;
+
+    @Param({ "false", "true" })
+    public boolean holiday;
+
+    private TariffLookup filterLookup;
+    private TariffLookup compiledLookup;
+    private TariffLookup cachedLookup;
+    private DateTime now;
+
+    @Setup
+    public void setUp() {
+        this.compiledLookup = TflTaxiMeter.standardTariffLookup();
+        this.filterLookup = new TariffLookup(compiledLookup.getTariffs().toArray(new Tariff[0]));
+        this.cachedLookup = new CachedTariffLookup(compiledLookup);
+        this.now = band.dateTime(holiday);
+    }
+
+    @Benchmark
+    public Tariff lookupTariffByFilters() {
+        return filterLookup.lookupTariff(now);
+    }
+
+    @Benchmark
+    public Tariff lookupTariffCompiled() {
+        return compiledLookup.lookupTariff(now);
+    }
+
+    @Benchmark
+    public int lookupBandCompiled() {
+        return compiledLookup.lookupBand(now.getMillis(), Band.LONDON);
+    }
+
+    @Benchmark
+    public int lookupBandCached() {
+        return cachedLookup.lookupBand(now.getMillis(), Band.LONDON);
+    }
+
+}
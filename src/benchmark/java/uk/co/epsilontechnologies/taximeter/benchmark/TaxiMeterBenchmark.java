@@ -0,0 +1,160 @@
+package uk.co.epsilontechnologies.taximeter.benchmark;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.co.epsilontechnologies.taximeter.Clock;
+import uk.co.epsilontechnologies.taximeter.Odometer;
+import uk.co.epsilontechnologies.taximeter.Poller;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.calculator.FareEngine;
+import uk.co.epsilontechnologies.taximeter.metrics.MeterMetrics;
+import uk.co.epsilontechnologies.taximeter.scheduler.TickScheduler;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks a full tick of a polling meter - reading the clock and odometer, and recalculating the fare.
+ *
+ * <p>The meter is first driven into the low or high fare, then ticked repeatedly at the same time and distance, so
+ * every tick finds the fare already up to date - the common case, since the fare changes at most every few seconds.
+ *
+ * @author Shane Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaxiMeterBenchmark {
+
+    @Param({ "TARIFF_1", "TARIFF_2", "TARIFF_3" })
+    public Band band;
+
+    @Param({ "false", "true" })
+    public boolean holiday;
+
+    @Param({ "false", "true" })
+    public boolean highFare;
+
+    @Param({ "BIG_DECIMAL", "FIXED_POINT" })
+    public FareEngine fareEngine;
+
+    @Param({ "false", "true" })
+    public boolean metrics;
+
+    private TflTaxiMeter meter;
+
+    @Setup
+    public void setUp() {
+        final DateTime start = band.dateTime(holiday);
+        final FixedClock clock = new FixedClock(start);
+        final FixedOdometer odometer = new FixedOdometer();
+        this.meter = TflTaxiMeter.builder(odometer)
+                .fareEngine(fareEngine)
+                .poller(new Poller(new IdleTickScheduler()))
+                .clock(clock)
+                .metrics(metrics ? new MeterMetrics() : null)
+                .build();
+        meter.startJourney();
+
+        // an hour's drive reaches the high fare in every band, whereas a minute's stays in the low fare
+        clock.now = highFare ? start.plusHours(1) : start.plusMinutes(1);
+        odometer.distance = highFare ? new BigDecimal("20000.0") : new BigDecimal("300.0");
+        meter.run();
+    }
+
+    @TearDown
+    public void tearDown() {
+        meter.endJourney();
+    }
+
+    @Benchmark
+    public BigDecimal tick() {
+        meter.run();
+        return meter.getFare();
+    }
+
+    private static final class FixedClock extends Clock {
+
+        private DateTime now;
+
+        private FixedClock(final DateTime now) {
+            this.now = now;
+        }
+
+        @Override
+        public DateTime getNow() {
+            return now;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return now.getMillis();
+        }
+
+        @Override
+        public long nanoTime() {
+            return now.getMillis() * 1000000;
+        }
+
+        @Override
+        public DateTimeZone getZone() {
+            return now.getZone();
+        }
+
+    }
+
+    private static final class FixedOdometer implements Odometer {
+
+        private BigDecimal distance = BigDecimal.ZERO;
+
+        @Override
+        public BigDecimal getDistance() {
+            return distance;
+        }
+
+        @Override
+        public void reset() {
+            distance = BigDecimal.ZERO;
+        }
+
+    }
+
+    /**
+     * Never runs the meter's ticks, since the benchmark runs them itself.
+     */
+    private static final class IdleTickScheduler implements TickScheduler {
+
+        private static final ScheduledTick IDLE = new ScheduledTick() {
+            @Override
+            public void cancel() {
+            }
+        };
+
+        @Override
+        public ScheduledTick scheduleAtFixedRate(final Runnable task, final long periodInMillis) {
+            return IDLE;
+        }
+
+        @Override
+        public ScheduledTick schedule(final Runnable task, final long delayInMillis) {
+            return IDLE;
+        }
+
+    }
+
+}
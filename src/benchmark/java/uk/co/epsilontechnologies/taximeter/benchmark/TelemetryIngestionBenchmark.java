@@ -0,0 +1,177 @@
+package uk.co.epsilontechnologies.taximeter.benchmark;
+
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.TickMode;
+import uk.co.epsilontechnologies.taximeter.calculator.FareEngine;
+import uk.co.epsilontechnologies.taximeter.metrics.Histogram;
+import uk.co.epsilontechnologies.taximeter.scheduler.HashedWheelTickScheduler;
+import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
+import uk.co.epsilontechnologies.taximeter.telemetry.TelemetryIngester;
+import uk.co.epsilontechnologies.taximeter.telemetry.TelemetryOdometer;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures the throughput and latency of ingesting distance telemetry into a fleet of event driven meters.
+ *
+ * <p>For each number of consumers, a fleet of fixed-point meters is fed by a {@link TelemetryIngester}. The throughput
+ * is the rate at which a single writer can publish readings - round-robin across the fleet, ten metres apart - and the
+ * consumers apply them to the odometers, waking the meters whenever an increment falls due.
+ *
+ * <p>The latency is then measured end-to-end, from publishing a reading far enough to increment the fare of one meter,
+ * to that meter's {@link TflTaxiMeter#getFare()} showing the increment - both with the ring otherwise idle, and behind
+ * a backlog of readings for the rest of the fleet. The time until the odometer shows the reading (the ingester's own
+ * part) is reported separately: the rest is the meter waiting for its next tenth of a second tick.
+ *
+ * <p>Run with:
+ * <code>mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=uk.co.epsilontechnologies.taximeter.benchmark.TelemetryIngestionBenchmark
+ * [-Dexec.args="vehicles readings consumers..."]</code>
+ *
+ * @author Shane Gibson
+ */
+public class TelemetryIngestionBenchmark {
+
+    private static final int DEFAULT_VEHICLES = 10000;
+
+    private static final long DEFAULT_READINGS = 20000000;
+
+    /**
+     * The distance each vehicle travels between readings, in millimetres.
+     */
+    private static final long READING_DISTANCE = 10000;
+
+    /**
+     * The distance the probe vehicle travels to increment its fare, in millimetres - beyond the flag fall's distance.
+     */
+    private static final long PROBE_DISTANCE = 300000;
+
+    private static final int PROBES = 200;
+
+    /**
+     * The number of readings for the rest of the fleet that each probe is queued behind, under load.
+     */
+    private static final int BACKLOG = 10000;
+
+    public static void main(final String[] args) throws Exception {
+        final int vehicles = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_VEHICLES;
+        final long readings = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_READINGS;
+        final int cores = Runtime.getRuntime().availableProcessors();
+        int[] consumerCounts = new int[0];
+        if (args.length > 2) {
+            consumerCounts = new int[args.length - 2];
+            for (int i = 2; i < args.length; i++) {
+                consumerCounts[i - 2] = Integer.parseInt(args[i]);
+            }
+        } else {
+            for (int consumers = 1; consumers <= Math.max(1, cores / 2); consumers *= 2) {
+                consumerCounts = Arrays.copyOf(consumerCounts, consumerCounts.length + 1);
+                consumerCounts[consumerCounts.length - 1] = consumers;
+            }
+        }
+        // latencies are p50/p99/max in microseconds, to the odometer and to the fare, with the ring idle then backlogged
+        System.out.printf("%-10s %9s %14s %18s %18s %18s %18s%n", "consumers", "vehicles", "readings/s",
+                "idle odometer", "idle fare", "backlog odometer", "backlog fare");
+        for (final int consumers : consumerCounts) {
+            run(consumers, vehicles, readings);
+        }
+    }
+
+    private static void run(final int consumerCount, final int vehicleCount, final long readingCount) throws InterruptedException {
+        final TariffLookup tariffLookup = TflTaxiMeter.standardTariffLookup();
+        final HashedWheelTickScheduler scheduler = new HashedWheelTickScheduler(1);
+        final TelemetryIngester ingester = new TelemetryIngester(TelemetryIngester.DEFAULT_BUFFER_SIZE, consumerCount,
+                TelemetryIngester.DEFAULT_MAX_BATCH_SIZE);
+        final TelemetryOdometer[] odometers = new TelemetryOdometer[vehicleCount];
+        final TflTaxiMeter[] meters = new TflTaxiMeter[vehicleCount];
+        final long[] readings = new long[vehicleCount];
+        for (int vehicle = 0; vehicle < vehicleCount; vehicle++) {
+            odometers[vehicle] = new TelemetryOdometer();
+            odometers[vehicle].update(0, 0);
+            ingester.register(vehicle, odometers[vehicle]);
+            meters[vehicle] = TflTaxiMeter.builder(odometers[vehicle])
+                    .tariffLookup(tariffLookup)
+                    .fareEngine(FareEngine.FIXED_POINT)
+                    .tickMode(TickMode.EVENT_DRIVEN)
+                    .tickScheduler(scheduler)
+                    .build();
+            meters[vehicle].startJourney();
+        }
+        ingester.start();
+
+        // throughput - the first tenth is a warm up
+        final long warmUp = readingCount / 10;
+        long startNanos = 0;
+        for (long reading = 0; reading < readingCount; reading++) {
+            if (reading == warmUp) {
+                awaitConsumed(ingester);
+                startNanos = System.nanoTime();
+            }
+            final int vehicle = (int) (reading % vehicleCount);
+            ingester.publish(vehicle, System.currentTimeMillis(), readings[vehicle] += READING_DISTANCE);
+        }
+        awaitConsumed(ingester);
+        final double readingsPerSecond = (readingCount - warmUp) * 1e9 / (System.nanoTime() - startNanos);
+
+        final String idle = probe(ingester, odometers, meters, readings, 0);
+        final String backlog = probe(ingester, odometers, meters, readings, BACKLOG);
+        System.out.printf("%-10d %9d %14.0f %s %s%n", consumerCount, vehicleCount, readingsPerSecond, idle, backlog);
+
+        for (final TflTaxiMeter meter : meters) {
+            meter.endJourney();
+        }
+        ingester.shutdown();
+        scheduler.shutdown();
+    }
+
+    /**
+     * Measures the latency to the odometer and to the fare of the probe vehicle, behind the given number of readings
+     * for the rest of the fleet.
+     *
+     * @return the latency percentiles, to the odometer then to the fare
+     */
+    private static String probe(
+            final TelemetryIngester ingester,
+            final TelemetryOdometer[] odometers,
+            final TflTaxiMeter[] meters,
+            final long[] readings,
+            final int backlog) throws InterruptedException {
+        final Histogram toOdometer = new Histogram();
+        final Histogram toFare = new Histogram();
+        final int probe = 0;
+        for (int i = 0; i < PROBES; i++) {
+            for (int reading = 0; reading < backlog; reading++) {
+                final int vehicle = 1 + reading % (odometers.length - 1);
+                ingester.publish(vehicle, System.currentTimeMillis(), readings[vehicle] += READING_DISTANCE);
+            }
+            final BigDecimal fare = meters[probe].getFare();
+            final long target = odometers[probe].getDistanceInMillimetres() + PROBE_DISTANCE;
+            final long publishNanos = System.nanoTime();
+            ingester.publish(probe, System.currentTimeMillis(), readings[probe] += PROBE_DISTANCE);
+            while (odometers[probe].getDistanceInMillimetres() < target) {
+                Thread.yield();
+            }
+            toOdometer.record(System.nanoTime() - publishNanos);
+            while (meters[probe].getFare().compareTo(fare) == 0) {
+                Thread.yield();
+            }
+            toFare.record(System.nanoTime() - publishNanos);
+            awaitConsumed(ingester);
+        }
+        return String.format("%18s %18s", percentiles(toOdometer), percentiles(toFare));
+    }
+
+    private static String percentiles(final Histogram histogram) {
+        return TimeUnit.NANOSECONDS.toMicros(histogram.getPercentile(50)) + "/"
+                + TimeUnit.NANOSECONDS.toMicros(histogram.getPercentile(99)) + "/"
+                + TimeUnit.NANOSECONDS.toMicros(histogram.getMax());
+    }
+
+    private static void awaitConsumed(final TelemetryIngester ingester) throws InterruptedException {
+        while (ingester.getConsumed() < ingester.getPublished()) {
+            Thread.sleep(1);
+        }
+    }
+
+}
@@ -0,0 +1,264 @@
+package uk.co.epsilontechnologies.taximeter.benchmark;
+
+import uk.co.epsilontechnologies.taximeter.Odometer;
+import uk.co.epsilontechnologies.taximeter.Poller;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.calculator.FareEngine;
+import uk.co.epsilontechnologies.taximeter.scheduler.ExecutorTickScheduler;
+import uk.co.epsilontechnologies.taximeter.scheduler.HashedWheelTickScheduler;
+import uk.co.epsilontechnologies.taximeter.scheduler.ThreadPerJourneyTickScheduler;
+import uk.co.epsilontechnologies.taximeter.scheduler.TickScheduler;
+import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures how many polling meters a tick scheduler can keep on time, per core.
+ *
+ * <p>For each meter count and scheduler, a fleet of fixed-point meters is started on the scheduler, and every tick
+ * records how late it ran against its fixed-rate deadline. Once the fleet has warmed up, the lag percentiles and the
+ * CPU time consumed by the scheduler threads are reported, along with the number of meters that one fully-used core
+ * could sustain, and the heap retained per meter.
+ *
+ * <p>Besides the executor and hashed wheel schedulers, meters are run on a thread each - virtual threads where the
+ * runtime supports them (Java 21 onwards). The CPU time of virtual threads is not reported by the JVM, so their CPU and
+ * meters per core columns are not meaningful; compare their lag and heap per meter instead.
+ *
+ * <p>Run with: <code>mvn -Pbenchmark test-compile exec:java [-Dexec.args="seconds meters... "]</code>
+ *
+ * @author Shane Gibson
+ */
+public class TickSchedulerBenchmark {
+
+    private static final int[] DEFAULT_METER_COUNTS = { 1000, 10000, 50000 };
+
+    private static final long WARM_UP_MILLIS = 2000;
+
+    /**
+     * The most meters to run with a platform thread each, when virtual threads are not available.
+     */
+    private static final int MAX_PLATFORM_THREADS = 10000;
+
+    /**
+     * Lag histogram buckets, one per millisecond, with the last bucket holding everything beyond.
+     */
+    private static final int HISTOGRAM_BUCKETS = 2001;
+
+    public static void main(final String[] args) throws Exception {
+        final long measureMillis = args.length > 0 ? Long.parseLong(args[0]) * 1000 : 5000;
+        final int[] meterCounts = args.length > 1 ? new int[args.length - 1] : DEFAULT_METER_COUNTS;
+        for (int i = 1; i < args.length; i++) {
+            meterCounts[i - 1] = Integer.parseInt(args[i]);
+        }
+        final int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%-24s %8s %10s %8s %8s %8s %10s %14s %12s%n",
+                "scheduler", "meters", "ticks", "p50 ms", "p99 ms", "max ms", "cpu %", "meters/core", "heap/meter");
+        for (final int meters : meterCounts) {
+            final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+            run("executor", new ExecutorTickScheduler(executor), meters, measureMillis);
+            executor.shutdownNow();
+            for (int shards = 1; shards <= cores; shards *= 2) {
+                final HashedWheelTickScheduler scheduler = new HashedWheelTickScheduler(shards);
+                run("hashed-wheel x" + shards, scheduler, meters, measureMillis);
+                scheduler.shutdown();
+            }
+            final ThreadPerJourneyTickScheduler threadPerJourney = new ThreadPerJourneyTickScheduler();
+            if (threadPerJourney.isVirtual() || meters <= MAX_PLATFORM_THREADS) {
+                run(threadPerJourney.isVirtual() ? "virtual-thread" : "platform-thread", threadPerJourney, meters, measureMillis);
+            }
+        }
+    }
+
+    private static void run(final String name, final TickScheduler scheduler, final int meterCount, final long measureMillis)
+            throws InterruptedException {
+        final TariffLookup tariffLookup = TflTaxiMeter.standardTariffLookup();
+        final Recorder recorder = new Recorder();
+        final List<TflTaxiMeter> meters = new ArrayList<>(meterCount);
+        final long heapBefore = usedHeap();
+        for (int i = 0; i < meterCount; i++) {
+            final TflTaxiMeter meter = TflTaxiMeter.builder(new CruisingOdometer())
+                    .tariffLookup(tariffLookup)
+                    .fareEngine(FareEngine.FIXED_POINT)
+                    .poller(new LagRecordingPoller(scheduler, recorder))
+                    .build();
+            meter.startJourney();
+            meters.add(meter);
+        }
+
+        Thread.sleep(WARM_UP_MILLIS);
+        final long heapPerMeter = (usedHeap() - heapBefore) / meterCount;
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        recorder.reset();
+        final long cpuBefore = schedulerCpuNanos(threads);
+        final long wallBefore = System.nanoTime();
+        Thread.sleep(measureMillis);
+        final long cpu = schedulerCpuNanos(threads) - cpuBefore;
+        final long wall = System.nanoTime() - wallBefore;
+        final long[] histogram = recorder.snapshot();
+
+        for (final TflTaxiMeter meter : meters) {
+            meter.endJourney();
+        }
+
+        final double cpuFraction = (double) cpu / wall;
+        System.out.printf("%-24s %8d %10d %8d %8d %8d %10.1f %14.0f %12d%n",
+                name, meterCount, total(histogram), percentile(histogram, 0.50), percentile(histogram, 0.99),
+                max(histogram), cpuFraction * 100, meterCount / Math.max(cpuFraction, 1e-9), heapPerMeter);
+    }
+
+    /**
+     * The CPU time consumed so far by the scheduler threads.
+     */
+    private static long schedulerCpuNanos(final ThreadMXBean threads) {
+        long cpu = 0;
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("tick-wheel-") || thread.getName().startsWith("pool-")
+                    || thread.getName().startsWith("tick-journey-")) {
+                final long threadCpu = threads.getThreadCpuTime(thread.getId());
+                if (threadCpu > 0) {
+                    cpu += threadCpu;
+                }
+            }
+        }
+        return cpu;
+    }
+
+    /**
+     * The heap in use, after a collection. This includes the stacks of virtual threads, but not of platform threads.
+     */
+    private static long usedHeap() throws InterruptedException {
+        System.gc();
+        Thread.sleep(100);
+        final Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long total(final long[] histogram) {
+        long total = 0;
+        for (final long count : histogram) {
+            total += count;
+        }
+        return total;
+    }
+
+    private static int percentile(final long[] histogram, final double percentile) {
+        final long target = (long) Math.ceil(total(histogram) * percentile);
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= target && seen > 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static int max(final long[] histogram) {
+        for (int i = histogram.length - 1; i >= 0; i--) {
+            if (histogram[i] > 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * <p>Odometer of a taxi cruising at a steady 10 metres per second.
+     */
+    private static final class CruisingOdometer implements Odometer {
+
+        private long resetAt = System.currentTimeMillis();
+
+        @Override
+        public BigDecimal getDistance() {
+            return BigDecimal.valueOf(System.currentTimeMillis() - resetAt, 2);
+        }
+
+        @Override
+        public void reset() {
+            resetAt = System.currentTimeMillis();
+        }
+
+    }
+
+    /**
+     * <p>Poller that records how late each of its ticks runs.
+     */
+    private static final class LagRecordingPoller extends Poller {
+
+        private final Recorder recorder;
+
+        private LagRecordingPoller(final TickScheduler scheduler, final Recorder recorder) {
+            super(scheduler);
+            this.recorder = recorder;
+        }
+
+        @Override
+        public synchronized void start(final Runnable runnable) {
+            final long startNanos = System.nanoTime();
+            super.start(new Runnable() {
+                private long ticks;
+                @Override
+                public void run() {
+                    final long deadline = startNanos + TimeUnit.MILLISECONDS.toNanos(TICK_INTERVAL_MILLIS * ++ticks);
+                    recorder.record(System.nanoTime() - deadline);
+                    runnable.run();
+                }
+            });
+        }
+
+    }
+
+    /**
+     * <p>Lag histograms, one per scheduler thread, so that recording does not contend.
+     */
+    private static final class Recorder {
+
+        private final Queue<long[]> histograms = new ConcurrentLinkedQueue<>();
+
+        private final ThreadLocal<long[]> histogram = new ThreadLocal<long[]>() {
+            @Override
+            protected long[] initialValue() {
+                final long[] histogram = new long[HISTOGRAM_BUCKETS];
+                histograms.add(histogram);
+                return histogram;
+            }
+        };
+
+        private void record(final long lagNanos) {
+            final long lagMillis = Math.max(0, TimeUnit.NANOSECONDS.toMillis(lagNanos));
+            histogram.get()[(int) Math.min(lagMillis, HISTOGRAM_BUCKETS - 1)]++;
+        }
+
+        /**
+         * Clears the histograms. Racy against recording threads, which is acceptable for reporting.
+         */
+        private void reset() {
+            for (final long[] histogram : histograms) {
+                Arrays.fill(histogram, 0);
+            }
+        }
+
+        private long[] snapshot() {
+            final long[] snapshot = new long[HISTOGRAM_BUCKETS];
+            for (final long[] histogram : histograms) {
+                for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                    snapshot[i] += histogram[i];
+                }
+            }
+            return snapshot;
+        }
+
+    }
+
+}
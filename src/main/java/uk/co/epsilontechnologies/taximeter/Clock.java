@@ -1,14 +1,71 @@
 package uk.co.epsilontechnologies.taximeter;
 
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 
 /**
  * Something to tell the time from. Can be extended to allow us to change time!
+ *
+ * <p>The primitive accessors do not allocate, so meters read the time through those on every tick: epoch millis to
+ * resolve the tariff with, and monotonic nanos to measure the journey with - so that a step in the wall clock (e.g. by
+ * NTP) does not change the duration billed. A DateTime is only created when one is asked for.
+ *
+ * <p>Clocks that only override {@link #getNow()} (as clocks did before the primitive accessors were added) still work:
+ * the primitive accessors then derive from getNow(), so the clock's time is used throughout - at the cost of allocating.
  */
 public class Clock {
 
+    /**
+     * Whether this clock only overrides getNow(), so the primitive accessors must derive from it.
+     */
+    private final boolean legacy;
+
+    public Clock() {
+        this.legacy = overrides("getNow") && !overrides("currentTimeMillis") && !overrides("nanoTime");
+    }
+
     public DateTime getNow() {
-        return new DateTime();
+        return new DateTime(currentTimeMillis(), getZone());
+    }
+
+    /**
+     * The current time, for resolving which tariff applies.
+     *
+     * @return the current time, in milliseconds since the epoch
+     */
+    public long currentTimeMillis() {
+        return legacy ? getNow().getMillis() : System.currentTimeMillis();
+    }
+
+    /**
+     * A monotonic time, for measuring durations with. It has no relation to the wall clock, so only the difference
+     * between two readings is meaningful.
+     *
+     * @return the monotonic time, in nanoseconds
+     */
+    public long nanoTime() {
+        return legacy ? getNow().getMillis() * 1000000 : System.nanoTime();
+    }
+
+    /**
+     * The time zone in which the time is told.
+     *
+     * @return the time zone
+     */
+    public DateTimeZone getZone() {
+        return legacy ? getNow().getZone() : DateTimeZone.getDefault();
+    }
+
+    private boolean overrides(final String methodName) {
+        for (Class<?> type = getClass(); type != Clock.class; type = type.getSuperclass()) {
+            try {
+                type.getDeclaredMethod(methodName);
+                return true;
+            } catch (final NoSuchMethodException e) {
+                // not declared at this level - keep looking
+            }
+        }
+        return false;
     }
 
 }
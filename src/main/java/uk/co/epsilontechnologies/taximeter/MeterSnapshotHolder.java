@@ -0,0 +1,184 @@
+package uk.co.epsilontechnologies.taximeter;
+
+import uk.co.epsilontechnologies.taximeter.model.MeterSnapshot;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromPence;
+
+/**
+ * <p>The state of a meter as at its latest tick, held in preallocated primitive fields that the meter overwrites on
+ * every tick - so that publishing the state allocates nothing.
+ *
+ * <p>The fields are guarded by a version, as a sequence lock: the meter makes the version odd before it writes the
+ * fields, and even again after, so a reader that sees the same even version before and after reading the fields has
+ * read them all as at the same tick. Readers neither lock nor allocate; they retry in the (rare) event that a tick was
+ * published while they were reading:
+ *
+ * <pre>
+ * long stamp, fare, distance;
+ * do {
+ *     stamp = holder.beginRead();
+ *     fare = holder.getFare();
+ *     distance = holder.getDistance();
+ * } while (!holder.validate(stamp));
+ * </pre>
+ *
+ * <p>The state is only published by one thread at a time - the meter only publishes it whilst holding its monitor, be
+ * it from a tick or from starting or resetting the journey.
+ *
+ * @author Shane Gibson
+ */
+public final class MeterSnapshotHolder {
+
+    /*
+      The indexes of the fields of the state.
+    */
+
+    private static final int VERSION = 0;
+    private static final int FARE = 1;
+    private static final int DISTANCE = 2;
+    private static final int DURATION = 3;
+    private static final int BAND = 4;
+    private static final int SEQUENCE = 5;
+
+    /**
+     * The fields of the state. Written with ordered stores, so that the fields are never seen to be written before the
+     * version is made odd, nor the version made even before the fields are written.
+     */
+    private final AtomicLongArray state = new AtomicLongArray(6);
+
+    /**
+     * Constructs the holder, with no state published.
+     */
+    MeterSnapshotHolder() {
+        state.set(SEQUENCE, -1);
+    }
+
+    /**
+     * Publishes the state of the meter as at a tick.
+     *
+     * @param fare the fare amount, in pence
+     * @param distance the journey distance, in millimetres
+     * @param duration the journey duration, in milliseconds
+     * @param band the band of the tariff that applied
+     * @param sequence the number of ticks of the journey before this one
+     */
+    void publish(final long fare, final long distance, final long duration, final int band, final long sequence) {
+        final long version = state.get(VERSION);
+        state.lazySet(VERSION, version + 1);
+        state.lazySet(FARE, fare);
+        state.lazySet(DISTANCE, distance);
+        state.lazySet(DURATION, duration);
+        state.lazySet(BAND, band);
+        state.lazySet(SEQUENCE, sequence);
+        state.lazySet(VERSION, version + 2);
+    }
+
+    /**
+     * Clears the state, as when the meter is reset.
+     */
+    void clear() {
+        publish(0, 0, 0, 0, -1);
+    }
+
+    /**
+     * Begins reading the state, waiting out a tick that is being published.
+     *
+     * @return the stamp to validate the read with
+     */
+    public long beginRead() {
+        long version;
+        while (((version = state.get(VERSION)) & 1) != 0) {
+            // the meter is part way through publishing a tick, which takes a handful of stores
+            Thread.yield();
+        }
+        return version;
+    }
+
+    /**
+     * Determines whether the fields read since the given stamp are all as at the same tick.
+     *
+     * @param stamp the stamp returned by {@link #beginRead()}
+     * @return true if no tick has been published since the stamp, otherwise false (and the fields must be read again)
+     */
+    public boolean validate(final long stamp) {
+        return state.get(VERSION) == stamp;
+    }
+
+    /**
+     * Getter for the fare
+     * @return the fare amount, in pence
+     */
+    public long getFare() {
+        return state.get(FARE);
+    }
+
+    /**
+     * Getter for the distance
+     * @return the journey distance, in millimetres
+     */
+    public long getDistance() {
+        return state.get(DISTANCE);
+    }
+
+    /**
+     * Getter for the duration
+     * @return the journey duration, in milliseconds
+     */
+    public long getDuration() {
+        return state.get(DURATION);
+    }
+
+    /**
+     * Getter for the band
+     * @return the band (the index in the tariff lookup) of the tariff that applied
+     */
+    public int getBand() {
+        return (int) state.get(BAND);
+    }
+
+    /**
+     * Getter for the sequence
+     * @return the number of ticks of the journey before the latest - zero for the flag fall, or -1 if no state has been
+     * published since the meter was reset
+     */
+    public long getSequence() {
+        return state.get(SEQUENCE);
+    }
+
+    /**
+     * Reads the fare amount as at the latest tick.
+     *
+     * @return the fare amount, in pounds, or null if no state has been published since the meter was reset
+     */
+    public BigDecimal getFareAmount() {
+        long stamp;
+        long fare;
+        long sequence;
+        do {
+            stamp = beginRead();
+            fare = getFare();
+            sequence = getSequence();
+        } while (!validate(stamp));
+        return sequence >= 0 ? fromPence(fare) : null;
+    }
+
+    /**
+     * Copies the state as at the latest tick into an immutable snapshot.
+     *
+     * @return the snapshot, or null if no state has been published since the meter was reset
+     */
+    public MeterSnapshot toSnapshot() {
+        long stamp;
+        MeterSnapshot snapshot;
+        do {
+            stamp = beginRead();
+            final long sequence = getSequence();
+            snapshot = sequence >= 0 ? new MeterSnapshot(getFare(), getDistance(), getDuration(), getBand(), sequence) : null;
+        } while (!validate(stamp));
+        return snapshot;
+    }
+
+}
@@ -0,0 +1,33 @@
+package uk.co.epsilontechnologies.taximeter;
+
+import java.math.BigDecimal;
+
+/**
+ * <p>Interface for an Odometer that reports its progress, so that the taxi meter does not need to poll it.
+ *
+ * @author Shane Gibson
+ */
+public interface ObservableOdometer extends Odometer {
+
+    /**
+     * Registers the listener to notify whenever the distance travelled changes. Only one listener is supported.
+     *
+     * @param listener the listener to notify
+     */
+    void setDistanceListener(DistanceListener listener);
+
+    /**
+     * <p>Listener for the progress of an {@link ObservableOdometer}.
+     */
+    interface DistanceListener {
+
+        /**
+         * Invoked whenever the distance travelled changes. This may be invoked on any thread, and should return quickly.
+         *
+         * @param distance the current distance travelled since the odometer was last reset
+         */
+        void distanceChanged(BigDecimal distance);
+
+    }
+
+}
@@ -1,42 +1,157 @@
 package uk.co.epsilontechnologies.taximeter;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
+import uk.co.epsilontechnologies.taximeter.metrics.MeterMetrics;
+import uk.co.epsilontechnologies.taximeter.scheduler.ExecutorTickScheduler;
+import uk.co.epsilontechnologies.taximeter.scheduler.TickScheduler;
+
 import java.util.concurrent.TimeUnit;
 
 /**
- * <p>Wrapper of a Scheduled Executor Service to provide polling every tenth of a second for updating the taxi meter.
+ * <p>Wrapper of a Tick Scheduler to provide polling every tenth of a second for updating the taxi meter.
  *
  * <p>By polling every 1/10 of a second, the taxi meter will ensure accurate fares, since the rules of TfL's Tariffs
  * use time limits down to the tenth of a second. The shortest distance at which rates are incremented is 89.2 metres,
  * which equates to a window of 892 metres per second, or 3211 kilometres per hour - much faster than the standard
- * London Taxi. Therefore there should be no need to recursively or iteratively increment the fare in a single
- * calculation.
+ * London Taxi. Should a poll be late (e.g. due to a pause of the JVM), the meter catches up on every increment that fell
+ * due in the meantime.
+ *
+ * <p>By default, all pollers share a single-threaded Scheduled Executor Service. Fleets of meters should share a
+ * {@link uk.co.epsilontechnologies.taximeter.scheduler.HashedWheelTickScheduler} instead, which schedules and cancels
+ * ticks in constant time, and spreads the meters across its threads.
  *
  * @author Shane Gibson
  */
 public class Poller {
 
     /**
-     * The scheduler to use. A single thread is available, since there is no intention of the meter accepting concurrent fares.
+     * The interval between polls, in milliseconds.
+     */
+    public static final long TICK_INTERVAL_MILLIS = 100;
+
+    /**
+     * The scheduler to use.
+     */
+    private final TickScheduler scheduler;
+
+    /**
+     * The metrics to record the lag of polls in, or null if not recording metrics.
+     */
+    private final MeterMetrics metrics;
+
+    /**
+     * The scheduled tick for the current journey.
      */
-    private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(1);
+    private TickScheduler.ScheduledTick scheduledTick;
 
     /**
-     * The scheduled future for the current journey.
+     * The number of single polls scheduled, to decide which to sample the lag of.
      */
-    private ScheduledFuture<?> scheduledFuture;
+    private long schedules;
 
-    public void start(final Runnable runnable) {
-        this.scheduledFuture = SCHEDULER.scheduleAtFixedRate(runnable, 100, 100, TimeUnit.MILLISECONDS);
+    /**
+     * Constructs the poller with the shared scheduler.
+     */
+    public Poller() {
+        this(ExecutorTickScheduler.shared());
+    }
+
+    /**
+     * Constructs the poller with the given scheduler.
+     *
+     * @param scheduler the scheduler to use
+     */
+    public Poller(final TickScheduler scheduler) {
+        this(scheduler, null);
+    }
+
+    /**
+     * Constructs the poller with the given scheduler, recording the lag of a sample of its polls in the given metrics.
+     *
+     * @param scheduler the scheduler to use
+     * @param metrics the metrics to record the lag of polls in, or null to not record it
+     */
+    public Poller(final TickScheduler scheduler, final MeterMetrics metrics) {
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+    }
+
+    public synchronized void start(final Runnable runnable) {
+        this.scheduledTick = scheduler.scheduleAtFixedRate(
+                metrics == null ? runnable : new FixedRateLagSampler(runnable, metrics), TICK_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Schedules a single poll after the given delay, replacing any poll that is already scheduled - rescheduling it in
+     * place, if the scheduler allows, so that the polls of a journey stay on the same thread.
+     *
+     * @param runnable the poll to run
+     * @param delayInMillis the delay before the poll, in milliseconds
+     */
+    public synchronized void schedule(final Runnable runnable, final long delayInMillis) {
+        final Runnable poll = metrics != null && metrics.isSampled(schedules++) ? new LagSampler(runnable, metrics, delayInMillis) : runnable;
+        if (scheduledTick instanceof TickScheduler.ReschedulableTick
+                && ((TickScheduler.ReschedulableTick) scheduledTick).reschedule(poll, delayInMillis)) {
+            return;
+        }
+        if (scheduledTick != null) {
+            scheduledTick.cancel();
+        }
+        this.scheduledTick = scheduler.schedule(poll, delayInMillis);
     }
 
     /**
      * Stops / cancels the current poller or scheduler.
      */
-    public void stop() {
-        scheduledFuture.cancel(false);
+    public synchronized void stop() {
+        scheduledTick.cancel();
+    }
+
+    /**
+     * <p>Records the lag of a single poll.
+     */
+    private static final class LagSampler implements Runnable {
+
+        private final Runnable runnable;
+        private final MeterMetrics metrics;
+        private final long dueNanos;
+
+        private LagSampler(final Runnable runnable, final MeterMetrics metrics, final long delayInMillis) {
+            this.runnable = runnable;
+            this.metrics = metrics;
+            this.dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayInMillis);
+        }
+
+        @Override
+        public void run() {
+            metrics.recordPollLag(System.nanoTime() - dueNanos);
+            runnable.run();
+        }
+
+    }
+
+    /**
+     * <p>Records the lag of a sample of fixed-rate polls, against the time each was due.
+     */
+    private static final class FixedRateLagSampler implements Runnable {
+
+        private final Runnable runnable;
+        private final MeterMetrics metrics;
+        private final long startNanos = System.nanoTime();
+        private long polls;
+
+        private FixedRateLagSampler(final Runnable runnable, final MeterMetrics metrics) {
+            this.runnable = runnable;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void run() {
+            if (metrics.isSampled(++polls)) {
+                metrics.recordPollLag(System.nanoTime() - startNanos - TimeUnit.MILLISECONDS.toNanos(TICK_INTERVAL_MILLIS * polls));
+            }
+            runnable.run();
+        }
+
     }
 
-}
\ No newline at end of file
+}
@@ -1,15 +1,33 @@
 package uk.co.epsilontechnologies.taximeter;
 
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import uk.co.epsilontechnologies.taximeter.calculator.FareCalculator;
+import uk.co.epsilontechnologies.taximeter.calculator.FareEngine;
+import uk.co.epsilontechnologies.taximeter.calculator.FixedPointFareCalculator;
+import uk.co.epsilontechnologies.taximeter.calculator.NextIncrementCalculator;
+import uk.co.epsilontechnologies.taximeter.checkpoint.MeterCheckpoint;
+import uk.co.epsilontechnologies.taximeter.journal.JourneyJournal;
 import uk.co.epsilontechnologies.taximeter.model.Fare;
+import uk.co.epsilontechnologies.taximeter.model.FixedPointFare;
+import uk.co.epsilontechnologies.taximeter.model.MeterSnapshot;
+import uk.co.epsilontechnologies.taximeter.metrics.MeterMetrics;
+import uk.co.epsilontechnologies.taximeter.scheduler.ExecutorTickScheduler;
+import uk.co.epsilontechnologies.taximeter.scheduler.TickScheduler;
 import uk.co.epsilontechnologies.taximeter.tariff.*;
-import uk.co.epsilontechnologies.taximeter.utils.CalendarUtils;
 import uk.co.epsilontechnologies.taximeter.utils.Log;
+import uk.co.epsilontechnologies.taximeter.utils.TimeContext;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 import static uk.co.epsilontechnologies.taximeter.utils.CalendarUtils.*;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromMillimetres;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromMillis;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.measuredMillimetres;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.toMillis;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.toPence;
 
 /**
  * <p>API for a the meter of a TfL Taxi. This exposes the key features of a Taxi Journey's interaction with the Taxi Meter.
@@ -18,6 +36,11 @@ import static uk.co.epsilontechnologies.taximeter.utils.CalendarUtils.*;
  */
 public class TflTaxiMeter implements Runnable, TaxiMeter {
 
+    /**
+     * The standard tariff lookup, shared by every meter that is not given one.
+     */
+    private static final TariffLookup STANDARD_TARIFF_LOOKUP = compileStandardTariffLookup();
+
     /**
      * The poller that will be used to update the fare consistently during the journey.
      */
@@ -28,25 +51,98 @@ public class TflTaxiMeter implements Runnable, TaxiMeter {
      */
     private final FareCalculator fareCalculator;
 
+    /**
+     * The fixed-point calculator that will be used instead of the fare calculator, when the fixed-point engine is used.
+     */
+    private final FixedPointFareCalculator fixedPointFareCalculator;
+
     /**
      * The odometer that will be used to determine the distance travelled during the journey.
      */
     private final Odometer odometer;
 
+    /**
+     * How the meter decides when to update the fare.
+     */
+    private final TickMode tickMode;
+
+    /**
+     * The calculator that determines when the fare could next change, when the meter is event driven.
+     */
+    private final NextIncrementCalculator nextIncrementCalculator;
+
+    /**
+     * The tick (the number of tenths of a second into the journey) at which the fare is next to be updated, when the
+     * meter is event driven. Guarded by this meter.
+     */
+    private long scheduledTick = Long.MAX_VALUE;
+
+    /**
+     * The journey distance (in millimetres) beyond which the fare could change before the scheduled tick, when the
+     * meter is event driven.
+     */
+    private volatile long distanceTrigger = Long.MAX_VALUE;
+
     /**
      * The fare at any given point of the journey.
      */
-    protected Fare fare;
+    protected volatile Fare fare;
+
+    /**
+     * The fare at any given point of the journey, when the fixed-point engine is used.
+     */
+    protected final FixedPointFare fixedPointFare = new FixedPointFare();
+
+    /**
+     * The distance travelled before the odometer was last reset, in millimetres - non-zero for a journey resumed from a
+     * checkpoint.
+     */
+    private volatile long distanceOffset;
+
+    /**
+     * The state of the meter as at the latest tick, published for concurrent readers.
+     */
+    private final MeterSnapshotHolder snapshot = new MeterSnapshotHolder();
+
+    /**
+     * The number of ticks of the current journey. Only accessed whilst holding the meter's monitor.
+     */
+    private long tickSequence;
+
+    /**
+     * The metrics to record ticks and journeys in, or null if not recording metrics.
+     */
+    private MeterMetrics metrics;
+
+    /**
+     * The recorder of this meter's ticks, when recording metrics. Only accessed whilst holding the meter's monitor.
+     */
+    private MeterMetrics.TickRecorder tickRecorder;
+
+    /**
+     * The journal to record fare changes in, or null if not journalling.
+     */
+    private JourneyJournal journal;
+
+    /**
+     * The id of this meter in the journal.
+     */
+    private long meterId;
 
     /**
      * The start time fo the journey.
      */
-    protected DateTime startTime;
+    protected volatile DateTime startTime;
 
     /**
      * The end time fo the journey.
      */
-    protected DateTime endTime;
+    protected volatile DateTime endTime;
+
+    /**
+     * The monotonic time at which the journey started, in nanoseconds, from which the journey is timed.
+     */
+    private volatile long startNanos;
 
     /**
      * Our timepiece
@@ -54,38 +150,57 @@ public class TflTaxiMeter implements Runnable, TaxiMeter {
     protected Clock clock = new Clock();
 
     /**
-     * Constructs the Taxi Meter for the given Odometer, using the standard TariffLookup (with Tariff1, Tariff2 and
+     * Constructs the Taxi Meter for the given Odometer, using the standard CompiledTariffLookup (with Tariff1, Tariff2 and
      * Tariff3) and standard Poller.
      *
      * @param odometer the odometer to use
      */
     public TflTaxiMeter(final Odometer odometer) {
-        this(new Poller(), new FareCalculator(
-                new TariffLookup(
-                        new GenericTariff("2.40","254.6", "54.8", "17.20", "127.3", "27.4", "0.20", "89.2", "19.2", "0.20",
-                                new TariffTimeFilter() {
-                            @Override
-                            public boolean applies(DateTime dateTime) {
-                                return isWeekday(dateTime) && isBetweenHours(dateTime, 6, 20) && !CalendarUtils.isPublicHoliday(dateTime);
-                            }
-                        }),
-                        new GenericTariff("2.40","206.8", "44.4", "20.80", "103.4", "22.2", "0.20", "89.2", "19.2", "0.20",
-                                new TariffTimeFilter() {
-                                    @Override
-                                    public boolean applies(DateTime dateTime) {
-                                        return ((isWeekday(dateTime) && isBetweenHours(dateTime, 20, 22)) || (isWeekend(dateTime) && isBetweenHours(dateTime, 6, 22)))
-                                                && !CalendarUtils.isPublicHoliday(dateTime);
-                                    }
-                                }),
-                        new GenericTariff("2.40","166.8", "35.8", "25.20", "83.4", "17.9", "0.20", "89.2", "19.2", "0.20",
-                                new TariffTimeFilter() {
-                                    @Override
-                                    public boolean applies(DateTime dateTime) {
-                                        return dateTime.getHourOfDay() < 6 || dateTime.getHourOfDay() >= 22 || CalendarUtils.isPublicHoliday(dateTime);
-                                    }
-                                })
-                )),
-                odometer);
+        this(odometer, FareEngine.BIG_DECIMAL);
+    }
+
+    /**
+     * Constructs the Taxi Meter for the given Odometer and Fare Engine, using the standard CompiledTariffLookup (with Tariff1,
+     * Tariff2 and Tariff3) and standard Poller.
+     *
+     * @param odometer the odometer to use
+     * @param fareEngine the fare engine to use
+     */
+    public TflTaxiMeter(final Odometer odometer, final FareEngine fareEngine) {
+        this(new Poller(), standardTariffLookup(), fareEngine, odometer);
+    }
+
+    /**
+     * Constructs the Taxi Meter from the given builder.
+     *
+     * @param builder the builder
+     */
+    protected TflTaxiMeter(final Builder builder) {
+        this(builder.poller != null
+                        ? builder.poller
+                        : new Poller(builder.tickScheduler != null ? builder.tickScheduler : ExecutorTickScheduler.shared(), builder.metrics),
+                builder.tariffLookup != null ? builder.tariffLookup : standardTariffLookup(),
+                builder.fareEngine,
+                builder.odometer,
+                builder.tickMode);
+        if (builder.clock != null) {
+            this.clock = builder.clock;
+        }
+        this.metrics = builder.metrics;
+        this.tickRecorder = metrics != null ? metrics.newTickRecorder() : null;
+        this.journal = builder.journal;
+        this.meterId = builder.meterId;
+    }
+
+    /**
+     * Creates a builder for a Taxi Meter for the given Odometer. Unless configured otherwise, the meter uses the
+     * standard CompiledTariffLookup (with Tariff1, Tariff2 and Tariff3), the decimal fare engine and a standard Poller.
+     *
+     * @param odometer the odometer to use
+     * @return the builder
+     */
+    public static Builder builder(final Odometer odometer) {
+        return new Builder(odometer);
     }
 
     /**
@@ -96,9 +211,158 @@ public class TflTaxiMeter implements Runnable, TaxiMeter {
      * @param odometer the odometer to use
      */
     protected TflTaxiMeter(final Poller poller, final FareCalculator fareCalculator, final Odometer odometer) {
+        this(poller, fareCalculator, null, odometer);
+    }
+
+    /**
+     * Constructs the Taxi Meter for the given Poller, Tariff Lookup, Fare Engine and Odometer.
+     *
+     * @param poller the poller to use
+     * @param tariffLookup the tariff lookup to calculate the fare with
+     * @param fareEngine the fare engine to use
+     * @param odometer the odometer to use
+     */
+    protected TflTaxiMeter(final Poller poller, final TariffLookup tariffLookup, final FareEngine fareEngine, final Odometer odometer) {
+        this(poller, tariffLookup, fareEngine, odometer, TickMode.POLLING);
+    }
+
+    /**
+     * Constructs the Taxi Meter for the given Poller, Tariff Lookup, Fare Engine, Odometer and Tick Mode.
+     *
+     * @param poller the poller to use
+     * @param tariffLookup the tariff lookup to calculate the fare with
+     * @param fareEngine the fare engine to use
+     * @param odometer the odometer to use
+     * @param tickMode how to decide when to update the fare
+     */
+    protected TflTaxiMeter(
+            final Poller poller,
+            final TariffLookup tariffLookup,
+            final FareEngine fareEngine,
+            final Odometer odometer,
+            final TickMode tickMode) {
+        this(poller, fareEngine, new CachedTariffLookup(tariffLookup), odometer, tickMode);
+    }
+
+    /**
+     * Constructs the Taxi Meter for the given Poller, Fare Engine, Odometer and Tick Mode, with calculators that share
+     * the given cache of the tariff - so that the tariff is only looked up again when it could have changed, rather
+     * than at every tick.
+     */
+    private TflTaxiMeter(
+            final Poller poller,
+            final FareEngine fareEngine,
+            final CachedTariffLookup tariffLookup,
+            final Odometer odometer,
+            final TickMode tickMode) {
+        this(poller,
+                new FareCalculator(tariffLookup),
+                fareEngine == FareEngine.FIXED_POINT ? new FixedPointFareCalculator(tariffLookup) : null,
+                odometer,
+                tickMode);
+    }
+
+    /**
+     * Constructs the Taxi Meter for the given Poller, Fare Calculators and Odometer.
+     *
+     * @param poller the poller to use
+     * @param fareCalculator the fare calculator to use
+     * @param fixedPointFareCalculator the fixed-point fare calculator to use, or null to use the fare calculator
+     * @param odometer the odometer to use
+     */
+    protected TflTaxiMeter(
+            final Poller poller,
+            final FareCalculator fareCalculator,
+            final FixedPointFareCalculator fixedPointFareCalculator,
+            final Odometer odometer) {
+        this(poller, fareCalculator, fixedPointFareCalculator, odometer, TickMode.POLLING);
+    }
+
+    /**
+     * Constructs the Taxi Meter for the given Poller, Fare Calculators, Odometer and Tick Mode.
+     *
+     * @param poller the poller to use
+     * @param fareCalculator the fare calculator to use
+     * @param fixedPointFareCalculator the fixed-point fare calculator to use, or null to use the fare calculator
+     * @param odometer the odometer to use, which must be an ObservableOdometer if the meter is event driven
+     * @param tickMode how to decide when to update the fare
+     * @throws IllegalArgumentException the meter is event driven, but the odometer is not observable
+     */
+    protected TflTaxiMeter(
+            final Poller poller,
+            final FareCalculator fareCalculator,
+            final FixedPointFareCalculator fixedPointFareCalculator,
+            final Odometer odometer,
+            final TickMode tickMode) {
         this.poller = poller;
         this.fareCalculator = fareCalculator;
+        this.fixedPointFareCalculator = fixedPointFareCalculator;
         this.odometer = odometer;
+        this.tickMode = tickMode;
+        if (tickMode == TickMode.EVENT_DRIVEN) {
+            if (!(odometer instanceof ObservableOdometer)) {
+                throw new IllegalArgumentException("An event driven meter requires an ObservableOdometer");
+            }
+            this.nextIncrementCalculator = new NextIncrementCalculator(fareCalculator.getTariffLookup());
+            ((ObservableOdometer) odometer).setDistanceListener(new ObservableOdometer.DistanceListener() {
+                @Override
+                public void distanceChanged(final BigDecimal distance) {
+                    if (measuredMillimetres(distance) + distanceOffset > distanceTrigger) {
+                        bringTickForward();
+                    }
+                }
+            });
+        } else {
+            this.nextIncrementCalculator = null;
+        }
+    }
+
+    /**
+     * Retrieves the standard CompiledTariffLookup, with Tariff1, Tariff2 and Tariff3. Its table is immutable, so it is
+     * compiled once and shared by every meter, rather than compiled again for each.
+     *
+     * @return the tariff lookup
+     */
+    public static TariffLookup standardTariffLookup() {
+        return STANDARD_TARIFF_LOOKUP;
+    }
+
+    private static TariffLookup compileStandardTariffLookup() {
+        return new CompiledTariffLookup(
+                GenericTariff.builder()
+                        .flagFall("2.40", "254.6", "54.8")
+                        .highLowFareBoundary("17.20")
+                        .lowFare("127.3", "27.4", "0.20")
+                        .highFare("89.2", "19.2", "0.20")
+                        .timeFilter(new TimeContextFilter() {
+                            @Override
+                            public boolean applies(TimeContext context) {
+                                return isWeekday(context) && isBetweenHours(context, 6, 20) && !context.isPublicHoliday();
+                            }
+                        }).build(),
+                GenericTariff.builder()
+                        .flagFall("2.40", "206.8", "44.4")
+                        .highLowFareBoundary("20.80")
+                        .lowFare("103.4", "22.2", "0.20")
+                        .highFare("89.2", "19.2", "0.20")
+                        .timeFilter(new TimeContextFilter() {
+                            @Override
+                            public boolean applies(TimeContext context) {
+                                return ((isWeekday(context) && isBetweenHours(context, 20, 22)) || (isWeekend(context) && isBetweenHours(context, 6, 22)))
+                                        && !context.isPublicHoliday();
+                            }
+                        }).build(),
+                GenericTariff.builder()
+                        .flagFall("2.40", "166.8", "35.8")
+                        .highLowFareBoundary("25.20")
+                        .lowFare("83.4", "17.9", "0.20")
+                        .highFare("89.2", "19.2", "0.20")
+                        .timeFilter(new TimeContextFilter() {
+                            @Override
+                            public boolean applies(TimeContext context) {
+                                return context.getHourOfDay() < 6 || context.getHourOfDay() >= 22 || context.isPublicHoliday();
+                            }
+                        }).build());
     }
 
     /**
@@ -110,12 +374,115 @@ public class TflTaxiMeter implements Runnable, TaxiMeter {
             throw new IllegalStateException("Journey already in progress");
         }
         this.odometer.reset();
+        this.distanceOffset = 0;
+        this.startNanos = clock.nanoTime();
         this.startTime = clock.getNow();
-        this.poller.start(this);
-        this.fare = fareCalculator.getFlagFall(startTime);
+        if (metrics != null) {
+            metrics.journeyStarted();
+        }
+        synchronized (this) {
+            calculateFlagFall();
+            if (tickMode == TickMode.EVENT_DRIVEN) {
+                this.scheduledTick = Long.MAX_VALUE;
+                scheduleNextTick(0, 0);
+            }
+        }
+        if (tickMode == TickMode.POLLING) {
+            this.poller.start(this);
+        }
     }
 
     /**
+     * <p>Resumes a journey from the given checkpoint - e.g. after the meter's host has restarted - rather than starting
+     * it afresh from the flag fall.
+     *
+     * <p>The fare, including the distance and duration it accounts for, is restored exactly. The journey is timed as if
+     * the meter had kept running since the checkpoint, whereas the distance travelled since the checkpoint is unknown:
+     * the odometer is reset, and its distance is added to that of the checkpoint.
+     *
+     * @param checkpoint the checkpoint of the journey
+     * @throws IllegalStateException a journey is already in progress
+     */
+    public void resumeJourney(final MeterCheckpoint checkpoint) {
+        if (startTime != null || endTime != null) {
+            throw new IllegalStateException("Journey already in progress");
+        }
+        this.odometer.reset();
+        this.distanceOffset = checkpoint.getDistance();
+        final long journeyDuration = checkpoint.getDuration() + Math.max(0, clock.currentTimeMillis() - checkpoint.getCheckpointTime());
+        this.startNanos = clock.nanoTime() - journeyDuration * 1000000;
+        this.startTime = new DateTime(checkpoint.getStartTime(), checkpoint.getZone());
+        if (metrics != null) {
+            metrics.journeyStarted();
+        }
+        synchronized (this) {
+            restoreFare(checkpoint, journeyDuration);
+            if (tickMode == TickMode.EVENT_DRIVEN) {
+                this.scheduledTick = Long.MAX_VALUE;
+                scheduleNextTick(journeyDuration, checkpoint.getDistance());
+            }
+        }
+        if (tickMode == TickMode.POLLING) {
+            this.poller.start(this);
+        }
+    }
+
+    /**
+     * Captures a checkpoint of the journey in progress, from which it can be resumed. Safe to call from any thread
+     * whilst the meter is ticking: the checkpoint is taken under the meter's monitor, which every tick holds, so the fare
+     * it captures is that of the same tick as its distance and sequence.
+     *
+     * @param meterId the id by which to identify the meter on recovery
+     * @return the checkpoint, or null if no journey is in progress
+     */
+    public synchronized MeterCheckpoint checkpoint(final long meterId) {
+        final MeterSnapshot snapshot = this.snapshot.toSnapshot();
+        if (startTime == null || endTime != null || snapshot == null) {
+            return null;
+        }
+        return new MeterCheckpoint(
+                meterId,
+                startTime.getMillis(),
+                startTime.getZone(),
+                clock.currentTimeMillis(),
+                journeyDurationMillis(),
+                snapshot.getDistance(),
+                snapshot.getSequence(),
+                fixedPointFareCalculator != null ? fixedPointFare.toFare() : fare);
+    }
+
+    private void restoreFare(final MeterCheckpoint checkpoint, final long journeyDuration) {
+        this.tickSequence = checkpoint.getSequence();
+        final long now = clock.currentTimeMillis();
+        // no fare is calculated on resuming, so the tariff is looked up
+        final int band = fareCalculator.getTariffLookup().lookupBand(now, startTime.getZone());
+        if (fixedPointFareCalculator != null) {
+            fixedPointFare.set(checkpoint.getFare());
+            publishSnapshot(fixedPointFare.getAmount(), checkpoint.getDistance(), journeyDuration, band);
+        } else {
+            this.fare = checkpoint.getFare();
+            publishSnapshot(toPence(fare.getAmount()), checkpoint.getDistance(), journeyDuration, band);
+        }
+    }
+
+    private void calculateFlagFall() {
+        this.tickSequence = 0;
+        if (fixedPointFareCalculator != null) {
+            fixedPointFareCalculator.getFlagFall(startTime, fixedPointFare);
+            publishSnapshot(fixedPointFare.getAmount(), 0, 0, calculatedBand(startTime.getMillis(), startTime.getZone()));
+        } else {
+            this.fare = fareCalculator.getFlagFall(startTime);
+            publishSnapshot(toPence(fare.getAmount()), 0, 0, calculatedBand(startTime.getMillis(), startTime.getZone()));
+        }
+        if (journal != null) {
+            appendToJournal(startTime.getMillis());
+        }
+    }
+
+    /**
+     * <p>A tick that is part way through when the journey ends is waited for, and any tick still to come is skipped, so
+     * the fare is final once the journey has ended.
+     *
      * @see TaxiMeter#endJourney()
      */
     @Override
@@ -123,7 +490,18 @@ public class TflTaxiMeter implements Runnable, TaxiMeter {
         if (startTime == null || endTime != null) {
             throw new IllegalStateException("Journey not in progress");
         }
+        synchronized (this) {
+            this.endTime = clock.getNow();
+            this.distanceTrigger = Long.MAX_VALUE;
+            if (tickRecorder != null) {
+                // the journey's last ticks may not have been flushed, being since the latest sampled tick
+                tickRecorder.flush();
+            }
+        }
         this.poller.stop();
+        if (metrics != null) {
+            metrics.journeyEnded();
+        }
     }
 
     /**
@@ -134,9 +512,13 @@ public class TflTaxiMeter implements Runnable, TaxiMeter {
         if (startTime != null && endTime == null) {
             throw new IllegalStateException("Journey still in progress");
         }
-        this.endTime = null;
-        this.startTime = null;
-        this.fare = null;
+        synchronized (this) {
+            this.endTime = null;
+            this.startTime = null;
+            this.fare = null;
+            this.snapshot.clear();
+            this.distanceOffset = 0;
+        }
         this.odometer.reset();
     }
 
@@ -145,6 +527,9 @@ public class TflTaxiMeter implements Runnable, TaxiMeter {
      */
     @Override
     public BigDecimal getFare() {
+        if (fixedPointFareCalculator != null) {
+            return snapshot.getFareAmount();
+        }
         if (fare != null) {
             return fare.getAmount();
         }
@@ -152,23 +537,196 @@ public class TflTaxiMeter implements Runnable, TaxiMeter {
     }
 
     /**
-     * Updates the fare according to the current time and / or distance.
+     * Retrieves the state of the meter as at its latest tick. This never blocks, so is safe to call from any thread, as
+     * often as needed - e.g. by a display or dispatch system.
+     *
+     * @return a copy of the latest snapshot, or null if no journey has been started since the meter was reset
+     */
+    public MeterSnapshot getSnapshot() {
+        return snapshot.toSnapshot();
+    }
+
+    /**
+     * Retrieves the holder in which the meter publishes its state at every tick, to read from any thread without
+     * locking or allocating.
+     *
+     * @return the holder of the meter's state
+     */
+    public MeterSnapshotHolder getSnapshotHolder() {
+        return snapshot;
+    }
+
+    /**
+     * Updates the fare according to the current time and / or distance. The tick holds the meter's monitor, so that
+     * ending or resetting the journey waits for it, rather than clearing the state it is publishing.
      */
     @Override
     public void run() {
         try {
-            final DateTime now = clock.getNow();
-            BigDecimal duration = getDuration(now);
-            BigDecimal distance = getDistance();
-            this.fare = fareCalculator.calculateFare(fare, duration, distance, now);
-//            Log.info(this.toString()+":Recalculating fare: "+fare.getAmount()+", elapsed seconds:"+duration+", distance:"+distance);
+            synchronized (this) {
+                // the journey may have ended while this tick was pending
+                if (startTime != null && endTime == null) {
+                    tick();
+                }
+            }
         } catch (Exception e) {
             Log.exception(e);
         }
     }
 
+    private void tick() {
+        if (metrics == null) {
+            calculate();
+        } else if (metrics.isSampled(tickSequence)) {
+            final long startNanos = System.nanoTime();
+            final boolean incremented = calculate();
+            metrics.recordTickDuration(System.nanoTime() - startNanos);
+            tickRecorder.record(snapshot.getBand(), incremented);
+            tickRecorder.flush();
+        } else {
+            final boolean incremented = calculate();
+            tickRecorder.record(snapshot.getBand(), incremented);
+        }
+    }
+
+    /**
+     * Recalculates the fare, and publishes the snapshot.
+     *
+     * @return true if the fare was incremented, otherwise false
+     */
+    private boolean calculate() {
+        final long now = clock.currentTimeMillis();
+        final long journeyDuration = journeyDurationMillis();
+        final DateTimeZone zone = startTime.getZone();
+        final boolean incremented;
+        final BigDecimal reading = getDistance();
+        // the fixed-point engine is given, and the snapshot holds, the reading measured to the millimetre
+        final long journeyDistance = measuredMillimetres(reading);
+        if (fixedPointFareCalculator != null) {
+            incremented = fixedPointFareCalculator.catchUpFare(fixedPointFare, journeyDuration, journeyDistance, now, zone) > 0;
+            publishSnapshot(fixedPointFare.getAmount(), journeyDistance, journeyDuration, calculatedBand(now, zone));
+        } else {
+            BigDecimal duration = fromMillis(journeyDuration);
+            final Fare previousFare = fare;
+            this.fare = fareCalculator.catchUpFare(previousFare, duration, reading, now, zone);
+//            Log.info(this.toString()+":Recalculating fare: "+fare.getAmount()+", elapsed seconds:"+duration+", distance:"+reading);
+            incremented = fare != previousFare;
+            publishSnapshot(toPence(fare.getAmount()), journeyDistance, journeyDuration, calculatedBand(now, zone));
+        }
+        if (incremented && journal != null) {
+            appendToJournal(now);
+        }
+        if (tickMode == TickMode.EVENT_DRIVEN) {
+            scheduleNextTick(journeyDuration, journeyDistance);
+        }
+        return incremented;
+    }
+
+    /**
+     * Records the fare change of the latest snapshot in the journal. A failure to journal is logged, rather than
+     * stopping the meter.
+     */
+    private void appendToJournal(final long now) {
+        // only the thread that publishes the snapshot journals it, so reads it as published
+        try {
+            journal.append(meterId, snapshot.getSequence(), now,
+                    snapshot.getDistance(), snapshot.getDuration(), snapshot.getFare(), snapshot.getBand());
+        } catch (final IOException e) {
+            Log.exception(e);
+        }
+    }
+
+    /**
+     * Publishes the state of the meter into the preallocated snapshot holder, so that readers see the fare, distance
+     * and duration of the same tick without locking - and the tick allocates nothing to publish them.
+     */
+    private void publishSnapshot(final long amount, final long journeyDistance, final long journeyDuration, final int band) {
+        snapshot.publish(amount, journeyDistance, journeyDuration, band, tickSequence++);
+    }
+
+    /**
+     * The band of the tariff that the fare was just calculated with, at the given time - as resolved by the calculation,
+     * where its tariff lookup is cached, rather than looked up a second time.
+     */
+    private int calculatedBand(final long now, final DateTimeZone zone) {
+        final TariffLookup tariffLookup = fixedPointFareCalculator != null
+                ? fixedPointFareCalculator.getTariffLookup()
+                : fareCalculator.getTariffLookup();
+        if (tariffLookup instanceof CachedTariffLookup) {
+            final int band = ((CachedTariffLookup) tariffLookup).getLatestBand();
+            if (band >= 0) {
+                return band;
+            }
+        }
+        return tariffLookup.lookupBand(now, zone);
+    }
+
+    /**
+     * Schedules the next tick at which the fare could change, assuming the taxi travels no further, and sets the
+     * distance beyond which the tick must be brought forward. Ticks stay on the same tenth-of-a-second grid as polling
+     * does, so that the fare is always calculated at the same points in the journey as it would have been when polling.
+     *
+     * @param journeyDuration the duration of the journey so far, in milliseconds
+     * @param journeyDistance the distance of the journey so far, in millimetres
+     */
+    private void scheduleNextTick(final long journeyDuration, final long journeyDistance) {
+        final long durationAccountedFor;
+        final long distanceAccountedFor;
+        if (fixedPointFareCalculator != null) {
+            durationAccountedFor = fixedPointFare.getJourneyDurationAccountedFor();
+            distanceAccountedFor = fixedPointFare.getJourneyDistanceAccountedFor();
+        } else {
+            durationAccountedFor = toMillis(fare.getJourneyDurationAccountedFor());
+            // the distance accounted for may be finer than a millimetre, so err on the side of an early tick
+            distanceAccountedFor = fare.getJourneyDistanceAccountedFor().movePointRight(3).setScale(0, RoundingMode.FLOOR).longValue();
+        }
+        final long journeyStart = startTime.getMillis();
+        final DateTimeZone zone = startTime.getZone();
+        final long due = nextIncrementCalculator.nextIncrementDuration(
+                journeyStart, zone, journeyDuration, journeyDistance, durationAccountedFor, distanceAccountedFor);
+        // a tick runs (however slightly) after its tenth of a second, so a poll in the tenth of a second the fare is
+        // due in may already see the journey past the duration it is due after - tick then, as polling would, and if
+        // the tick ran too soon after its tenth of a second the fare is not yet due and the tick moves on to the next
+        final long nextTick = Math.max(
+                journeyDuration / Poller.TICK_INTERVAL_MILLIS + 1,
+                due < 0 ? 0 : due / Poller.TICK_INTERVAL_MILLIS);
+        this.distanceTrigger = nextIncrementCalculator.nextIncrementDistance(
+                journeyStart + journeyDuration, zone, journeyDistance, distanceAccountedFor);
+        scheduleTick(nextTick, journeyDuration);
+    }
+
+    /**
+     * Brings the next tick forward to the next tenth of a second, since the odometer has passed the distance trigger.
+     */
+    private synchronized void bringTickForward() {
+        if (startTime == null || endTime != null) {
+            return;
+        }
+        final long journeyDuration = journeyDurationMillis();
+        final long nextTick = journeyDuration / Poller.TICK_INTERVAL_MILLIS + 1;
+        this.distanceTrigger = Long.MAX_VALUE;
+        if (nextTick < scheduledTick) {
+            scheduleTick(nextTick, journeyDuration);
+        }
+    }
+
+    private void scheduleTick(final long tick, final long journeyDuration) {
+        this.scheduledTick = tick;
+        this.poller.schedule(this, tick * Poller.TICK_INTERVAL_MILLIS - journeyDuration);
+    }
+
+    /**
+     * The duration of the journey so far, measured on the monotonic clock - so a step in the wall clock does not change
+     * it.
+     *
+     * @return the duration, in milliseconds
+     */
+    private long journeyDurationMillis() {
+        return (clock.nanoTime() - startNanos) / 1000000;
+    }
+
     public BigDecimal getDuration() {
-        return getDuration(clock.getNow());
+        return fromMillis(journeyDurationMillis());
     }
 
     public BigDecimal getDuration(DateTime now) {
@@ -176,7 +734,108 @@ public class TflTaxiMeter implements Runnable, TaxiMeter {
     }
 
     public BigDecimal getDistance() {
-        return odometer.getDistance();
+        final long distanceOffset = this.distanceOffset;
+        return distanceOffset == 0 ? odometer.getDistance() : odometer.getDistance().add(fromMillimetres(distanceOffset));
+    }
+
+    /**
+     * <p>Builder for a {@link TflTaxiMeter}.
+     */
+    public static class Builder {
+
+        private final Odometer odometer;
+        private TariffLookup tariffLookup;
+        private FareEngine fareEngine = FareEngine.BIG_DECIMAL;
+        private TickMode tickMode = TickMode.POLLING;
+        private Poller poller;
+        private TickScheduler tickScheduler;
+        private Clock clock;
+        private MeterMetrics metrics;
+        private JourneyJournal journal;
+        private long meterId;
+
+        private Builder(final Odometer odometer) {
+            this.odometer = odometer;
+        }
+
+        /**
+         * Sets the tariff lookup to calculate the fare with.
+         */
+        public Builder tariffLookup(final TariffLookup tariffLookup) {
+            this.tariffLookup = tariffLookup;
+            return this;
+        }
+
+        /**
+         * Sets the fare engine to use.
+         */
+        public Builder fareEngine(final FareEngine fareEngine) {
+            this.fareEngine = fareEngine;
+            return this;
+        }
+
+        /**
+         * Sets how the meter decides when to update the fare.
+         */
+        public Builder tickMode(final TickMode tickMode) {
+            this.tickMode = tickMode;
+            return this;
+        }
+
+        /**
+         * Sets the poller to use.
+         */
+        public Builder poller(final Poller poller) {
+            this.poller = poller;
+            return this;
+        }
+
+        /**
+         * Sets the tick scheduler of the standard poller - e.g. a
+         * {@link uk.co.epsilontechnologies.taximeter.scheduler.ThreadPerJourneyTickScheduler}, to run each journey on
+         * a (virtual) thread of its own. Ignored if a poller is set.
+         */
+        public Builder tickScheduler(final TickScheduler tickScheduler) {
+            this.tickScheduler = tickScheduler;
+            return this;
+        }
+
+        /**
+         * Sets the metrics to record ticks and journeys in. Unless a poller is also set, the standard poller records
+         * its lag in them too.
+         */
+        public Builder metrics(final MeterMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Sets the journal to record every fare change in, identifying the meter's records by the given id.
+         */
+        public Builder journal(final JourneyJournal journal, final long meterId) {
+            this.journal = journal;
+            this.meterId = meterId;
+            return this;
+        }
+
+        /**
+         * Sets the clock to tell the time from.
+         */
+        public Builder clock(final Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Builds the meter.
+         *
+         * @return the meter
+         * @throws IllegalArgumentException the meter is event driven, but the odometer is not observable
+         */
+        public TflTaxiMeter build() {
+            return new TflTaxiMeter(this);
+        }
+
     }
 
-}
\ No newline at end of file
+}
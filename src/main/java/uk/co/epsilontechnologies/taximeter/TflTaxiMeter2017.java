@@ -1,11 +1,11 @@
 package uk.co.epsilontechnologies.taximeter;
 
-import org.joda.time.DateTime;
-import uk.co.epsilontechnologies.taximeter.calculator.FareCalculator;
+import uk.co.epsilontechnologies.taximeter.calculator.FareEngine;
+import uk.co.epsilontechnologies.taximeter.tariff.CompiledTariffLookup;
 import uk.co.epsilontechnologies.taximeter.tariff.GenericTariff;
 import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
-import uk.co.epsilontechnologies.taximeter.tariff.TariffTimeFilter;
-import uk.co.epsilontechnologies.taximeter.utils.CalendarUtils;
+import uk.co.epsilontechnologies.taximeter.tariff.TimeContextFilter;
+import uk.co.epsilontechnologies.taximeter.utils.TimeContext;
 
 import java.math.BigDecimal;
 
@@ -18,45 +18,87 @@ import static uk.co.epsilontechnologies.taximeter.utils.CalendarUtils.*;
  */
 public class TflTaxiMeter2017 extends TflTaxiMeter {
 
+    /**
+     * The 2017 tariff lookup, shared by every meter.
+     */
+    private static final TariffLookup TARIFF_LOOKUP_2017 = compileTariffLookup2017();
+
     public TflTaxiMeter2017(Odometer odometer, Clock overrideClock) {
-        this(odometer);
+        this(odometer, overrideClock, FareEngine.BIG_DECIMAL);
+    }
+
+    public TflTaxiMeter2017(Odometer odometer, Clock overrideClock, FareEngine fareEngine) {
+        this(odometer, fareEngine);
         this.clock = overrideClock;
     }
 
     /**
-     * Constructs the Taxi Meter for the given Odometer, using the standard TariffLookup (with Tariff1, Tariff2 and
+     * Constructs the Taxi Meter for the given Odometer, using the standard CompiledTariffLookup (with Tariff1, Tariff2 and
      * Tariff3) and standard Poller.
      *
      * @param odometer the odometer to use
      */
     public TflTaxiMeter2017(final Odometer odometer) {
-        super(new Poller(), new FareCalculator(
-                new TariffLookup(
-                        new GenericTariff("2.60","234.8", "50.4", "17.20", "117.4", "25.2", "0.20", "86.9", "18.7", "0.20",
-                                new TariffTimeFilter() {
-                                    @Override
-                                    public boolean applies(DateTime dateTime) {
-                                        return isWeekday(dateTime) && isBetweenHours(dateTime, 5, 20) && !CalendarUtils.isPublicHoliday(dateTime);
-                                    }
-                                }),
-                        new GenericTariff("2.60","191.0", "41.0", "20.80", "95.5", "20.5", "0.20", "86.9", "18.7", "0.20",
-                                new TariffTimeFilter() {
-                                    @Override
-                                    public boolean applies(DateTime dateTime) {
-                                        return ((isWeekday(dateTime) && isBetweenHours(dateTime, 20, 22)) || (isWeekend(dateTime) && isBetweenHours(dateTime, 5, 22)))
-                                                && !CalendarUtils.isPublicHoliday(dateTime);
-                                    }
-                                }),
-                        new GenericTariff("2.60","162.4", "35.0", "25.20", "81.2", "17.5", "0.20", "86.9", "18.7", "0.20",
-                                new TariffTimeFilter() {
-                                    @Override
-                                    public boolean applies(DateTime dateTime) {
-                                        return dateTime.getHourOfDay() < 5 || dateTime.getHourOfDay() >= 22 || CalendarUtils.isPublicHoliday(dateTime);
-                                    }
-                                })
-                )),
-                odometer);
+        this(odometer, FareEngine.BIG_DECIMAL);
     }
 
+    /**
+     * Constructs the Taxi Meter for the given Odometer and Fare Engine, using the standard CompiledTariffLookup (with Tariff1,
+     * Tariff2 and Tariff3) and standard Poller.
+     *
+     * @param odometer the odometer to use
+     * @param fareEngine the fare engine to use
+     */
+    public TflTaxiMeter2017(final Odometer odometer, final FareEngine fareEngine) {
+        super(new Poller(), tariffLookup2017(), fareEngine, odometer);
+    }
+
+    /**
+     * Retrieves the standard CompiledTariffLookup for the 2017 tariffs, with Tariff1, Tariff2 and Tariff3. Its table is
+     * immutable, so it is compiled once and shared by every meter.
+     *
+     * @return the tariff lookup
+     */
+    public static TariffLookup tariffLookup2017() {
+        return TARIFF_LOOKUP_2017;
+    }
+
+    private static TariffLookup compileTariffLookup2017() {
+        return new CompiledTariffLookup(
+                GenericTariff.builder()
+                        .flagFall("2.60", "234.8", "50.4")
+                        .highLowFareBoundary("17.20")
+                        .lowFare("117.4", "25.2", "0.20")
+                        .highFare("86.9", "18.7", "0.20")
+                        .timeFilter(new TimeContextFilter() {
+                            @Override
+                            public boolean applies(TimeContext context) {
+                                return isWeekday(context) && isBetweenHours(context, 5, 20) && !context.isPublicHoliday();
+                            }
+                        }).build(),
+                GenericTariff.builder()
+                        .flagFall("2.60", "191.0", "41.0")
+                        .highLowFareBoundary("20.80")
+                        .lowFare("95.5", "20.5", "0.20")
+                        .highFare("86.9", "18.7", "0.20")
+                        .timeFilter(new TimeContextFilter() {
+                            @Override
+                            public boolean applies(TimeContext context) {
+                                return ((isWeekday(context) && isBetweenHours(context, 20, 22)) || (isWeekend(context) && isBetweenHours(context, 5, 22)))
+                                        && !context.isPublicHoliday();
+                            }
+                        }).build(),
+                GenericTariff.builder()
+                        .flagFall("2.60", "162.4", "35.0")
+                        .highLowFareBoundary("25.20")
+                        .lowFare("81.2", "17.5", "0.20")
+                        .highFare("86.9", "18.7", "0.20")
+                        .timeFilter(new TimeContextFilter() {
+                            @Override
+                            public boolean applies(TimeContext context) {
+                                return context.getHourOfDay() < 5 || context.getHourOfDay() >= 22 || context.isPublicHoliday();
+                            }
+                        }).build());
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package uk.co.epsilontechnologies.taximeter;
+
+/**
+ * <p>How a taxi meter decides when to update its fare.
+ *
+ * @author Shane Gibson
+ */
+public enum TickMode {
+
+    /**
+     * The fare is updated every tenth of a second, for the duration of the journey.
+     */
+    POLLING,
+
+    /**
+     * The fare is updated only on the tenths of a second at which it could change - when the time accounted for runs
+     * out, the tariff changes, or the odometer reports that the distance accounted for has been travelled. This bills
+     * identically to polling, but a stationary taxi is woken once per increment rather than ten times a second. It
+     * requires an {@link ObservableOdometer}.
+     */
+    EVENT_DRIVEN
+
+}
@@ -0,0 +1,208 @@
+package uk.co.epsilontechnologies.taximeter.audit;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromMillimetres;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromPence;
+
+/**
+ * <p>Audits a stream of recorded trips in bulk, writing out those whose recorded fare is wrong.
+ *
+ * <p>Trips are read in batches by a single thread and re-priced in parallel on a fork-join pool. Only a bounded number
+ * of batches are in flight at once, so memory use does not grow with the size of the file, and the discrepancies are
+ * written in the order in which the trips were read.
+ *
+ * <p>The discrepancies are written as comma-separated values:
+ * <pre>
+ *   vehicle,start,end,distance,recordedFare,expectedFare
+ * </pre>
+ *
+ * @author Shane Gibson
+ */
+public class BulkTripAuditor {
+
+    /**
+     * The default number of trips re-priced by each fork-join task.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /**
+     * The header line of the discrepancies written.
+     */
+    public static final String HEADER = "vehicle,start,end,distance,recordedFare,expectedFare";
+
+    private final TripAuditor tripAuditor;
+    private final ForkJoinPool pool;
+    private final int batchSize;
+    private final DateTimeZone zone;
+
+    /**
+     * Constructs the bulk auditor for the given trip auditor, using the given pool and the default batch size.
+     *
+     * @param tripAuditor the trip auditor to re-price trips with
+     * @param pool the pool to re-price trips on
+     * @param zone the zone in which to write the times of the trips
+     */
+    public BulkTripAuditor(final TripAuditor tripAuditor, final ForkJoinPool pool, final DateTimeZone zone) {
+        this(tripAuditor, pool, zone, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs the bulk auditor for the given trip auditor.
+     *
+     * @param tripAuditor the trip auditor to re-price trips with
+     * @param pool the pool to re-price trips on
+     * @param zone the zone in which to write the times of the trips
+     * @param batchSize the number of trips re-priced by each fork-join task
+     */
+    public BulkTripAuditor(final TripAuditor tripAuditor, final ForkJoinPool pool, final DateTimeZone zone, final int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: "+batchSize);
+        }
+        this.tripAuditor = tripAuditor;
+        this.pool = pool;
+        this.zone = zone;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Audits all the trips from the given reader, writing the discrepancies to the given writer.
+     *
+     * @param trips the trips to audit
+     * @param discrepancies where to write the discrepancies
+     * @return the summary of the audit
+     * @throws IOException failed to read the trips or write the discrepancies
+     */
+    public Summary audit(final TripSampleReader trips, final Writer discrepancies) throws IOException {
+        final int maxInFlight = pool.getParallelism() * 4;
+        final Deque<ForkJoinTask<List<Discrepancy>>> inFlight = new ArrayDeque<>(maxInFlight);
+        final Summary summary = new Summary();
+        discrepancies.write(HEADER);
+        discrepancies.write('\n');
+        List<Trip> batch = new ArrayList<>(batchSize);
+        Trip trip;
+        while ((trip = trips.next()) != null) {
+            summary.trips++;
+            summary.samples += trip.getSampleCount();
+            batch.add(trip);
+            if (batch.size() == batchSize) {
+                if (inFlight.size() == maxInFlight) {
+                    write(inFlight.removeFirst().join(), discrepancies, summary);
+                }
+                inFlight.addLast(pool.submit(new AuditTask(batch, 0, batch.size())));
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            inFlight.addLast(pool.submit(new AuditTask(batch, 0, batch.size())));
+        }
+        while (!inFlight.isEmpty()) {
+            write(inFlight.removeFirst().join(), discrepancies, summary);
+        }
+        discrepancies.flush();
+        return summary;
+    }
+
+    private void write(final List<Discrepancy> found, final Writer writer, final Summary summary) throws IOException {
+        final StringBuilder line = new StringBuilder(128);
+        for (final Discrepancy discrepancy : found) {
+            final Trip trip = discrepancy.getTrip();
+            final int last = trip.getSampleCount() - 1;
+            line.setLength(0);
+            line.append(trip.getVehicle()).append(',')
+                    .append(new DateTime(trip.getTimestamp(0), zone)).append(',')
+                    .append(new DateTime(trip.getTimestamp(last), zone)).append(',')
+                    .append(fromMillimetres(trip.getDistance(last)).toPlainString()).append(',')
+                    .append(fromPence(discrepancy.getRecordedFare()).toPlainString()).append(',')
+                    .append(fromPence(discrepancy.getExpectedFare()).toPlainString()).append('\n');
+            writer.append(line);
+        }
+        summary.discrepancies += found.size();
+    }
+
+    /**
+     * <p>Audits a range of a batch of trips, splitting it in half until it is small enough to audit directly.
+     */
+    private final class AuditTask extends RecursiveTask<List<Discrepancy>> {
+
+        private static final int THRESHOLD = 64;
+
+        private final List<Trip> trips;
+        private final int from;
+        private final int to;
+
+        private AuditTask(final List<Trip> trips, final int from, final int to) {
+            this.trips = trips;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Discrepancy> compute() {
+            if (to - from > THRESHOLD) {
+                final int middle = (from + to) >>> 1;
+                final AuditTask right = new AuditTask(trips, middle, to);
+                right.fork();
+                final List<Discrepancy> result = new AuditTask(trips, from, middle).compute();
+                result.addAll(right.join());
+                return result;
+            }
+            final List<Discrepancy> result = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                final Discrepancy discrepancy = tripAuditor.audit(trips.get(i));
+                if (discrepancy != null) {
+                    result.add(discrepancy);
+                }
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * <p>The totals of an audit.
+     */
+    public static class Summary {
+
+        private long trips;
+        private long samples;
+        private long discrepancies;
+
+        /**
+         * Getter for the trips
+         * @return the number of trips audited
+         */
+        public long getTrips() {
+            return trips;
+        }
+
+        /**
+         * Getter for the samples
+         * @return the number of samples read
+         */
+        public long getSamples() {
+            return samples;
+        }
+
+        /**
+         * Getter for the discrepancies
+         * @return the number of trips whose recorded fare was wrong
+         */
+        public long getDiscrepancies() {
+            return discrepancies;
+        }
+
+    }
+
+}
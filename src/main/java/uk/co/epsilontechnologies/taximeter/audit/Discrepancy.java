@@ -0,0 +1,67 @@
+package uk.co.epsilontechnologies.taximeter.audit;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * <p>A trip whose recorded fare differs from the fare that the tariffs would have charged.
+ *
+ * @author Shane Gibson
+ */
+public class Discrepancy {
+
+    /**
+     * The trip that was audited.
+     */
+    private final Trip trip;
+
+    /**
+     * The fare that the tariffs would have charged, in pence.
+     */
+    private final long expectedFare;
+
+    /**
+     * Constructor for the discrepancy.
+     *
+     * @param trip the trip that was audited
+     * @param expectedFare the fare that the tariffs would have charged, in pence
+     */
+    public Discrepancy(final Trip trip, final long expectedFare) {
+        this.trip = trip;
+        this.expectedFare = expectedFare;
+    }
+
+    /**
+     * Getter for the trip
+     * @return the trip that was audited
+     */
+    public Trip getTrip() {
+        return trip;
+    }
+
+    /**
+     * Getter for the recorded fare
+     * @return the final fare recorded for the trip, in pence
+     */
+    public long getRecordedFare() {
+        return trip.getFare(trip.getSampleCount() - 1);
+    }
+
+    /**
+     * Getter for the expected fare
+     * @return the fare that the tariffs would have charged, in pence
+     */
+    public long getExpectedFare() {
+        return expectedFare;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("vehicle", trip.getVehicle())
+                .append("start", trip.getTimestamp(0))
+                .append("recordedFare", getRecordedFare())
+                .append("expectedFare", expectedFare)
+                .toString();
+    }
+
+}
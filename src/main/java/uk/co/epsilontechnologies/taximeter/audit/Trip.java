@@ -0,0 +1,100 @@
+package uk.co.epsilontechnologies.taximeter.audit;
+
+import java.util.Arrays;
+
+/**
+ * <p>The samples recorded by a taxi meter over a single hiring.
+ *
+ * <p>Each sample holds the time it was taken (in milliseconds since the epoch), the cumulative distance of the journey
+ * (in millimetres) and the fare that the meter was showing (in pence). The first sample marks the start of the hiring.
+ *
+ * @author Shane Gibson
+ */
+public class Trip {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The vehicle that recorded the trip.
+     */
+    private final String vehicle;
+
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private long[] distances = new long[INITIAL_CAPACITY];
+    private long[] fares = new long[INITIAL_CAPACITY];
+    private int sampleCount;
+
+    /**
+     * Constructor for the trip.
+     *
+     * @param vehicle the vehicle that recorded the trip
+     */
+    public Trip(final String vehicle) {
+        this.vehicle = vehicle;
+    }
+
+    /**
+     * Adds a sample to the end of the trip.
+     *
+     * @param timestamp the time of the sample, in milliseconds since the epoch
+     * @param distance the cumulative distance of the journey, in millimetres
+     * @param fare the fare shown by the meter, in pence
+     * @return this trip
+     */
+    public Trip addSample(final long timestamp, final long distance, final long fare) {
+        if (sampleCount == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, sampleCount * 2);
+            distances = Arrays.copyOf(distances, sampleCount * 2);
+            fares = Arrays.copyOf(fares, sampleCount * 2);
+        }
+        timestamps[sampleCount] = timestamp;
+        distances[sampleCount] = distance;
+        fares[sampleCount] = fare;
+        sampleCount++;
+        return this;
+    }
+
+    /**
+     * Getter for the vehicle
+     * @return the vehicle that recorded the trip
+     */
+    public String getVehicle() {
+        return vehicle;
+    }
+
+    /**
+     * Getter for the sample count
+     * @return the number of samples in the trip
+     */
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Getter for the timestamp of a sample
+     * @param sample the index of the sample
+     * @return the time of the sample, in milliseconds since the epoch
+     */
+    public long getTimestamp(final int sample) {
+        return timestamps[sample];
+    }
+
+    /**
+     * Getter for the distance of a sample
+     * @param sample the index of the sample
+     * @return the cumulative distance of the journey, in millimetres
+     */
+    public long getDistance(final int sample) {
+        return distances[sample];
+    }
+
+    /**
+     * Getter for the fare of a sample
+     * @param sample the index of the sample
+     * @return the fare shown by the meter, in pence
+     */
+    public long getFare(final int sample) {
+        return fares[sample];
+    }
+
+}
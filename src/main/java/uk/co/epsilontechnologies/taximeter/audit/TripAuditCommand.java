@@ -0,0 +1,95 @@
+package uk.co.epsilontechnologies.taximeter.audit;
+
+import org.joda.time.DateTimeZone;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter2017;
+import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
+
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p>Command line tool for auditing a file of recorded trips against the tariffs.
+ *
+ * <pre>
+ *   java uk.co.epsilontechnologies.taximeter.audit.TripAuditCommand [options] trip-samples.csv [discrepancies.csv]
+ *
+ *   --tariffs=standard|2017   the tariffs to re-price the trips with (default: standard)
+ *   --zone=ID                 the zone in which the tariffs are applied (default: Europe/London)
+ *   --threads=N               the number of threads to re-price with (default: the number of processors)
+ * </pre>
+ *
+ * <p>The discrepancies are written to standard out if no file is given, and a summary to standard error.
+ *
+ * @see TripSampleReader for the format of the trip samples
+ * @see BulkTripAuditor for the format of the discrepancies
+ *
+ * @author Shane Gibson
+ */
+public class TripAuditCommand {
+
+    public static void main(final String[] args) throws IOException {
+        String tariffs = "standard";
+        String zoneId = "Europe/London";
+        int threads = Runtime.getRuntime().availableProcessors();
+        String input = null;
+        String output = null;
+        for (final String arg : args) {
+            if (arg.startsWith("--tariffs=")) {
+                tariffs = arg.substring("--tariffs=".length());
+            } else if (arg.startsWith("--zone=")) {
+                zoneId = arg.substring("--zone=".length());
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (input == null) {
+                input = arg;
+            } else if (output == null) {
+                output = arg;
+            } else {
+                usage();
+                return;
+            }
+        }
+        if (input == null) {
+            usage();
+            return;
+        }
+
+        final TariffLookup tariffLookup;
+        if ("standard".equals(tariffs)) {
+            tariffLookup = TflTaxiMeter.standardTariffLookup();
+        } else if ("2017".equals(tariffs)) {
+            tariffLookup = TflTaxiMeter2017.tariffLookup2017();
+        } else {
+            usage();
+            return;
+        }
+        final DateTimeZone zone = DateTimeZone.forID(zoneId);
+
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        final long start = System.nanoTime();
+        final BulkTripAuditor.Summary summary;
+        try (TripSampleReader trips = new TripSampleReader(new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8));
+             Writer discrepancies = new BufferedWriter(new OutputStreamWriter(
+                     output == null ? System.out : new FileOutputStream(output), StandardCharsets.UTF_8), 1 << 16)) {
+            summary = new BulkTripAuditor(new TripAuditor(tariffLookup, zone), pool, zone).audit(trips, discrepancies);
+        } finally {
+            pool.shutdown();
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Audited %d trips (%d samples) in %.1fs - %.0f trips per minute; %d discrepancies%n",
+                summary.getTrips(), summary.getSamples(), seconds, summary.getTrips() / seconds * 60, summary.getDiscrepancies());
+    }
+
+    private static void usage() {
+        System.err.println("Usage: TripAuditCommand [--tariffs=standard|2017] [--zone=ID] [--threads=N] trip-samples.csv [discrepancies.csv]");
+    }
+
+}
@@ -0,0 +1,71 @@
+package uk.co.epsilontechnologies.taximeter.audit;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import uk.co.epsilontechnologies.taximeter.calculator.FixedPointFareCalculator;
+import uk.co.epsilontechnologies.taximeter.model.FixedPointFare;
+import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
+
+/**
+ * <p>Re-prices recorded trips against the tariffs, to find those whose recorded fare is wrong.
+ *
+ * <p>A trip is re-priced as a polling meter would have priced it: the flag fall applies at the first sample, and the
+ * fare is then brought up to date at every subsequent sample. Where a sample reveals more than one increment (because
+ * samples were recorded less often than the meter ticks), the increments are all applied at that sample, in the tariff
+ * that applies at its time. The final fare is compared with the fare recorded by the last sample.
+ *
+ * <p>Instances are thread-safe, so a single auditor can re-price trips in parallel.
+ *
+ * @author Shane Gibson
+ */
+public class TripAuditor {
+
+    /**
+     * The fare calculator to re-price trips with.
+     */
+    private final FixedPointFareCalculator fareCalculator;
+
+    /**
+     * The zone in which the tariffs are applied.
+     */
+    private final DateTimeZone zone;
+
+    /**
+     * Constructor for the trip auditor.
+     *
+     * @param tariffLookup the tariff lookup to re-price trips with
+     * @param zone the zone in which the tariffs are applied
+     */
+    public TripAuditor(final TariffLookup tariffLookup, final DateTimeZone zone) {
+        this.fareCalculator = new FixedPointFareCalculator(tariffLookup);
+        this.zone = zone;
+    }
+
+    /**
+     * Re-prices the given trip.
+     *
+     * @param trip the trip to re-price
+     * @return the fare the tariffs would have charged, in pence
+     */
+    public long price(final Trip trip) {
+        final long startTime = trip.getTimestamp(0);
+        final FixedPointFare fare = fareCalculator.getFlagFall(new DateTime(startTime, zone), new FixedPointFare());
+        for (int sample = 1; sample < trip.getSampleCount(); sample++) {
+            fareCalculator.catchUpFare(
+                    fare, trip.getTimestamp(sample) - startTime, trip.getDistance(sample), new DateTime(trip.getTimestamp(sample), zone));
+        }
+        return fare.getAmount();
+    }
+
+    /**
+     * Audits the given trip.
+     *
+     * @param trip the trip to audit
+     * @return the discrepancy if the recorded fare is wrong, otherwise null
+     */
+    public Discrepancy audit(final Trip trip) {
+        final long expectedFare = price(trip);
+        return expectedFare == trip.getFare(trip.getSampleCount() - 1) ? null : new Discrepancy(trip, expectedFare);
+    }
+
+}
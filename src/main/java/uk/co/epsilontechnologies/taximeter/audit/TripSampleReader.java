@@ -0,0 +1,164 @@
+package uk.co.epsilontechnologies.taximeter.audit;
+
+import org.joda.time.DateTime;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * <p>Streams trips from a file of trip samples, one trip at a time, so that the file need not fit in memory.
+ *
+ * <p>Each line of the file is a sample of comma-separated values:
+ * <pre>
+ *   vehicle,timestamp,distance,fare
+ * </pre>
+ * where the timestamp is either milliseconds since the epoch or an ISO-8601 date time, the distance is the cumulative
+ * distance of the journey in metres, and the fare is the fare shown by the meter in pounds. Blank lines, lines starting
+ * with '#', and a header line starting with "vehicle" are ignored.
+ *
+ * <p>The samples of a trip must be contiguous and in time order. A new trip starts whenever the vehicle changes or the
+ * distance goes backwards (i.e. the odometer was reset for a new hiring).
+ *
+ * <p>Instances are not thread-safe.
+ *
+ * @author Shane Gibson
+ */
+public class TripSampleReader implements Closeable {
+
+    private final BufferedReader reader;
+
+    /**
+     * The first sample of the next trip, already read while finding the end of the previous one.
+     */
+    private String pendingLine;
+
+    private long lineNumber;
+
+    /**
+     * Constructs the reader for the given source of trip samples.
+     *
+     * @param reader the source of trip samples
+     */
+    public TripSampleReader(final Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader, 1 << 16);
+    }
+
+    /**
+     * Reads the next trip.
+     *
+     * @return the next trip, or null at the end of the file
+     * @throws IOException failed to read the file
+     * @throws IllegalArgumentException a sample is malformed
+     */
+    public Trip next() throws IOException {
+        String line = pendingLine != null ? pendingLine : nextSample();
+        pendingLine = null;
+        if (line == null) {
+            return null;
+        }
+        Trip trip = null;
+        long previousDistance = 0;
+        while (line != null) {
+            final int vehicleEnd = line.indexOf(',');
+            final int timestampEnd = vehicleEnd < 0 ? -1 : line.indexOf(',', vehicleEnd + 1);
+            final int distanceEnd = timestampEnd < 0 ? -1 : line.indexOf(',', timestampEnd + 1);
+            if (distanceEnd < 0) {
+                throw malformed(line);
+            }
+            final long distance = parseScaled(line, timestampEnd + 1, distanceEnd, 3, true);
+            if (trip == null) {
+                trip = new Trip(line.substring(0, vehicleEnd));
+            } else if (distance < previousDistance || vehicleEnd != trip.getVehicle().length() || !line.startsWith(trip.getVehicle())) {
+                pendingLine = line;
+                break;
+            }
+            trip.addSample(
+                    parseTimestamp(line, vehicleEnd + 1, timestampEnd),
+                    distance,
+                    parseScaled(line, distanceEnd + 1, line.length(), 2, false));
+            previousDistance = distance;
+            line = nextSample();
+        }
+        return trip;
+    }
+
+    /**
+     * Getter for the line number
+     * @return the number of lines read so far
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Reads the next line that holds a sample.
+     */
+    private String nextSample() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (!line.isEmpty() && line.charAt(0) != '#' && !(lineNumber == 1 && line.startsWith("vehicle"))) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    private long parseTimestamp(final String line, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            if (line.charAt(i) < '0' || line.charAt(i) > '9') {
+                return DateTime.parse(line.substring(start, end).trim()).getMillis();
+            }
+        }
+        return parseScaled(line, start, end, 0, false);
+    }
+
+    /**
+     * Parses the decimal between the given indexes into a long, scaled by the given power of ten - e.g. "1.5" with a
+     * scale of 3 is 1500. Digits beyond the scale must be zero, unless rounding up, in which case any fraction is rounded
+     * up (as per {@link uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils#measuredMillimetres}).
+     */
+    private long parseScaled(final String line, final int start, final int end, final int scale, final boolean roundUp) {
+        long value = 0;
+        int fractionDigits = -1;
+        boolean remainder = false;
+        boolean digits = false;
+        for (int i = start; i < end; i++) {
+            final char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                if (fractionDigits < scale) {
+                    value = value * 10 + (c - '0');
+                    if (fractionDigits >= 0) {
+                        fractionDigits++;
+                    }
+                } else if (c != '0') {
+                    remainder = true;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c != ' ') {
+                throw malformed(line);
+            }
+        }
+        if (!digits || (remainder && !roundUp)) {
+            throw malformed(line);
+        }
+        for (int i = Math.max(fractionDigits, 0); i < scale; i++) {
+            value *= 10;
+        }
+        return remainder ? value + 1 : value;
+    }
+
+    private IllegalArgumentException malformed(final String line) {
+        return new IllegalArgumentException("Malformed trip sample at line "+lineNumber+": "+line);
+    }
+
+}
@@ -1,11 +1,13 @@
 package uk.co.epsilontechnologies.taximeter.calculator;
 
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import uk.co.epsilontechnologies.taximeter.model.Fare;
 import uk.co.epsilontechnologies.taximeter.tariff.Tariff;
 import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 /**
  * <p>Calculates the taxi fare for the given journey details.
@@ -28,6 +30,14 @@ public class FareCalculator {
         this.tariffLookup = tariffLookup;
     }
 
+    /**
+     * Getter for the tariff lookup
+     * @return the tariff lookup used to determine which tariff applies
+     */
+    public TariffLookup getTariffLookup() {
+        return tariffLookup;
+    }
+
     /**
      * Determines the flag fall fare for the given journey start time.
      *
@@ -45,7 +55,8 @@ public class FareCalculator {
     /**
      * <p>Calculates the latest fare for the current journey.
      *
-     * <p>This implementation assumes it is called at least once between every distance or time range.
+     * <p>This implementation assumes it is called at least once between every distance or time range - otherwise use
+     * {@link #catchUpFare}, which applies every increment that has fallen due.
      *
      * @param currentFare The fare as was last calculated for the last invocation
      * @param journeyDuration The duration of the journey so far
@@ -97,4 +108,107 @@ public class FareCalculator {
         return currentFare;
     }
 
-}
\ No newline at end of file
+    /**
+     * <p>Calculates the latest fare for the current journey, applying every increment that has fallen due since the
+     * fare was last calculated - however large the jump in duration and distance.
+     *
+     * <p>The result is the same as calling {@link #calculateFare} repeatedly with the same arguments until the fare
+     * stops changing: all the increments are priced in the tariff that applies at the current time, switching from the
+     * low to the high fare sub-tariff as the fare reaches the high / low fare boundary. Rather than iterating per
+     * increment, the increments due in each sub-tariff are calculated in closed form.
+     *
+     * @param currentFare The fare as was last calculated
+     * @param journeyDuration The duration of the journey so far
+     * @param journeyDistance The distance of the journey so far
+     * @param currentTime The time at which the calculation is being invoked
+     * @return the fare that has been calculated
+     */
+    public Fare catchUpFare(
+            final Fare currentFare,
+            final BigDecimal journeyDuration,
+            final BigDecimal journeyDistance,
+            final DateTime currentTime) {
+        return catchUpFare(currentFare, journeyDuration, journeyDistance, tariffLookup.lookupTariff(currentTime));
+    }
+
+    /**
+     * <p>As per {@link #catchUpFare(Fare, BigDecimal, BigDecimal, DateTime)}, but with the current time given as an
+     * instant and time zone - so that no DateTime need be created.
+     *
+     * @param currentFare The fare as was last calculated
+     * @param journeyDuration The duration of the journey so far
+     * @param journeyDistance The distance of the journey so far
+     * @param currentTimeMillis The time at which the calculation is being invoked, in milliseconds since the epoch
+     * @param zone The time zone in which the tariffs apply
+     * @return the fare that has been calculated
+     */
+    public Fare catchUpFare(
+            final Fare currentFare,
+            final BigDecimal journeyDuration,
+            final BigDecimal journeyDistance,
+            final long currentTimeMillis,
+            final DateTimeZone zone) {
+        return catchUpFare(currentFare, journeyDuration, journeyDistance, tariffLookup.lookupTariff(currentTimeMillis, zone));
+    }
+
+    private Fare catchUpFare(
+            final Fare currentFare,
+            final BigDecimal journeyDuration,
+            final BigDecimal journeyDistance,
+            final Tariff tariff) {
+
+        if (!tariff.hasMinimumChargeBeenExceeded(journeyDuration, journeyDistance)) {
+            return currentFare;
+        }
+
+        Fare fare = currentFare;
+        while (true) {
+            final boolean highFare = tariff.isHighFare(fare);
+            final Tariff.SubTariff subTariff = highFare ? tariff.getHighFareSubTariff() : tariff.getLowFareSubTariff();
+
+            final BigDecimal distanceIncrements = incrementsDue(journeyDistance, fare.getJourneyDistanceAccountedFor(), subTariff.getDistanceLimit());
+            final BigDecimal durationIncrements = incrementsDue(journeyDuration, fare.getJourneyDurationAccountedFor(), subTariff.getTimeLimit());
+
+            BigDecimal increments = distanceIncrements.max(durationIncrements);
+            if (increments.signum() == 0) {
+                return fare;
+            }
+            if (!highFare) {
+                // only apply the increments that fall below the boundary - the rest are in the high fare sub-tariff
+                increments = increments.min(tariff.getHighLowFareBoundary().subtract(fare.getAmount())
+                        .divide(subTariff.getIncrementAmount(), 0, RoundingMode.CEILING));
+            }
+
+            /*
+              Whilst both the distance and duration are behind, each increment extends the period accounted for by its
+              limit. Once one has caught up, each further increment accounts for its limit from the journey's distance
+              (or duration) instead - as per calculateFare.
+            */
+
+            fare = new Fare(
+                    fare.getAmount().add(subTariff.getIncrementAmount().multiply(increments)),
+                    accountedFor(journeyDistance, fare.getJourneyDistanceAccountedFor(), subTariff.getDistanceLimit(), distanceIncrements, increments),
+                    accountedFor(journeyDuration, fare.getJourneyDurationAccountedFor(), subTariff.getTimeLimit(), durationIncrements, increments));
+        }
+    }
+
+    /**
+     * The number of increments of the given limit needed for the period accounted for to reach the journey so far.
+     */
+    private static BigDecimal incrementsDue(final BigDecimal journey, final BigDecimal accountedFor, final BigDecimal limit) {
+        return journey.compareTo(accountedFor) > 0 ? journey.subtract(accountedFor).divide(limit, 0, RoundingMode.CEILING) : BigDecimal.ZERO;
+    }
+
+    /**
+     * The period accounted for after applying the given number of increments, of which the given number were due.
+     */
+    private static BigDecimal accountedFor(
+            final BigDecimal journey,
+            final BigDecimal accountedFor,
+            final BigDecimal limit,
+            final BigDecimal incrementsDue,
+            final BigDecimal increments) {
+        return incrementsDue.compareTo(increments) >= 0 ? accountedFor.add(limit.multiply(increments)) : journey.add(limit);
+    }
+
+}
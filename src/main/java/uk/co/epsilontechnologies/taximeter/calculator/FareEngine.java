@@ -0,0 +1,21 @@
+package uk.co.epsilontechnologies.taximeter.calculator;
+
+/**
+ * <p>The arithmetic used by a taxi meter to calculate its fare.
+ *
+ * @author Shane Gibson
+ */
+public enum FareEngine {
+
+    /**
+     * Decimal arithmetic, using the {@link FareCalculator}. A new fare is created whenever it is incremented.
+     */
+    BIG_DECIMAL,
+
+    /**
+     * Fixed-point arithmetic, using the {@link FixedPointFareCalculator}. The fare is updated in place, without
+     * allocating.
+     */
+    FIXED_POINT
+
+}
@@ -0,0 +1,294 @@
+package uk.co.epsilontechnologies.taximeter.calculator;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import uk.co.epsilontechnologies.taximeter.model.FixedPointFare;
+import uk.co.epsilontechnologies.taximeter.tariff.FixedPointTariff;
+import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromPence;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.measuredMillimetres;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.toMillis;
+
+/**
+ * <p>Quotes the fare of a journey upfront, from its pickup time, route distance and expected duration - without
+ * simulating a meter.
+ *
+ * <p>The taxi is assumed to travel at a steady speed. The journey is split wherever the tariff changes (tariffs change
+ * on the minute), and the increments due in each part are applied under that part's tariff, in closed form - see
+ * {@link FixedPointFareCalculator#catchUpFare}.
+ *
+ * <p>The distance and duration are rounded up to buckets (by default 10 metres and 1 second), so a quote errs on the
+ * side of the higher fare. Journeys that stay within one tariff cost the same whenever they start, so their quotes are
+ * cached by tariff band and bucket, in a bounded cache of the most recently used quotes. Journeys through a change of
+ * tariff are always calculated. A cached quote is only used whilst its tariff still applies, so quotes follow the
+ * tariffs of a {@link uk.co.epsilontechnologies.taximeter.tariff.SwappableTariffLookup} when they are swapped.
+ *
+ * @author Shane Gibson
+ */
+public class FareQuoter {
+
+    /**
+     * The default distance bucket, in millimetres.
+     */
+    public static final long DEFAULT_DISTANCE_BUCKET = 10000;
+
+    /**
+     * The default duration bucket, in milliseconds.
+     */
+    public static final long DEFAULT_DURATION_BUCKET = 1000;
+
+    /**
+     * The default number of quotes to cache.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 10000;
+
+    /**
+     * The number of bits of the cache key for each of the distance and duration buckets.
+     */
+    private static final int BUCKET_BITS = 28;
+
+    /**
+     * The tariff lookup to use when determining which tariff applies.
+     */
+    private final TariffLookup tariffLookup;
+
+    /**
+     * The calculator to apply the increments with.
+     */
+    private final FixedPointFareCalculator fareCalculator;
+
+    /**
+     * The fixed-point rates of the tariffs of the tariff lookup.
+     */
+    private final FixedPointTariffs tariffs;
+
+    private final long distanceBucket;
+    private final long durationBucket;
+
+    /**
+     * The cached quotes of journeys within one tariff, in pence, by band and bucket. Guarded by itself.
+     */
+    private final QuoteCache cache;
+
+    /*
+      Guarded by the cache.
+    */
+
+    private long cacheHits;
+    private long cacheMisses;
+
+    /**
+     * Constructs the fare quoter for the given tariff lookup, with the default buckets and cache size.
+     *
+     * @param tariffLookup the tariff lookup to use
+     * @throws IllegalArgumentException a tariff rate cannot be represented exactly in fixed-point units
+     */
+    public FareQuoter(final TariffLookup tariffLookup) {
+        this(tariffLookup, DEFAULT_DISTANCE_BUCKET, DEFAULT_DURATION_BUCKET, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs the fare quoter for the given tariff lookup.
+     *
+     * @param tariffLookup the tariff lookup to use
+     * @param distanceBucket the distance to round journeys up to a multiple of, in millimetres
+     * @param durationBucket the duration to round journeys up to a multiple of, in milliseconds
+     * @param cacheSize the maximum number of quotes to cache, or zero to not cache
+     * @throws IllegalArgumentException a bucket is not positive, or a tariff rate cannot be represented exactly in
+     *         fixed-point units
+     */
+    public FareQuoter(final TariffLookup tariffLookup, final long distanceBucket, final long durationBucket, final int cacheSize) {
+        if (distanceBucket <= 0 || durationBucket <= 0) {
+            throw new IllegalArgumentException("Buckets must be positive: "+distanceBucket+", "+durationBucket);
+        }
+        this.tariffLookup = tariffLookup;
+        this.fareCalculator = new FixedPointFareCalculator(tariffLookup);
+        this.tariffs = new FixedPointTariffs(tariffLookup);
+        this.distanceBucket = distanceBucket;
+        this.durationBucket = durationBucket;
+        this.cache = cacheSize > 0 ? new QuoteCache(cacheSize) : null;
+    }
+
+    /**
+     * Quotes the fare of the given journey.
+     *
+     * @param pickupTime the time the journey starts
+     * @param distance the route distance, in metres
+     * @param duration the expected duration, in seconds
+     * @return the fare
+     */
+    public BigDecimal quote(final DateTime pickupTime, final BigDecimal distance, final BigDecimal duration) {
+        return fromPence(quote(
+                pickupTime.getMillis(),
+                pickupTime.getZone(),
+                measuredMillimetres(distance),
+                toMillis(duration.setScale(3, RoundingMode.CEILING))));
+    }
+
+    /**
+     * Quotes the fare of the given journey.
+     *
+     * @param pickupTime the time the journey starts, in milliseconds since the epoch
+     * @param zone the time zone in which the rules of the tariffs apply
+     * @param distance the route distance, in millimetres
+     * @param duration the expected duration, in milliseconds
+     * @return the fare, in pence
+     * @throws IllegalArgumentException the distance or duration is negative
+     */
+    public long quote(final long pickupTime, final DateTimeZone zone, final long distance, final long duration) {
+        if (distance < 0 || duration < 0) {
+            throw new IllegalArgumentException("Distance and duration cannot be negative: "+distance+", "+duration);
+        }
+        final long distanceBuckets = ceilDiv(distance, distanceBucket);
+        final long durationBuckets = ceilDiv(duration, durationBucket);
+        final long journeyDistance = distanceBuckets * distanceBucket;
+        final long journeyDuration = durationBuckets * durationBucket;
+
+        final int band = tariffLookup.lookupBand(pickupTime, zone);
+        final FixedPointTariff tariff = tariffs.lookup(pickupTime, zone);
+        final long tariffChange = nextTariffChange(pickupTime, zone, band, 0, journeyDuration);
+        if (tariffChange < journeyDuration || cache == null || (distanceBuckets | durationBuckets) >>> BUCKET_BITS != 0) {
+            return calculate(pickupTime, zone, band, tariff, tariffChange, journeyDistance, journeyDuration);
+        }
+
+        final long key = ((long) band << (2 * BUCKET_BITS)) | (distanceBuckets << BUCKET_BITS) | durationBuckets;
+        synchronized (cache) {
+            final Quote quote = cache.get(key);
+            if (quote != null && quote.tariff == tariff) {
+                cacheHits++;
+                return quote.fare;
+            }
+            cacheMisses++;
+        }
+        final long fare = calculate(pickupTime, zone, band, tariff, tariffChange, journeyDistance, journeyDuration);
+        synchronized (cache) {
+            cache.put(key, new Quote(tariff, fare));
+        }
+        return fare;
+    }
+
+    /**
+     * Getter for the cache hits
+     * @return the number of quotes served from the cache
+     */
+    public long getCacheHits() {
+        if (cache == null) {
+            return 0;
+        }
+        synchronized (cache) {
+            return cacheHits;
+        }
+    }
+
+    /**
+     * Getter for the cache misses
+     * @return the number of quotes of journeys within one tariff that had to be calculated
+     */
+    public long getCacheMisses() {
+        if (cache == null) {
+            return 0;
+        }
+        synchronized (cache) {
+            return cacheMisses;
+        }
+    }
+
+    /**
+     * Calculates the fare of the given journey, applying the increments due before each change of tariff under the
+     * tariff that applied.
+     *
+     * @param pickupTariff the tariff that applies at the pickup time
+     * @param tariffChange the journey duration at which the tariff first changes
+     */
+    private long calculate(
+            final long pickupTime,
+            final DateTimeZone zone,
+            final int pickupBand,
+            final FixedPointTariff pickupTariff,
+            final long tariffChange,
+            final long journeyDistance,
+            final long journeyDuration) {
+
+        final FixedPointFare fare = new FixedPointFare().set(
+                pickupTariff.getFlagFallAmount(), pickupTariff.getFlagFallDistanceLimit(), pickupTariff.getFlagFallTimeLimit());
+
+        int band = pickupBand;
+        FixedPointTariff tariff = pickupTariff;
+        long change = tariffChange;
+        while (change < journeyDuration) {
+            // the last moment under the tariff, at which the taxi has travelled its share of the distance
+            final long duration = change - 1;
+            fareCalculator.catchUpFare(fare, duration, journeyDistance * duration / journeyDuration, tariff);
+            band = tariffLookup.lookupBand(pickupTime + change, zone);
+            tariff = tariffs.lookup(pickupTime + change, zone);
+            change = nextTariffChange(pickupTime, zone, band, change, journeyDuration);
+        }
+        fareCalculator.catchUpFare(fare, journeyDuration, journeyDistance, tariff);
+        return fare.getAmount();
+    }
+
+    /**
+     * Finds when the tariff next changes from the given band, after the given journey duration, jumping from each
+     * instant at which the tariff could change (see {@link TariffLookup#nextChange}) to the next, until the end of the
+     * journey.
+     *
+     * @return the journey duration at which the tariff changes, or the journey duration if it does not change
+     */
+    private long nextTariffChange(
+            final long pickupTime, final DateTimeZone zone, final int band, final long from, final long journeyDuration) {
+        final long end = pickupTime + journeyDuration;
+        for (long change = tariffLookup.nextChange(pickupTime + from, zone);
+             change < end;
+             change = tariffLookup.nextChange(change, zone)) {
+            if (tariffLookup.lookupBand(change, zone) != band) {
+                return change - pickupTime;
+            }
+        }
+        return journeyDuration;
+    }
+
+    private static long ceilDiv(final long dividend, final long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    /**
+     * <p>A cached quote, and the tariff it was calculated under.
+     */
+    private static final class Quote {
+
+        private final FixedPointTariff tariff;
+        private final long fare;
+
+        private Quote(final FixedPointTariff tariff, final long fare) {
+            this.tariff = tariff;
+            this.fare = fare;
+        }
+
+    }
+
+    /**
+     * <p>Cache of quotes, evicting the least recently used once full.
+     */
+    private static final class QuoteCache extends LinkedHashMap<Long, Quote> {
+
+        private final int maximumSize;
+
+        private QuoteCache(final int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Long, Quote> eldest) {
+            return size() > maximumSize;
+        }
+
+    }
+
+}
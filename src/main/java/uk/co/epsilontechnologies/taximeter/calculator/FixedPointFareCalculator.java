@@ -0,0 +1,215 @@
+package uk.co.epsilontechnologies.taximeter.calculator;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import uk.co.epsilontechnologies.taximeter.model.FixedPointFare;
+import uk.co.epsilontechnologies.taximeter.tariff.FixedPointTariff;
+import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
+
+/**
+ * <p>Calculates the taxi fare for the given journey details, using fixed-point arithmetic.
+ *
+ * <p>This is the primitive counterpart of {@link FareCalculator}: amounts are held in pence, distances in millimetres
+ * and durations in milliseconds, and the fare is updated in place in a {@link FixedPointFare}. It applies exactly the
+ * same rules as {@link FareCalculator#calculateFare}, so for distances in whole millimetres the fares are identical.
+ *
+ * <p>This is a limit of this engine: it can only account for whole millimetres, so an odometer that reads finer than a
+ * millimetre is measured to the millimetre, rounding up (see
+ * {@link uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils#measuredMillimetres}), before it is given to this
+ * engine. When the time limit is reached first, the reference accounts for the exact distance, fraction and all, so
+ * for such an odometer the fares of the two engines can differ by an increment.
+ *
+ * @author Shane Gibson
+ */
+public class FixedPointFareCalculator {
+
+    /**
+     * The tariff lookup to use when determining which tariff applies to the fare calculation.
+     */
+    private final TariffLookup tariffLookup;
+
+    /**
+     * The fixed-point rates of the tariffs of the tariff lookup, converted once per tariff.
+     */
+    private final FixedPointTariffs fixedPointTariffs;
+
+    /**
+     * Constructor for this fare calculator.
+     *
+     * @param tariffLookup the tariff lookup to use
+     * @throws IllegalArgumentException a tariff rate cannot be represented exactly in fixed-point units
+     */
+    public FixedPointFareCalculator(final TariffLookup tariffLookup) {
+        this.tariffLookup = tariffLookup;
+        this.fixedPointTariffs = new FixedPointTariffs(tariffLookup);
+    }
+
+    /**
+     * Getter for the tariff lookup
+     * @return the tariff lookup used to determine which tariff applies
+     */
+    public TariffLookup getTariffLookup() {
+        return tariffLookup;
+    }
+
+    /**
+     * Determines the flag fall fare for the given journey start time.
+     *
+     * @param startTime the start time for the journey
+     * @param fare the fare to set to the flag fall
+     * @return the given fare
+     */
+    public FixedPointFare getFlagFall(final DateTime startTime, final FixedPointFare fare) {
+        final FixedPointTariff tariff = lookupTariff(startTime);
+        return fare.set(
+                tariff.getFlagFallAmount(),
+                tariff.getFlagFallDistanceLimit(),
+                tariff.getFlagFallTimeLimit());
+    }
+
+    /**
+     * <p>Calculates the latest fare for the current journey, updating the given fare in place.
+     *
+     * <p>This implementation assumes it is called at least once between every distance or time range.
+     *
+     * @param fare The fare as was last calculated for the last invocation, which will be updated
+     * @param journeyDuration The duration of the journey so far, in milliseconds
+     * @param journeyDistance The distance of the journey so far, in millimetres
+     * @param currentTime The time at which the calculation is being invoked
+     * @return true if the fare was incremented, otherwise false
+     */
+    public boolean calculateFare(
+            final FixedPointFare fare,
+            final long journeyDuration,
+            final long journeyDistance,
+            final DateTime currentTime) {
+
+        final FixedPointTariff tariff = lookupTariff(currentTime);
+
+        if (!tariff.hasMinimumChargeBeenExceeded(journeyDuration, journeyDistance)) {
+            return false;
+        }
+
+        final long amount = fare.getAmount();
+        final long distanceAccountedFor = fare.getJourneyDistanceAccountedFor();
+        final long durationAccountedFor = fare.getJourneyDurationAccountedFor();
+
+        final boolean distanceUnaccountedFor = journeyDistance > distanceAccountedFor;
+        final boolean durationUnaccountedFor = journeyDuration > durationAccountedFor;
+
+        if (distanceUnaccountedFor || durationUnaccountedFor) {
+            // as per FareCalculator, increment from the period accounted for if it has been surpassed, so there are no gaps
+            fare.set(
+                    amount + tariff.getIncrementAmount(amount),
+                    (distanceUnaccountedFor ? distanceAccountedFor : journeyDistance) + tariff.getDistanceLimit(amount),
+                    (durationUnaccountedFor ? durationAccountedFor : journeyDuration) + tariff.getTimeLimit(amount));
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * <p>Calculates the latest fare for the current journey, applying every increment that has fallen due since the
+     * fare was last calculated, updating the given fare in place.
+     *
+     * <p>As per {@link FareCalculator#catchUpFare}, the result is the same as calling {@link #calculateFare} repeatedly
+     * until the fare stops changing, but the increments due in each sub-tariff are calculated in closed form.
+     *
+     * @param fare The fare as was last calculated, which will be updated
+     * @param journeyDuration The duration of the journey so far, in milliseconds
+     * @param journeyDistance The distance of the journey so far, in millimetres
+     * @param currentTime The time at which the calculation is being invoked
+     * @return the number of increments applied
+     */
+    public long catchUpFare(
+            final FixedPointFare fare,
+            final long journeyDuration,
+            final long journeyDistance,
+            final DateTime currentTime) {
+        return catchUpFare(fare, journeyDuration, journeyDistance, fixedPointTariffs.get(tariffLookup.lookupTariff(currentTime)));
+    }
+
+    /**
+     * <p>As per {@link #catchUpFare(FixedPointFare, long, long, DateTime)}, but with the current time given as an
+     * instant and time zone - so that, with a {@link uk.co.epsilontechnologies.taximeter.tariff.CompiledTariffLookup},
+     * calculating the fare does not allocate at all.
+     *
+     * @param fare The fare as was last calculated, which will be updated
+     * @param journeyDuration The duration of the journey so far, in milliseconds
+     * @param journeyDistance The distance of the journey so far, in millimetres
+     * @param currentTimeMillis The time at which the calculation is being invoked, in milliseconds since the epoch
+     * @param zone The time zone in which the tariffs apply
+     * @return the number of increments applied
+     */
+    public long catchUpFare(
+            final FixedPointFare fare,
+            final long journeyDuration,
+            final long journeyDistance,
+            final long currentTimeMillis,
+            final DateTimeZone zone) {
+        return catchUpFare(fare, journeyDuration, journeyDistance, fixedPointTariffs.lookup(currentTimeMillis, zone));
+    }
+
+    /**
+     * As per {@link #catchUpFare(FixedPointFare, long, long, DateTime)}, under the given tariff.
+     */
+    long catchUpFare(
+            final FixedPointFare fare,
+            final long journeyDuration,
+            final long journeyDistance,
+            final FixedPointTariff tariff) {
+
+        if (!tariff.hasMinimumChargeBeenExceeded(journeyDuration, journeyDistance)) {
+            return 0;
+        }
+
+        long applied = 0;
+        while (true) {
+            final long amount = fare.getAmount();
+            final long distanceAccountedFor = fare.getJourneyDistanceAccountedFor();
+            final long durationAccountedFor = fare.getJourneyDurationAccountedFor();
+            final long incrementAmount = tariff.getIncrementAmount(amount);
+            final long distanceLimit = tariff.getDistanceLimit(amount);
+            final long timeLimit = tariff.getTimeLimit(amount);
+
+            final long distanceIncrements = incrementsDue(journeyDistance, distanceAccountedFor, distanceLimit);
+            final long durationIncrements = incrementsDue(journeyDuration, durationAccountedFor, timeLimit);
+
+            long increments = Math.max(distanceIncrements, durationIncrements);
+            if (increments == 0) {
+                return applied;
+            }
+            if (!tariff.isHighFare(amount)) {
+                // only apply the increments that fall below the boundary - the rest are in the high fare sub-tariff
+                increments = Math.min(increments, ceilDiv(tariff.getHighLowFareBoundary() - amount, incrementAmount));
+            }
+
+            // as per FareCalculator#catchUpFare, once one period has caught up it is accounted for from the journey
+            fare.set(
+                    amount + incrementAmount * increments,
+                    distanceIncrements >= increments ? distanceAccountedFor + distanceLimit * increments : journeyDistance + distanceLimit,
+                    durationIncrements >= increments ? durationAccountedFor + timeLimit * increments : journeyDuration + timeLimit);
+            applied += increments;
+        }
+    }
+
+    private static long incrementsDue(final long journey, final long accountedFor, final long limit) {
+        return journey > accountedFor ? ceilDiv(journey - accountedFor, limit) : 0;
+    }
+
+    private static long ceilDiv(final long dividend, final long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    /**
+     * Looks up the fixed-point rates of the tariff that applies at the given time.
+     *
+     * @param dateTime the date time to check
+     * @return the rates of the matching tariff
+     */
+    private FixedPointTariff lookupTariff(final DateTime dateTime) {
+        return fixedPointTariffs.get(tariffLookup.lookupTariff(dateTime));
+    }
+
+}
@@ -0,0 +1,89 @@
+package uk.co.epsilontechnologies.taximeter.calculator;
+
+import org.joda.time.DateTimeZone;
+import uk.co.epsilontechnologies.taximeter.tariff.FixedPointTariff;
+import uk.co.epsilontechnologies.taximeter.tariff.Tariff;
+import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>The fixed-point rates of the tariffs of a tariff lookup, converted once per tariff.
+ *
+ * <p>The tariffs registered with the lookup are converted on construction. A tariff that is not - e.g. one swapped in
+ * by a {@link uk.co.epsilontechnologies.taximeter.tariff.SwappableTariffLookup} since - is converted when first looked
+ * up, and remembered, so that the fare engine goes back to not allocating at all.
+ *
+ * @author Shane Gibson
+ */
+final class FixedPointTariffs {
+
+    /**
+     * The most tariffs to remember, beyond which further tariffs are converted each time they are looked up - so that a
+     * lookup that creates its tariffs on the fly cannot grow this without bound.
+     */
+    private static final int MAX_TARIFFS = 64;
+
+    private final TariffLookup tariffLookup;
+
+    /**
+     * The converted rates, replaced as a whole (never modified) when a tariff is added.
+     */
+    private volatile FixedPointTariff[] fixedPointTariffs;
+
+    /**
+     * Converts the rates of the tariffs registered with the given lookup.
+     *
+     * @param tariffLookup the tariff lookup
+     * @throws IllegalArgumentException a tariff rate cannot be represented exactly in fixed-point units
+     */
+    FixedPointTariffs(final TariffLookup tariffLookup) {
+        this.tariffLookup = tariffLookup;
+        final List<Tariff> tariffs = tariffLookup.getTariffs();
+        final FixedPointTariff[] fixedPointTariffs = new FixedPointTariff[tariffs == null ? 0 : tariffs.size()];
+        for (int i = 0; i < fixedPointTariffs.length; i++) {
+            fixedPointTariffs[i] = new FixedPointTariff(tariffs.get(i));
+        }
+        this.fixedPointTariffs = fixedPointTariffs;
+    }
+
+    /**
+     * Finds the fixed-point rates of the given tariff.
+     *
+     * @param tariff the tariff
+     * @return the rates of the tariff
+     * @throws IllegalArgumentException a tariff rate cannot be represented exactly in fixed-point units
+     */
+    FixedPointTariff get(final Tariff tariff) {
+        final FixedPointTariff[] fixedPointTariffs = this.fixedPointTariffs;
+        for (final FixedPointTariff fixedPointTariff : fixedPointTariffs) {
+            if (fixedPointTariff.getTariff() == tariff) {
+                return fixedPointTariff;
+            }
+        }
+        final FixedPointTariff converted = new FixedPointTariff(tariff);
+        if (fixedPointTariffs.length < MAX_TARIFFS) {
+            synchronized (this) {
+                // another thread may have added a tariff meanwhile - a duplicate is harmless, losing one is not
+                final FixedPointTariff[] current = this.fixedPointTariffs;
+                final FixedPointTariff[] added = Arrays.copyOf(current, current.length + 1);
+                added[current.length] = converted;
+                this.fixedPointTariffs = added;
+            }
+        }
+        return converted;
+    }
+
+    /**
+     * Looks up the fixed-point rates of the tariff that applies at the given instant.
+     *
+     * @param epochMillis the instant, in milliseconds since the epoch
+     * @param zone the time zone in which the rules of the tariffs apply
+     * @return the rates of the matching tariff
+     */
+    FixedPointTariff lookup(final long epochMillis, final DateTimeZone zone) {
+        return get(tariffLookup.lookupTariff(epochMillis, zone));
+    }
+
+}
@@ -0,0 +1,113 @@
+package uk.co.epsilontechnologies.taximeter.calculator;
+
+import org.joda.time.DateTimeZone;
+import uk.co.epsilontechnologies.taximeter.tariff.FixedPointTariff;
+import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
+
+/**
+ * <p>Determines when the fare of a journey could next be incremented, so that a taxi meter only needs to recalculate
+ * the fare at those points rather than continuously.
+ *
+ * <p>Following the rules of {@link FareCalculator#calculateFare}, the fare is incremented once the minimum charge of
+ * the current tariff has been exceeded (by time or distance) and the time or distance accounted for has been exceeded.
+ * Time always advances, so the time at which that next holds can be calculated - unless the tariff (and so the minimum
+ * charge) changes first. Distance only advances as the taxi moves, so the distance at which it could next hold is
+ * calculated for the odometer to be checked against.
+ *
+ * <p>All durations are in milliseconds and distances in millimetres.
+ *
+ * @author Shane Gibson
+ */
+public class NextIncrementCalculator {
+
+    /**
+     * The tariff lookup to use when determining which tariff applies.
+     */
+    private final TariffLookup tariffLookup;
+
+    /**
+     * The fixed-point rates of the tariffs of the tariff lookup.
+     */
+    private final FixedPointTariffs tariffs;
+
+    /**
+     * Constructor for this calculator.
+     *
+     * @param tariffLookup the tariff lookup to use
+     * @throws IllegalArgumentException a tariff rate cannot be represented exactly in fixed-point units
+     */
+    public NextIncrementCalculator(final TariffLookup tariffLookup) {
+        this.tariffLookup = tariffLookup;
+        this.tariffs = new FixedPointTariffs(tariffLookup);
+    }
+
+    /**
+     * <p>Determines the journey duration after which the fare could next be incremented, assuming the taxi travels no
+     * further. The fare needs to be recalculated at the first opportunity after this duration; before then, a
+     * recalculation cannot change the fare.
+     *
+     * <p>If the tariff changes before then, the duration just before the change is returned, so that the fare can be
+     * reconsidered under the new tariff.
+     *
+     * @param journeyStart the start of the journey, in milliseconds since the epoch
+     * @param zone the time zone in which the rules of the tariffs apply
+     * @param journeyDuration the duration of the journey so far
+     * @param journeyDistance the distance of the journey so far
+     * @param durationAccountedFor the journey duration accounted for by the current fare
+     * @param distanceAccountedFor the journey distance accounted for by the current fare
+     * @return the journey duration after which to recalculate, or Long.MIN_VALUE if the fare is due now
+     */
+    public long nextIncrementDuration(
+            final long journeyStart,
+            final DateTimeZone zone,
+            final long journeyDuration,
+            final long journeyDistance,
+            final long durationAccountedFor,
+            final long distanceAccountedFor) {
+
+        final long now = journeyStart + journeyDuration;
+        final int band = tariffLookup.lookupBand(now, zone);
+        final FixedPointTariff tariff = tariffs.lookup(now, zone);
+
+        // both conditions must hold; a condition already met by the distance travelled places no constraint on time
+        final long due = Math.max(
+                journeyDistance > distanceAccountedFor ? Long.MIN_VALUE : durationAccountedFor,
+                journeyDistance > tariff.getFlagFallDistanceLimit() ? Long.MIN_VALUE : tariff.getFlagFallTimeLimit());
+
+        // check each instant at which the tariff could change until then for a change of tariff
+        long change = tariffLookup.nextChange(now, zone);
+        while (change - journeyStart <= due) {
+            if (tariffLookup.lookupBand(change, zone) != band) {
+                return change - journeyStart - 1;
+            }
+            change = tariffLookup.nextChange(change, zone);
+        }
+        return due;
+    }
+
+    /**
+     * <p>Determines the journey distance after which the fare could next be incremented, under the current tariff.
+     * Until the odometer passes this distance (or the duration determined by {@link #nextIncrementDuration} passes),
+     * a recalculation cannot change the fare.
+     *
+     * @param now the current time, in milliseconds since the epoch
+     * @param zone the time zone in which the rules of the tariffs apply
+     * @param journeyDistance the distance of the journey so far
+     * @param distanceAccountedFor the journey distance accounted for by the current fare
+     * @return the journey distance after which to recalculate, or Long.MAX_VALUE if distance alone cannot bring the
+     *         next increment forward
+     */
+    public long nextIncrementDistance(
+            final long now,
+            final DateTimeZone zone,
+            final long journeyDistance,
+            final long distanceAccountedFor) {
+
+        final FixedPointTariff tariff = tariffs.lookup(now, zone);
+
+        return Math.min(
+                journeyDistance > distanceAccountedFor ? Long.MAX_VALUE : distanceAccountedFor,
+                journeyDistance > tariff.getFlagFallDistanceLimit() ? Long.MAX_VALUE : tariff.getFlagFallDistanceLimit());
+    }
+
+}
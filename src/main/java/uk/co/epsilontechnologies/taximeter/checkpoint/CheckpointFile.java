@@ -0,0 +1,150 @@
+package uk.co.epsilontechnologies.taximeter.checkpoint;
+
+import org.joda.time.DateTimeZone;
+import uk.co.epsilontechnologies.taximeter.model.Fare;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Reads and writes a batch of {@link MeterCheckpoint}s, as a single compact binary file.
+ *
+ * <p>The batch is written to a temporary file, forced to the storage device, then moved over the previous batch - so
+ * the file always holds a complete batch, however the host stops. The time zones of the journeys are written once, in
+ * a table at the start of the file, and each checkpoint refers to its zone by index.
+ *
+ * @author Shane Gibson
+ */
+public final class CheckpointFile {
+
+    /**
+     * Identifies a checkpoint file - "TXC1".
+     */
+    private static final int MAGIC = 0x54584331;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private CheckpointFile() {
+    }
+
+    /**
+     * Writes the given checkpoints to the given file, replacing any it already holds.
+     *
+     * @param file the file to write
+     * @param checkpoints the checkpoints to write
+     * @throws IOException the file could not be written
+     * @throws IllegalArgumentException a fare cannot be represented in the file
+     */
+    public static void write(final File file, final List<MeterCheckpoint> checkpoints) throws IOException {
+        final Map<DateTimeZone, Integer> zones = new HashMap<>();
+        for (final MeterCheckpoint checkpoint : checkpoints) {
+            if (!zones.containsKey(checkpoint.getZone())) {
+                zones.put(checkpoint.getZone(), zones.size());
+            }
+        }
+        final DateTimeZone[] zoneTable = new DateTimeZone[zones.size()];
+        for (final Map.Entry<DateTimeZone, Integer> zone : zones.entrySet()) {
+            zoneTable[zone.getValue()] = zone.getKey();
+        }
+
+        final File temporary = new File(file.getPath()+".tmp");
+        final FileOutputStream fileOut = new FileOutputStream(temporary);
+        try {
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeInt(zoneTable.length);
+            for (final DateTimeZone zone : zoneTable) {
+                out.writeUTF(zone.getID());
+            }
+            out.writeInt(checkpoints.size());
+            for (final MeterCheckpoint checkpoint : checkpoints) {
+                out.writeLong(checkpoint.getMeterId());
+                out.writeShort(zones.get(checkpoint.getZone()));
+                out.writeLong(checkpoint.getStartTime());
+                out.writeLong(checkpoint.getCheckpointTime());
+                out.writeLong(checkpoint.getDuration());
+                out.writeLong(checkpoint.getDistance());
+                out.writeLong(checkpoint.getSequence());
+                writeDecimal(out, checkpoint.getFare().getAmount());
+                writeDecimal(out, checkpoint.getFare().getJourneyDistanceAccountedFor());
+                writeDecimal(out, checkpoint.getFare().getJourneyDurationAccountedFor());
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        } finally {
+            fileOut.close();
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the checkpoints in the given file.
+     *
+     * @param file the file to read
+     * @return the checkpoints, or an empty list if the file does not exist
+     * @throws IOException the file could not be read, or is not a checkpoint file
+     */
+    public static List<MeterCheckpoint> read(final File file) throws IOException {
+        if (!file.exists()) {
+            return new ArrayList<>();
+        }
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a checkpoint file: "+file);
+            }
+            final DateTimeZone[] zones = new DateTimeZone[in.readInt()];
+            for (int i = 0; i < zones.length; i++) {
+                zones[i] = DateTimeZone.forID(in.readUTF());
+            }
+            final int count = in.readInt();
+            final List<MeterCheckpoint> checkpoints = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final long meterId = in.readLong();
+                final DateTimeZone zone = zones[in.readShort()];
+                final long startTime = in.readLong();
+                final long checkpointTime = in.readLong();
+                final long duration = in.readLong();
+                final long distance = in.readLong();
+                final long sequence = in.readLong();
+                final Fare fare = new Fare(readDecimal(in), readDecimal(in), readDecimal(in));
+                checkpoints.add(new MeterCheckpoint(meterId, startTime, zone, checkpointTime, duration, distance, sequence, fare));
+            }
+            return checkpoints;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes the given decimal exactly, as its scale and unscaled value.
+     */
+    private static void writeDecimal(final DataOutputStream out, final BigDecimal decimal) throws IOException {
+        final BigInteger unscaled = decimal.unscaledValue();
+        if (unscaled.bitLength() > 63 || decimal.scale() != (byte) decimal.scale()) {
+            throw new IllegalArgumentException("Cannot checkpoint "+decimal);
+        }
+        out.writeByte(decimal.scale());
+        out.writeLong(unscaled.longValue());
+    }
+
+    private static BigDecimal readDecimal(final DataInputStream in) throws IOException {
+        final int scale = in.readByte();
+        return BigDecimal.valueOf(in.readLong(), scale);
+    }
+
+}
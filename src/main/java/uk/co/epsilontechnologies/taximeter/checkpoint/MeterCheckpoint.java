@@ -0,0 +1,132 @@
+package uk.co.epsilontechnologies.taximeter.checkpoint;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.joda.time.DateTimeZone;
+import uk.co.epsilontechnologies.taximeter.model.Fare;
+
+/**
+ * <p>Immutable model object for the state of a meter's journey in progress, from which the journey can be resumed.
+ *
+ * <p>The distance is held in millimetres (as measured, i.e. rounded up) and the duration in milliseconds. The fare is
+ * held in full, so that the distance and duration it accounts for are restored exactly.
+ *
+ * @see uk.co.epsilontechnologies.taximeter.TflTaxiMeter#checkpoint(long)
+ * @see uk.co.epsilontechnologies.taximeter.TflTaxiMeter#resumeJourney(MeterCheckpoint)
+ *
+ * @author Shane Gibson
+ */
+public final class MeterCheckpoint {
+
+    private final long meterId;
+    private final long startTime;
+    private final DateTimeZone zone;
+    private final long checkpointTime;
+    private final long duration;
+    private final long distance;
+    private final long sequence;
+    private final Fare fare;
+
+    /**
+     * Constructor for the checkpoint.
+     *
+     * @param meterId the id of the meter
+     * @param startTime the start time of the journey, in milliseconds since the epoch
+     * @param zone the time zone of the journey
+     * @param checkpointTime the time of the checkpoint, in milliseconds since the epoch
+     * @param duration the journey duration as at the checkpoint, in milliseconds
+     * @param distance the journey distance as at the checkpoint, in millimetres
+     * @param sequence the number of ticks of the journey before the checkpoint
+     * @param fare the fare as at the checkpoint
+     */
+    public MeterCheckpoint(
+            final long meterId,
+            final long startTime,
+            final DateTimeZone zone,
+            final long checkpointTime,
+            final long duration,
+            final long distance,
+            final long sequence,
+            final Fare fare) {
+        this.meterId = meterId;
+        this.startTime = startTime;
+        this.zone = zone;
+        this.checkpointTime = checkpointTime;
+        this.duration = duration;
+        this.distance = distance;
+        this.sequence = sequence;
+        this.fare = fare;
+    }
+
+    /**
+     * Getter for the meter id
+     * @return the id of the meter
+     */
+    public long getMeterId() {
+        return meterId;
+    }
+
+    /**
+     * Getter for the start time
+     * @return the start time of the journey, in milliseconds since the epoch
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Getter for the zone
+     * @return the time zone of the journey
+     */
+    public DateTimeZone getZone() {
+        return zone;
+    }
+
+    /**
+     * Getter for the checkpoint time
+     * @return the time of the checkpoint, in milliseconds since the epoch
+     */
+    public long getCheckpointTime() {
+        return checkpointTime;
+    }
+
+    /**
+     * Getter for the duration
+     * @return the journey duration as at the checkpoint, in milliseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Getter for the distance
+     * @return the journey distance as at the checkpoint, in millimetres
+     */
+    public long getDistance() {
+        return distance;
+    }
+
+    /**
+     * Getter for the sequence
+     * @return the number of ticks of the journey before the checkpoint
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Getter for the fare
+     * @return the fare as at the checkpoint
+     */
+    public Fare getFare() {
+        return fare;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+
+}
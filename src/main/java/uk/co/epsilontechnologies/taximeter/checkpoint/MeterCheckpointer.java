@@ -0,0 +1,146 @@
+package uk.co.epsilontechnologies.taximeter.checkpoint;
+
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.scheduler.TickScheduler;
+import uk.co.epsilontechnologies.taximeter.utils.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Checkpoints the journeys in progress of a fleet of meters, in a single batch, so that they can be resumed after
+ * the host restarts.
+ *
+ * <p>Meters are registered by id. Each checkpoint captures every registered meter with a journey in progress - without
+ * stopping the meters - and writes them all to the checkpoint file at once, see {@link CheckpointFile}. On startup,
+ * {@link #recover} rebuilds a meter for each checkpoint in the file, and resumes its journey.
+ *
+ * @author Shane Gibson
+ */
+public class MeterCheckpointer {
+
+    /**
+     * The file to write the checkpoints to.
+     */
+    private final File file;
+
+    /**
+     * The registered meters, by id.
+     */
+    private final Map<Long, TflTaxiMeter> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the checkpointer for the given file.
+     *
+     * @param file the file to write the checkpoints to
+     */
+    public MeterCheckpointer(final File file) {
+        this.file = file;
+    }
+
+    /**
+     * Getter for the file
+     * @return the file the checkpoints are written to
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Registers the given meter, to be included in every checkpoint.
+     *
+     * @param meterId the id by which to identify the meter on recovery
+     * @param meter the meter
+     */
+    public void register(final long meterId, final TflTaxiMeter meter) {
+        meters.put(meterId, meter);
+    }
+
+    /**
+     * Unregisters the meter with the given id.
+     *
+     * @param meterId the id of the meter
+     */
+    public void unregister(final long meterId) {
+        meters.remove(meterId);
+    }
+
+    /**
+     * Checkpoints the journeys in progress of every registered meter.
+     *
+     * @return the number of journeys checkpointed
+     * @throws IOException the checkpoint file could not be written
+     */
+    public synchronized int checkpoint() throws IOException {
+        final List<MeterCheckpoint> checkpoints = new ArrayList<>(meters.size());
+        for (final Map.Entry<Long, TflTaxiMeter> meter : meters.entrySet()) {
+            final MeterCheckpoint checkpoint = meter.getValue().checkpoint(meter.getKey());
+            if (checkpoint != null) {
+                checkpoints.add(checkpoint);
+            }
+        }
+        CheckpointFile.write(file, checkpoints);
+        return checkpoints.size();
+    }
+
+    /**
+     * Checkpoints the registered meters periodically, on the given scheduler. A failure to checkpoint is logged, and
+     * the next checkpoint tried as usual.
+     *
+     * @param scheduler the scheduler to checkpoint on
+     * @param periodInMillis the period between checkpoints, in milliseconds
+     * @return the scheduled checkpoints, to cancel them with
+     */
+    public TickScheduler.ScheduledTick start(final TickScheduler scheduler, final long periodInMillis) {
+        return scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    checkpoint();
+                } catch (final IOException e) {
+                    Log.exception(e);
+                }
+            }
+        }, periodInMillis);
+    }
+
+    /**
+     * Rebuilds a meter for each journey in the checkpoint file, resumes the journey, and registers the meter.
+     *
+     * @param factory the factory to build the meters with
+     * @return the meters, by id, in the order they were checkpointed
+     * @throws IOException the checkpoint file could not be read
+     */
+    public Map<Long, TflTaxiMeter> recover(final MeterFactory factory) throws IOException {
+        final List<MeterCheckpoint> checkpoints = CheckpointFile.read(file);
+        final Map<Long, TflTaxiMeter> recovered = new LinkedHashMap<>(checkpoints.size() * 2);
+        for (final MeterCheckpoint checkpoint : checkpoints) {
+            final TflTaxiMeter meter = factory.create(checkpoint.getMeterId());
+            meter.resumeJourney(checkpoint);
+            register(checkpoint.getMeterId(), meter);
+            recovered.put(checkpoint.getMeterId(), meter);
+        }
+        return recovered;
+    }
+
+    /**
+     * <p>Builds the meters to resume journeys on.
+     */
+    public interface MeterFactory {
+
+        /**
+         * Builds the meter with the given id, configured as it was before the restart.
+         *
+         * @param meterId the id of the meter
+         * @return the meter
+         */
+        TflTaxiMeter create(long meterId);
+
+    }
+
+}
@@ -0,0 +1,256 @@
+package uk.co.epsilontechnologies.taximeter.gps;
+
+import uk.co.epsilontechnologies.taximeter.ObservableOdometer;
+
+import java.math.BigDecimal;
+
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromMillimetres;
+
+/**
+ * <p>Odometer fed by GPS fixes.
+ *
+ * <p>Fixes are buffered in a ring of primitive arrays, and processed in batches: each fix is checked against the last
+ * accepted fix, and the distance between them accumulated, using the equirectangular approximation - accurate to well
+ * within a millimetre over the few metres between fixes. Fixes that are not after the last accepted fix, or that would
+ * mean the taxi travelled faster than the maximum speed (i.e. a jump in position), are dropped as outliers.
+ *
+ * <p>At the end of each batch, the distance is published - both in millimetres, and as a BigDecimal in metres - so
+ * {@link #getDistance()} does not calculate or allocate anything, however often the meters poll it. In return, the
+ * distance lags the latest fix by up to a batch; {@link #flush()} publishes the fixes buffered so far, e.g. before
+ * the journey ends.
+ *
+ * <p>Fixes should be added from one thread at a time; the distance may be read from any thread.
+ *
+ * @author Shane Gibson
+ */
+public class GpsOdometer implements ObservableOdometer {
+
+    /**
+     * The default number of fixes to process in each batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 5;
+
+    /**
+     * The default maximum speed, beyond which a fix is dropped, in metres per second (about 112 mph).
+     */
+    public static final double DEFAULT_MAXIMUM_SPEED = 50;
+
+    /**
+     * The mean radius of the Earth, in metres.
+     */
+    private static final double EARTH_RADIUS = 6371008.8;
+
+    /*
+      The ring of buffered fixes: the time (in milliseconds since the epoch) and position (in degrees) of each.
+    */
+
+    private final long[] times;
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    /**
+     * The mask to index the ring with - its capacity, less one.
+     */
+    private final int mask;
+
+    /**
+     * The number of fixes to process in each batch.
+     */
+    private final int batchSize;
+
+    /**
+     * The maximum speed, beyond which a fix is dropped, in metres per second.
+     */
+    private final double maximumSpeed;
+
+    /**
+     * The number of fixes added, and the number processed, since the odometer was created. Guarded by this.
+     */
+    private long added;
+    private long processed;
+
+    /*
+      The last accepted fix, and the distance accumulated - guarded by this.
+    */
+
+    private boolean hasLastFix;
+    private long lastTime;
+    private double lastLatitude;
+    private double lastLongitude;
+    private double metres;
+    private long dropped;
+
+    /**
+     * The published distance, in millimetres.
+     */
+    private volatile long distanceInMillimetres;
+
+    /**
+     * The published distance, in metres.
+     */
+    private volatile BigDecimal distance = BigDecimal.ZERO;
+
+    private volatile DistanceListener listener;
+
+    /**
+     * Constructs the odometer, with the default batch size and maximum speed.
+     */
+    public GpsOdometer() {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_MAXIMUM_SPEED);
+    }
+
+    /**
+     * Constructs the odometer.
+     *
+     * @param batchSize the number of fixes to process in each batch
+     * @param maximumSpeed the maximum speed, beyond which a fix is dropped, in metres per second
+     * @throws IllegalArgumentException the batch size or maximum speed is not positive
+     */
+    public GpsOdometer(final int batchSize, final double maximumSpeed) {
+        if (batchSize <= 0 || maximumSpeed <= 0) {
+            throw new IllegalArgumentException("Batch size and maximum speed must be positive: "+batchSize+", "+maximumSpeed);
+        }
+        // a power of two, so the ring can be indexed with a mask
+        final int capacity = batchSize == 1 ? 1 : Integer.highestOneBit(batchSize - 1) << 1;
+        this.batchSize = batchSize;
+        this.times = new long[capacity];
+        this.latitudes = new double[capacity];
+        this.longitudes = new double[capacity];
+        this.mask = capacity - 1;
+        this.maximumSpeed = maximumSpeed;
+    }
+
+    /**
+     * Adds a fix, processing the buffered fixes once there is a batch of them.
+     *
+     * @param time the time of the fix, in milliseconds since the epoch
+     * @param latitude the latitude, in degrees
+     * @param longitude the longitude, in degrees
+     */
+    public synchronized void addFix(final long time, final double latitude, final double longitude) {
+        final int index = (int) added & mask;
+        times[index] = time;
+        latitudes[index] = latitude;
+        longitudes[index] = longitude;
+        if (++added - processed == batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Processes the buffered fixes, and publishes the distance.
+     */
+    public synchronized void flush() {
+        if (processed == added) {
+            return;
+        }
+        for (; processed < added; processed++) {
+            final int index = (int) processed & mask;
+            accumulate(times[index], latitudes[index], longitudes[index]);
+        }
+        final long millimetres = (long) (metres * 1000);
+        if (millimetres != distanceInMillimetres) {
+            this.distanceInMillimetres = millimetres;
+            this.distance = fromMillimetres(millimetres);
+            final DistanceListener listener = this.listener;
+            if (listener != null) {
+                listener.distanceChanged(distance);
+            }
+        }
+    }
+
+    private void accumulate(final long time, final double latitude, final double longitude) {
+        if (Double.isNaN(latitude) || Double.isNaN(longitude) || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            dropped++;
+            return;
+        }
+        if (!hasLastFix) {
+            acceptFix(time, latitude, longitude);
+            return;
+        }
+        if (time <= lastTime) {
+            dropped++;
+            return;
+        }
+        final double metres = equirectangularDistance(lastLatitude, lastLongitude, latitude, longitude);
+        if (metres > maximumSpeed * (time - lastTime) / 1000) {
+            dropped++;
+            return;
+        }
+        this.metres += metres;
+        acceptFix(time, latitude, longitude);
+    }
+
+    private void acceptFix(final long time, final double latitude, final double longitude) {
+        this.hasLastFix = true;
+        this.lastTime = time;
+        this.lastLatitude = latitude;
+        this.lastLongitude = longitude;
+    }
+
+    /**
+     * The distance between two positions, using the equirectangular approximation.
+     *
+     * @return the distance, in metres
+     */
+    static double equirectangularDistance(final double latitude1, final double longitude1, final double latitude2, final double longitude2) {
+        final double phi1 = Math.toRadians(latitude1);
+        final double phi2 = Math.toRadians(latitude2);
+        double deltaLongitude = longitude2 - longitude1;
+        // take the short way round, across the antimeridian
+        if (deltaLongitude > 180) {
+            deltaLongitude -= 360;
+        } else if (deltaLongitude < -180) {
+            deltaLongitude += 360;
+        }
+        final double x = Math.toRadians(deltaLongitude) * Math.cos((phi1 + phi2) / 2);
+        final double y = phi2 - phi1;
+        return EARTH_RADIUS * Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * @see uk.co.epsilontechnologies.taximeter.Odometer#getDistance()
+     */
+    @Override
+    public BigDecimal getDistance() {
+        return distance;
+    }
+
+    /**
+     * Getter for the distance in millimetres
+     * @return the distance travelled since the odometer was last reset, as at the last batch, in millimetres
+     */
+    public long getDistanceInMillimetres() {
+        return distanceInMillimetres;
+    }
+
+    /**
+     * Getter for the dropped fixes
+     * @return the number of fixes dropped as outliers since the odometer was last reset
+     */
+    public synchronized long getDroppedFixes() {
+        return dropped;
+    }
+
+    /**
+     * Resets the odometer to zero, discarding the buffered fixes. The next fix is taken as the starting position.
+     */
+    @Override
+    public synchronized void reset() {
+        this.processed = added;
+        this.hasLastFix = false;
+        this.metres = 0;
+        this.dropped = 0;
+        this.distanceInMillimetres = 0;
+        this.distance = BigDecimal.ZERO;
+    }
+
+    /**
+     * @see ObservableOdometer#setDistanceListener(DistanceListener)
+     */
+    @Override
+    public void setDistanceListener(final DistanceListener listener) {
+        this.listener = listener;
+    }
+
+}
@@ -0,0 +1,29 @@
+package uk.co.epsilontechnologies.taximeter.journal;
+
+/**
+ * <p>When a {@link JourneyJournal} forces its records to the storage device.
+ *
+ * <p>Records are in the page cache as soon as they are appended, so survive the JVM crashing whatever the policy - the
+ * policy decides what survives the machine crashing, at the cost of the latency of appending.
+ *
+ * @author Shane Gibson
+ */
+public enum ForcePolicy {
+
+    /**
+     * Leaves writing back to the operating system, other than on closing the journal.
+     */
+    NEVER,
+
+    /**
+     * Forces each segment when it is full, and on closing the journal.
+     */
+    ON_ROLL,
+
+    /**
+     * Forces the segment after every record. Much slower than a tick - only for when every fare change must be
+     * durable before the meter moves on.
+     */
+    EVERY_RECORD
+
+}
@@ -0,0 +1,110 @@
+package uk.co.epsilontechnologies.taximeter.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static uk.co.epsilontechnologies.taximeter.journal.JourneyJournal.*;
+
+/**
+ * <p>Reads back the records of a {@link JourneyJournal}, segment by segment, in the order their slots were reserved.
+ *
+ * <p>Records that were never committed are skipped. Records of concurrent meters are interleaved, so to follow a
+ * journey, filter by meter id and order by sequence.
+ *
+ * @author Shane Gibson
+ */
+public class JournalReader implements Closeable {
+
+    /**
+     * The segments to read.
+     */
+    private final File[] segments;
+
+    /**
+     * The index of the segment being read.
+     */
+    private int segmentIndex = -1;
+
+    /**
+     * The segment being read, or null before the first and after the last.
+     */
+    private MappedByteBuffer segment;
+
+    /**
+     * The offset of the next record to read in the segment.
+     */
+    private int offset;
+
+    /**
+     * The end of the records in the segment.
+     */
+    private int limit;
+
+    /**
+     * Constructs the reader for the journal in the given directory.
+     *
+     * @param directory the directory holding the segments
+     */
+    public JournalReader(final File directory) {
+        this.segments = segments(directory);
+    }
+
+    /**
+     * Reads the next committed record.
+     *
+     * @return the record, or null if there are no more
+     * @throws IOException a segment could not be read, or is not a journal segment
+     */
+    public JournalRecord next() throws IOException {
+        while (true) {
+            while (segment == null || offset > limit - RECORD_SIZE) {
+                if (++segmentIndex >= segments.length) {
+                    this.segment = null;
+                    return null;
+                }
+                openSegment(segments[segmentIndex]);
+            }
+            final int record = offset;
+            this.offset += RECORD_SIZE;
+            if (segment.getInt(record + COMMIT_OFFSET) == COMMITTED) {
+                return new JournalRecord(
+                        segment.getLong(record + METER_ID_OFFSET),
+                        segment.getLong(record + SEQUENCE_OFFSET),
+                        segment.getLong(record + TIMESTAMP_OFFSET),
+                        segment.getLong(record + DISTANCE_OFFSET),
+                        segment.getLong(record + DURATION_OFFSET),
+                        segment.getLong(record + FARE_OFFSET),
+                        segment.getInt(record + BAND_OFFSET));
+            }
+        }
+    }
+
+    /**
+     * @see Closeable#close()
+     */
+    @Override
+    public void close() {
+        this.segment = null;
+        this.segmentIndex = segments.length;
+    }
+
+    private void openSegment(final File file) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            final MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != RECORD_SIZE) {
+                throw new IOException("Not a journal segment: "+file);
+            }
+            this.segment = buffer;
+            this.offset = HEADER_SIZE;
+            this.limit = buffer.capacity();
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+}
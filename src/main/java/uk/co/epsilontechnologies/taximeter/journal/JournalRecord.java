@@ -0,0 +1,115 @@
+package uk.co.epsilontechnologies.taximeter.journal;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * <p>Immutable model object for a fare change, as recorded in a {@link JourneyJournal}.
+ *
+ * <p>As per {@link uk.co.epsilontechnologies.taximeter.model.MeterSnapshot}, the fare is held in pence, the distance in
+ * millimetres and the duration in milliseconds.
+ *
+ * @author Shane Gibson
+ */
+public final class JournalRecord {
+
+    private final long meterId;
+    private final long sequence;
+    private final long timestamp;
+    private final long distance;
+    private final long duration;
+    private final long fare;
+    private final int band;
+
+    /**
+     * Constructor for the record.
+     *
+     * @param meterId the id of the meter
+     * @param sequence the number of ticks of the journey before the fare change - zero for the flag fall
+     * @param timestamp the time of the fare change, in milliseconds since the epoch
+     * @param distance the journey distance, in millimetres
+     * @param duration the journey duration, in milliseconds
+     * @param fare the fare amount, in pence
+     * @param band the band of the tariff that applied
+     */
+    public JournalRecord(
+            final long meterId,
+            final long sequence,
+            final long timestamp,
+            final long distance,
+            final long duration,
+            final long fare,
+            final int band) {
+        this.meterId = meterId;
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.distance = distance;
+        this.duration = duration;
+        this.fare = fare;
+        this.band = band;
+    }
+
+    /**
+     * Getter for the meter id
+     * @return the id of the meter
+     */
+    public long getMeterId() {
+        return meterId;
+    }
+
+    /**
+     * Getter for the sequence
+     * @return the number of ticks of the journey before the fare change
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Getter for the timestamp
+     * @return the time of the fare change, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Getter for the distance
+     * @return the journey distance, in millimetres
+     */
+    public long getDistance() {
+        return distance;
+    }
+
+    /**
+     * Getter for the duration
+     * @return the journey duration, in milliseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Getter for the fare
+     * @return the fare amount, in pence
+     */
+    public long getFare() {
+        return fare;
+    }
+
+    /**
+     * Getter for the band
+     * @return the band of the tariff that applied
+     */
+    public int getBand() {
+        return band;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+
+}
@@ -0,0 +1,300 @@
+package uk.co.epsilontechnologies.taximeter.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Durable, append-only record of every fare change, for handling disputes.
+ *
+ * <p>The journal is a sequence of segment files in a directory, each of which is memory-mapped and holds fixed-size
+ * binary records. Appending a record reserves its slot in the current segment with a single atomic add, then writes
+ * the record straight into the mapped memory - so meters appending concurrently never lock, allocate or make a system
+ * call. Only the append that finds the segment full takes a lock, to roll on to a new segment.
+ *
+ * <p>Each record occupies a cache line of its own (so meters writing adjacent records do not contend), and is marked
+ * as committed once its fields have been written. Slots that were reserved but never committed - by a meter that
+ * crashed part-way through an append, say - are skipped by the {@link JournalReader}.
+ *
+ * <p>How often the records are forced to the storage device is configured by the {@link ForcePolicy}.
+ *
+ * @author Shane Gibson
+ */
+public class JourneyJournal implements Closeable {
+
+    /**
+     * The default size of each segment, in bytes.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Identifies a segment file - "TXJ1".
+     */
+    static final int MAGIC = 0x54584A31;
+
+    /**
+     * The size of the header at the start of each segment, in bytes: the magic number, the record size and the
+     * segment size, padded to a cache line.
+     */
+    static final int HEADER_SIZE = 64;
+
+    /**
+     * The size of each record, in bytes: seven fields and the commit marker, padded to a cache line.
+     */
+    static final int RECORD_SIZE = 64;
+
+    /*
+      The offsets of the fields within a record.
+    */
+
+    static final int METER_ID_OFFSET = 0;
+    static final int SEQUENCE_OFFSET = 8;
+    static final int TIMESTAMP_OFFSET = 16;
+    static final int DISTANCE_OFFSET = 24;
+    static final int DURATION_OFFSET = 32;
+    static final int FARE_OFFSET = 40;
+    static final int BAND_OFFSET = 48;
+    static final int COMMIT_OFFSET = 52;
+
+    /**
+     * The value of the commit marker of a record that has been written in full.
+     */
+    static final int COMMITTED = 1;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    /**
+     * The directory holding the segments.
+     */
+    private final File directory;
+
+    /**
+     * The size of each segment, in bytes.
+     */
+    private final int segmentSize;
+
+    /**
+     * When to force the records to the storage device.
+     */
+    private final ForcePolicy forcePolicy;
+
+    /**
+     * The segment being appended to.
+     */
+    private volatile Segment current;
+
+    /**
+     * Whether the journal has been closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Opens a journal in the given directory, with the default segment size, forcing each segment when it is full.
+     *
+     * @param directory the directory to hold the segments, which is created if need be
+     * @throws IOException the first segment could not be created
+     */
+    public JourneyJournal(final File directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, ForcePolicy.ON_ROLL);
+    }
+
+    /**
+     * Opens a journal in the given directory. Any segments already in the directory are kept, and appended to by
+     * starting a new segment after them.
+     *
+     * @param directory the directory to hold the segments, which is created if need be
+     * @param segmentSize the size of each segment, in bytes
+     * @param forcePolicy when to force the records to the storage device
+     * @throws IllegalArgumentException the segment size cannot hold a record
+     * @throws IOException the first segment could not be created
+     */
+    public JourneyJournal(final File directory, final int segmentSize, final ForcePolicy forcePolicy) throws IOException {
+        if (segmentSize < HEADER_SIZE + RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment size too small to hold a record: "+segmentSize);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create journal directory: "+directory);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.forcePolicy = forcePolicy;
+        final File[] segments = segments(directory);
+        this.current = openSegment(segments.length == 0 ? 0 : segmentIndex(segments[segments.length - 1]) + 1);
+    }
+
+    /**
+     * Getter for the directory
+     * @return the directory holding the segments
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Getter for the force policy
+     * @return when the records are forced to the storage device
+     */
+    public ForcePolicy getForcePolicy() {
+        return forcePolicy;
+    }
+
+    /**
+     * Appends a record of a fare change. Safe to call from any number of threads at once.
+     *
+     * @param meterId the id of the meter
+     * @param sequence the number of ticks of the journey before the fare change - zero for the flag fall
+     * @param timestamp the time of the fare change, in milliseconds since the epoch
+     * @param distance the journey distance, in millimetres
+     * @param duration the journey duration, in milliseconds
+     * @param fare the fare amount, in pence
+     * @param band the band of the tariff that applied
+     * @throws IOException the journal has been closed, or a new segment could not be created
+     */
+    public void append(
+            final long meterId,
+            final long sequence,
+            final long timestamp,
+            final long distance,
+            final long duration,
+            final long fare,
+            final int band) throws IOException {
+        if (closed) {
+            throw new IOException("Journal closed: "+directory);
+        }
+        Segment segment = current;
+        int offset;
+        while ((offset = segment.reserve()) < 0) {
+            segment = roll(segment);
+        }
+        final MappedByteBuffer buffer = segment.buffer;
+        buffer.putLong(offset + METER_ID_OFFSET, meterId);
+        buffer.putLong(offset + SEQUENCE_OFFSET, sequence);
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        buffer.putLong(offset + DISTANCE_OFFSET, distance);
+        buffer.putLong(offset + DURATION_OFFSET, duration);
+        buffer.putLong(offset + FARE_OFFSET, fare);
+        buffer.putInt(offset + BAND_OFFSET, band);
+        buffer.putInt(offset + COMMIT_OFFSET, COMMITTED);
+        if (forcePolicy == ForcePolicy.EVERY_RECORD) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Forces the records appended so far to the storage device, whatever the force policy - e.g. to force them
+     * periodically.
+     */
+    public void force() {
+        current.buffer.force();
+    }
+
+    /**
+     * Forces the records appended so far to the storage device, and closes the journal to further appends.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            this.closed = true;
+            current.buffer.force();
+        }
+    }
+
+    /**
+     * Rolls on from the given full segment to a new one, unless another append has already done so.
+     *
+     * @param full the segment that was found to be full
+     * @return the segment to append to
+     * @throws IOException the journal has been closed, or a new segment could not be created
+     */
+    private synchronized Segment roll(final Segment full) throws IOException {
+        if (closed) {
+            throw new IOException("Journal closed: "+directory);
+        }
+        if (current == full) {
+            if (forcePolicy != ForcePolicy.NEVER) {
+                full.buffer.force();
+            }
+            this.current = openSegment(full.index + 1);
+        }
+        return current;
+    }
+
+    private Segment openSegment(final int index) throws IOException {
+        final File file = new File(directory, String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(segmentSize);
+            final MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, RECORD_SIZE);
+            buffer.putInt(8, segmentSize);
+            // the mapping remains valid once the file is closed
+            return new Segment(index, buffer, segmentSize - (segmentSize - HEADER_SIZE) % RECORD_SIZE);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Lists the segments in the given directory, in the order they were written.
+     *
+     * @param directory the directory holding the segments
+     * @return the segment files
+     */
+    static File[] segments(final File directory) {
+        final File[] segments = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(final File dir, final String name) {
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }
+        });
+        if (segments == null) {
+            return new File[0];
+        }
+        // the indices are zero-padded, so sort by name
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    private static int segmentIndex(final File segment) {
+        final String name = segment.getName();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * <p>A mapped segment, and the position of its next free record.
+     */
+    private static final class Segment {
+
+        private final int index;
+        private final MappedByteBuffer buffer;
+        private final int limit;
+        private final AtomicInteger position = new AtomicInteger(HEADER_SIZE);
+
+        private Segment(final int index, final MappedByteBuffer buffer, final int limit) {
+            this.index = index;
+            this.buffer = buffer;
+            this.limit = limit;
+        }
+
+        /**
+         * Reserves the next free record.
+         *
+         * @return the offset of the record, or -1 if the segment is full
+         */
+        private int reserve() {
+            final int offset = position.getAndAdd(RECORD_SIZE);
+            // once full, the position keeps growing until the segment is rolled - and so could wrap around
+            return offset >= HEADER_SIZE && offset <= limit - RECORD_SIZE ? offset : -1;
+        }
+
+    }
+
+}
@@ -0,0 +1,90 @@
+package uk.co.epsilontechnologies.taximeter.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>A lock-free histogram of non-negative values, with a bucket per power of two.
+ *
+ * <p>Recording a value costs a few atomic updates, and the percentiles are accurate to within a factor of two - which is
+ * plenty to see how latency is distributed.
+ *
+ * @author Shane Gibson
+ */
+public class Histogram {
+
+    private static final int BUCKETS = 64;
+
+    /**
+     * The counts of values, where bucket n holds the values with n significant bits.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records the given value. Negative values are recorded as zero.
+     *
+     * @param value the value to record
+     */
+    public void record(final long value) {
+        final long recorded = Math.max(value, 0);
+        counts.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(recorded));
+        count.incrementAndGet();
+        total.addAndGet(recorded);
+        long currentMax;
+        while (recorded > (currentMax = max.get()) && !max.compareAndSet(currentMax, recorded)) {
+            // retry
+        }
+    }
+
+    /**
+     * Getter for the count
+     * @return the number of values recorded
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Getter for the mean
+     * @return the mean of the values recorded, or zero if there are none
+     */
+    public long getMean() {
+        final long count = this.count.get();
+        return count == 0 ? 0 : total.get() / count;
+    }
+
+    /**
+     * Getter for the max
+     * @return the largest value recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Estimates the given percentile of the values recorded, as the upper bound of the bucket that it falls in.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the estimated percentile, or zero if no values have been recorded
+     */
+    public long getPercentile(final double percentile) {
+        long recorded = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            recorded += counts.get(bucket);
+        }
+        final long target = (long) Math.ceil(recorded * percentile / 100);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= target && seen > 0) {
+                return Math.min(bucket == 0 ? 0 : (1L << bucket) - 1, getMax());
+            }
+        }
+        return 0;
+    }
+
+}
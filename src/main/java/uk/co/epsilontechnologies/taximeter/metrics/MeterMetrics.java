@@ -0,0 +1,289 @@
+package uk.co.epsilontechnologies.taximeter.metrics;
+
+import uk.co.epsilontechnologies.taximeter.utils.Log;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * <p>Metrics for a fleet of meters: how many ticks they run and how long those take, how late the poller runs them,
+ * which tariff bands apply, and how many journeys are in progress.
+ *
+ * <p>Meters and pollers only record metrics when given a registry, so there is no overhead otherwise. Each meter
+ * counts its ticks in a {@link TickRecorder} of its own, which adds them to the registry's striped counters on one in
+ * every {@link #getSampleInterval() sample interval} ticks - which is also when the tick is timed, since that costs two
+ * reads of the system timer - and when its journey ends. The counts can therefore trail each meter by up to a sample
+ * interval of ticks whilst its journey is in progress.
+ *
+ * <p>A registry can be exposed over JMX with {@link #register(String)}.
+ *
+ * @author Shane Gibson
+ */
+public class MeterMetrics implements MeterMetricsMXBean {
+
+    /**
+     * The default number of ticks between timings.
+     */
+    public static final int DEFAULT_SAMPLE_INTERVAL = 16;
+
+    /**
+     * The number of tariff bands counted separately - any further bands are counted with the last.
+     */
+    private static final int MAX_BANDS = 8;
+
+    private final int sampleMask;
+
+    private final StripedCounter incrementTicks = new StripedCounter();
+    private final StripedCounter activeJourneys = new StripedCounter();
+    private final StripedCounter[] ticksByBand = new StripedCounter[MAX_BANDS];
+    private final Histogram tickDuration = new Histogram();
+    private final Histogram pollLag = new Histogram();
+
+    /**
+     * Constructs the registry, timing one in every {@link #DEFAULT_SAMPLE_INTERVAL} ticks.
+     */
+    public MeterMetrics() {
+        this(DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Constructs the registry.
+     *
+     * @param sampleInterval the number of ticks between timings, which must be a power of two
+     * @throws IllegalArgumentException the sample interval is not a power of two
+     */
+    public MeterMetrics(final int sampleInterval) {
+        if (sampleInterval <= 0 || Integer.bitCount(sampleInterval) != 1) {
+            throw new IllegalArgumentException("Sample interval must be a power of two: "+sampleInterval);
+        }
+        this.sampleMask = sampleInterval - 1;
+        for (int band = 0; band < MAX_BANDS; band++) {
+            this.ticksByBand[band] = new StripedCounter();
+        }
+    }
+
+    /**
+     * Registers this registry with the platform MBean server, under
+     * <code>uk.co.epsilontechnologies.taximeter:type=MeterMetrics,name=</code><i>name</i>.
+     *
+     * @param name the name to register under
+     * @return this registry
+     */
+    public MeterMetrics register(final String name) {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName objectName = new ObjectName("uk.co.epsilontechnologies.taximeter:type=MeterMetrics,name=" + ObjectName.quote(name));
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+        } catch (final JMException e) {
+            Log.exception(e);
+        }
+        return this;
+    }
+
+    /**
+     * Determines whether the tick with the given sequence should be timed.
+     *
+     * @param sequence the sequence of the tick within its journey
+     * @return true if the tick should be timed
+     */
+    public boolean isSampled(final long sequence) {
+        return (sequence & sampleMask) == 0;
+    }
+
+    /**
+     * Creates a recorder for the ticks of a single meter.
+     *
+     * @return the recorder
+     */
+    public TickRecorder newTickRecorder() {
+        return new TickRecorder(this);
+    }
+
+    /**
+     * Records a tick of a meter.
+     *
+     * @param band the band of the tariff that applied
+     * @param incremented whether the tick incremented the fare
+     */
+    public void recordTick(final int band, final boolean incremented) {
+        recordTicks(band, 1, incremented ? 1 : 0);
+    }
+
+    private void recordTicks(final int band, final long ticks, final long incrementTicks) {
+        if (incrementTicks > 0) {
+            this.incrementTicks.add(incrementTicks);
+        }
+        ticksByBand[Math.max(0, Math.min(band, MAX_BANDS - 1))].add(ticks);
+    }
+
+    /**
+     * Records how long a sampled tick took.
+     *
+     * @param nanos the duration of the tick, in nanoseconds
+     */
+    public void recordTickDuration(final long nanos) {
+        tickDuration.record(nanos);
+    }
+
+    /**
+     * Records how late a sampled poll ran.
+     *
+     * @param nanos the time between when the poll was scheduled and when it ran, in nanoseconds
+     */
+    public void recordPollLag(final long nanos) {
+        pollLag.record(nanos);
+    }
+
+    /**
+     * Records the start of a journey.
+     */
+    public void journeyStarted() {
+        activeJourneys.increment();
+    }
+
+    /**
+     * Records the end of a journey.
+     */
+    public void journeyEnded() {
+        activeJourneys.decrement();
+    }
+
+    @Override
+    public long getTicks() {
+        long ticks = 0;
+        for (final StripedCounter bandTicks : ticksByBand) {
+            ticks += bandTicks.sum();
+        }
+        return ticks;
+    }
+
+    @Override
+    public long getIncrementTicks() {
+        return incrementTicks.sum();
+    }
+
+    @Override
+    public long getActiveJourneys() {
+        return activeJourneys.sum();
+    }
+
+    @Override
+    public long[] getTicksByBand() {
+        final long[] ticks = new long[MAX_BANDS];
+        for (int band = 0; band < MAX_BANDS; band++) {
+            ticks[band] = ticksByBand[band].sum();
+        }
+        return ticks;
+    }
+
+    @Override
+    public long getTickDurationMeanNanos() {
+        return tickDuration.getMean();
+    }
+
+    @Override
+    public long getTickDurationP50Nanos() {
+        return tickDuration.getPercentile(50);
+    }
+
+    @Override
+    public long getTickDurationP99Nanos() {
+        return tickDuration.getPercentile(99);
+    }
+
+    @Override
+    public long getTickDurationMaxNanos() {
+        return tickDuration.getMax();
+    }
+
+    @Override
+    public long getPollLagMeanMicros() {
+        return pollLag.getMean() / 1000;
+    }
+
+    @Override
+    public long getPollLagP50Micros() {
+        return pollLag.getPercentile(50) / 1000;
+    }
+
+    @Override
+    public long getPollLagP99Micros() {
+        return pollLag.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getPollLagMaxMicros() {
+        return pollLag.getMax() / 1000;
+    }
+
+    @Override
+    public int getSampleInterval() {
+        return sampleMask + 1;
+    }
+
+    /**
+     * Getter for the tick duration histogram
+     * @return the durations of the sampled ticks, in nanoseconds
+     */
+    public Histogram getTickDuration() {
+        return tickDuration;
+    }
+
+    /**
+     * Getter for the poll lag histogram
+     * @return the lag of the sampled polls, in nanoseconds
+     */
+    public Histogram getPollLag() {
+        return pollLag;
+    }
+
+    /**
+     * <p>Counts the ticks of a single meter, adding them to the registry in batches.
+     *
+     * <p>Instances are not thread-safe - they must only be used by one thread at a time, such as whichever thread holds
+     * the meter's monitor to tick it or end its journey.
+     */
+    public static final class TickRecorder {
+
+        private final MeterMetrics metrics;
+        private final long[] ticksByBand = new long[MAX_BANDS];
+        private long incrementTicks;
+
+        private TickRecorder(final MeterMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        /**
+         * Counts a tick, which is added to the registry on the next flush.
+         *
+         * @param band the band of the tariff that applied
+         * @param incremented whether the tick incremented the fare
+         */
+        public void record(final int band, final boolean incremented) {
+            ticksByBand[Math.max(0, Math.min(band, MAX_BANDS - 1))]++;
+            if (incremented) {
+                incrementTicks++;
+            }
+        }
+
+        /**
+         * Adds the ticks counted since the last flush to the registry.
+         */
+        public void flush() {
+            for (int band = 0; band < MAX_BANDS; band++) {
+                if (ticksByBand[band] > 0) {
+                    metrics.recordTicks(band, ticksByBand[band], incrementTicks);
+                    ticksByBand[band] = 0;
+                    incrementTicks = 0;
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,36 @@
+package uk.co.epsilontechnologies.taximeter.metrics;
+
+/**
+ * <p>Management interface exposing {@link MeterMetrics} over JMX.
+ *
+ * @author Shane Gibson
+ */
+public interface MeterMetricsMXBean {
+
+    long getTicks();
+
+    long getIncrementTicks();
+
+    long getActiveJourneys();
+
+    long[] getTicksByBand();
+
+    long getTickDurationMeanNanos();
+
+    long getTickDurationP50Nanos();
+
+    long getTickDurationP99Nanos();
+
+    long getTickDurationMaxNanos();
+
+    long getPollLagMeanMicros();
+
+    long getPollLagP50Micros();
+
+    long getPollLagP99Micros();
+
+    long getPollLagMaxMicros();
+
+    int getSampleInterval();
+
+}
@@ -0,0 +1,77 @@
+package uk.co.epsilontechnologies.taximeter.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>A counter that can be updated from many threads at once without contention.
+ *
+ * <p>The count is striped across cells, each on its own cache line, and each thread updates the cell its id hashes to.
+ * Reading the count sums the cells, so is not an atomic snapshot while the counter is being updated - which is fine for
+ * metrics.
+ *
+ * @author Shane Gibson
+ */
+public class StripedCounter {
+
+    /**
+     * The number of longs between cells, so that each cell is on its own cache line.
+     */
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    /**
+     * Constructs the counter, with a cell for each processor (rounded up to a power of two).
+     */
+    public StripedCounter() {
+        int stripes = 1;
+        while (stripes < Runtime.getRuntime().availableProcessors()) {
+            stripes <<= 1;
+        }
+        this.cells = new AtomicLongArray(stripes * PADDING);
+        this.mask = stripes - 1;
+    }
+
+    /**
+     * Adds one to the count.
+     */
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * Subtracts one from the count.
+     */
+    public void decrement() {
+        add(-1);
+    }
+
+    /**
+     * Adds the given amount to the count.
+     *
+     * @param amount the amount to add
+     */
+    public void add(final long amount) {
+        cells.getAndAdd(cell(), amount);
+    }
+
+    /**
+     * Sums the count.
+     *
+     * @return the count
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < cells.length(); i += PADDING) {
+            sum += cells.get(i);
+        }
+        return sum;
+    }
+
+    private int cell() {
+        final long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return ((int) (id >>> 32) & mask) * PADDING;
+    }
+
+}
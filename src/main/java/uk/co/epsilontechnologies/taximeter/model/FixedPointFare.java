@@ -0,0 +1,113 @@
+package uk.co.epsilontechnologies.taximeter.model;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromMillimetres;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromMillis;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromPence;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.toMillimetres;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.toMillis;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.toPence;
+
+/**
+ * <p>Mutable, fixed-point counterpart of {@link Fare}, used by the primitive fare engine.
+ *
+ * <p>The amount is held in pence, the journey distance accounted for in millimetres and the journey duration accounted
+ * for in milliseconds. A single instance is updated in place for the lifetime of a journey, so that calculating the fare
+ * does not allocate.
+ *
+ * <p>Instances are not thread-safe.
+ *
+ * @author Shane Gibson
+ */
+public class FixedPointFare {
+
+    /**
+     * The current fare amount for the journey, in pence.
+     */
+    private long amount;
+
+    /**
+     * The journey distance that has been currently accounted for by the fare amount, in millimetres.
+     */
+    private long journeyDistanceAccountedFor;
+
+    /**
+     * The journey duration that has been currently accounted for by the fare amount, in milliseconds.
+     */
+    private long journeyDurationAccountedFor;
+
+    /**
+     * Sets the state of this fare.
+     *
+     * @param amount the fare amount, in pence
+     * @param journeyDistanceAccountedFor the distance that has been accounted for, in millimetres
+     * @param journeyDurationAccountedFor the duration that has been accounted for, in milliseconds
+     * @return this fare
+     */
+    public FixedPointFare set(final long amount, final long journeyDistanceAccountedFor, final long journeyDurationAccountedFor) {
+        this.amount = amount;
+        this.journeyDistanceAccountedFor = journeyDistanceAccountedFor;
+        this.journeyDurationAccountedFor = journeyDurationAccountedFor;
+        return this;
+    }
+
+    /**
+     * Sets the state of this fare from the given decimal fare.
+     *
+     * @param fare the fare to copy
+     * @return this fare
+     * @throws IllegalArgumentException the fare cannot be represented exactly in fixed-point units
+     */
+    public FixedPointFare set(final Fare fare) {
+        return set(
+                toPence(fare.getAmount()),
+                toMillimetres(fare.getJourneyDistanceAccountedFor()),
+                toMillis(fare.getJourneyDurationAccountedFor()));
+    }
+
+    /**
+     * Getter for the fare amount
+     * @return the amount, in pence
+     */
+    public long getAmount() {
+        return amount;
+    }
+
+    /**
+     * Getter for the journey distance accounted for
+     * @return the journey distance accounted for, in millimetres
+     */
+    public long getJourneyDistanceAccountedFor() {
+        return journeyDistanceAccountedFor;
+    }
+
+    /**
+     * Getter for the journey duration accounted for
+     * @return the journey duration accounted for, in milliseconds
+     */
+    public long getJourneyDurationAccountedFor() {
+        return journeyDurationAccountedFor;
+    }
+
+    /**
+     * Converts this fare to its decimal representation.
+     *
+     * @return the equivalent fare
+     */
+    public Fare toFare() {
+        return new Fare(
+                fromPence(amount),
+                fromMillimetres(journeyDistanceAccountedFor),
+                fromMillis(journeyDurationAccountedFor));
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+
+}
@@ -0,0 +1,137 @@
+package uk.co.epsilontechnologies.taximeter.model;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.math.BigDecimal;
+
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromMillimetres;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromMillis;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromPence;
+
+/**
+ * <p>Immutable model object for the state of a meter at a single instant of a journey.
+ *
+ * <p>A meter publishes its state on every tick into a
+ * {@link uk.co.epsilontechnologies.taximeter.MeterSnapshotHolder}, from which a snapshot is copied consistently, so the
+ * fare, distance and duration of a snapshot are always as at the same tick. The amount is held in pence, the distance in millimetres (as measured, i.e. rounded up)
+ * and the duration in milliseconds.
+ *
+ * @author Shane Gibson
+ */
+public final class MeterSnapshot {
+
+    /**
+     * The fare amount, in pence.
+     */
+    private final long fare;
+
+    /**
+     * The journey distance, in millimetres.
+     */
+    private final long distance;
+
+    /**
+     * The journey duration, in milliseconds.
+     */
+    private final long duration;
+
+    /**
+     * The band (the index in the tariff lookup) of the tariff that applied.
+     */
+    private final int band;
+
+    /**
+     * The number of ticks of the journey before this snapshot - zero for the flag fall.
+     */
+    private final long sequence;
+
+    /**
+     * Constructor for the snapshot.
+     *
+     * @param fare the fare amount, in pence
+     * @param distance the journey distance, in millimetres
+     * @param duration the journey duration, in milliseconds
+     * @param band the band of the tariff that applied
+     * @param sequence the number of ticks of the journey before this snapshot
+     */
+    public MeterSnapshot(final long fare, final long distance, final long duration, final int band, final long sequence) {
+        this.fare = fare;
+        this.distance = distance;
+        this.duration = duration;
+        this.band = band;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Getter for the fare
+     * @return the fare amount, in pence
+     */
+    public long getFare() {
+        return fare;
+    }
+
+    /**
+     * Getter for the fare amount
+     * @return the fare amount, in pounds
+     */
+    public BigDecimal getFareAmount() {
+        return fromPence(fare);
+    }
+
+    /**
+     * Getter for the distance
+     * @return the journey distance, in millimetres
+     */
+    public long getDistance() {
+        return distance;
+    }
+
+    /**
+     * Getter for the distance in metres
+     * @return the journey distance, in metres
+     */
+    public BigDecimal getDistanceInMetres() {
+        return fromMillimetres(distance);
+    }
+
+    /**
+     * Getter for the duration
+     * @return the journey duration, in milliseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Getter for the duration in seconds
+     * @return the journey duration, in seconds
+     */
+    public BigDecimal getDurationInSeconds() {
+        return fromMillis(duration);
+    }
+
+    /**
+     * Getter for the band
+     * @return the band (the index in the tariff lookup) of the tariff that applied
+     */
+    public int getBand() {
+        return band;
+    }
+
+    /**
+     * Getter for the sequence
+     * @return the number of ticks of the journey before this snapshot - zero for the flag fall
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+
+}
@@ -0,0 +1,97 @@
+package uk.co.epsilontechnologies.taximeter.scheduler;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @see TickScheduler
+ *
+ * <p>Tick scheduler backed by a Scheduled Executor Service, with a future per scheduled tick.
+ *
+ * @author Shane Gibson
+ */
+public class ExecutorTickScheduler implements TickScheduler {
+
+    /**
+     * The executor to schedule ticks with.
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Constructs the tick scheduler for the given executor.
+     *
+     * @param executor the executor to schedule ticks with
+     */
+    public ExecutorTickScheduler(final ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * The tick scheduler shared by meters by default. A single thread is available, since there is no intention of a
+     * meter accepting concurrent fares.
+     *
+     * @return the shared tick scheduler
+     */
+    public static ExecutorTickScheduler shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Creates the executor for the shared tick scheduler. An event driven meter cancels a tick every time it brings the
+     * tick forward, so cancelled ticks are removed from the executor's queue straight away, rather than left there until
+     * they would have been due.
+     *
+     * @return the executor
+     */
+    static ScheduledThreadPoolExecutor newSharedExecutor() {
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * @see TickScheduler#scheduleAtFixedRate(Runnable, long)
+     */
+    @Override
+    public ScheduledTick scheduleAtFixedRate(final Runnable task, final long periodInMillis) {
+        return new FutureTick(executor.scheduleAtFixedRate(task, periodInMillis, periodInMillis, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * @see TickScheduler#schedule(Runnable, long)
+     */
+    @Override
+    public ScheduledTick schedule(final Runnable task, final long delayInMillis) {
+        return new FutureTick(executor.schedule(task, delayInMillis, TimeUnit.MILLISECONDS));
+    }
+
+    private static final class FutureTick implements ScheduledTick {
+
+        private final ScheduledFuture<?> future;
+
+        private FutureTick(final ScheduledFuture<?> future) {
+            this.future = future;
+        }
+
+        /**
+         * @see ScheduledTick#cancel()
+         */
+        @Override
+        public void cancel() {
+            future.cancel(false);
+        }
+
+    }
+
+    /**
+     * Holder for the shared instance, so its thread is only started when first used.
+     */
+    private static final class Shared {
+
+        private static final ExecutorTickScheduler INSTANCE = new ExecutorTickScheduler(newSharedExecutor());
+
+    }
+
+}
@@ -0,0 +1,357 @@
+package uk.co.epsilontechnologies.taximeter.scheduler;
+
+import uk.co.epsilontechnologies.taximeter.utils.Log;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * @see TickScheduler
+ *
+ * <p>Tick scheduler for fleets of meters, based on hashed timing wheels.
+ *
+ * <p>Ticks are spread across a number of shards, each with its own worker thread and wheel, by the hash of the task - so
+ * every tick of a given meter runs on the same thread. Each wheel is an array of buckets, one per tick duration, that
+ * the worker visits in turn; a scheduled tick is placed in the bucket for its deadline, and run when the worker reaches
+ * it. Scheduling and cancelling a tick are therefore O(1), with no heap of deadlines to maintain, at the cost of
+ * resolution - ticks run at the end of the first turn of the wheel that reaches their deadline.
+ *
+ * <p>Repeating ticks are rescheduled from their previous deadline, rather than from when they actually ran, so they do
+ * not drift.
+ *
+ * @author Shane Gibson
+ */
+public class HashedWheelTickScheduler implements TickScheduler {
+
+    /**
+     * The default tick duration (and so resolution) of the wheels, in milliseconds.
+     */
+    public static final long DEFAULT_TICK_DURATION_MILLIS = 10;
+
+    /**
+     * The default number of buckets in each wheel.
+     */
+    public static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+    /**
+     * The maximum number of newly scheduled ticks to place into a wheel per turn, so that a burst of scheduling cannot
+     * hold up the ticks already due.
+     */
+    private static final int MAX_TRANSFERS_PER_TURN = 100000;
+
+    /**
+     * The shards, each with its own wheel and worker.
+     */
+    private final Shard[] shards;
+
+    /**
+     * Constructs the tick scheduler with the given number of shards, using the default tick duration and wheel size.
+     *
+     * @param shardCount the number of shards (and worker threads)
+     */
+    public HashedWheelTickScheduler(final int shardCount) {
+        this(shardCount, DEFAULT_TICK_DURATION_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_TICKS_PER_WHEEL);
+    }
+
+    /**
+     * Constructs the tick scheduler, and starts its workers.
+     *
+     * @param shardCount the number of shards (and worker threads)
+     * @param tickDuration the duration of each tick of the wheels
+     * @param unit the unit of the tick duration
+     * @param ticksPerWheel the number of buckets in each wheel, which is rounded up to a power of two
+     * @throws IllegalArgumentException a parameter is out of range
+     */
+    public HashedWheelTickScheduler(final int shardCount, final long tickDuration, final TimeUnit unit, final int ticksPerWheel) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive: "+shardCount);
+        }
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive: "+tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("Ticks per wheel out of range: "+ticksPerWheel);
+        }
+        int wheelSize = 1;
+        while (wheelSize < ticksPerWheel) {
+            wheelSize <<= 1;
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            this.shards[i] = new Shard(i, unit.toNanos(tickDuration), wheelSize);
+        }
+    }
+
+    /**
+     * @see TickScheduler#scheduleAtFixedRate(Runnable, long)
+     */
+    @Override
+    public ScheduledTick scheduleAtFixedRate(final Runnable task, final long periodInMillis) {
+        if (periodInMillis <= 0) {
+            throw new IllegalArgumentException("Period must be positive: "+periodInMillis);
+        }
+        final long period = TimeUnit.MILLISECONDS.toNanos(periodInMillis);
+        return shardFor(task).add(task, period, period);
+    }
+
+    /**
+     * @see TickScheduler#schedule(Runnable, long)
+     */
+    @Override
+    public ScheduledTick schedule(final Runnable task, final long delayInMillis) {
+        return shardFor(task).add(task, TimeUnit.MILLISECONDS.toNanos(delayInMillis), 0);
+    }
+
+    /**
+     * Stops the workers, waiting for them to finish their current turn. Ticks that are still scheduled will not run.
+     *
+     * @throws InterruptedException interrupted while waiting for the workers
+     */
+    public void shutdown() throws InterruptedException {
+        for (final Shard shard : shards) {
+            shard.running = false;
+        }
+        for (final Shard shard : shards) {
+            shard.worker.join();
+        }
+    }
+
+    /**
+     * Getter for the number of shards
+     * @return the number of shards (and worker threads)
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    private Shard shardFor(final Runnable task) {
+        // spread the identity hash, since consecutive objects often have similar hashes
+        final int hash = System.identityHashCode(task) * 0x9E3779B9;
+        return shards[(hash >>> 1) % shards.length];
+    }
+
+    /**
+     * <p>A wheel and the worker that turns it.
+     */
+    private static final class Shard implements Runnable {
+
+        private final long tickNanos;
+        private final Bucket[] wheel;
+        private final int mask;
+        private final long startNanos;
+        private final Queue<WheelTick> pending = new ConcurrentLinkedQueue<>();
+        private final Queue<WheelTick> cancelled = new ConcurrentLinkedQueue<>();
+        private final Thread worker;
+        private volatile boolean running = true;
+
+        /**
+         * The number of turns the worker has completed. Only accessed by the worker.
+         */
+        private long tick;
+
+        private Shard(final int index, final long tickNanos, final int wheelSize) {
+            this.tickNanos = tickNanos;
+            this.wheel = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                this.wheel[i] = new Bucket();
+            }
+            this.mask = wheelSize - 1;
+            this.startNanos = System.nanoTime();
+            this.worker = new Thread(this, "tick-wheel-"+index);
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+
+        private WheelTick add(final Runnable task, final long delayNanos, final long periodNanos) {
+            final WheelTick wheelTick = new WheelTick(this, task, System.nanoTime() + delayNanos - startNanos, periodNanos);
+            pending.add(wheelTick);
+            return wheelTick;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                final long deadline = waitForNextTick();
+                if (!running) {
+                    break;
+                }
+                removeCancelled();
+                transferPending();
+                expire(wheel[(int) (tick & mask)], deadline);
+                tick++;
+            }
+        }
+
+        /**
+         * Sleeps until the end of the current tick.
+         *
+         * @return the time at which the worker woke, relative to the start of the wheel
+         */
+        private long waitForNextTick() {
+            final long deadline = tickNanos * (tick + 1);
+            while (true) {
+                final long currentTime = System.nanoTime() - startNanos;
+                final long sleepTimeMillis = (deadline - currentTime + 999999) / 1000000;
+                if (sleepTimeMillis <= 0) {
+                    return currentTime;
+                }
+                try {
+                    Thread.sleep(sleepTimeMillis);
+                } catch (final InterruptedException e) {
+                    if (!running) {
+                        return currentTime;
+                    }
+                }
+            }
+        }
+
+        private void removeCancelled() {
+            WheelTick wheelTick;
+            while ((wheelTick = cancelled.poll()) != null) {
+                if (wheelTick.bucket != null) {
+                    wheelTick.bucket.remove(wheelTick);
+                }
+            }
+        }
+
+        private void transferPending() {
+            for (int i = 0; i < MAX_TRANSFERS_PER_TURN; i++) {
+                final WheelTick wheelTick = pending.poll();
+                if (wheelTick == null) {
+                    break;
+                }
+                if (wheelTick.state != WheelTick.CANCELLED) {
+                    place(wheelTick, tick);
+                }
+            }
+        }
+
+        /**
+         * Places the given tick in the bucket of the first turn to end at or after its deadline, or in the bucket of the
+         * given earliest turn if that has already passed.
+         */
+        private void place(final WheelTick wheelTick, final long earliestTick) {
+            final long calculated = (wheelTick.deadline - 1) / tickNanos;
+            wheelTick.remainingRounds = (calculated - tick) / wheel.length;
+            wheel[(int) (Math.max(calculated, earliestTick) & mask)].add(wheelTick);
+        }
+
+        /**
+         * Runs the ticks in the given bucket that are due, rescheduling those that repeat.
+         */
+        private void expire(final Bucket bucket, final long deadline) {
+            WheelTick wheelTick = bucket.head;
+            while (wheelTick != null) {
+                final WheelTick next = wheelTick.next;
+                if (wheelTick.remainingRounds <= 0) {
+                    bucket.remove(wheelTick);
+                    if (wheelTick.state != WheelTick.CANCELLED) {
+                        wheelTick.fire();
+                        if (wheelTick.periodNanos > 0 && wheelTick.state != WheelTick.CANCELLED) {
+                            wheelTick.deadline += wheelTick.periodNanos;
+                            place(wheelTick, tick + 1);
+                        }
+                    }
+                } else {
+                    wheelTick.remainingRounds--;
+                }
+                wheelTick = next;
+            }
+        }
+
+    }
+
+    /**
+     * <p>A doubly-linked list of ticks, so that a cancelled tick can be removed in O(1). Only accessed by the worker.
+     */
+    private static final class Bucket {
+
+        private WheelTick head;
+        private WheelTick tail;
+
+        private void add(final WheelTick wheelTick) {
+            wheelTick.bucket = this;
+            wheelTick.next = null;
+            wheelTick.prev = tail;
+            if (tail == null) {
+                head = wheelTick;
+            } else {
+                tail.next = wheelTick;
+            }
+            tail = wheelTick;
+        }
+
+        private void remove(final WheelTick wheelTick) {
+            if (wheelTick.prev == null) {
+                head = wheelTick.next;
+            } else {
+                wheelTick.prev.next = wheelTick.next;
+            }
+            if (wheelTick.next == null) {
+                tail = wheelTick.prev;
+            } else {
+                wheelTick.next.prev = wheelTick.prev;
+            }
+            wheelTick.bucket = null;
+            wheelTick.prev = null;
+            wheelTick.next = null;
+        }
+
+    }
+
+    /**
+     * <p>A tick scheduled on a wheel.
+     */
+    private static final class WheelTick implements ScheduledTick {
+
+        private static final int ACTIVE = 0;
+        private static final int CANCELLED = 1;
+
+        private static final AtomicIntegerFieldUpdater<WheelTick> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(WheelTick.class, "state");
+
+        private final Shard shard;
+        private final Runnable task;
+        private final long periodNanos;
+        private volatile int state = ACTIVE;
+
+        /*
+          The remaining fields are only accessed by the worker.
+        */
+
+        private long deadline;
+        private long remainingRounds;
+        private Bucket bucket;
+        private WheelTick prev;
+        private WheelTick next;
+
+        private WheelTick(final Shard shard, final Runnable task, final long deadline, final long periodNanos) {
+            this.shard = shard;
+            this.task = task;
+            this.deadline = deadline;
+            this.periodNanos = periodNanos;
+        }
+
+        private void fire() {
+            try {
+                task.run();
+            } catch (final Throwable t) {
+                Log.exception(t);
+            }
+        }
+
+        /**
+         * @see ScheduledTick#cancel()
+         */
+        @Override
+        public void cancel() {
+            if (STATE.compareAndSet(this, ACTIVE, CANCELLED)) {
+                shard.cancelled.add(this);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,241 @@
+package uk.co.epsilontechnologies.taximeter.scheduler;
+
+import uk.co.epsilontechnologies.taximeter.utils.Log;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @see TickScheduler
+ *
+ * <p>Tick scheduler that gives each journey a thread of its own, rather than sharing a scheduler's threads with the
+ * rest of the fleet. The thread lives for the whole journey, parked until its next tick is due: a polling journey's
+ * thread wakes every period, whereas an event-driven journey's thread is rescheduled in place (see
+ * {@link TickScheduler.ReschedulableTick}) - by the meter after each tick, or by the odometer's distance listener when
+ * the taxi passes the distance at which the fare next increments, which wakes the thread to bring the tick forward.
+ * Cancelling the tick ends the journey, and with it the thread.
+ *
+ * <p>Where the runtime supports them (Java 21 onwards), the threads are virtual threads, which are cheap enough to have
+ * one per journey even for very large fleets: a parked virtual thread holds no carrier thread, only its (small) stack
+ * on the heap. The build targets Java 21 on JDK 20 onwards (the java21 profile), and Java 7 otherwise, so virtual
+ * threads are created reflectively; on older runtimes, the scheduler logs that it falls back to platform threads with
+ * a small stack - see {@link #isVirtual()}.
+ *
+ * <p>Repeating ticks are rescheduled from their previous deadline, rather than from when they actually ran, so they do
+ * not drift.
+ *
+ * @author Shane Gibson
+ */
+public class ThreadPerJourneyTickScheduler implements TickScheduler {
+
+    /**
+     * The stack size of the platform threads used when virtual threads are not available, in bytes. Ticks only
+     * calculate a fare, so need little stack.
+     */
+    private static final long PLATFORM_THREAD_STACK_SIZE = 256 * 1024;
+
+    /**
+     * The factory of the threads that run the ticks.
+     */
+    private final ThreadFactory threadFactory;
+
+    /**
+     * Whether the threads are virtual threads.
+     */
+    private final boolean virtual;
+
+    /**
+     * Constructs the tick scheduler, using virtual threads where the runtime supports them.
+     */
+    public ThreadPerJourneyTickScheduler() {
+        this(true);
+    }
+
+    /**
+     * Constructs the tick scheduler.
+     *
+     * @param preferVirtual whether to use virtual threads where the runtime supports them, rather than platform threads
+     */
+    public ThreadPerJourneyTickScheduler(final boolean preferVirtual) {
+        final ThreadFactory virtualThreadFactory = preferVirtual ? virtualThreadFactory() : null;
+        this.virtual = virtualThreadFactory != null;
+        if (preferVirtual && !virtual) {
+            Log.info("Virtual threads are not supported by this runtime, so journeys tick on platform threads");
+        }
+        this.threadFactory = virtual ? virtualThreadFactory : new PlatformThreadFactory();
+    }
+
+    /**
+     * Getter for whether the ticks run on virtual threads
+     * @return true if the ticks run on virtual threads, false if on platform threads
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * @see TickScheduler#scheduleAtFixedRate(Runnable, long)
+     */
+    @Override
+    public ScheduledTick scheduleAtFixedRate(final Runnable task, final long periodInMillis) {
+        final long periodNanos = TimeUnit.MILLISECONDS.toNanos(periodInMillis);
+        return start(new JourneyTick(task, System.nanoTime() + periodNanos, periodNanos));
+    }
+
+    /**
+     * <p>The tick keeps its thread after it has run, parked until it is rescheduled or cancelled.
+     *
+     * @see TickScheduler#schedule(Runnable, long)
+     */
+    @Override
+    public ReschedulableTick schedule(final Runnable task, final long delayInMillis) {
+        return start(new JourneyTick(task, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayInMillis), 0));
+    }
+
+    private JourneyTick start(final JourneyTick tick) {
+        tick.thread = threadFactory.newThread(tick);
+        tick.thread.start();
+        return tick;
+    }
+
+    /**
+     * Creates a factory of virtual threads, if the runtime supports them.
+     *
+     * @return the factory, or null if virtual threads are not supported
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builderType.getMethod("name", String.class, long.class).invoke(builder, "tick-journey-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (final Exception e) {
+            // not Java 21 or later (or virtual threads are a preview feature that is not enabled)
+            return null;
+        }
+    }
+
+    /**
+     * <p>Factory of daemon platform threads, with a small stack.
+     */
+    private static final class PlatformThreadFactory implements ThreadFactory {
+
+        private final AtomicLong count = new AtomicLong();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(null, runnable, "tick-journey-"+count.getAndIncrement(), PLATFORM_THREAD_STACK_SIZE);
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+    /**
+     * <p>The ticks of a journey, running on a thread of their own. The task and deadline are guarded by the tick's
+     * monitor, which is never held whilst parked or running the task.
+     */
+    private static final class JourneyTick implements ReschedulableTick, Runnable {
+
+        private volatile Thread thread;
+        private Runnable task;
+        private long periodNanos;
+        private boolean cancelled;
+
+        /**
+         * Whether a run is due at the deadline, rather than the tick awaiting a reschedule.
+         */
+        private boolean due = true;
+
+        /**
+         * The deadline of the next run.
+         */
+        private long deadline;
+
+        private JourneyTick(final Runnable task, final long deadline, final long periodNanos) {
+            this.task = task;
+            this.deadline = deadline;
+            this.periodNanos = periodNanos;
+        }
+
+        @Override
+        public void run() {
+            Runnable task;
+            while ((task = awaitDeadline()) != null) {
+                try {
+                    task.run();
+                } catch (final Throwable t) {
+                    Log.exception(t);
+                }
+            }
+        }
+
+        /**
+         * Parks until the next run is due, or until the tick is cancelled - waking whenever it is rescheduled.
+         *
+         * @return the task to run, or null if the tick was cancelled
+         */
+        private Runnable awaitDeadline() {
+            while (true) {
+                final long remaining;
+                synchronized (this) {
+                    if (cancelled) {
+                        return null;
+                    }
+                    remaining = due ? deadline - System.nanoTime() : Long.MAX_VALUE;
+                    if (remaining <= 0) {
+                        if (periodNanos > 0) {
+                            deadline += periodNanos;
+                        } else {
+                            due = false;
+                        }
+                        return task;
+                    }
+                }
+                if (remaining == Long.MAX_VALUE) {
+                    LockSupport.park(this);
+                } else {
+                    LockSupport.parkNanos(this, remaining);
+                }
+            }
+        }
+
+        /**
+         * @see ReschedulableTick#reschedule(Runnable, long)
+         */
+        @Override
+        public boolean reschedule(final Runnable task, final long delayInMillis) {
+            synchronized (this) {
+                if (cancelled) {
+                    return false;
+                }
+                this.task = task;
+                this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayInMillis);
+                this.periodNanos = 0;
+                this.due = true;
+            }
+            // the journey's own thread reschedules as it ticks, so is not parked; any other caller wakes it to re-park
+            if (Thread.currentThread() != thread) {
+                LockSupport.unpark(thread);
+            }
+            return true;
+        }
+
+        /**
+         * @see ScheduledTick#cancel()
+         */
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                this.cancelled = true;
+            }
+            // wakes the thread if it is parked, so that it exits now rather than at its deadline
+            LockSupport.unpark(thread);
+        }
+
+    }
+
+}
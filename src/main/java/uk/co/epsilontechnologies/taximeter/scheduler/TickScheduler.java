@@ -0,0 +1,59 @@
+package uk.co.epsilontechnologies.taximeter.scheduler;
+
+/**
+ * <p>Schedules the ticks with which taxi meters update their fares.
+ *
+ * <p>Implementations are shared between meters, so must be thread-safe.
+ *
+ * @author Shane Gibson
+ */
+public interface TickScheduler {
+
+    /**
+     * Schedules the given task to run repeatedly, every period, starting one period from now.
+     *
+     * @param task the task to run
+     * @param periodInMillis the period between runs, in milliseconds
+     * @return the scheduled tick, to cancel it with
+     */
+    ScheduledTick scheduleAtFixedRate(Runnable task, long periodInMillis);
+
+    /**
+     * Schedules the given task to run once, after the given delay.
+     *
+     * @param task the task to run
+     * @param delayInMillis the delay before the run, in milliseconds
+     * @return the scheduled tick, to cancel it with
+     */
+    ScheduledTick schedule(Runnable task, long delayInMillis);
+
+    /**
+     * <p>A tick that has been scheduled.
+     */
+    interface ScheduledTick {
+
+        /**
+         * Cancels the tick, so that it runs no more. A run that is already in progress is allowed to complete.
+         */
+        void cancel();
+
+    }
+
+    /**
+     * <p>A tick that can be rescheduled in place - e.g. on the thread that its scheduler keeps for the journey - rather
+     * than cancelled and scheduled afresh.
+     */
+    interface ReschedulableTick extends ScheduledTick {
+
+        /**
+         * Reschedules the tick to run the given task once, after the given delay, replacing the run that is due.
+         *
+         * @param task the task to run
+         * @param delayInMillis the delay before the run, in milliseconds
+         * @return true if the tick was rescheduled, false if it has been cancelled
+         */
+        boolean reschedule(Runnable task, long delayInMillis);
+
+    }
+
+}
@@ -1,6 +1,7 @@
 package uk.co.epsilontechnologies.taximeter.tariff;
 
 import uk.co.epsilontechnologies.taximeter.model.Fare;
+import uk.co.epsilontechnologies.taximeter.utils.TimeContext;
 
 import java.math.BigDecimal;
 
@@ -13,6 +14,17 @@ import java.math.BigDecimal;
  */
 public abstract class AbstractTariff implements Tariff {
 
+    /**
+     * Determines whether the tariff applies at the given time, broken down once for the tariffs of a lookup. By
+     * default, this checks the DateTime of the time; a tariff whose time filter checks the time context overrides it.
+     *
+     * @param context the time to check
+     * @return true if the tariff applies, otherwise false
+     */
+    public boolean applies(final TimeContext context) {
+        return applies(context.toDateTime());
+    }
+
     /**
      * @see Tariff#isHighFare(Fare)
      */
@@ -0,0 +1,179 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import java.util.List;
+
+/**
+ * <p>Lookup class for the tariff that remembers the latest tariff it looked up, along with the instant until which it
+ * holds - so that a taxi meter, which looks up the tariff at every tick, only looks it up again at the few instants in
+ * a journey at which it could change (e.g. 20:00, 22:00, midnight or a change of the clocks).
+ *
+ * <p>A tariff looked up is reused while the instant is within the interval it was looked up for, in the same time
+ * zone, and the {@link TariffLookup#getRevision() revision} of the tariffs has not changed - so that a
+ * {@link SwappableTariffLookup} can still swap the tariffs under it.
+ *
+ * <p>This is intended to be used by a single meter. It is safe to share between threads, since each resolution is
+ * immutable, but threads looking up different instants will replace each other's resolution.
+ *
+ * @author Shane Gibson
+ */
+public class CachedTariffLookup extends TariffLookup {
+
+    /**
+     * The tariff lookup to look up the tariff with, when the resolution does not hold.
+     */
+    private final TariffLookup tariffLookup;
+
+    /**
+     * The latest tariff looked up. Not volatile, since a thread that does not see the latest simply looks it up again.
+     */
+    private Resolution resolution = new Resolution(0, 0, null, 0, -1, null);
+
+    /**
+     * Constructs the tariff lookup, caching the tariffs looked up by the given lookup.
+     *
+     * @param tariffLookup the tariff lookup to cache
+     */
+    public CachedTariffLookup(final TariffLookup tariffLookup) {
+        this.tariffLookup = tariffLookup;
+    }
+
+    /**
+     * Getter for the tariff lookup
+     * @return the tariff lookup whose tariffs are cached
+     */
+    public TariffLookup getTariffLookup() {
+        return tariffLookup;
+    }
+
+    /**
+     * Getter for the latest band
+     * @return the band of the tariff looked up most recently - e.g. by the fare calculation of a tick - or -1 if none
+     * has been looked up
+     */
+    public int getLatestBand() {
+        return resolution.band;
+    }
+
+    /**
+     * @see TariffLookup#getTariffs()
+     */
+    @Override
+    public List<Tariff> getTariffs() {
+        return tariffLookup.getTariffs();
+    }
+
+    /**
+     * @see TariffLookup#lookupTariff(DateTime)
+     */
+    @Override
+    public Tariff lookupTariff(final DateTime dateTime) {
+        return resolve(dateTime.getMillis(), dateTime.getZone()).tariff;
+    }
+
+    /**
+     * @see TariffLookup#lookupTariff(long, DateTimeZone)
+     */
+    @Override
+    public Tariff lookupTariff(final long epochMillis, final DateTimeZone zone) {
+        return resolve(epochMillis, zone).tariff;
+    }
+
+    /**
+     * @see TariffLookup#lookupBand(DateTime)
+     */
+    @Override
+    public int lookupBand(final DateTime dateTime) {
+        return resolve(dateTime.getMillis(), dateTime.getZone()).band;
+    }
+
+    /**
+     * @see TariffLookup#lookupBand(long, DateTimeZone)
+     */
+    @Override
+    public int lookupBand(final long epochMillis, final DateTimeZone zone) {
+        return resolve(epochMillis, zone).band;
+    }
+
+    /**
+     * @see TariffLookup#nextChange(long, DateTimeZone)
+     */
+    @Override
+    public long nextChange(final long epochMillis, final DateTimeZone zone) {
+        return resolve(epochMillis, zone).validUntil;
+    }
+
+    /**
+     * @see TariffLookup#getRevision()
+     */
+    @Override
+    public long getRevision() {
+        return tariffLookup.getRevision();
+    }
+
+    /**
+     * <p>The current lookup of the tariff lookup cached.
+     *
+     * @see TariffLookup#getCurrentLookup()
+     */
+    @Override
+    public TariffLookup getCurrentLookup() {
+        return tariffLookup.getCurrentLookup();
+    }
+
+    /**
+     * Resolves the tariff at the given instant, reusing the latest resolution if it holds.
+     */
+    private Resolution resolve(final long epochMillis, final DateTimeZone zone) {
+        final Resolution resolution = this.resolution;
+        if (epochMillis < resolution.validUntil
+                && epochMillis >= resolution.validFrom
+                && zone == resolution.zone
+                && resolution.revision == tariffLookup.getRevision()) {
+            return resolution;
+        }
+        // resolved from the tariffs as they are now, so that a swap during the lookup cannot mix two revisions
+        final TariffLookup current = tariffLookup.getCurrentLookup();
+        final Resolution resolved = new Resolution(
+                epochMillis,
+                current.nextChange(epochMillis, zone),
+                zone,
+                current.getRevision(),
+                current.lookupBand(epochMillis, zone),
+                current.lookupTariff(epochMillis, zone));
+        this.resolution = resolved;
+        return resolved;
+    }
+
+    /**
+     * <p>The tariff that holds from one instant until another, in a time zone, as at a revision of the tariffs.
+     */
+    private static final class Resolution {
+
+        private final long validFrom;
+        private final long validUntil;
+        private final DateTimeZone zone;
+        private final long revision;
+        private final int band;
+        private final Tariff tariff;
+
+        private Resolution(
+                final long validFrom,
+                final long validUntil,
+                final DateTimeZone zone,
+                final long revision,
+                final int band,
+                final Tariff tariff) {
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+            this.zone = zone;
+            this.revision = revision;
+            this.band = band;
+            this.tariff = tariff;
+        }
+
+    }
+
+}
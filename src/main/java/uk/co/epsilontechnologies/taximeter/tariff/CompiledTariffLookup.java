@@ -0,0 +1,227 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import uk.co.epsilontechnologies.taximeter.utils.CalendarUtils;
+
+import static uk.co.epsilontechnologies.taximeter.utils.CalendarUtils.floorDiv;
+
+/**
+ * <p>Lookup class for the tariff based on the date time that has been provided, which compiles the rules of the tariffs
+ * into a table up-front.
+ *
+ * <p>Every minute of the week (from Monday 00:00) is resolved to a tariff band once, on construction, along with every
+ * minute of the day on a public holiday. Looking up a tariff is then a single array index, rather than an evaluation of
+ * each tariff's rules.
+ *
+ * <p>This assumes the rules of each tariff depend only on the day of the week, the time of day (to the minute), and
+ * whether or not the date is a public holiday - and that on a public holiday they depend only on the time of day. In
+ * return, it guarantees that there are no gaps or overlaps between the tariffs, rejecting them on construction.
+ *
+ * @author Shane Gibson
+ */
+public class CompiledTariffLookup extends TariffLookup {
+
+    /**
+     * The number of minutes in a day.
+     */
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * The number of minutes in a week.
+     */
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    /**
+     * The tariffs, indexed by band.
+     */
+    private final Tariff[] tariffs;
+
+    /**
+     * The band that applies at each minute of the week, from Monday 00:00, other than on a public holiday.
+     */
+    private final byte[] weekBands;
+
+    /**
+     * The band that applies at each minute of the day on a public holiday.
+     */
+    private final byte[] holidayBands;
+
+    /**
+     * The minute of the day until which the band of each minute of the week lasts - the minute at which the band
+     * changes, or the end of the day.
+     */
+    private final short[] weekBandEnds;
+
+    /**
+     * The minute of the day until which the band of each minute of the day lasts, on a public holiday.
+     */
+    private final short[] holidayBandEnds;
+
+    /**
+     * Constructs the tariff lookup for the given tariffs, compiling their rules.
+     *
+     * @param tariffs The tariffs to check
+     * @throws IllegalArgumentException the tariffs leave a minute uncovered, or cover a minute more than once
+     */
+    public CompiledTariffLookup(final Tariff... tariffs) {
+        super(tariffs);
+        if (tariffs.length > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many tariffs to compile: "+tariffs.length);
+        }
+        this.tariffs = tariffs.clone();
+        this.weekBands = compile(referenceWeek(), MINUTES_PER_WEEK);
+        this.holidayBands = compile(referenceHoliday(), MINUTES_PER_DAY);
+        this.weekBandEnds = bandEnds(weekBands);
+        this.holidayBandEnds = bandEnds(holidayBands);
+    }
+
+    /**
+     * @see TariffLookup#lookupTariff(DateTime)
+     */
+    @Override
+    public Tariff lookupTariff(final DateTime dateTime) {
+        return tariffs[lookupBand(dateTime)];
+    }
+
+    /**
+     * @see TariffLookup#lookupTariff(long, DateTimeZone)
+     */
+    @Override
+    public Tariff lookupTariff(final long epochMillis, final DateTimeZone zone) {
+        return tariffs[lookupBand(epochMillis, zone)];
+    }
+
+    /**
+     * @see TariffLookup#lookupBand(DateTime)
+     */
+    @Override
+    public int lookupBand(final DateTime dateTime) {
+        return lookupBand(dateTime.getMillis(), dateTime.getZone());
+    }
+
+    /**
+     * @see TariffLookup#lookupBand(long, DateTimeZone)
+     */
+    @Override
+    public int lookupBand(final long epochMillis, final DateTimeZone zone) {
+        final long localMillis = epochMillis + zone.getOffset(epochMillis);
+        final long localDay = floorDiv(localMillis, DateTimeConstants.MILLIS_PER_DAY);
+        final int minuteOfDay = (int) ((localMillis - localDay * DateTimeConstants.MILLIS_PER_DAY) / DateTimeConstants.MILLIS_PER_MINUTE);
+        if (CalendarUtils.isPublicHolidayOnEpochDay(localDay)) {
+            return holidayBands[minuteOfDay];
+        }
+        return weekBands[dayOfWeek(localDay) * MINUTES_PER_DAY + minuteOfDay];
+    }
+
+    /**
+     * <p>The tariff changes at the next minute of the table at which the band changes - or, since the next day may or
+     * may not be a public holiday, at the end of the day - unless the time zone has a transition first.
+     *
+     * @see TariffLookup#nextChange(long, DateTimeZone)
+     */
+    @Override
+    public long nextChange(final long epochMillis, final DateTimeZone zone) {
+        final long localMillis = epochMillis + zone.getOffset(epochMillis);
+        final long localDay = floorDiv(localMillis, DateTimeConstants.MILLIS_PER_DAY);
+        final int minuteOfDay = (int) ((localMillis - localDay * DateTimeConstants.MILLIS_PER_DAY) / DateTimeConstants.MILLIS_PER_MINUTE);
+        final int bandEnd = CalendarUtils.isPublicHolidayOnEpochDay(localDay)
+                ? holidayBandEnds[minuteOfDay]
+                : weekBandEnds[dayOfWeek(localDay) * MINUTES_PER_DAY + minuteOfDay];
+        final long localChange = localDay * DateTimeConstants.MILLIS_PER_DAY + (long) bandEnd * DateTimeConstants.MILLIS_PER_MINUTE;
+        return withinOffset(epochMillis, zone, epochMillis + (localChange - localMillis));
+    }
+
+    /**
+     * Determines the day of the week of the given day.
+     *
+     * @param epochDay the day, as the number of days since the epoch
+     * @return the day of the week, from 0 for Monday
+     */
+    private static int dayOfWeek(final long epochDay) {
+        // 1st January 1970 was a Thursday, so day 0 is the 4th day of the week
+        return (int) ((epochDay + 3) - floorDiv(epochDay + 3, 7) * 7);
+    }
+
+    /**
+     * Determines, for each minute of the given table, the minute of its day until which its band lasts.
+     *
+     * @param bands the bands of each minute, of a whole number of days
+     * @return the minute of the day at which each band ends
+     */
+    private static short[] bandEnds(final byte[] bands) {
+        final short[] bandEnds = new short[bands.length];
+        for (int minute = bands.length - 1; minute >= 0; minute--) {
+            final int minuteOfDay = minute % MINUTES_PER_DAY;
+            bandEnds[minute] = minuteOfDay == MINUTES_PER_DAY - 1 || bands[minute + 1] != bands[minute]
+                    ? (short) (minuteOfDay + 1)
+                    : bandEnds[minute + 1];
+        }
+        return bandEnds;
+    }
+
+    /**
+     * Resolves the band of each minute from the given start, checking that exactly one tariff applies to each.
+     *
+     * @param start the first minute to resolve
+     * @param minutes the number of minutes to resolve
+     * @return the bands
+     * @throws IllegalArgumentException a minute is not covered by exactly one tariff
+     */
+    private byte[] compile(final DateTime start, final int minutes) {
+        final byte[] bands = new byte[minutes];
+        for (int minute = 0; minute < minutes; minute++) {
+            final DateTime dateTime = start.plusMinutes(minute);
+            int band = -1;
+            for (int i = 0; i < tariffs.length; i++) {
+                if (tariffs[i].applies(dateTime)) {
+                    if (band >= 0) {
+                        throw new IllegalArgumentException("Tariffs "+band+" and "+i+" overlap at "+describe(dateTime, minutes));
+                    }
+                    band = i;
+                }
+            }
+            if (band < 0) {
+                throw new IllegalArgumentException("No tariff applies at "+describe(dateTime, minutes));
+            }
+            bands[minute] = (byte) band;
+        }
+        return bands;
+    }
+
+    /**
+     * Finds a week, starting on a Monday, that has no public holidays.
+     *
+     * @return the start of the week
+     */
+    private static DateTime referenceWeek() {
+        LocalDate monday = new LocalDate(2001, 1, 1);
+        while (true) {
+            boolean hasPublicHoliday = false;
+            for (int day = 0; day < 7 && !hasPublicHoliday; day++) {
+                hasPublicHoliday = CalendarUtils.isPublicHoliday(monday.plusDays(day).toDateTimeAtStartOfDay(DateTimeZone.UTC));
+            }
+            if (!hasPublicHoliday) {
+                return monday.toDateTimeAtStartOfDay(DateTimeZone.UTC);
+            }
+            monday = monday.plusWeeks(1);
+        }
+    }
+
+    /**
+     * Finds a public holiday, from those computed by the rules of the bank holidays - rather than those listed, which
+     * need not include any.
+     *
+     * @return the start of the public holiday
+     */
+    private static DateTime referenceHoliday() {
+        return CalendarUtils.getPublicHolidays(2001).get(0).toDateTimeAtStartOfDay(DateTimeZone.UTC);
+    }
+
+    private static String describe(final DateTime dateTime, final int minutes) {
+        return (minutes == MINUTES_PER_DAY ? "public holiday" : dateTime.dayOfWeek().getAsText())+" "+dateTime.toString("HH:mm");
+    }
+
+}
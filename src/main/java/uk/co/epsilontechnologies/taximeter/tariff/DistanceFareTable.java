@@ -0,0 +1,175 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import java.util.Arrays;
+
+/**
+ * <p>Table of the fare of a journey under a tariff by distance alone - e.g. for quoting or auditing a journey whose
+ * fare is due to distance rather than time - so that the fare of any distance can be looked up rather than stepped
+ * through increment by increment.
+ *
+ * <p>The table holds the fare, and the distance it accounts for, after each increment - from the flag fall, through the
+ * low fare sub-tariff and the switch to the high fare sub-tariff at the high low fare boundary, up to a maximum
+ * distance. Looking up a distance is a binary search of the distances accounted for. Beyond the maximum distance the
+ * fare is in the high fare sub-tariff, so it is extended from the last entry in closed form.
+ *
+ * <p>The fares are as per {@link uk.co.epsilontechnologies.taximeter.calculator.FixedPointFareCalculator#catchUpFare}
+ * for a journey that has not exceeded any of the time limits. Amounts are in pence and distances in millimetres.
+ *
+ * @author Shane Gibson
+ */
+public final class DistanceFareTable {
+
+    /**
+     * The default maximum distance to tabulate, in millimetres - 100 kilometres.
+     */
+    public static final long DEFAULT_MAXIMUM_DISTANCE = 100000000;
+
+    /**
+     * The size of an array header, in bytes, for estimating the memory footprint.
+     */
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private final FixedPointTariff tariff;
+
+    /**
+     * The distance accounted for after each increment, in ascending order - the first is the flag fall distance.
+     */
+    private final long[] distancesAccountedFor;
+
+    /**
+     * The fare after each increment - the first is the flag fall amount.
+     */
+    private final long[] amounts;
+
+    /**
+     * Tabulates the fares of the given tariff up to the default maximum distance.
+     *
+     * @param tariff the tariff
+     */
+    public DistanceFareTable(final FixedPointTariff tariff) {
+        this(tariff, DEFAULT_MAXIMUM_DISTANCE);
+    }
+
+    /**
+     * Tabulates the fares of the given tariff up to the given distance - or to the switch to the high fare sub-tariff,
+     * if further.
+     *
+     * @param tariff the tariff
+     * @param maximumDistance the distance to tabulate up to, in millimetres
+     */
+    public DistanceFareTable(final FixedPointTariff tariff, final long maximumDistance) {
+        this.tariff = tariff;
+        long[] distancesAccountedFor = new long[64];
+        long[] amounts = new long[64];
+        long distanceAccountedFor = tariff.getFlagFallDistanceLimit();
+        long amount = tariff.getFlagFallAmount();
+        int size = 0;
+        while (true) {
+            if (size == amounts.length) {
+                distancesAccountedFor = Arrays.copyOf(distancesAccountedFor, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+            }
+            distancesAccountedFor[size] = distanceAccountedFor;
+            amounts[size] = amount;
+            size++;
+            if (distanceAccountedFor >= maximumDistance && tariff.isHighFare(amount)) {
+                break;
+            }
+            distanceAccountedFor += tariff.getDistanceLimit(amount);
+            amount += tariff.getIncrementAmount(amount);
+        }
+        this.distancesAccountedFor = Arrays.copyOf(distancesAccountedFor, size);
+        this.amounts = Arrays.copyOf(amounts, size);
+    }
+
+    /**
+     * Getter for the tariff
+     * @return the tariff tabulated
+     */
+    public FixedPointTariff getTariff() {
+        return tariff;
+    }
+
+    /**
+     * Looks up the fare of a journey of the given distance.
+     *
+     * @param distance the distance of the journey, in millimetres
+     * @return the fare, in pence
+     */
+    public long getFare(final long distance) {
+        final int index = indexOf(distance);
+        if (index < amounts.length) {
+            return amounts[index];
+        }
+        final long lastAmount = amounts[amounts.length - 1];
+        return lastAmount + tariff.getIncrementAmount(lastAmount) * incrementsBeyond(distance);
+    }
+
+    /**
+     * Looks up the distance accounted for by the fare of a journey of the given distance.
+     *
+     * @param distance the distance of the journey, in millimetres
+     * @return the distance accounted for, in millimetres
+     */
+    public long getDistanceAccountedFor(final long distance) {
+        final int index = indexOf(distance);
+        if (index < distancesAccountedFor.length) {
+            return distancesAccountedFor[index];
+        }
+        final long lastAmount = amounts[amounts.length - 1];
+        return distancesAccountedFor[distancesAccountedFor.length - 1] + tariff.getDistanceLimit(lastAmount) * incrementsBeyond(distance);
+    }
+
+    /**
+     * Getter for the size
+     * @return the number of entries - the flag fall and each increment - in the table
+     */
+    public int size() {
+        return amounts.length;
+    }
+
+    /**
+     * Getter for the maximum distance
+     * @return the distance accounted for by the last entry of the table, in millimetres
+     */
+    public long getMaximumDistance() {
+        return distancesAccountedFor[distancesAccountedFor.length - 1];
+    }
+
+    /**
+     * Estimates the memory held by the table's arrays.
+     *
+     * @return the estimated footprint, in bytes
+     */
+    public long getMemoryFootprint() {
+        return 2 * (ARRAY_HEADER_BYTES + 8L * amounts.length);
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "DistanceFareTable[entries="+size()+", maximumDistance="+getMaximumDistance()+"mm, footprint="+getMemoryFootprint()+" bytes]";
+    }
+
+    /**
+     * Finds the first entry that accounts for the given distance.
+     *
+     * @return the index of the entry, or the size of the table if the distance is beyond it
+     */
+    private int indexOf(final long distance) {
+        final int index = Arrays.binarySearch(distancesAccountedFor, distance);
+        // a distance not found returns -(insertion point) - 1, the insertion point being the first entry beyond it
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Determines the number of increments, in the high fare sub-tariff, due beyond the last entry of the table.
+     */
+    private long incrementsBeyond(final long distance) {
+        final long limit = tariff.getDistanceLimit(amounts[amounts.length - 1]);
+        return (distance - distancesAccountedFor[distancesAccountedFor.length - 1] + limit - 1) / limit;
+    }
+
+}
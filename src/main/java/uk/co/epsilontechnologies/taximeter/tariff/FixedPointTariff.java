@@ -0,0 +1,123 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.toMillimetres;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.toMillis;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.toPence;
+
+/**
+ * <p>The rates of a {@link Tariff} in fixed-point units - amounts in pence, distances in millimetres and durations in
+ * milliseconds.
+ *
+ * <p>Instances are immutable, and are converted once per tariff so that the primitive fare engine never has to touch a
+ * BigDecimal.
+ *
+ * @author Shane Gibson
+ */
+public final class FixedPointTariff {
+
+    /**
+     * The tariff these rates were converted from.
+     */
+    private final Tariff tariff;
+
+    private final long flagFallAmount;
+    private final long flagFallDistanceLimit;
+    private final long flagFallTimeLimit;
+    private final long highLowFareBoundary;
+    private final long lowFareIncrementAmount;
+    private final long lowFareDistanceLimit;
+    private final long lowFareTimeLimit;
+    private final long highFareIncrementAmount;
+    private final long highFareDistanceLimit;
+    private final long highFareTimeLimit;
+
+    /**
+     * Converts the rates of the given tariff.
+     *
+     * @param tariff the tariff to convert
+     * @throws IllegalArgumentException a rate cannot be represented exactly in fixed-point units
+     */
+    public FixedPointTariff(final Tariff tariff) {
+        this.tariff = tariff;
+        this.flagFallAmount = toPence(tariff.getFlagFallAmount());
+        this.flagFallDistanceLimit = toMillimetres(tariff.getFlagFallDistanceLimit());
+        this.flagFallTimeLimit = toMillis(tariff.getFlagFallTimeLimit());
+        this.highLowFareBoundary = toPence(tariff.getHighLowFareBoundary());
+        final Tariff.SubTariff lowFareSubTariff = tariff.getLowFareSubTariff();
+        this.lowFareIncrementAmount = toPence(lowFareSubTariff.getIncrementAmount());
+        this.lowFareDistanceLimit = toMillimetres(lowFareSubTariff.getDistanceLimit());
+        this.lowFareTimeLimit = toMillis(lowFareSubTariff.getTimeLimit());
+        final Tariff.SubTariff highFareSubTariff = tariff.getHighFareSubTariff();
+        this.highFareIncrementAmount = toPence(highFareSubTariff.getIncrementAmount());
+        this.highFareDistanceLimit = toMillimetres(highFareSubTariff.getDistanceLimit());
+        this.highFareTimeLimit = toMillis(highFareSubTariff.getTimeLimit());
+    }
+
+    public Tariff getTariff() {
+        return tariff;
+    }
+
+    /**
+     * @return the flag fall amount, in pence
+     */
+    public long getFlagFallAmount() {
+        return flagFallAmount;
+    }
+
+    /**
+     * @return the flag fall distance limit, in millimetres
+     */
+    public long getFlagFallDistanceLimit() {
+        return flagFallDistanceLimit;
+    }
+
+    /**
+     * @return the flag fall time limit, in milliseconds
+     */
+    public long getFlagFallTimeLimit() {
+        return flagFallTimeLimit;
+    }
+
+    /**
+     * @return the fare amount at which the high fare sub-tariff applies, in pence
+     */
+    public long getHighLowFareBoundary() {
+        return highLowFareBoundary;
+    }
+
+    /**
+     * @see Tariff#hasMinimumChargeBeenExceeded(java.math.BigDecimal, java.math.BigDecimal)
+     */
+    public boolean hasMinimumChargeBeenExceeded(final long journeyTime, final long journeyDistance) {
+        return journeyTime > flagFallTimeLimit || journeyDistance > flagFallDistanceLimit;
+    }
+
+    /**
+     * @see Tariff#isHighFare(uk.co.epsilontechnologies.taximeter.model.Fare)
+     */
+    public boolean isHighFare(final long amount) {
+        return amount >= highLowFareBoundary;
+    }
+
+    /**
+     * @return the increment amount of the sub-tariff for the given fare amount, in pence
+     */
+    public long getIncrementAmount(final long amount) {
+        return isHighFare(amount) ? highFareIncrementAmount : lowFareIncrementAmount;
+    }
+
+    /**
+     * @return the distance limit of the sub-tariff for the given fare amount, in millimetres
+     */
+    public long getDistanceLimit(final long amount) {
+        return isHighFare(amount) ? highFareDistanceLimit : lowFareDistanceLimit;
+    }
+
+    /**
+     * @return the time limit of the sub-tariff for the given fare amount, in milliseconds
+     */
+    public long getTimeLimit(final long amount) {
+        return isHighFare(amount) ? highFareTimeLimit : lowFareTimeLimit;
+    }
+
+}
@@ -1,13 +1,15 @@
 package uk.co.epsilontechnologies.taximeter.tariff;
 
 import org.joda.time.DateTime;
+import uk.co.epsilontechnologies.taximeter.utils.TimeContext;
 
 import java.math.BigDecimal;
 
 /**
  * @see Tariff
  *
- * <p>For any hiring during Monday to Friday other than on a public holiday between 06:00 and 20:00:
+ * <p>A tariff defined by its rates and a time filter. For example, for any hiring during Monday to Friday other than on
+ * a public holiday between 06:00 and 20:00:
  *
  * <ul>
  *  <li>For the first 254.6 metres or 54.8 seconds (whichever is reached first) there is a minimum charge of £2.40
@@ -15,37 +17,84 @@ import java.math.BigDecimal;
  *  <li>Once the fare is £17.20 or greater then there is a charge of 20p for each additional 89.2 metres or 19.2 seconds (whichever is reached first), or part thereof
  * </ul>
  *
+ * <p>The rates are parsed and validated once, on construction, and the tariff (including its sub-tariffs) is immutable.
+ * Use the {@link Builder} to create one:
+ *
+ * <pre>
+ *   GenericTariff.builder()
+ *           .flagFall("2.40", "254.6", "54.8")
+ *           .highLowFareBoundary("17.20")
+ *           .lowFare("127.3", "27.4", "0.20")
+ *           .highFare("89.2", "19.2", "0.20")
+ *           .timeFilter(filter)
+ *           .build();
+ * </pre>
+ *
  * @author Shane Gibson
  */
 public class GenericTariff extends AbstractTariff {
 
-    private final String minimumFare;
-    private final String initialDistance;
-    private final String initialTime;
-    private final String lowFareDistance;
-    private final String highLowFareBoundary;
-    private final String lowFareTimeLimit;
-    private final String lowFareIncrement;
-    private final String highFareIncrement;
-    private final String highFareDistance;
-    private final String highFareTimeLimit;
-    private TariffTimeFilter timeFilter;
+    private final BigDecimal flagFallAmount;
+    private final BigDecimal flagFallDistanceLimit;
+    private final BigDecimal flagFallTimeLimit;
+    private final BigDecimal highLowFareBoundary;
+    private final SubTariff lowFareSubTariff;
+    private final SubTariff highFareSubTariff;
+    private final TariffTimeFilter timeFilter;
 
+    /**
+     * The time filter, adapted to check a time context if it only checks a DateTime.
+     */
+    private final TimeContextFilter timeContextFilter;
+
+    /**
+     * Constructs the tariff from its positional rates.
+     *
+     * @deprecated use the {@link Builder} instead, which names each rate
+     */
+    @Deprecated
     public GenericTariff(String minimumFare, String initialDistance, String initialTime, String highLowFareBoundary, String lowFareDistance, String lowFareTimeLimit, String lowFareIncrement, String highFareDistance, String highFareTimeLimit, String highFareIncrement, TariffTimeFilter timeFilter) {
-        this.minimumFare = minimumFare;
-        this.initialDistance = initialDistance;
-        this.initialTime = initialTime;
-        this.highLowFareBoundary = highLowFareBoundary;
-        
-        this.lowFareDistance = lowFareDistance;
-        this.lowFareTimeLimit = lowFareTimeLimit;
-        this.lowFareIncrement = lowFareIncrement;
-
-        this.highFareDistance = highFareDistance;
-        this.highFareTimeLimit = highFareTimeLimit;
-        this.highFareIncrement = highFareIncrement;
-
-        this.timeFilter = timeFilter;
+        this(builder()
+                .flagFall(minimumFare, initialDistance, initialTime)
+                .highLowFareBoundary(highLowFareBoundary)
+                .lowFare(lowFareDistance, lowFareTimeLimit, lowFareIncrement)
+                .highFare(highFareDistance, highFareTimeLimit, highFareIncrement)
+                .timeFilter(timeFilter));
+    }
+
+    /**
+     * Constructs the tariff from the rates held by the given builder.
+     *
+     * @param builder the builder holding the rates
+     * @throws IllegalArgumentException a rate or the time filter is missing or invalid
+     */
+    protected GenericTariff(final Builder builder) {
+        this.flagFallAmount = parse("flag fall amount", builder.flagFallAmount, false);
+        this.flagFallDistanceLimit = parse("flag fall distance limit", builder.flagFallDistanceLimit, true);
+        this.flagFallTimeLimit = parse("flag fall time limit", builder.flagFallTimeLimit, true);
+        this.highLowFareBoundary = parse("high / low fare boundary", builder.highLowFareBoundary, false);
+        this.lowFareSubTariff = new GenericSubTariff(
+                parse("low fare distance limit", builder.lowFareDistanceLimit, true),
+                parse("low fare time limit", builder.lowFareTimeLimit, true),
+                parse("low fare increment amount", builder.lowFareIncrementAmount, true));
+        this.highFareSubTariff = new GenericSubTariff(
+                parse("high fare distance limit", builder.highFareDistanceLimit, true),
+                parse("high fare time limit", builder.highFareTimeLimit, true),
+                parse("high fare increment amount", builder.highFareIncrementAmount, true));
+        if (builder.timeFilter == null) {
+            throw new IllegalArgumentException("Tariff has no time filter");
+        }
+        this.timeFilter = builder.timeFilter;
+        this.timeContextFilter = TimeContextFilter.adapt(builder.timeFilter);
+    }
+
+    /**
+     * Creates a builder for a tariff.
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
     }
 
     /**
@@ -56,12 +105,20 @@ public class GenericTariff extends AbstractTariff {
         return timeFilter.applies(dateTime);
     }
 
+    /**
+     * @see AbstractTariff#applies(TimeContext)
+     */
+    @Override
+    public boolean applies(final TimeContext context) {
+        return timeContextFilter.applies(context);
+    }
+
     /**
      * @see Tariff#getFlagFallAmount()
      */
     @Override
     public BigDecimal getFlagFallAmount() {
-        return new BigDecimal(minimumFare);
+        return flagFallAmount;
     }
 
     /**
@@ -69,7 +126,7 @@ public class GenericTariff extends AbstractTariff {
      */
     @Override
     public BigDecimal getFlagFallDistanceLimit() {
-        return new BigDecimal(initialDistance);
+        return flagFallDistanceLimit;
     }
 
     /**
@@ -77,7 +134,7 @@ public class GenericTariff extends AbstractTariff {
      */
     @Override
     public BigDecimal getFlagFallTimeLimit() {
-        return new BigDecimal(initialTime);
+        return flagFallTimeLimit;
     }
 
     /**
@@ -85,7 +142,7 @@ public class GenericTariff extends AbstractTariff {
      */
     @Override
     public BigDecimal getHighLowFareBoundary() {
-        return new BigDecimal(highLowFareBoundary);
+        return highLowFareBoundary;
     }
 
     /**
@@ -93,33 +150,7 @@ public class GenericTariff extends AbstractTariff {
      */
     @Override
     public SubTariff getLowFareSubTariff() {
-        return new SubTariff() {
-
-            /**
-             * @see SubTariff#getDistanceLimit()
-             */
-            @Override
-            public BigDecimal getDistanceLimit() {
-                return new BigDecimal(lowFareDistance);
-            }
-
-            /**
-             * @see SubTariff#getTimeLimit()
-             */
-            @Override
-            public BigDecimal getTimeLimit() {
-                return new BigDecimal(lowFareTimeLimit);
-            }
-
-            /**
-             * @see SubTariff#getIncrementAmount()
-             */
-            @Override
-            public BigDecimal getIncrementAmount() {
-                return new BigDecimal(lowFareIncrement);
-            }
-
-        };
+        return lowFareSubTariff;
     }
 
     /**
@@ -127,33 +158,160 @@ public class GenericTariff extends AbstractTariff {
      */
     @Override
     public SubTariff getHighFareSubTariff() {
-        return new SubTariff() {
-
-            /**
-             * @see SubTariff#getIncrementAmount()
-             */
-            @Override
-            public BigDecimal getIncrementAmount() {
-                return new BigDecimal(highFareIncrement);
-            }
-
-            /**
-             * @see SubTariff#getDistanceLimit()
-             */
-            @Override
-            public BigDecimal getDistanceLimit() {
-                return new BigDecimal(highFareDistance);
-            }
-
-            /**
-             * @see SubTariff#getTimeLimit()
-             */
-            @Override
-            public BigDecimal getTimeLimit() {
-                return new BigDecimal(highFareTimeLimit);
-            }
-
-        };
+        return highFareSubTariff;
+    }
+
+    /**
+     * Getter for the time filter
+     * @return the time filter that determines when this tariff applies
+     */
+    public TariffTimeFilter getTimeFilter() {
+        return timeFilter;
+    }
+
+    /**
+     * Parses the given rate.
+     *
+     * @param name the name of the rate, for reporting
+     * @param value the value of the rate
+     * @param positive whether the rate must be greater than zero (otherwise it must not be negative)
+     * @return the parsed rate
+     * @throws IllegalArgumentException the rate is missing, malformed or out of range
+     */
+    private static BigDecimal parse(final String name, final String value, final boolean positive) {
+        if (value == null) {
+            throw new IllegalArgumentException("Tariff has no "+name);
+        }
+        final BigDecimal rate;
+        try {
+            rate = new BigDecimal(value);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Tariff "+name+" is not a number: "+value);
+        }
+        if (positive ? rate.signum() <= 0 : rate.signum() < 0) {
+            throw new IllegalArgumentException("Tariff "+name+" is out of range: "+value);
+        }
+        return rate;
+    }
+
+    /**
+     * @see SubTariff
+     *
+     * <p>Immutable sub-tariff, shared by every calculation against its tariff.
+     */
+    private static final class GenericSubTariff implements SubTariff {
+
+        private final BigDecimal distanceLimit;
+        private final BigDecimal timeLimit;
+        private final BigDecimal incrementAmount;
+
+        private GenericSubTariff(final BigDecimal distanceLimit, final BigDecimal timeLimit, final BigDecimal incrementAmount) {
+            this.distanceLimit = distanceLimit;
+            this.timeLimit = timeLimit;
+            this.incrementAmount = incrementAmount;
+        }
+
+        /**
+         * @see SubTariff#getDistanceLimit()
+         */
+        @Override
+        public BigDecimal getDistanceLimit() {
+            return distanceLimit;
+        }
+
+        /**
+         * @see SubTariff#getTimeLimit()
+         */
+        @Override
+        public BigDecimal getTimeLimit() {
+            return timeLimit;
+        }
+
+        /**
+         * @see SubTariff#getIncrementAmount()
+         */
+        @Override
+        public BigDecimal getIncrementAmount() {
+            return incrementAmount;
+        }
+
+    }
+
+    /**
+     * <p>Builder for a {@link GenericTariff}. Amounts are in pounds, distances in metres and times in seconds.
+     */
+    public static class Builder {
+
+        private String flagFallAmount;
+        private String flagFallDistanceLimit;
+        private String flagFallTimeLimit;
+        private String highLowFareBoundary;
+        private String lowFareDistanceLimit;
+        private String lowFareTimeLimit;
+        private String lowFareIncrementAmount;
+        private String highFareDistanceLimit;
+        private String highFareTimeLimit;
+        private String highFareIncrementAmount;
+        private TariffTimeFilter timeFilter;
+
+        /**
+         * Sets the minimum charge, and the distance or time (whichever is reached first) it covers.
+         */
+        public Builder flagFall(final String amount, final String distanceLimit, final String timeLimit) {
+            this.flagFallAmount = amount;
+            this.flagFallDistanceLimit = distanceLimit;
+            this.flagFallTimeLimit = timeLimit;
+            return this;
+        }
+
+        /**
+         * Sets the fare amount from which the high fare sub-tariff applies.
+         */
+        public Builder highLowFareBoundary(final String amount) {
+            this.highLowFareBoundary = amount;
+            return this;
+        }
+
+        /**
+         * Sets the charge for each additional distance or time (whichever is reached first) while the fare is below the
+         * high / low fare boundary.
+         */
+        public Builder lowFare(final String distanceLimit, final String timeLimit, final String incrementAmount) {
+            this.lowFareDistanceLimit = distanceLimit;
+            this.lowFareTimeLimit = timeLimit;
+            this.lowFareIncrementAmount = incrementAmount;
+            return this;
+        }
+
+        /**
+         * Sets the charge for each additional distance or time (whichever is reached first) once the fare has reached
+         * the high / low fare boundary.
+         */
+        public Builder highFare(final String distanceLimit, final String timeLimit, final String incrementAmount) {
+            this.highFareDistanceLimit = distanceLimit;
+            this.highFareTimeLimit = timeLimit;
+            this.highFareIncrementAmount = incrementAmount;
+            return this;
+        }
+
+        /**
+         * Sets the filter that determines when the tariff applies.
+         */
+        public Builder timeFilter(final TariffTimeFilter timeFilter) {
+            this.timeFilter = timeFilter;
+            return this;
+        }
+
+        /**
+         * Builds the tariff.
+         *
+         * @return the tariff
+         * @throws IllegalArgumentException a rate or the time filter is missing or invalid
+         */
+        public GenericTariff build() {
+            return new GenericTariff(this);
+        }
+
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,280 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <p>Lookup class for the tariff, from a schedule of {@link TariffDefinition}s that can be changed under live meters.
+ *
+ * <p>Each definition applies from its effective instant until the next definition takes effect, so a rate change can
+ * be installed ahead of time. Installing a definition swaps in a new schedule with a single volatile write, so the
+ * meters never pause: each tick sees either the old schedule or the new one, and picks up the change at its next
+ * tick. A definition installed with the same effective instant as one already scheduled replaces it, and changes the
+ * {@link #getRevision() revision} - so that a tariff cached from before is known to be stale. The schedule in effect
+ * is itself an immutable lookup (see {@link #getCurrentLookup()}), so that a tariff, its band and its next change can
+ * all be looked up from the same schedule.
+ *
+ * <p>Bands are the order of the tariffs within each definition - so the definitions should list their tariffs in the
+ * same order (e.g. Tariff 1, 2 then 3) for the bands to mean the same across a change.
+ *
+ * @author Shane Gibson
+ */
+public class SwappableTariffLookup extends TariffLookup {
+
+    /**
+     * The current schedule, replaced as a whole (never modified) when a definition is installed.
+     */
+    private volatile Schedule schedule;
+
+    /**
+     * Constructs the tariff lookup, with the given definitions scheduled.
+     *
+     * @param definitions the definitions
+     * @throws IllegalArgumentException no definitions are given
+     */
+    public SwappableTariffLookup(final TariffDefinition... definitions) {
+        if (definitions.length == 0) {
+            throw new IllegalArgumentException("No tariff definitions to look up");
+        }
+        Schedule schedule = new Schedule(new TariffDefinition[0], 0);
+        for (final TariffDefinition definition : definitions) {
+            schedule = schedule.with(definition);
+        }
+        this.schedule = schedule;
+    }
+
+    /**
+     * Installs the given definition, replacing any scheduled with the same effective instant. Meters pick up the
+     * change at their next tick.
+     *
+     * @param definition the definition to install
+     */
+    public synchronized void install(final TariffDefinition definition) {
+        this.schedule = schedule.with(definition);
+    }
+
+    /**
+     * Retrieves the scheduled definitions, in order of their effective instant.
+     *
+     * @return the scheduled definitions
+     */
+    public List<TariffDefinition> getDefinitions() {
+        final List<TariffDefinition> definitions = new ArrayList<>();
+        Collections.addAll(definitions, schedule.definitions);
+        return Collections.unmodifiableList(definitions);
+    }
+
+    /**
+     * Retrieves the tariffs of the definition in effect now - or, if none is in effect yet, of the first to take
+     * effect - in order of band.
+     *
+     * @return the tariffs in effect
+     */
+    @Override
+    public List<Tariff> getTariffs() {
+        return schedule.getTariffs();
+    }
+
+    /**
+     * @see TariffLookup#lookupTariff(DateTime)
+     */
+    @Override
+    public Tariff lookupTariff(final DateTime dateTime) {
+        return schedule.lookupTariff(dateTime);
+    }
+
+    /**
+     * @see TariffLookup#lookupTariff(long, DateTimeZone)
+     */
+    @Override
+    public Tariff lookupTariff(final long epochMillis, final DateTimeZone zone) {
+        return schedule.lookupTariff(epochMillis, zone);
+    }
+
+    /**
+     * @see TariffLookup#lookupBand(DateTime)
+     */
+    @Override
+    public int lookupBand(final DateTime dateTime) {
+        return schedule.lookupBand(dateTime);
+    }
+
+    /**
+     * @see TariffLookup#lookupBand(long, DateTimeZone)
+     */
+    @Override
+    public int lookupBand(final long epochMillis, final DateTimeZone zone) {
+        return schedule.lookupBand(epochMillis, zone);
+    }
+
+    /**
+     * <p>The tariff could also change at the instant the next definition takes effect.
+     *
+     * @see TariffLookup#nextChange(long, DateTimeZone)
+     */
+    @Override
+    public long nextChange(final long epochMillis, final DateTimeZone zone) {
+        return schedule.nextChange(epochMillis, zone);
+    }
+
+    /**
+     * @see TariffLookup#getRevision()
+     */
+    @Override
+    public long getRevision() {
+        return schedule.revision;
+    }
+
+    /**
+     * <p>The schedule of definitions installed now, which is replaced rather than changed when a definition is installed.
+     *
+     * @see TariffLookup#getCurrentLookup()
+     */
+    @Override
+    public TariffLookup getCurrentLookup() {
+        return schedule;
+    }
+
+    /**
+     * <p>Immutable schedule of definitions, in order of their effective instant, which looks up the tariff of the
+     * definition in effect.
+     */
+    private static final class Schedule extends TariffLookup {
+
+        private final TariffDefinition[] definitions;
+        private final long[] effectiveFrom;
+        private final CompiledTariffLookup[] tariffLookups;
+        private final long revision;
+
+        private Schedule(final TariffDefinition[] definitions, final long revision) {
+            this.definitions = definitions;
+            this.revision = revision;
+            this.effectiveFrom = new long[definitions.length];
+            this.tariffLookups = new CompiledTariffLookup[definitions.length];
+            for (int i = 0; i < definitions.length; i++) {
+                this.effectiveFrom[i] = definitions[i].getEffectiveFrom().getMillis();
+                this.tariffLookups[i] = definitions[i].getTariffLookup();
+            }
+        }
+
+        /**
+         * Retrieves the tariffs of the definition in effect now - or, if none is in effect yet, of the first to take
+         * effect - in order of band.
+         *
+         * @see TariffLookup#getTariffs()
+         */
+        @Override
+        public List<Tariff> getTariffs() {
+            final long now = System.currentTimeMillis();
+            return (now < effectiveFrom[0] ? tariffLookups[0] : lookup(now)).getTariffs();
+        }
+
+        /**
+         * @see TariffLookup#lookupTariff(DateTime)
+         */
+        @Override
+        public Tariff lookupTariff(final DateTime dateTime) {
+            return lookup(dateTime.getMillis()).lookupTariff(dateTime);
+        }
+
+        /**
+         * @see TariffLookup#lookupTariff(long, DateTimeZone)
+         */
+        @Override
+        public Tariff lookupTariff(final long epochMillis, final DateTimeZone zone) {
+            return lookup(epochMillis).lookupTariff(epochMillis, zone);
+        }
+
+        /**
+         * @see TariffLookup#lookupBand(DateTime)
+         */
+        @Override
+        public int lookupBand(final DateTime dateTime) {
+            return lookup(dateTime.getMillis()).lookupBand(dateTime);
+        }
+
+        /**
+         * @see TariffLookup#lookupBand(long, DateTimeZone)
+         */
+        @Override
+        public int lookupBand(final long epochMillis, final DateTimeZone zone) {
+            return lookup(epochMillis).lookupBand(epochMillis, zone);
+        }
+
+        /**
+         * <p>The tariff could also change at the instant the next definition takes effect.
+         *
+         * @see TariffLookup#nextChange(long, DateTimeZone)
+         */
+        @Override
+        public long nextChange(final long epochMillis, final DateTimeZone zone) {
+            final long change = lookup(epochMillis).nextChange(epochMillis, zone);
+            final long nextEffectiveFrom = nextEffectiveFrom(epochMillis);
+            return nextEffectiveFrom < change ? nextEffectiveFrom : change;
+        }
+
+        /**
+         * @see TariffLookup#getRevision()
+         */
+        @Override
+        public long getRevision() {
+            return revision;
+        }
+
+        /**
+         * Creates a schedule with the given definition added, replacing any with the same effective instant.
+         */
+        private Schedule with(final TariffDefinition definition) {
+            final List<TariffDefinition> definitions = new ArrayList<>();
+            for (final TariffDefinition scheduled : this.definitions) {
+                if (!scheduled.getEffectiveFrom().isEqual(definition.getEffectiveFrom())) {
+                    definitions.add(scheduled);
+                }
+            }
+            definitions.add(definition);
+            Collections.sort(definitions, new Comparator<TariffDefinition>() {
+                @Override
+                public int compare(final TariffDefinition definition1, final TariffDefinition definition2) {
+                    return definition1.getEffectiveFrom().compareTo(definition2.getEffectiveFrom());
+                }
+            });
+            return new Schedule(definitions.toArray(new TariffDefinition[definitions.size()]), revision + 1);
+        }
+
+        /**
+         * Finds the instant at which the next definition after the given instant takes effect.
+         *
+         * @return the instant, or Long.MAX_VALUE if no definition takes effect after the given instant
+         */
+        private long nextEffectiveFrom(final long epochMillis) {
+            for (final long instant : effectiveFrom) {
+                if (instant > epochMillis) {
+                    return instant;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        /**
+         * Finds the tariff lookup of the definition in effect at the given instant.
+         *
+         * @throws IllegalStateException no definition is in effect at the instant
+         */
+        private CompiledTariffLookup lookup(final long epochMillis) {
+            // there are only ever a few definitions, and the latest is the most likely
+            for (int i = effectiveFrom.length - 1; i >= 0; i--) {
+                if (epochMillis >= effectiveFrom[i]) {
+                    return tariffLookups[i];
+                }
+            }
+            throw new IllegalStateException("No tariff definition in effect at: "+new DateTime(epochMillis));
+        }
+
+    }
+
+}
@@ -1,7 +1,6 @@
 package uk.co.epsilontechnologies.taximeter.tariff;
 
-import org.joda.time.DateTime;
-import uk.co.epsilontechnologies.taximeter.utils.CalendarUtils;
+import uk.co.epsilontechnologies.taximeter.utils.TimeContext;
 
 import java.math.BigDecimal;
 
@@ -24,12 +23,16 @@ import static uk.co.epsilontechnologies.taximeter.utils.CalendarUtils.isWeekday;
 public class Tariff1 extends GenericTariff {
 
     public Tariff1() {
-        super("2.40","254.6", "54.8", "17.20", "127.3", "27.4", "0.20", "89.2", "19.2", "0.20",
-                new TariffTimeFilter() {
+        super(GenericTariff.builder()
+                .flagFall("2.40", "254.6", "54.8")
+                .highLowFareBoundary("17.20")
+                .lowFare("127.3", "27.4", "0.20")
+                .highFare("89.2", "19.2", "0.20")
+                .timeFilter(new TimeContextFilter() {
                     @Override
-                    public boolean applies(DateTime dateTime) {
-                        return isWeekday(dateTime) && isBetweenHours(dateTime, 6, 20) && !CalendarUtils.isPublicHoliday(dateTime);
+                    public boolean applies(TimeContext context) {
+                        return isWeekday(context) && isBetweenHours(context, 6, 20) && !context.isPublicHoliday();
                     }
-                });
+                }));
     }
 }
\ No newline at end of file
@@ -1,7 +1,6 @@
 package uk.co.epsilontechnologies.taximeter.tariff;
 
-import org.joda.time.DateTime;
-import uk.co.epsilontechnologies.taximeter.utils.CalendarUtils;
+import uk.co.epsilontechnologies.taximeter.utils.TimeContext;
 
 import java.math.BigDecimal;
 
@@ -25,13 +24,17 @@ import static uk.co.epsilontechnologies.taximeter.utils.CalendarUtils.isWeekend;
 public class Tariff2 extends GenericTariff {
 
     public Tariff2() {
-        super("2.40","206.8", "44.4", "20.80", "103.4", "22.2", "0.20", "89.2", "19.2", "0.20",
-                new TariffTimeFilter() {
+        super(GenericTariff.builder()
+                .flagFall("2.40", "206.8", "44.4")
+                .highLowFareBoundary("20.80")
+                .lowFare("103.4", "22.2", "0.20")
+                .highFare("89.2", "19.2", "0.20")
+                .timeFilter(new TimeContextFilter() {
                     @Override
-                    public boolean applies(DateTime dateTime) {
-                        return ((isWeekday(dateTime) && isBetweenHours(dateTime, 20, 22)) || (isWeekend(dateTime) && isBetweenHours(dateTime, 6, 22)))
-                                && !CalendarUtils.isPublicHoliday(dateTime);
+                    public boolean applies(TimeContext context) {
+                        return ((isWeekday(context) && isBetweenHours(context, 20, 22)) || (isWeekend(context) && isBetweenHours(context, 6, 22)))
+                                && !context.isPublicHoliday();
                     }
-                });
+                }));
     }
 }
\ No newline at end of file
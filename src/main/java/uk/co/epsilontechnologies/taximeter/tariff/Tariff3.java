@@ -1,7 +1,6 @@
 package uk.co.epsilontechnologies.taximeter.tariff;
 
-import org.joda.time.DateTime;
-import uk.co.epsilontechnologies.taximeter.utils.CalendarUtils;
+import uk.co.epsilontechnologies.taximeter.utils.TimeContext;
 
 import java.math.BigDecimal;
 
@@ -25,12 +24,16 @@ import static uk.co.epsilontechnologies.taximeter.utils.CalendarUtils.isWeekend;
 public class Tariff3 extends GenericTariff {
 
     public Tariff3() {
-        super("2.40","166.8", "35.8", "25.20", "83.4", "17.9", "0.20", "89.2", "19.2", "0.20",
-                new TariffTimeFilter() {
+        super(GenericTariff.builder()
+                .flagFall("2.40", "166.8", "35.8")
+                .highLowFareBoundary("25.20")
+                .lowFare("83.4", "17.9", "0.20")
+                .highFare("89.2", "19.2", "0.20")
+                .timeFilter(new TimeContextFilter() {
                     @Override
-                    public boolean applies(DateTime dateTime) {
-                        return dateTime.getHourOfDay() < 6 || dateTime.getHourOfDay() >= 22 || CalendarUtils.isPublicHoliday(dateTime);
+                    public boolean applies(TimeContext context) {
+                        return context.getHourOfDay() < 6 || context.getHourOfDay() >= 22 || context.isPublicHoliday();
                     }
-                });
+                }));
     }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.joda.time.DateTime;
+
+import java.util.List;
+
+/**
+ * <p>A set of tariffs, and the instant from which they are in effect - as loaded from a tariff definition file by the
+ * {@link TariffDefinitionLoader}.
+ *
+ * <p>The rules of the tariffs are compiled into a {@link CompiledTariffLookup} on construction, which rejects any gap
+ * or overlap between them, and the rates are checked to be representable in fixed-point units - so a definition that
+ * has been constructed can be swapped in under live meters without fear of failing on their next tick.
+ *
+ * @author Shane Gibson
+ */
+public class TariffDefinition {
+
+    private final String name;
+
+    private final DateTime effectiveFrom;
+
+    private final CompiledTariffLookup tariffLookup;
+
+    /**
+     * Constructs the definition, compiling its tariffs.
+     *
+     * @param name the name of the definition, for reporting
+     * @param effectiveFrom the instant from which the tariffs are in effect
+     * @param tariffs the tariffs, in order of band
+     * @throws IllegalArgumentException the tariffs leave a minute uncovered, cover a minute more than once, or have a
+     *         rate that cannot be represented exactly in fixed-point units
+     */
+    public TariffDefinition(final String name, final DateTime effectiveFrom, final Tariff... tariffs) {
+        this.name = name;
+        this.effectiveFrom = effectiveFrom;
+        this.tariffLookup = new CompiledTariffLookup(tariffs);
+        for (final Tariff tariff : tariffs) {
+            new FixedPointTariff(tariff);
+        }
+    }
+
+    /**
+     * Getter for the name
+     * @return the name of the definition
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Getter for the effective from
+     * @return the instant from which the tariffs are in effect
+     */
+    public DateTime getEffectiveFrom() {
+        return effectiveFrom;
+    }
+
+    /**
+     * Getter for the tariffs
+     * @return the tariffs, in order of band
+     */
+    public List<Tariff> getTariffs() {
+        return tariffLookup.getTariffs();
+    }
+
+    /**
+     * Getter for the tariff lookup
+     * @return the compiled lookup of the tariffs
+     */
+    public CompiledTariffLookup getTariffLookup() {
+        return tariffLookup;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+
+}
@@ -0,0 +1,153 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDateTime;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+/**
+ * <p>Loads a {@link TariffDefinition} from a tariff definition file, so that the tariffs can be changed without a code
+ * release.
+ *
+ * <p>The file is in the properties format. It names the definition, gives the local date time (and time zone) from
+ * which it is in effect, and lists the tariffs in order of band. The rates of each tariff are as per the
+ * {@link GenericTariff.Builder} - amounts in pounds, distances in metres and times in seconds - and the rules of when
+ * it applies are as per the {@link WeeklyTariffTimeFilter}. For example:
+ *
+ * <pre>
+ *   name = TfL 2013
+ *   effective = 2013-04-06T00:00
+ *   zone = Europe/London
+ *   tariffs = 1, 2, 3
+ *
+ *   tariff.1.flagFall = 2.40, 254.6, 54.8
+ *   tariff.1.highLowFareBoundary = 17.20
+ *   tariff.1.lowFare = 127.3, 27.4, 0.20
+ *   tariff.1.highFare = 89.2, 19.2, 0.20
+ *   tariff.1.applies = Mon-Fri 06:00-20:00
+ *   ...
+ * </pre>
+ *
+ * <p>The definition is parsed and compiled in full when it is loaded: nothing is interpreted when looking up a tariff.
+ *
+ * @author Shane Gibson
+ */
+public class TariffDefinitionLoader {
+
+    private TariffDefinitionLoader() {
+    }
+
+    /**
+     * Loads the definition from the given file.
+     *
+     * @param file the tariff definition file
+     * @return the definition
+     * @throws IOException the file could not be read
+     * @throws IllegalArgumentException the definition is malformed or incomplete, or its tariffs have gaps or overlaps
+     */
+    public static TariffDefinition load(final File file) throws IOException {
+        try (final InputStream in = new FileInputStream(file)) {
+            return load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Loads the definition from the given classpath resource - e.g. one of the standard definitions, such as
+     * "/tariffs/tfl-2013.properties".
+     *
+     * @param resource the name of the resource
+     * @return the definition
+     * @throws IOException the resource could not be found or read
+     * @throws IllegalArgumentException the definition is malformed or incomplete, or its tariffs have gaps or overlaps
+     */
+    public static TariffDefinition loadResource(final String resource) throws IOException {
+        final InputStream in = TariffDefinitionLoader.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException("Tariff definition not found: "+resource);
+        }
+        try {
+            return load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Loads the definition from the given reader.
+     *
+     * @param reader the reader of the tariff definition
+     * @return the definition
+     * @throws IOException the definition could not be read
+     * @throws IllegalArgumentException the definition is malformed or incomplete, or its tariffs have gaps or overlaps
+     */
+    public static TariffDefinition load(final Reader reader) throws IOException {
+        final Properties properties = new Properties();
+        properties.load(reader);
+        final String name = required(properties, "name");
+        final DateTimeZone zone;
+        try {
+            zone = DateTimeZone.forID(required(properties, "zone"));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tariff definition zone is not a time zone: "+properties.getProperty("zone"));
+        }
+        final LocalDateTime effective;
+        try {
+            effective = LocalDateTime.parse(required(properties, "effective"));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tariff definition effective is not a date time: "+properties.getProperty("effective"));
+        }
+
+        final String[] ids = required(properties, "tariffs").split(",");
+        final Tariff[] tariffs = new Tariff[ids.length];
+        for (int band = 0; band < ids.length; band++) {
+            final String tariff = "tariff."+ids[band].trim();
+            final String prefix = tariff+".";
+            final String[] flagFall = rates(properties, prefix+"flagFall");
+            final String[] lowFare = rates(properties, prefix+"lowFare");
+            final String[] highFare = rates(properties, prefix+"highFare");
+            final String applies = required(properties, prefix+"applies");
+            try {
+                tariffs[band] = GenericTariff.builder()
+                        .flagFall(flagFall[0], flagFall[1], flagFall[2])
+                        .highLowFareBoundary(required(properties, prefix+"highLowFareBoundary"))
+                        .lowFare(lowFare[0], lowFare[1], lowFare[2])
+                        .highFare(highFare[0], highFare[1], highFare[2])
+                        .timeFilter(new WeeklyTariffTimeFilter(applies))
+                        .build();
+            } catch (final IllegalArgumentException e) {
+                throw new IllegalArgumentException("Tariff definition "+tariff+": "+e.getMessage(), e);
+            }
+        }
+        return new TariffDefinition(name, effective.toDateTime(zone), tariffs);
+    }
+
+    /**
+     * Reads a rate made up of three comma-separated values.
+     */
+    private static String[] rates(final Properties properties, final String key) {
+        final String[] rates = required(properties, key).split(",");
+        if (rates.length != 3) {
+            throw new IllegalArgumentException("Tariff definition "+key+" should have three values: "+properties.getProperty(key));
+        }
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = rates[i].trim();
+        }
+        return rates;
+    }
+
+    private static String required(final Properties properties, final String key) {
+        final String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Tariff definition has no "+key);
+        }
+        return value.trim();
+    }
+
+}
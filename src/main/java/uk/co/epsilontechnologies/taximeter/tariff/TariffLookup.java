@@ -1,10 +1,16 @@
 package uk.co.epsilontechnologies.taximeter.tariff;
 
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+import uk.co.epsilontechnologies.taximeter.utils.TimeContext;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import static uk.co.epsilontechnologies.taximeter.utils.CalendarUtils.floorDiv;
+
 /**
  * <p>Lookup class for the tariff based on the date time that has been provided and the rules for each of the tariffs.
  *
@@ -32,6 +38,15 @@ public class TariffLookup {
         this.tariffs = Arrays.asList(tariffs);
     }
 
+    /**
+     * Retrieves the tariffs registered with this lookup, in the order they are checked.
+     *
+     * @return the registered tariffs
+     */
+    public List<Tariff> getTariffs() {
+        return Collections.unmodifiableList(tariffs);
+    }
+
     /**
      * Looks up the correct tariff based on the given date time.
      *
@@ -40,12 +55,122 @@ public class TariffLookup {
      * @throws IllegalStateException No tariff is found for the given date time
      */
     public Tariff lookupTariff(final DateTime dateTime) {
-        for (final Tariff tariff : tariffs) {
-            if (tariff.applies(dateTime)) {
-                return tariff;
+        return tariffs.get(lookupBand(dateTime));
+    }
+
+    /**
+     * Looks up the correct tariff based on the given instant, in the given time zone.
+     *
+     * @param epochMillis the instant to check, in milliseconds since the epoch
+     * @param zone the time zone in which the rules of the tariffs apply
+     * @return the first matching tariff
+     * @throws IllegalStateException No tariff is found for the given instant
+     */
+    public Tariff lookupTariff(final long epochMillis, final DateTimeZone zone) {
+        return tariffs.get(lookupBand(epochMillis, zone));
+    }
+
+    /**
+     * Looks up the band of the correct tariff based on the given date time. The band is the index of the tariff in the
+     * order the tariffs were registered.
+     *
+     * @param dateTime the date time to check
+     * @return the band of the first matching tariff
+     * @throws IllegalStateException No tariff is found for the given date time
+     */
+    public int lookupBand(final DateTime dateTime) {
+        return lookupBand(TimeContext.of(dateTime), dateTime);
+    }
+
+    /**
+     * Looks up the band of the correct tariff based on the given instant, in the given time zone.
+     *
+     * @param epochMillis the instant to check, in milliseconds since the epoch
+     * @param zone the time zone in which the rules of the tariffs apply
+     * @return the band of the first matching tariff
+     * @throws IllegalStateException No tariff is found for the given instant
+     */
+    public int lookupBand(final long epochMillis, final DateTimeZone zone) {
+        return lookupBand(TimeContext.of(epochMillis, zone), null);
+    }
+
+    /**
+     * Checks each tariff in turn, against the given time - broken down once, for all of them. A tariff that is not an
+     * {@link AbstractTariff} is checked against the DateTime of the time, as given or converted once on demand.
+     */
+    private int lookupBand(final TimeContext context, final DateTime dateTime) {
+        DateTime contextDateTime = dateTime;
+        for (int band = 0; band < tariffs.size(); band++) {
+            final Tariff tariff = tariffs.get(band);
+            final boolean applies;
+            if (tariff instanceof AbstractTariff) {
+                applies = ((AbstractTariff) tariff).applies(context);
+            } else {
+                if (contextDateTime == null) {
+                    contextDateTime = context.toDateTime();
+                }
+                applies = tariff.applies(contextDateTime);
+            }
+            if (applies) {
+                return band;
             }
         }
-        throw new IllegalStateException("Unable to resolve tariff for time: "+dateTime);
+        throw new IllegalStateException("Unable to resolve tariff for time: "+(dateTime != null ? dateTime : context));
+    }
+
+    /**
+     * <p>Determines the earliest instant after the given one at which the tariff could change - so that the tariff
+     * looked up for the given instant can be reused until then. The tariff may not actually change at that instant, but
+     * it never changes before it.
+     *
+     * <p>Tariffs change on the minute, so this is the next minute in the given time zone - or the next transition of the
+     * time zone (e.g. for daylight saving), if sooner.
+     *
+     * @param epochMillis the instant to check from, in milliseconds since the epoch
+     * @param zone the time zone in which the rules of the tariffs apply
+     * @return the instant at which the tariff could next change, in milliseconds since the epoch
+     */
+    public long nextChange(final long epochMillis, final DateTimeZone zone) {
+        final long localMillis = epochMillis + zone.getOffset(epochMillis);
+        final long nextMinute = (floorDiv(localMillis, DateTimeConstants.MILLIS_PER_MINUTE) + 1) * DateTimeConstants.MILLIS_PER_MINUTE;
+        return withinOffset(epochMillis, zone, epochMillis + (nextMinute - localMillis));
+    }
+
+    /**
+     * Retrieves the revision of the tariffs of this lookup, which changes whenever they are changed other than at a
+     * scheduled instant (as reported by {@link #nextChange}) - so that a tariff looked up before can be checked to still
+     * hold.
+     *
+     * @return the revision of the tariffs
+     */
+    public long getRevision() {
+        return 0;
+    }
+
+    /**
+     * Retrieves the lookup of the tariffs as they are now, which does not change - so that the tariff, band and next
+     * change looked up from it all come from the same revision of the tariffs, even if they are changed in between.
+     * The tariffs of this lookup never change, so this is the lookup itself.
+     *
+     * @return the lookup of the current revision of the tariffs
+     */
+    public TariffLookup getCurrentLookup() {
+        return this;
+    }
+
+    /**
+     * Brings the given instant forward to the next transition of the time zone after the given instant, if sooner - since
+     * the local time, and so the instant of a change of tariff, is only known up until then.
+     *
+     * @param epochMillis the instant from which the offset of the time zone is known
+     * @param zone the time zone
+     * @param change the instant at which the tariff could change, as per the current offset of the time zone
+     * @return the sooner of the change and the next transition
+     */
+    protected static long withinOffset(final long epochMillis, final DateTimeZone zone, final long change) {
+        final long transition = zone.nextTransition(epochMillis);
+        // a zone without transitions returns the given instant
+        return transition > epochMillis && transition < change ? transition : change;
     }
 
 }
@@ -0,0 +1,74 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import org.joda.time.DateTime;
+import uk.co.epsilontechnologies.taximeter.utils.TimeContext;
+
+/**
+ * @see TariffTimeFilter
+ *
+ * <p>Time filter that checks a {@link TimeContext} - the local time broken down once per lookup, and shared by the
+ * filters of every tariff - rather than a DateTime. A filter that only checks a DateTime is adapted by
+ * {@link #adapt(TariffTimeFilter)}, which converts the context back to a DateTime for it.
+ *
+ * @author Shane Gibson
+ */
+public abstract class TimeContextFilter implements TariffTimeFilter {
+
+    /**
+     * Determines whether the tariff applies at the given time.
+     *
+     * @param context the time to check
+     * @return true if the tariff applies, otherwise false
+     */
+    public abstract boolean applies(final TimeContext context);
+
+    /**
+     * @see TariffTimeFilter#applies(DateTime)
+     */
+    @Override
+    public boolean applies(final DateTime dateTime) {
+        return applies(TimeContext.of(dateTime));
+    }
+
+    /**
+     * Adapts the given filter to check a time context.
+     *
+     * @param filter the filter
+     * @return the filter itself, if it checks a time context, otherwise an adapter of it
+     */
+    public static TimeContextFilter adapt(final TariffTimeFilter filter) {
+        if (filter instanceof TimeContextFilter) {
+            return (TimeContextFilter) filter;
+        }
+        return new DateTimeFilterAdapter(filter);
+    }
+
+    /**
+     * <p>Adapts a filter that checks a DateTime.
+     */
+    private static final class DateTimeFilterAdapter extends TimeContextFilter {
+
+        private final TariffTimeFilter filter;
+
+        private DateTimeFilterAdapter(final TariffTimeFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean applies(final TimeContext context) {
+            return filter.applies(context.toDateTime());
+        }
+
+        @Override
+        public boolean applies(final DateTime dateTime) {
+            return filter.applies(dateTime);
+        }
+
+        @Override
+        public String toString() {
+            return filter.toString();
+        }
+
+    }
+
+}
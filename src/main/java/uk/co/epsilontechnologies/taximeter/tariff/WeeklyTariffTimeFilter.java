@@ -0,0 +1,166 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import uk.co.epsilontechnologies.taximeter.utils.TimeContext;
+
+import java.util.BitSet;
+
+import static uk.co.epsilontechnologies.taximeter.tariff.CompiledTariffLookup.MINUTES_PER_DAY;
+import static uk.co.epsilontechnologies.taximeter.tariff.CompiledTariffLookup.MINUTES_PER_WEEK;
+
+/**
+ * @see TimeContextFilter
+ *
+ * <p>Time filter defined by rules of the days of the week, and times of day, at which a tariff applies - along with
+ * the times of day at which it applies on a public holiday. The rules are parsed once, into a bit per minute of the
+ * week and of a public holiday, so checking whether the filter applies is a single bit test.
+ *
+ * <p>The rules are separated by semicolons. Each is a day (Mon, Tue, Wed, Thu, Fri, Sat or Sun), a range of days
+ * ("Mon-Fri") or a list of either ("Sat,Sun"), followed by a range of times, from inclusive to exclusive. A range that
+ * ends before it starts runs on past midnight into the next day. For example:
+ *
+ * <pre>
+ *   Mon-Fri 20:00-22:00; Sat,Sun 06:00-22:00
+ *   Mon-Sun 22:00-06:00; holiday 00:00-24:00
+ * </pre>
+ *
+ * <p>The day rules never apply on a public holiday - on which only the "holiday" rules apply.
+ *
+ * @author Shane Gibson
+ */
+public class WeeklyTariffTimeFilter extends TimeContextFilter {
+
+    private static final String[] DAYS = { "Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun" };
+
+    private static final String HOLIDAY = "holiday";
+
+    private final String rules;
+
+    /**
+     * The minutes of the week, from Monday 00:00, at which the tariff applies other than on a public holiday.
+     */
+    private final BitSet weekMinutes = new BitSet(MINUTES_PER_WEEK);
+
+    /**
+     * The minutes of the day at which the tariff applies on a public holiday.
+     */
+    private final BitSet holidayMinutes = new BitSet(MINUTES_PER_DAY);
+
+    /**
+     * Constructs the time filter for the given rules.
+     *
+     * @param rules the rules, as described above
+     * @throws IllegalArgumentException the rules are malformed
+     */
+    public WeeklyTariffTimeFilter(final String rules) {
+        this.rules = rules.trim();
+        for (final String rule : this.rules.split(";")) {
+            parseRule(rule.trim());
+        }
+    }
+
+    /**
+     * @see TimeContextFilter#applies(TimeContext)
+     */
+    @Override
+    public boolean applies(final TimeContext context) {
+        final int minuteOfDay = context.getMinuteOfDay();
+        if (context.isPublicHoliday()) {
+            return holidayMinutes.get(minuteOfDay);
+        }
+        return weekMinutes.get((context.getDayOfWeek() - 1) * MINUTES_PER_DAY + minuteOfDay);
+    }
+
+    /**
+     * Getter for the rules
+     * @return the rules the filter was defined by
+     */
+    public String getRules() {
+        return rules;
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return rules;
+    }
+
+    private void parseRule(final String rule) {
+        final int space = rule.indexOf(' ');
+        if (space < 0) {
+            throw malformed(rule);
+        }
+        final String days = rule.substring(0, space);
+        final String times = rule.substring(space + 1).trim();
+        final int dash = times.indexOf('-');
+        if (dash < 0) {
+            throw malformed(rule);
+        }
+        final int start = parseTime(rule, times.substring(0, dash));
+        final int end = parseTime(rule, times.substring(dash + 1));
+        final int length = end > start ? end - start : end + MINUTES_PER_DAY - start;
+        if (days.equals(HOLIDAY)) {
+            for (int minute = start; minute < start + length; minute++) {
+                holidayMinutes.set(minute % MINUTES_PER_DAY);
+            }
+            return;
+        }
+        for (final String day : days.split(",")) {
+            final int range = day.indexOf('-');
+            final int first = parseDay(rule, range < 0 ? day : day.substring(0, range));
+            final int last = range < 0 ? first : parseDay(rule, day.substring(range + 1));
+            // a range of days may wrap around the end of the week, e.g. Sat-Mon
+            final int dayCount = (last - first + 7) % 7 + 1;
+            for (int i = 0; i < dayCount; i++) {
+                final int dayStart = ((first + i) % 7) * MINUTES_PER_DAY + start;
+                for (int minute = dayStart; minute < dayStart + length; minute++) {
+                    weekMinutes.set(minute % MINUTES_PER_WEEK);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses a day of the week.
+     *
+     * @return the day, from 0 for Monday
+     */
+    private static int parseDay(final String rule, final String day) {
+        for (int i = 0; i < DAYS.length; i++) {
+            if (DAYS[i].equalsIgnoreCase(day)) {
+                return i;
+            }
+        }
+        throw malformed(rule);
+    }
+
+    /**
+     * Parses a time of day, from 00:00 to 24:00.
+     *
+     * @return the minute of the day
+     */
+    private static int parseTime(final String rule, final String time) {
+        if (time.length() != 5 || time.charAt(2) != ':') {
+            throw malformed(rule);
+        }
+        final int hours;
+        final int minutes;
+        try {
+            hours = Integer.parseInt(time.substring(0, 2));
+            minutes = Integer.parseInt(time.substring(3));
+        } catch (final NumberFormatException e) {
+            throw malformed(rule);
+        }
+        final int minuteOfDay = hours * 60 + minutes;
+        if (hours < 0 || minutes < 0 || minutes >= 60 || minuteOfDay > MINUTES_PER_DAY) {
+            throw malformed(rule);
+        }
+        return minuteOfDay;
+    }
+
+    private static IllegalArgumentException malformed(final String rule) {
+        return new IllegalArgumentException("Malformed tariff rule: "+rule);
+    }
+
+}
@@ -0,0 +1,418 @@
+package uk.co.epsilontechnologies.taximeter.telemetry;
+
+import uk.co.epsilontechnologies.taximeter.utils.Log;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Ingests the distance telemetry of a fleet, routing each reading to the {@link TelemetryOdometer} registered for
+ * its vehicle.
+ *
+ * <p>Readings are published into a preallocated ring of primitive slots, by a single writer - the thread reading the
+ * message bus, say. A number of consumer threads read the ring, each of which handles the vehicles whose ids route to
+ * it, so that each vehicle's readings are applied in order by one thread. As in a disruptor, the writer only waits
+ * when it would overwrite a slot that a consumer has yet to read, and each consumer consumes all the readings
+ * available - up to a maximum batch - before advancing its sequence. Within a batch, only the latest reading of each
+ * vehicle is applied to its odometer, so a backlog is cleared without notifying the meters of every reading.
+ *
+ * <p>A thread that has to wait spins briefly, then parks until it is unparked: a consumer by the writer, when it
+ * publishes a reading, and the writer by a consumer, when it frees a slot. Each marks itself as waiting before it checks
+ * the ring one last time and parks, so the other side - which checks for waiting threads after it updates its sequence -
+ * never misses it.
+ *
+ * <p>Publishing a reading neither locks nor allocates. The sequences of the writer and consumers are each on a cache
+ * line of their own, so do not contend. Each consumer holds the odometers of the vehicles routed to it, keyed by the
+ * primitive vehicle id; registrations are handed to it in a queue, which it drains before each batch.
+ *
+ * @author Shane Gibson
+ */
+public class TelemetryIngester {
+
+    /**
+     * The default number of slots in the ring.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The default maximum number of readings each consumer consumes before advancing its sequence.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 1024;
+
+    /**
+     * The number of longs between sequences, so that each sequence is on its own cache line.
+     */
+    private static final int PADDING = 8;
+
+    /**
+     * The index of the writer's sequence - the last slot published.
+     */
+    private static final int CURSOR = 0;
+
+    /**
+     * The number of times a waiting thread spins before parking.
+     */
+    private static final int SPINS = 100;
+
+    /*
+      The ring: the vehicle id, timestamp (in milliseconds since the epoch) and odometer reading (in millimetres) of
+      each slot.
+    */
+
+    private final long[] vehicleIds;
+    private final long[] timestamps;
+    private final long[] readings;
+
+    /**
+     * The mask to index the ring with - its size, less one.
+     */
+    private final int mask;
+
+    private final int maxBatchSize;
+
+    /**
+     * The sequences of the writer and of each consumer, at multiples of the padding.
+     */
+    private final AtomicLongArray sequences;
+
+    private final Consumer[] consumers;
+
+    /*
+      Only accessed by the writer.
+    */
+
+    private long nextSequence;
+    private long cachedMinimumSequence = -1;
+
+    /**
+     * The writer, whilst it is parked waiting for a slot to be freed - otherwise null.
+     */
+    private volatile Thread waitingWriter;
+
+    private volatile boolean running;
+
+    /**
+     * Constructs the ingester, with the default buffer and batch sizes.
+     *
+     * @param consumerCount the number of consumer threads
+     */
+    public TelemetryIngester(final int consumerCount) {
+        this(DEFAULT_BUFFER_SIZE, consumerCount, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs the ingester.
+     *
+     * @param bufferSize the number of slots in the ring, which must be a power of two
+     * @param consumerCount the number of consumer threads
+     * @param maxBatchSize the maximum number of readings each consumer consumes before advancing its sequence
+     * @throws IllegalArgumentException the buffer size is not a power of two, or a count or size is not positive
+     */
+    public TelemetryIngester(final int bufferSize, final int consumerCount, final int maxBatchSize) {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Buffer size must be a power of two: "+bufferSize);
+        }
+        if (consumerCount <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Consumer count and batch size must be positive: "+consumerCount+", "+maxBatchSize);
+        }
+        this.vehicleIds = new long[bufferSize];
+        this.timestamps = new long[bufferSize];
+        this.readings = new long[bufferSize];
+        this.mask = bufferSize - 1;
+        this.maxBatchSize = maxBatchSize;
+        this.sequences = new AtomicLongArray((consumerCount + 1) * PADDING);
+        this.consumers = new Consumer[consumerCount];
+        for (int i = 0; i <= consumerCount; i++) {
+            sequences.set(i * PADDING, -1);
+        }
+        for (int i = 0; i < consumerCount; i++) {
+            this.consumers[i] = new Consumer(i);
+        }
+    }
+
+    /**
+     * Registers the odometer to route the given vehicle's readings to. Readings of vehicles that are not registered are
+     * discarded.
+     *
+     * @param vehicleId the id of the vehicle
+     * @param odometer the odometer
+     */
+    public void register(final long vehicleId, final TelemetryOdometer odometer) {
+        consumers[route(vehicleId)].registrations.offer(new Registration(vehicleId, odometer));
+    }
+
+    /**
+     * Unregisters the given vehicle.
+     *
+     * @param vehicleId the id of the vehicle
+     */
+    public void unregister(final long vehicleId) {
+        consumers[route(vehicleId)].registrations.offer(new Registration(vehicleId, null));
+    }
+
+    /**
+     * Starts the consumer threads.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        this.running = true;
+        for (final Consumer consumer : consumers) {
+            consumer.thread = new Thread(consumer, "telemetry-consumer-"+consumer.index);
+            consumer.thread.setDaemon(true);
+            consumer.thread.start();
+        }
+    }
+
+    /**
+     * Stops the consumer threads, once they have consumed the readings published so far.
+     *
+     * @throws InterruptedException interrupted whilst waiting for the consumers to stop
+     */
+    public synchronized void shutdown() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        this.running = false;
+        for (final Consumer consumer : consumers) {
+            LockSupport.unpark(consumer.thread);
+            consumer.thread.join();
+        }
+    }
+
+    /**
+     * Publishes a reading into the ring, waiting if the ring is full. Must only be called by one thread at a time.
+     *
+     * @param vehicleId the id of the vehicle
+     * @param timestamp the time of the reading, in milliseconds since the epoch
+     * @param reading the reading of the vehicle's odometer, in millimetres
+     */
+    public void publish(final long vehicleId, final long timestamp, final long reading) {
+        final long sequence = nextSequence;
+        final long wrapPoint = sequence - readings.length;
+        if (wrapPoint > cachedMinimumSequence) {
+            int spins = 0;
+            long minimumSequence;
+            while (wrapPoint > (minimumSequence = minimumConsumerSequence())) {
+                if (++spins > SPINS) {
+                    this.waitingWriter = Thread.currentThread();
+                    if (wrapPoint > minimumConsumerSequence()) {
+                        LockSupport.park(this);
+                    }
+                    this.waitingWriter = null;
+                }
+            }
+            this.cachedMinimumSequence = minimumSequence;
+        }
+        final int index = (int) sequence & mask;
+        vehicleIds[index] = vehicleId;
+        timestamps[index] = timestamp;
+        readings[index] = reading;
+        // a volatile store, so the consumers see the slot before the sequence, and a consumer that marked itself as
+        // waiting before it last checked the sequence is seen to be waiting below
+        sequences.set(CURSOR, sequence);
+        this.nextSequence = sequence + 1;
+        for (final Consumer consumer : consumers) {
+            if (consumer.waiting) {
+                LockSupport.unpark(consumer.thread);
+            }
+        }
+    }
+
+    /**
+     * Getter for the published count
+     * @return the number of readings published
+     */
+    public long getPublished() {
+        return sequences.get(CURSOR) + 1;
+    }
+
+    /**
+     * Getter for the consumed count
+     * @return the number of readings that every consumer has consumed
+     */
+    public long getConsumed() {
+        return minimumConsumerSequence() + 1;
+    }
+
+    /**
+     * Getter for the unrouted count
+     * @return the number of readings discarded, as their vehicle was not registered
+     */
+    public long getUnrouted() {
+        long unrouted = 0;
+        for (final Consumer consumer : consumers) {
+            unrouted += consumer.unrouted;
+        }
+        return unrouted;
+    }
+
+    /**
+     * Getter for the batch count
+     * @return the number of batches consumed, across all consumers
+     */
+    public long getBatches() {
+        long batches = 0;
+        for (final Consumer consumer : consumers) {
+            batches += consumer.batches;
+        }
+        return batches;
+    }
+
+    private long minimumConsumerSequence() {
+        long minimum = Long.MAX_VALUE;
+        for (int i = 1; i <= consumers.length; i++) {
+            minimum = Math.min(minimum, sequences.get(i * PADDING));
+        }
+        return minimum;
+    }
+
+    /**
+     * Routes the given vehicle to a consumer.
+     *
+     * @return the index of the consumer
+     */
+    private int route(final long vehicleId) {
+        return (int) ((vehicleId & Long.MAX_VALUE) % consumers.length);
+    }
+
+    /**
+     * <p>A registration, or unregistration, of a vehicle's odometer, handed to the consumer the vehicle routes to.
+     */
+    private static final class Registration {
+
+        private final long vehicleId;
+
+        /**
+         * The odometer, or null to unregister the vehicle.
+         */
+        private final TelemetryOdometer odometer;
+
+        private Registration(final long vehicleId, final TelemetryOdometer odometer) {
+            this.vehicleId = vehicleId;
+            this.odometer = odometer;
+        }
+
+    }
+
+    /**
+     * <p>Consumes the readings of the vehicles routed to it.
+     */
+    private final class Consumer implements Runnable {
+
+        private final int index;
+
+        /**
+         * The odometers with a reading staged in the current batch.
+         */
+        private final TelemetryOdometer[] staged = new TelemetryOdometer[maxBatchSize];
+
+        /**
+         * The odometers of the registered vehicles routed to this consumer. Only accessed by the consumer's thread.
+         */
+        private final VehicleOdometers odometers = new VehicleOdometers();
+
+        /**
+         * The registrations not yet applied to the odometers.
+         */
+        private final Queue<Registration> registrations = new ConcurrentLinkedQueue<>();
+
+        private volatile long unrouted;
+        private volatile long batches;
+
+        /**
+         * Whether the consumer is parked, or about to park, waiting for a reading to be published.
+         */
+        private volatile boolean waiting;
+
+        private volatile Thread thread;
+
+        private Consumer(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            final int sequenceIndex = (index + 1) * PADDING;
+            long next = sequences.get(sequenceIndex) + 1;
+            int spins = 0;
+            while (true) {
+                final long available = sequences.get(CURSOR);
+                if (available < next) {
+                    if (!running) {
+                        return;
+                    }
+                    if (++spins > SPINS) {
+                        this.waiting = true;
+                        if (sequences.get(CURSOR) < next && running) {
+                            LockSupport.park(this);
+                        }
+                        this.waiting = false;
+                    }
+                    continue;
+                }
+                spins = 0;
+                final long end = Math.min(available, next + maxBatchSize - 1);
+                applyRegistrations();
+                consume(next, end);
+                // a volatile store, so that a writer that marked itself as waiting before it last checked the sequence
+                // is seen to be waiting below
+                sequences.set(sequenceIndex, end);
+                next = end + 1;
+                final Thread writer = waitingWriter;
+                if (writer != null) {
+                    LockSupport.unpark(writer);
+                }
+            }
+        }
+
+        /**
+         * Applies the registrations handed to the consumer since its last batch - including any made before the
+         * readings of the batch were published.
+         */
+        private void applyRegistrations() {
+            Registration registration;
+            while ((registration = registrations.poll()) != null) {
+                if (registration.odometer != null) {
+                    odometers.put(registration.vehicleId, registration.odometer);
+                } else {
+                    odometers.remove(registration.vehicleId);
+                }
+            }
+        }
+
+        private void consume(final long start, final long end) {
+            int stagedCount = 0;
+            long unrouted = 0;
+            for (long sequence = start; sequence <= end; sequence++) {
+                final int slot = (int) sequence & mask;
+                final long vehicleId = vehicleIds[slot];
+                if (route(vehicleId) != index) {
+                    continue;
+                }
+                final TelemetryOdometer odometer = odometers.get(vehicleId);
+                if (odometer == null) {
+                    unrouted++;
+                } else if (odometer.stage(timestamps[slot], readings[slot])) {
+                    staged[stagedCount++] = odometer;
+                }
+            }
+            for (int i = 0; i < stagedCount; i++) {
+                try {
+                    staged[i].applyStaged();
+                } catch (final Throwable t) {
+                    // a failing meter must not hold up the rest of the fleet
+                    Log.exception(t);
+                }
+                staged[i] = null;
+            }
+            this.unrouted += unrouted;
+            this.batches++;
+        }
+
+    }
+
+}
@@ -0,0 +1,174 @@
+package uk.co.epsilontechnologies.taximeter.telemetry;
+
+import uk.co.epsilontechnologies.taximeter.ObservableOdometer;
+
+import java.math.BigDecimal;
+
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromMillimetres;
+
+/**
+ * <p>Odometer fed by the distance telemetry of a vehicle - i.e. the readings of the vehicle's own odometer, which
+ * counts up for the life of the vehicle.
+ *
+ * <p>The distance travelled is measured from the reading at which the odometer was last reset (or from the first
+ * reading after that, if none had been received). Readings that are older than the latest reading - whether by
+ * timestamp or by distance - are dropped, since the telemetry may be delivered out of order.
+ *
+ * <p>Readings are usually routed to the odometer by a {@link TelemetryIngester}, but may be given to it directly with
+ * {@link #update}. The distance is published, as a BigDecimal, only when it changes - so {@link #getDistance()} does
+ * not allocate, however often the meters poll it.
+ *
+ * @author Shane Gibson
+ */
+public class TelemetryOdometer implements ObservableOdometer {
+
+    /*
+      Guarded by this.
+    */
+
+    private long latestTimestamp = Long.MIN_VALUE;
+    private long latestReading = -1;
+    private long baseReading = -1;
+    private long dropped;
+
+    /**
+     * The distance travelled since the odometer was last reset, in millimetres.
+     */
+    private volatile long distanceInMillimetres;
+
+    /**
+     * The distance travelled since the odometer was last reset, in metres.
+     */
+    private volatile BigDecimal distance = BigDecimal.ZERO;
+
+    private volatile DistanceListener listener;
+
+    /*
+      The first and latest readings of the current batch, staged by the ingester's consumer thread for this vehicle - and so only
+      accessed by that thread.
+    */
+
+    private boolean staged;
+    private long stagedFirstReading;
+    private long stagedTimestamp;
+    private long stagedReading;
+
+    /**
+     * Updates the odometer with a reading of the vehicle's odometer.
+     *
+     * @param timestamp the time of the reading, in milliseconds since the epoch
+     * @param reading the reading, in millimetres
+     * @return true if the reading was applied, false if it was dropped as older than the latest reading
+     */
+    public boolean update(final long timestamp, final long reading) {
+        return update(reading, timestamp, reading);
+    }
+
+    /**
+     * Updates the odometer with a reading of the vehicle's odometer.
+     *
+     * @param firstReading the reading to measure the distance from, if the odometer has not had a reading yet
+     */
+    private boolean update(final long firstReading, final long timestamp, final long reading) {
+        final BigDecimal changed;
+        synchronized (this) {
+            if (timestamp < latestTimestamp || reading < latestReading) {
+                dropped++;
+                return false;
+            }
+            this.latestTimestamp = timestamp;
+            this.latestReading = reading;
+            if (baseReading < 0) {
+                this.baseReading = firstReading;
+            }
+            final long millimetres = reading - baseReading;
+            if (millimetres == distanceInMillimetres) {
+                return true;
+            }
+            this.distanceInMillimetres = millimetres;
+            this.distance = changed = fromMillimetres(millimetres);
+        }
+        // notify outside the lock, as the listener may call back into a meter that is resetting this odometer
+        final DistanceListener listener = this.listener;
+        if (listener != null) {
+            listener.distanceChanged(changed);
+        }
+        return true;
+    }
+
+    /**
+     * Stages a reading routed by the ingester, to be applied once its batch has been consumed.
+     *
+     * @return true if this is the first reading staged in the batch
+     */
+    boolean stage(final long timestamp, final long reading) {
+        if (!staged) {
+            this.staged = true;
+            this.stagedFirstReading = reading;
+            this.stagedTimestamp = timestamp;
+            this.stagedReading = reading;
+            return true;
+        }
+        // within a batch, only the latest reading need be applied
+        if (timestamp >= stagedTimestamp && reading >= stagedReading) {
+            this.stagedTimestamp = timestamp;
+            this.stagedReading = reading;
+        } else {
+            synchronized (this) {
+                dropped++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applies the reading staged in the batch.
+     */
+    void applyStaged() {
+        this.staged = false;
+        update(stagedFirstReading, stagedTimestamp, stagedReading);
+    }
+
+    /**
+     * @see uk.co.epsilontechnologies.taximeter.Odometer#getDistance()
+     */
+    @Override
+    public BigDecimal getDistance() {
+        return distance;
+    }
+
+    /**
+     * Getter for the distance in millimetres
+     * @return the distance travelled since the odometer was last reset, in millimetres
+     */
+    public long getDistanceInMillimetres() {
+        return distanceInMillimetres;
+    }
+
+    /**
+     * Getter for the dropped readings
+     * @return the number of readings dropped as older than the latest reading
+     */
+    public synchronized long getDroppedReadings() {
+        return dropped;
+    }
+
+    /**
+     * Resets the odometer to zero, from the latest reading.
+     */
+    @Override
+    public synchronized void reset() {
+        this.baseReading = latestReading;
+        this.distanceInMillimetres = 0;
+        this.distance = BigDecimal.ZERO;
+    }
+
+    /**
+     * @see ObservableOdometer#setDistanceListener(DistanceListener)
+     */
+    @Override
+    public void setDistanceListener(final DistanceListener listener) {
+        this.listener = listener;
+    }
+
+}
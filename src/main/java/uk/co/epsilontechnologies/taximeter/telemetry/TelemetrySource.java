@@ -0,0 +1,158 @@
+package uk.co.epsilontechnologies.taximeter.telemetry;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>Reads distance telemetry from a file or socket, and publishes it into a {@link TelemetryIngester} - a stand-in
+ * for the fleet's message bus.
+ *
+ * <p>Each line is a reading of comma-separated values:
+ * <pre>
+ *   vehicle,timestamp,distance
+ * </pre>
+ * where the vehicle is its numeric id, the timestamp is in milliseconds since the epoch, and the distance is the
+ * reading of the vehicle's odometer in metres. Any fraction of a millimetre is rounded up (as per
+ * {@link uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils#measuredMillimetres}). Blank lines, and lines
+ * starting with '#', are ignored.
+ *
+ * <p>Instances are not thread-safe - and since the ingester has a single writer, only one source should be publishing
+ * into it at a time.
+ *
+ * @author Shane Gibson
+ */
+public class TelemetrySource implements Closeable {
+
+    private final BufferedReader reader;
+
+    private long lineNumber;
+
+    /**
+     * Constructs the source for the given reader.
+     *
+     * @param reader the reader of the telemetry
+     */
+    public TelemetrySource(final Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader, 1 << 16);
+    }
+
+    /**
+     * Opens a source reading the given file.
+     *
+     * @param file the file of telemetry
+     * @return the source
+     * @throws IOException the file could not be opened
+     */
+    public static TelemetrySource open(final File file) throws IOException {
+        return new TelemetrySource(new InputStreamReader(new FileInputStream(file), StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Opens a source reading from a socket connected to the given host and port, until the other end closes it.
+     *
+     * @param host the host streaming the telemetry
+     * @param port the port
+     * @return the source
+     * @throws IOException the socket could not be connected
+     */
+    public static TelemetrySource connect(final String host, final int port) throws IOException {
+        final Socket socket = new Socket(host, port);
+        try {
+            return new TelemetrySource(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        } catch (final IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the telemetry to the end, publishing each reading into the given ingester.
+     *
+     * @param ingester the ingester to publish into
+     * @return the number of readings published
+     * @throws IOException failed to read the telemetry
+     * @throws IllegalArgumentException a reading is malformed
+     */
+    public long publishTo(final TelemetryIngester ingester) throws IOException {
+        long published = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            final int vehicleEnd = line.indexOf(',');
+            final int timestampEnd = vehicleEnd < 0 ? -1 : line.indexOf(',', vehicleEnd + 1);
+            if (timestampEnd < 0) {
+                throw malformed(line);
+            }
+            ingester.publish(
+                    parseScaled(line, 0, vehicleEnd, 0),
+                    parseScaled(line, vehicleEnd + 1, timestampEnd, 0),
+                    parseScaled(line, timestampEnd + 1, line.length(), 3));
+            published++;
+        }
+        return published;
+    }
+
+    /**
+     * Getter for the line number
+     * @return the number of lines read so far
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Parses the non-negative decimal between the given indexes into a long, scaled by the given power of ten and
+     * rounded up - e.g. "1.0005" with a scale of 3 is 1001.
+     */
+    private long parseScaled(final String line, final int start, final int end, final int scale) {
+        long value = 0;
+        int fractionDigits = -1;
+        boolean remainder = false;
+        boolean digits = false;
+        for (int i = start; i < end; i++) {
+            final char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                if (fractionDigits < scale) {
+                    value = value * 10 + (c - '0');
+                    if (fractionDigits >= 0) {
+                        fractionDigits++;
+                    }
+                } else if (c != '0') {
+                    remainder = true;
+                }
+            } else if (c == '.' && fractionDigits < 0 && scale > 0) {
+                fractionDigits = 0;
+            } else if (c != ' ') {
+                throw malformed(line);
+            }
+        }
+        if (!digits) {
+            throw malformed(line);
+        }
+        for (int i = Math.max(fractionDigits, 0); i < scale; i++) {
+            value *= 10;
+        }
+        return remainder ? value + 1 : value;
+    }
+
+    private IllegalArgumentException malformed(final String line) {
+        return new IllegalArgumentException("Malformed telemetry at line "+lineNumber+": "+line);
+    }
+
+}
@@ -0,0 +1,126 @@
+package uk.co.epsilontechnologies.taximeter.telemetry;
+
+/**
+ * <p>The odometers of vehicles, keyed by the primitive vehicle id - so that routing a reading to its odometer neither
+ * boxes the id nor allocates an entry.
+ *
+ * <p>The ids and odometers are held in parallel arrays, by open addressing with linear probing, and a slot without an
+ * odometer is empty - so that any id, including zero, can be held. Not thread-safe: each consumer of the
+ * {@link TelemetryIngester} holds the odometers of the vehicles routed to it.
+ *
+ * @author Shane Gibson
+ */
+final class VehicleOdometers {
+
+    /**
+     * The initial number of slots.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] vehicleIds = new long[INITIAL_CAPACITY];
+    private TelemetryOdometer[] odometers = new TelemetryOdometer[INITIAL_CAPACITY];
+
+    /**
+     * The number of vehicles held.
+     */
+    private int size;
+
+    /**
+     * Retrieves the odometer of the given vehicle.
+     *
+     * @param vehicleId the id of the vehicle
+     * @return the odometer, or null if the vehicle is not held
+     */
+    TelemetryOdometer get(final long vehicleId) {
+        final int mask = odometers.length - 1;
+        for (int slot = slot(vehicleId, mask); odometers[slot] != null; slot = (slot + 1) & mask) {
+            if (vehicleIds[slot] == vehicleId) {
+                return odometers[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Holds the odometer of the given vehicle, replacing any it had before.
+     *
+     * @param vehicleId the id of the vehicle
+     * @param odometer the odometer
+     */
+    void put(final long vehicleId, final TelemetryOdometer odometer) {
+        // kept no more than half full, so that probes stay short
+        if ((size + 1) * 2 > odometers.length) {
+            resize(odometers.length * 2);
+        }
+        final int mask = odometers.length - 1;
+        int slot = slot(vehicleId, mask);
+        while (odometers[slot] != null) {
+            if (vehicleIds[slot] == vehicleId) {
+                odometers[slot] = odometer;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        vehicleIds[slot] = vehicleId;
+        odometers[slot] = odometer;
+        size++;
+    }
+
+    /**
+     * Removes the odometer of the given vehicle, if held.
+     *
+     * @param vehicleId the id of the vehicle
+     */
+    void remove(final long vehicleId) {
+        final int mask = odometers.length - 1;
+        int slot = slot(vehicleId, mask);
+        while (odometers[slot] != null && vehicleIds[slot] != vehicleId) {
+            slot = (slot + 1) & mask;
+        }
+        if (odometers[slot] == null) {
+            return;
+        }
+        // shift back the vehicles probed past the removed slot, so that no probe stops short of them
+        int empty = slot;
+        for (int next = (slot + 1) & mask; odometers[next] != null; next = (next + 1) & mask) {
+            final int home = slot(vehicleIds[next], mask);
+            if (((next - home) & mask) >= ((next - empty) & mask)) {
+                vehicleIds[empty] = vehicleIds[next];
+                odometers[empty] = odometers[next];
+                empty = next;
+            }
+        }
+        odometers[empty] = null;
+        size--;
+    }
+
+    /**
+     * Getter for the size
+     * @return the number of vehicles held
+     */
+    int size() {
+        return size;
+    }
+
+    private void resize(final int capacity) {
+        final long[] oldVehicleIds = vehicleIds;
+        final TelemetryOdometer[] oldOdometers = odometers;
+        this.vehicleIds = new long[capacity];
+        this.odometers = new TelemetryOdometer[capacity];
+        this.size = 0;
+        for (int slot = 0; slot < oldOdometers.length; slot++) {
+            if (oldOdometers[slot] != null) {
+                put(oldVehicleIds[slot], oldOdometers[slot]);
+            }
+        }
+    }
+
+    /**
+     * Determines the slot at which to start probing for the given vehicle, spreading the bits of sequential ids.
+     */
+    private static int slot(final long vehicleId, final int mask) {
+        final long hash = vehicleId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+}
@@ -0,0 +1,372 @@
+package uk.co.epsilontechnologies.taximeter.utils;
+
+import org.joda.time.DateTime;
+
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Logger that hands each message to a background writer thread, so that the thread logging it - a scheduler thread
+ * ticking the meters of a fleet, say - never blocks on the output, nor formats the message.
+ *
+ * <p>Messages are queued into a bounded ring of preallocated slots, which any number of threads may log to. Claiming a
+ * slot is a compare and set of the ring's tail, and publishing it an ordered store of the slot's sequence, so logging
+ * neither locks nor waits: a message logged when the ring is full is dropped, and counted. The calling thread only
+ * records the time, its id and the message or exception; the writer formats each, with the time, and writes it out.
+ *
+ * <p>Once the ring is empty the writer spins briefly, then parks until a message is logged: it marks itself as waiting
+ * before it checks the ring one last time, and a logging thread that finds it waiting once it has published its message
+ * unparks it.
+ *
+ * <p>An exception is written with its message and stack trace, one line per frame. Exceptions of the same class thrown
+ * from the same place - e.g. a failing odometer, on every tick of its meter - are written at most once per
+ * suppression window. The duplicates within the window are counted, and the count written with the next one written.
+ *
+ * @author Shane Gibson
+ */
+public class AsyncLogger {
+
+    /**
+     * The default number of slots in the ring.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    /**
+     * The default suppression window for duplicate exceptions, in milliseconds.
+     */
+    public static final long DEFAULT_SUPPRESSION_WINDOW = 10000;
+
+    /**
+     * The number of longs between the tail and head, so that each is on its own cache line.
+     */
+    private static final int PADDING = 8;
+
+    /**
+     * The index of the tail - the next sequence to be claimed by a logging thread.
+     */
+    private static final int TAIL = 0;
+
+    /**
+     * The index of the head - the next sequence to be written by the writer.
+     */
+    private static final int HEAD = PADDING;
+
+    /**
+     * The maximum number of exception signatures whose duplicates are tracked, before they are forgotten.
+     */
+    private static final int MAX_SIGNATURES = 1024;
+
+    /**
+     * The number of times the idle writer spins before parking.
+     */
+    private static final int SPINS = 100;
+
+    /**
+     * How long a thread awaiting the writer parks for between checks, in nanoseconds.
+     */
+    private static final long AWAIT_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * The sequence of each slot: its index into the ring plus the capacity times the number of times it has been
+     * written - and one more than that once a message has been published into it.
+     */
+    private final AtomicLongArray slotSequences;
+
+    /*
+      The ring: the time (in milliseconds since the epoch), thread id and message or exception of each slot.
+    */
+
+    private final long[] timestamps;
+    private final long[] threadIds;
+    private final String[] messages;
+    private final Throwable[] exceptions;
+
+    /**
+     * The mask to index the ring with - its capacity, less one.
+     */
+    private final int mask;
+
+    /**
+     * The tail and head of the ring, at multiples of the padding.
+     */
+    private final AtomicLongArray sequences = new AtomicLongArray(2 * PADDING);
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final PrintStream out;
+
+    private final long suppressionWindow;
+
+    /*
+      Only accessed by the writer.
+    */
+
+    private final Map<String, Signature> signatures = new HashMap<>();
+
+    private volatile long suppressed;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * The writer, whilst it is parked (or about to park) waiting for a message to be logged - otherwise null.
+     */
+    private volatile Thread waitingWriter;
+
+    /**
+     * Constructs the logger, writing to the given stream, with the default capacity and suppression window.
+     *
+     * @param out the stream to write to
+     */
+    public AsyncLogger(final PrintStream out) {
+        this(out, DEFAULT_CAPACITY, DEFAULT_SUPPRESSION_WINDOW);
+    }
+
+    /**
+     * Constructs the logger.
+     *
+     * @param out the stream to write to
+     * @param capacity the number of slots in the ring, which must be a power of two
+     * @param suppressionWindow the minimum time between writing duplicate exceptions, in milliseconds
+     * @throws IllegalArgumentException the capacity is not a power of two, or the suppression window is negative
+     */
+    public AsyncLogger(final PrintStream out, final int capacity, final long suppressionWindow) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: "+capacity);
+        }
+        if (suppressionWindow < 0) {
+            throw new IllegalArgumentException("Suppression window must not be negative: "+suppressionWindow);
+        }
+        this.out = out;
+        this.suppressionWindow = suppressionWindow;
+        this.slotSequences = new AtomicLongArray(capacity);
+        this.timestamps = new long[capacity];
+        this.threadIds = new long[capacity];
+        this.messages = new String[capacity];
+        this.exceptions = new Throwable[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slotSequences.set(i, i);
+        }
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        this.running = true;
+        this.thread = new Thread(new Writer(), "async-logger");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the writer thread, once it has written the messages logged so far.
+     *
+     * @throws InterruptedException interrupted whilst waiting for the writer to stop
+     */
+    public synchronized void shutdown() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        this.running = false;
+        LockSupport.unpark(thread);
+        thread.join();
+    }
+
+    /**
+     * Logs the given message.
+     *
+     * @param message the message
+     * @return whether the message was queued, rather than dropped as the ring is full
+     */
+    public boolean info(final String message) {
+        return offer(message, null);
+    }
+
+    /**
+     * Logs the given exception, with its stack trace.
+     *
+     * @param exception the exception
+     * @return whether the exception was queued, rather than dropped as the ring is full
+     */
+    public boolean exception(final Throwable exception) {
+        return offer(null, exception);
+    }
+
+    /**
+     * Waits for the writer to have written the messages logged so far.
+     *
+     * @param timeout the maximum time to wait, in milliseconds
+     * @return whether the messages were written within the timeout
+     */
+    public boolean awaitWritten(final long timeout) {
+        final long tail = sequences.get(TAIL);
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (sequences.get(HEAD) < tail) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(AWAIT_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * Getter for the dropped count
+     * @return the number of messages dropped, as the ring was full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Getter for the suppressed count
+     * @return the number of duplicate exceptions not written, as they were within the suppression window
+     */
+    public long getSuppressed() {
+        return suppressed;
+    }
+
+    /**
+     * Queues a message or exception, unless the ring is full.
+     */
+    private boolean offer(final String message, final Throwable exception) {
+        long sequence = sequences.get(TAIL);
+        int index;
+        while (true) {
+            index = (int) sequence & mask;
+            final long slotSequence = slotSequences.get(index);
+            if (slotSequence == sequence) {
+                if (sequences.compareAndSet(TAIL, sequence, sequence + 1)) {
+                    break;
+                }
+            } else if (slotSequence < sequence) {
+                // the slot has yet to be written since it was last published into, so the ring is full
+                dropped.incrementAndGet();
+                return false;
+            }
+            sequence = sequences.get(TAIL);
+        }
+        timestamps[index] = System.currentTimeMillis();
+        threadIds[index] = Thread.currentThread().getId();
+        messages[index] = message;
+        exceptions[index] = exception;
+        // a volatile store, so the writer sees the slot before its sequence, and a writer that marked itself as waiting
+        // before it last checked the sequence is seen to be waiting below
+        slotSequences.set(index, sequence + 1);
+        final Thread writer = waitingWriter;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Writes an exception, unless it is a duplicate within the suppression window.
+     */
+    private void write(final long timestamp, final long threadId, final Throwable exception) {
+        final StackTraceElement[] stackTrace = exception.getStackTrace();
+        final String key = exception.getClass().getName()+"@"+(stackTrace.length > 0 ? stackTrace[0] : "");
+        Signature signature = signatures.get(key);
+        if (signature != null && timestamp - signature.written < suppressionWindow) {
+            signature.suppressed++;
+            this.suppressed++;
+            return;
+        }
+        write(timestamp, threadId, exception.getMessage());
+        for (final StackTraceElement element : stackTrace) {
+            write(timestamp, threadId, element.toString());
+        }
+        if (signature == null) {
+            if (signatures.size() == MAX_SIGNATURES) {
+                signatures.clear();
+            }
+            signature = new Signature();
+            signatures.put(key, signature);
+        } else if (signature.suppressed > 0) {
+            write(timestamp, threadId, "Suppressed "+signature.suppressed+" duplicates of "+key);
+        }
+        signature.written = timestamp;
+        signature.suppressed = 0;
+    }
+
+    private void write(final long timestamp, final long threadId, final String message) {
+        out.println((new DateTime(timestamp))+":T"+threadId+":"+message);
+    }
+
+    /**
+     * <p>Writes the messages in the ring, in the order they were queued.
+     */
+    private final class Writer implements Runnable {
+
+        @Override
+        public void run() {
+            final int capacity = mask + 1;
+            long next = sequences.get(HEAD);
+            int spins = 0;
+            while (true) {
+                final int index = (int) next & mask;
+                if (slotSequences.get(index) != next + 1) {
+                    if (!running) {
+                        out.flush();
+                        return;
+                    }
+                    if (++spins > SPINS) {
+                        waitingWriter = Thread.currentThread();
+                        if (slotSequences.get(index) != next + 1 && running) {
+                            LockSupport.park(this);
+                        }
+                        waitingWriter = null;
+                    } else {
+                        Thread.yield();
+                    }
+                    continue;
+                }
+                spins = 0;
+                final long timestamp = timestamps[index];
+                final long threadId = threadIds[index];
+                final String message = messages[index];
+                final Throwable exception = exceptions[index];
+                messages[index] = null;
+                exceptions[index] = null;
+                // release the slot before writing, so that the loggers can reuse it whilst the writer is blocked
+                slotSequences.lazySet(index, next + capacity);
+                try {
+                    if (exception == null) {
+                        write(timestamp, threadId, message);
+                    } else {
+                        write(timestamp, threadId, exception);
+                    }
+                    if (slotSequences.get((int) (next + 1) & mask) != next + 2) {
+                        out.flush();
+                    }
+                } catch (final RuntimeException e) {
+                    // a message that cannot be written must not stop the writer
+                    e.printStackTrace();
+                }
+                next++;
+                sequences.lazySet(HEAD, next);
+            }
+        }
+
+    }
+
+    /**
+     * <p>When an exception of a class, from a place, was last written, and the duplicates suppressed since.
+     */
+    private static final class Signature {
+
+        private long written;
+        private long suppressed;
+
+    }
+
+}
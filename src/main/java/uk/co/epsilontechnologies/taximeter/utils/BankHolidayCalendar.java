@@ -0,0 +1,236 @@
+package uk.co.epsilontechnologies.taximeter.utils;
+
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeField;
+import org.joda.time.LocalDate;
+import org.joda.time.chrono.ISOChronology;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>Calendar of the bank holidays of England and Wales, computed from the rules by which they are set - rather than
+ * listed, so that it does not run out:
+ *
+ * <ul>
+ *     <li>New Year's Day, 1st January</li>
+ *     <li>Good Friday and Easter Monday, either side of Easter Sunday</li>
+ *     <li>the Early May bank holiday, the first Monday in May (from 1978)</li>
+ *     <li>the Spring bank holiday, the last Monday in May</li>
+ *     <li>the Summer bank holiday, the last Monday in August</li>
+ *     <li>Christmas Day and Boxing Day, 25th and 26th December</li>
+ * </ul>
+ *
+ * <p>New Year's Day, Christmas Day and Boxing Day are substituted, when they fall at a weekend, by the next weekday
+ * that is not already a holiday. The rules apply from 1978; one-off holidays - e.g. a jubilee, or a bank holiday moved
+ * for one - are given as overrides, which add or remove a day.
+ *
+ * <p>The holidays of each year are materialised into a bit set - one bit per day of the year - the first time a day in
+ * the year is looked up, so that looking up a day is then a lookup of its year and a test of its bit, without
+ * allocating. Years from 1900 to 2399 are cached; the holidays of a year outside those are computed on each lookup.
+ *
+ * @author Shane Gibson
+ */
+public final class BankHolidayCalendar {
+
+    /**
+     * The first year whose holidays are cached.
+     */
+    private static final int FIRST_CACHED_YEAR = 1900;
+
+    /**
+     * The number of years whose holidays are cached.
+     */
+    private static final int CACHED_YEARS = 500;
+
+    /**
+     * The first year to which the rules apply - the year in which the Early May bank holiday was introduced.
+     */
+    private static final int FIRST_RULE_YEAR = 1978;
+
+    /**
+     * The year field of the UTC calendar, with which to find the year of an epoch day without allocating.
+     */
+    private static final DateTimeField YEAR = ISOChronology.getInstanceUTC().year();
+
+    /*
+      The overrides, as epoch days.
+    */
+
+    private final long[] additions;
+    private final long[] removals;
+
+    /**
+     * The bit set of the holidays of each cached year, indexed by year (from FIRST_CACHED_YEAR) - or null, if the year
+     * has yet to be looked up.
+     */
+    private final AtomicReferenceArray<long[]> years = new AtomicReferenceArray<>(CACHED_YEARS);
+
+    /**
+     * Constructs the calendar, without overrides.
+     */
+    public BankHolidayCalendar() {
+        this(Collections.<LocalDate>emptyList(), Collections.<LocalDate>emptyList());
+    }
+
+    /**
+     * Constructs the calendar.
+     *
+     * @param additions the days that are holidays, beyond the rules
+     * @param removals the days that are not holidays, despite the rules
+     */
+    public BankHolidayCalendar(final Collection<LocalDate> additions, final Collection<LocalDate> removals) {
+        this.additions = toEpochDays(additions);
+        this.removals = toEpochDays(removals);
+    }
+
+    /**
+     * <p>Determines if the given epoch day (days since 1st January 1970) is a holiday.
+     *
+     * @param epochDay the date to check, in days since the epoch
+     * @return true if the date is a holiday, otherwise false
+     */
+    public boolean isHoliday(final long epochDay) {
+        final long epochMillis = epochDay * DateTimeConstants.MILLIS_PER_DAY;
+        final int year = YEAR.get(epochMillis);
+        final int dayOfYear = (int) (epochDay - CalendarUtils.floorDiv(YEAR.roundFloor(epochMillis), DateTimeConstants.MILLIS_PER_DAY));
+        final long[] bits = bitsOf(year);
+        return (bits[dayOfYear >>> 6] & (1L << dayOfYear)) != 0;
+    }
+
+    /**
+     * <p>Lists the holidays of the given year, in date order.
+     *
+     * @param year the year
+     * @return the holidays
+     */
+    public List<LocalDate> getHolidays(final int year) {
+        final long[] bits = bitsOf(year);
+        final LocalDate firstDay = new LocalDate(year, 1, 1);
+        final List<LocalDate> holidays = new ArrayList<>();
+        for (int word = 0; word < bits.length; word++) {
+            for (long remaining = bits[word]; remaining != 0; remaining &= remaining - 1) {
+                holidays.add(firstDay.plusDays(word * 64 + Long.numberOfTrailingZeros(remaining)));
+            }
+        }
+        return holidays;
+    }
+
+    /**
+     * <p>Determines the date of Easter Sunday in the given year, by the anonymous Gregorian algorithm.
+     *
+     * @param year the year
+     * @return the date of Easter Sunday
+     */
+    public static LocalDate easterSunday(final int year) {
+        final int a = year % 19;
+        final int b = year / 100;
+        final int c = year % 100;
+        final int d = b / 4;
+        final int e = b % 4;
+        final int f = (b + 8) / 25;
+        final int g = (b - f + 1) / 3;
+        final int h = (19 * a + b - d - g + 15) % 30;
+        final int i = c / 4;
+        final int k = c % 4;
+        final int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        final int m = (a + 11 * h + 22 * l) / 451;
+        final int month = (h + l - 7 * m + 114) / 31;
+        final int day = (h + l - 7 * m + 114) % 31 + 1;
+        return new LocalDate(year, month, day);
+    }
+
+    /**
+     * Retrieves the bit set of the holidays of the given year, materialising it if it has yet to be.
+     */
+    private long[] bitsOf(final int year) {
+        final int index = year - FIRST_CACHED_YEAR;
+        if (index < 0 || index >= CACHED_YEARS) {
+            return materialise(year);
+        }
+        long[] bits = years.get(index);
+        if (bits == null) {
+            // threads racing to materialise a year compute the same bits, so either may win
+            bits = materialise(year);
+            years.set(index, bits);
+        }
+        return bits;
+    }
+
+    /**
+     * Computes the bit set of the holidays of the given year, from the rules and the overrides.
+     */
+    private long[] materialise(final int year) {
+        final LocalDate firstDay = new LocalDate(year, 1, 1);
+        final long firstEpochDay = CalendarUtils.toEpochDay(firstDay);
+        final int days = firstDay.dayOfYear().getMaximumValue();
+        final long[] bits = new long[(days + 63) / 64];
+        if (year >= FIRST_RULE_YEAR) {
+            final LocalDate easterSunday = easterSunday(year);
+            set(bits, easterSunday.minusDays(2));
+            set(bits, easterSunday.plusDays(1));
+            set(bits, firstMonday(new LocalDate(year, 5, 1)));
+            set(bits, lastMonday(new LocalDate(year, 5, 31)));
+            set(bits, lastMonday(new LocalDate(year, 8, 31)));
+            // after the others, so that a substitute day is not one of them
+            substitute(bits, new LocalDate(year, 1, 1));
+            substitute(bits, new LocalDate(year, 12, 25));
+            substitute(bits, new LocalDate(year, 12, 26));
+        }
+        for (final long addition : additions) {
+            if (addition >= firstEpochDay && addition < firstEpochDay + days) {
+                final int dayOfYear = (int) (addition - firstEpochDay);
+                bits[dayOfYear >>> 6] |= 1L << dayOfYear;
+            }
+        }
+        for (final long removal : removals) {
+            if (removal >= firstEpochDay && removal < firstEpochDay + days) {
+                final int dayOfYear = (int) (removal - firstEpochDay);
+                bits[dayOfYear >>> 6] &= ~(1L << dayOfYear);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Sets the given holiday, or - if it falls at a weekend - the next weekday that is not already a holiday.
+     */
+    private static void substitute(final long[] bits, final LocalDate holiday) {
+        LocalDate day = holiday;
+        while (day.getDayOfWeek() >= DateTimeConstants.SATURDAY || isSet(bits, day)) {
+            day = day.plusDays(1);
+        }
+        set(bits, day);
+    }
+
+    private static void set(final long[] bits, final LocalDate day) {
+        final int dayOfYear = day.getDayOfYear() - 1;
+        bits[dayOfYear >>> 6] |= 1L << dayOfYear;
+    }
+
+    private static boolean isSet(final long[] bits, final LocalDate day) {
+        final int dayOfYear = day.getDayOfYear() - 1;
+        return (bits[dayOfYear >>> 6] & (1L << dayOfYear)) != 0;
+    }
+
+    private static LocalDate firstMonday(final LocalDate firstDayOfMonth) {
+        return firstDayOfMonth.plusDays((DateTimeConstants.MONDAY - firstDayOfMonth.getDayOfWeek() + 7) % 7);
+    }
+
+    private static LocalDate lastMonday(final LocalDate lastDayOfMonth) {
+        return lastDayOfMonth.minusDays((lastDayOfMonth.getDayOfWeek() - DateTimeConstants.MONDAY + 7) % 7);
+    }
+
+    private static long[] toEpochDays(final Collection<LocalDate> dates) {
+        final long[] epochDays = new long[dates.size()];
+        int i = 0;
+        for (final LocalDate date : dates) {
+            epochDays[i++] = CalendarUtils.toEpochDay(date);
+        }
+        return epochDays;
+    }
+
+}
@@ -4,11 +4,13 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.LineIterator;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
 import org.joda.time.LocalDate;
 
 import java.io.*;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.StringTokenizer;
 
@@ -20,25 +22,40 @@ import java.util.StringTokenizer;
 public final class CalendarUtils {
 
     /**
-     * List of UK public holidays for 2013, 2014, and 2015.
+     * Public holidays beyond the rules - or, with a leading "-", days that are not holidays despite the rules - loaded
+     * from the publicholidays.txt file, in the order they were loaded.
      */
-    private static final List<LocalDate> PUBLIC_HOLIDAYS = loadPublicHolidays();
+    private static final List<LocalDate> PUBLIC_HOLIDAYS = new ArrayList<>();
+    private static final List<LocalDate> NOT_PUBLIC_HOLIDAYS = new ArrayList<>();
+
+    static {
+        loadPublicHolidays(PUBLIC_HOLIDAYS, NOT_PUBLIC_HOLIDAYS);
+    }
+
+    /**
+     * The bank holidays of England and Wales, as per the rules, overridden by the publicholidays.txt file.
+     */
+    private static final BankHolidayCalendar BANK_HOLIDAYS = new BankHolidayCalendar(PUBLIC_HOLIDAYS, NOT_PUBLIC_HOLIDAYS);
 
     /**
-     * Loads the public holidays from the publicholidays.txt file into an in-memory list.
+     * Loads the overrides from the publicholidays.txt file - one date (year, month, day) per line, skipping blank
+     * lines and comments.
      */
-    private static List<LocalDate> loadPublicHolidays() {
+    private static void loadPublicHolidays(final List<LocalDate> additions, final List<LocalDate> removals) {
         try (final InputStream publicHolidaysTxtInputStream = CalendarUtils.class.getClassLoader().getResourceAsStream("publicholidays.txt")) {
             final List<String> lines = IOUtils.readLines(publicHolidaysTxtInputStream);
-            final List<LocalDate> list = new ArrayList<>();
             for (final String line : lines) {
-                final StringTokenizer stringTokenizer = new StringTokenizer(line, ",");
-                final int year = Integer.parseInt(stringTokenizer.nextToken());
-                final int month = Integer.parseInt(stringTokenizer.nextToken());
-                final int day = Integer.parseInt(stringTokenizer.nextToken());
-                list.add(new LocalDate(year, month, day));
+                final String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                final boolean removal = trimmed.startsWith("-");
+                final StringTokenizer stringTokenizer = new StringTokenizer(removal ? trimmed.substring(1) : trimmed, ",");
+                final int year = Integer.parseInt(stringTokenizer.nextToken().trim());
+                final int month = Integer.parseInt(stringTokenizer.nextToken().trim());
+                final int day = Integer.parseInt(stringTokenizer.nextToken().trim());
+                (removal ? removals : additions).add(new LocalDate(year, month, day));
             }
-            return list;
         } catch (final IOException e) {
             throw new RuntimeException("Unable to load public holidays: "+e);
         }
@@ -51,6 +68,26 @@ public final class CalendarUtils {
         super();
     }
 
+    /**
+     * <p>Retrieves the public holidays listed in the publicholidays.txt file beyond the rules, in the order they were
+     * loaded.
+     *
+     * @return the public holidays
+     */
+    public static List<LocalDate> getPublicHolidays() {
+        return Collections.unmodifiableList(PUBLIC_HOLIDAYS);
+    }
+
+    /**
+     * <p>Retrieves the public holidays of the given year, in date order.
+     *
+     * @param year the year
+     * @return the public holidays
+     */
+    public static List<LocalDate> getPublicHolidays(final int year) {
+        return BANK_HOLIDAYS.getHolidays(year);
+    }
+
     /**
      * <p>Determines if the current date is a public holiday.
      *
@@ -58,12 +95,61 @@ public final class CalendarUtils {
      * @return true if the date is a public holiday, otherwise false
      */
     public static boolean isPublicHoliday(final DateTime dateTime) {
-        for (final LocalDate publicHoliday : PUBLIC_HOLIDAYS) {
-            if (dateTime.toLocalDate().equals(publicHoliday)) {
-                return true;
-            }
-        }
-        return false;
+        return isPublicHoliday(dateTime.getMillis(), dateTime.getZone());
+    }
+
+    /**
+     * <p>Determines if the date at the given instant, in the given time zone, is a public holiday.
+     *
+     * @param epochMillis the instant to check, in milliseconds since the epoch
+     * @param zone the time zone in which to determine the date
+     * @return true if the date is a public holiday, otherwise false
+     */
+    public static boolean isPublicHoliday(final long epochMillis, final DateTimeZone zone) {
+        return isPublicHolidayOnEpochDay(toEpochDay(epochMillis, zone));
+    }
+
+    /**
+     * <p>Determines if the given epoch day (days since 1st January 1970) is a public holiday.
+     *
+     * @param epochDay the date to check, in days since the epoch
+     * @return true if the date is a public holiday, otherwise false
+     */
+    public static boolean isPublicHolidayOnEpochDay(final long epochDay) {
+        return BANK_HOLIDAYS.isHoliday(epochDay);
+    }
+
+    /**
+     * <p>Determines the local epoch day (days since 1st January 1970) of the given instant in the given time zone.
+     *
+     * @param epochMillis the instant, in milliseconds since the epoch
+     * @param zone the time zone in which to determine the date
+     * @return the epoch day
+     */
+    public static long toEpochDay(final long epochMillis, final DateTimeZone zone) {
+        return floorDiv(epochMillis + zone.getOffset(epochMillis), DateTimeConstants.MILLIS_PER_DAY);
+    }
+
+    /**
+     * <p>Determines the epoch day (days since 1st January 1970) of the given date.
+     *
+     * @param date the date
+     * @return the epoch day
+     */
+    public static long toEpochDay(final LocalDate date) {
+        return floorDiv(date.toDateTimeAtStartOfDay(DateTimeZone.UTC).getMillis(), DateTimeConstants.MILLIS_PER_DAY);
+    }
+
+    /**
+     * <p>Divides, rounding towards negative infinity.
+     *
+     * @param x the dividend
+     * @param y the divisor
+     * @return the largest value that is less than or equal to x / y
+     */
+    public static long floorDiv(final long x, final long y) {
+        final long quotient = x / y;
+        return (x % y != 0 && ((x ^ y) < 0)) ? quotient - 1 : quotient;
     }
 
     /**
@@ -107,4 +193,34 @@ public final class CalendarUtils {
         return dateTime.getHourOfDay() >= startHour && dateTime.getHourOfDay() < endHour;
     }
 
+    /**
+     * <p>Determines if the given time is on a weekday (Monday to Friday).
+     *
+     * @param context the time to check
+     * @return true if given time is on a weekday, false otherwise
+     */
+    public static boolean isWeekday(final TimeContext context) {
+        return context.getDayOfWeek() <= DateTimeConstants.FRIDAY;
+    }
+
+    /**
+     * <p>Determines if the given time is at a weekend (Saturday or Sunday).
+     *
+     * @param context the time to check
+     * @return true if given time is at a weekend, false otherwise
+     */
+    public static boolean isWeekend(final TimeContext context) {
+        return context.getDayOfWeek() >= DateTimeConstants.SATURDAY;
+    }
+
+    /**
+     * <p>Determines if the given time is between the startHour and endHour (on the same day).
+     *
+     * @param context the time to check
+     * @return true if given time is between the startHour and endHour on the same day, false otherwise
+     */
+    public static boolean isBetweenHours(final TimeContext context, final int startHour, final int endHour) {
+        return context.getMinuteOfDay() >= startHour * 60 && context.getMinuteOfDay() < endHour * 60;
+    }
+
 }
\ No newline at end of file
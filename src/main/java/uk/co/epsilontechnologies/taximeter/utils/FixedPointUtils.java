@@ -0,0 +1,104 @@
+package uk.co.epsilontechnologies.taximeter.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * <p>Utility Class for converting between the decimal units used by the tariffs (pounds, metres and seconds) and the
+ * fixed-point units used by the primitive fare engine (pence, millimetres and milliseconds).
+ *
+ * @author Shane Gibson
+ */
+public final class FixedPointUtils {
+
+    /**
+     * <p>Hidden default constructor
+     */
+    private FixedPointUtils() {
+        super();
+    }
+
+    /**
+     * <p>Converts the given amount in pounds to pence. The amount must be exact to the penny.
+     *
+     * @param pounds the amount in pounds
+     * @return the amount in pence
+     * @throws IllegalArgumentException the amount is not exact to the penny
+     */
+    public static long toPence(final BigDecimal pounds) {
+        return exact(pounds, 2);
+    }
+
+    /**
+     * <p>Converts the given distance in metres to millimetres. The distance must be exact to the millimetre.
+     *
+     * @param metres the distance in metres
+     * @return the distance in millimetres
+     * @throws IllegalArgumentException the distance is not exact to the millimetre
+     */
+    public static long toMillimetres(final BigDecimal metres) {
+        return exact(metres, 3);
+    }
+
+    /**
+     * <p>Converts the given duration in seconds to milliseconds. The duration must be exact to the millisecond.
+     *
+     * @param seconds the duration in seconds
+     * @return the duration in milliseconds
+     * @throws IllegalArgumentException the duration is not exact to the millisecond
+     */
+    public static long toMillis(final BigDecimal seconds) {
+        return exact(seconds, 3);
+    }
+
+    /**
+     * <p>Converts a measured distance (as reported by an odometer) in metres to millimetres, rounding any fraction of a
+     * millimetre up. Rounding up ensures that a distance which has passed a whole-millimetre limit is still seen to
+     * have passed it.
+     *
+     * @param metres the measured distance in metres
+     * @return the measured distance in millimetres
+     */
+    public static long measuredMillimetres(final BigDecimal metres) {
+        return metres.movePointRight(3).setScale(0, RoundingMode.CEILING).longValue();
+    }
+
+    /**
+     * <p>Converts the given amount in pence to pounds.
+     *
+     * @param pence the amount in pence
+     * @return the amount in pounds, to two decimal places
+     */
+    public static BigDecimal fromPence(final long pence) {
+        return BigDecimal.valueOf(pence, 2);
+    }
+
+    /**
+     * <p>Converts the given distance in millimetres to metres.
+     *
+     * @param millimetres the distance in millimetres
+     * @return the distance in metres
+     */
+    public static BigDecimal fromMillimetres(final long millimetres) {
+        return BigDecimal.valueOf(millimetres, 3);
+    }
+
+    /**
+     * <p>Converts the given duration in milliseconds to seconds.
+     *
+     * @param millis the duration in milliseconds
+     * @return the duration in seconds
+     */
+    public static BigDecimal fromMillis(final long millis) {
+        return BigDecimal.valueOf(millis, 3);
+    }
+
+    private static long exact(final BigDecimal value, final int decimalPlaces) {
+        try {
+            return value.movePointRight(decimalPlaces).longValueExact();
+        } catch (final ArithmeticException e) {
+            throw new IllegalArgumentException("Value "+value+" cannot be represented to "+decimalPlaces+" decimal places");
+        }
+    }
+
+}
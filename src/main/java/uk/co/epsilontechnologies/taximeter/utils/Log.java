@@ -1,21 +1,43 @@
 package uk.co.epsilontechnologies.taximeter.utils;
 
-import org.joda.time.DateTime;
-
+/**
+ * <p>Logs to standard out through an {@link AsyncLogger}, so that a thread logging a message - or an exception on
+ * every tick - never blocks on the output. The logger is started when first used, and drained when the JVM shuts down.
+ *
+ * @author Shane Gibson
+ */
 public class Log {
 
+    private static final AsyncLogger LOGGER = new AsyncLogger(System.out);
+
+    static {
+        LOGGER.start();
+        Runtime.getRuntime().addShutdownHook(new Thread("async-logger-shutdown") {
+            @Override
+            public void run() {
+                try {
+                    LOGGER.shutdown();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+    }
+
     public static void info(String message) {
-        log(message);
+        LOGGER.info(message);
     }
 
     public static void exception(Throwable ex) {
-        log(ex.getMessage());
-        for (StackTraceElement element : ex.getStackTrace()) {
-            log(element.toString());
-        }
+        LOGGER.exception(ex);
     }
 
-    private static void log(String message) {
-        System.out.println((new DateTime())+":T"+Thread.currentThread().getId()+":"+message);
+    /**
+     * Getter for the logger
+     * @return the logger logged to, e.g. for its dropped and suppressed counts
+     */
+    public static AsyncLogger getLogger() {
+        return LOGGER;
     }
+
 }
@@ -0,0 +1,122 @@
+package uk.co.epsilontechnologies.taximeter.utils;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+
+/**
+ * <p>The local time of an instant, in a time zone, broken down into the fields by which the tariffs apply - the minute
+ * of the day, the day of the week and whether the day is a public holiday. It is computed once, from the instant and
+ * the offset of the time zone, and then shared by the time filters of each tariff looked up at the instant - rather
+ * than each filter asking a DateTime for its fields.
+ *
+ * @author Shane Gibson
+ */
+public final class TimeContext {
+
+    private final long epochMillis;
+    private final DateTimeZone zone;
+    private final int minuteOfDay;
+    private final int dayOfWeek;
+    private final boolean publicHoliday;
+
+    private TimeContext(final long epochMillis, final DateTimeZone zone, final int minuteOfDay, final int dayOfWeek, final boolean publicHoliday) {
+        this.epochMillis = epochMillis;
+        this.zone = zone;
+        this.minuteOfDay = minuteOfDay;
+        this.dayOfWeek = dayOfWeek;
+        this.publicHoliday = publicHoliday;
+    }
+
+    /**
+     * Computes the context of the given instant, in the given time zone.
+     *
+     * @param epochMillis the instant, in milliseconds since the epoch
+     * @param zone the time zone in which to determine the local time
+     * @return the context
+     */
+    public static TimeContext of(final long epochMillis, final DateTimeZone zone) {
+        final long localMillis = epochMillis + zone.getOffset(epochMillis);
+        final long localDay = CalendarUtils.floorDiv(localMillis, DateTimeConstants.MILLIS_PER_DAY);
+        final int minuteOfDay = (int) ((localMillis - localDay * DateTimeConstants.MILLIS_PER_DAY) / DateTimeConstants.MILLIS_PER_MINUTE);
+        // 1st January 1970 was a Thursday
+        final int dayOfWeek = (int) ((localDay + 3) - CalendarUtils.floorDiv(localDay + 3, 7) * 7) + DateTimeConstants.MONDAY;
+        return new TimeContext(epochMillis, zone, minuteOfDay, dayOfWeek, CalendarUtils.isPublicHolidayOnEpochDay(localDay));
+    }
+
+    /**
+     * Computes the context of the given date time.
+     *
+     * @param dateTime the date time
+     * @return the context
+     */
+    public static TimeContext of(final DateTime dateTime) {
+        return of(dateTime.getMillis(), dateTime.getZone());
+    }
+
+    /**
+     * Getter for the epoch millis
+     * @return the instant, in milliseconds since the epoch
+     */
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    /**
+     * Getter for the zone
+     * @return the time zone of the local time
+     */
+    public DateTimeZone getZone() {
+        return zone;
+    }
+
+    /**
+     * Getter for the minute of day
+     * @return the minute of the local day, from 0 to 1439
+     */
+    public int getMinuteOfDay() {
+        return minuteOfDay;
+    }
+
+    /**
+     * Getter for the hour of day
+     * @return the hour of the local day, from 0 to 23
+     */
+    public int getHourOfDay() {
+        return minuteOfDay / 60;
+    }
+
+    /**
+     * Getter for the day of week
+     * @return the day of the week, from {@link DateTimeConstants#MONDAY} to {@link DateTimeConstants#SUNDAY}
+     */
+    public int getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    /**
+     * Getter for the public holiday flag
+     * @return true if the local day is a public holiday, otherwise false
+     */
+    public boolean isPublicHoliday() {
+        return publicHoliday;
+    }
+
+    /**
+     * Converts the context back to a date time, e.g. for a time filter that needs other fields.
+     *
+     * @return the date time of the instant, in the time zone
+     */
+    public DateTime toDateTime() {
+        return new DateTime(epochMillis, zone);
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return toDateTime().toString();
+    }
+
+}
@@ -0,0 +1,119 @@
+package uk.co.epsilontechnologies.taximeter;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Class for {@link Clock}.
+ *
+ * @author Shane Gibson
+ */
+public class ClockTest {
+
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    @Test
+    public void shouldDeriveTimeFromGetNowOfClockOnlyOverridingGetNow() {
+
+        // arrange
+        final DateTime now = new DateTime(2013, 6, 12, 10, 30, LONDON);
+        final Clock underTest = new Clock() {
+            @Override
+            public DateTime getNow() {
+                return now;
+            }
+        };
+
+        // act / assert
+        assertEquals(now.getMillis(), underTest.currentTimeMillis());
+        assertEquals(now.getMillis() * 1000000, underTest.nanoTime());
+        assertEquals(LONDON, underTest.getZone());
+    }
+
+    @Test
+    public void shouldTellTimeOfClockOverridingPrimitiveAccessors() {
+
+        // arrange
+        final Clock underTest = new Clock() {
+            @Override
+            public long currentTimeMillis() {
+                return 1371029400000L;
+            }
+            @Override
+            public DateTimeZone getZone() {
+                return LONDON;
+            }
+        };
+
+        // act
+        final DateTime now = underTest.getNow();
+
+        // assert
+        assertEquals(new DateTime(1371029400000L, LONDON), now);
+    }
+
+    @Test
+    public void shouldTellSystemTime() {
+
+        // arrange
+        final Clock underTest = new Clock();
+
+        // act
+        final long before = System.currentTimeMillis();
+        final long now = underTest.currentTimeMillis();
+        final long after = System.currentTimeMillis();
+
+        // assert
+        assertTrue(before <= now && now <= after);
+        assertEquals(DateTimeZone.getDefault(), underTest.getZone());
+    }
+
+    @Test
+    public void shouldTimeJourneyOnMonotonicClockWhenWallClockSteps() {
+
+        // arrange
+        final long[] wallClock = { 1371029400000L };
+        final long[] monotonicClock = { 5000000000L };
+        final TflTaxiMeter underTest = TflTaxiMeter.builder(new Odometer() {
+            @Override
+            public void reset() {
+            }
+            @Override
+            public BigDecimal getDistance() {
+                return BigDecimal.ZERO;
+            }
+        }).clock(new Clock() {
+            @Override
+            public long currentTimeMillis() {
+                return wallClock[0];
+            }
+            @Override
+            public long nanoTime() {
+                return monotonicClock[0];
+            }
+            @Override
+            public DateTimeZone getZone() {
+                return LONDON;
+            }
+        }).poller(new Poller() {
+            @Override
+            public void start(final Runnable runnable) {
+            }
+        }).build();
+        underTest.startJourney();
+
+        // act - the wall clock is stepped back an hour, whilst 12.5 seconds pass
+        wallClock[0] -= 3600000;
+        monotonicClock[0] += 12500000000L;
+
+        // assert
+        assertEquals(12.5, underTest.getDuration().doubleValue(), 0.0001);
+    }
+
+}
@@ -0,0 +1,227 @@
+package uk.co.epsilontechnologies.taximeter;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.calculator.FareEngine;
+import uk.co.epsilontechnologies.taximeter.scheduler.ThreadPerJourneyTickScheduler;
+import uk.co.epsilontechnologies.taximeter.scheduler.TickScheduler;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test Class for an event driven {@link TflTaxiMeter}.
+ *
+ * @author Shane Gibson
+ */
+public class EventDrivenTaxiMeterTest {
+
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    private long now;
+
+    private final Clock clock = new Clock() {
+        @Override
+        public DateTime getNow() {
+            return new DateTime(now, LONDON);
+        }
+    };
+
+    @Test
+    public void shouldBillIdenticallyToPollingWithDecimalEngine() {
+        shouldBillIdenticallyToPolling(FareEngine.BIG_DECIMAL);
+    }
+
+    @Test
+    public void shouldBillIdenticallyToPollingWithFixedPointEngine() {
+        shouldBillIdenticallyToPolling(FareEngine.FIXED_POINT);
+    }
+
+    @Test
+    public void shouldBillIdenticallyToPollingWhenTicksRunLateWithDecimalEngine() {
+        shouldBillIdenticallyToPolling(FareEngine.BIG_DECIMAL, new Random(42));
+    }
+
+    @Test
+    public void shouldBillIdenticallyToPollingWhenTicksRunLateWithFixedPointEngine() {
+        shouldBillIdenticallyToPolling(FareEngine.FIXED_POINT, new Random(42));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToBuildEventDrivenMeterWithoutObservableOdometer() {
+
+        // act
+        TflTaxiMeter.builder(new ManualOdometer()).tickMode(TickMode.EVENT_DRIVEN).build();
+
+        // assert
+        fail("IllegalArgumentException was expected but not thrown");
+    }
+
+    @Test
+    public void shouldStopTickingWhenJourneyEnds() {
+
+        // arrange
+        now = new DateTime(2013, 11, 25, 10, 0, LONDON).getMillis();
+        final ManualPoller poller = new ManualPoller();
+        final ManualObservableOdometer odometer = new ManualObservableOdometer();
+        final TflTaxiMeter underTest = TflTaxiMeter.builder(odometer).tickMode(TickMode.EVENT_DRIVEN).poller(poller).clock(clock).build();
+        underTest.startJourney();
+
+        // act
+        underTest.endJourney();
+        odometer.travel(new BigDecimal("1000"));
+
+        // assert
+        assertEquals(-1, poller.due);
+    }
+
+    @Test
+    public void shouldTickTheJourneyOnAThreadOfItsOwn() throws InterruptedException {
+
+        // arrange
+        final AtomicInteger threads = new AtomicInteger();
+        final ThreadPerJourneyTickScheduler scheduler = new ThreadPerJourneyTickScheduler() {
+            @Override
+            public TickScheduler.ReschedulableTick schedule(final Runnable task, final long delayInMillis) {
+                threads.incrementAndGet();
+                return super.schedule(task, delayInMillis);
+            }
+        };
+        final ManualObservableOdometer odometer = new ManualObservableOdometer();
+        final TflTaxiMeter underTest = TflTaxiMeter.builder(odometer).tickMode(TickMode.EVENT_DRIVEN).tickScheduler(scheduler).build();
+        underTest.startJourney();
+        final BigDecimal flagFall = underTest.getFare();
+
+        // act - the odometer passes the distance at which the fare increments, which wakes the journey's thread
+        odometer.travel(new BigDecimal("1000"));
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (underTest.getFare().compareTo(flagFall) == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        underTest.endJourney();
+
+        // assert - every tick was rescheduled on the thread started with the journey
+        assertTrue(underTest.getFare().compareTo(flagFall) > 0);
+        assertEquals(1, threads.get());
+    }
+
+    private void shouldBillIdenticallyToPolling(final FareEngine fareEngine) {
+        shouldBillIdenticallyToPolling(fareEngine, null);
+    }
+
+    /**
+     * Runs a polling and an event driven meter side by side through the same journey, asserting that they show the same
+     * fare at every poll.
+     *
+     * @param fareEngine the engine both meters calculate the fare with
+     * @param jitter the source of the 1-5ms by which each tick runs after its tenth of a second, or null for ticks that
+     *               run exactly on time
+     */
+    private void shouldBillIdenticallyToPolling(final FareEngine fareEngine, final Random jitter) {
+
+        // arrange - a Monday evening journey, through the 20:00 and 22:00 tariff changes
+        now = new DateTime(2013, 11, 25, 19, 40, LONDON).getMillis();
+        final long end = now + 3 * 60 * 60 * 1000;
+
+        final ManualPoller pollingPoller = new ManualPoller();
+        final ManualObservableOdometer pollingOdometer = new ManualObservableOdometer();
+        final TflTaxiMeter polling = TflTaxiMeter.builder(pollingOdometer)
+                .fareEngine(fareEngine).poller(pollingPoller).clock(clock).build();
+
+        final ManualPoller eventPoller = new ManualPoller();
+        final ManualObservableOdometer eventOdometer = new ManualObservableOdometer();
+        final TflTaxiMeter eventDriven = TflTaxiMeter.builder(eventOdometer)
+                .fareEngine(fareEngine).tickMode(TickMode.EVENT_DRIVEN).poller(eventPoller).clock(clock).build();
+
+        polling.startJourney();
+        eventDriven.startJourney();
+
+        // act / assert - alternately wait in traffic for 2 minutes then drive for 3 minutes, with odometer updates
+        // every 300ms, half way between ticks
+        final long start = now;
+        long distance = 0;
+        int polls = 0;
+        int eventTicks = 0;
+        for (now = start + 50; now < end; now += 50) {
+            final long elapsed = now - start;
+            if (elapsed % 300 == 50 && (elapsed / 60000) % 5 >= 2) {
+                distance += 2400 + (elapsed / 300) % 7 * 13;
+                pollingOdometer.travel(BigDecimal.valueOf(distance, 3));
+                eventOdometer.travel(BigDecimal.valueOf(distance, 3));
+            }
+            if (elapsed % 100 == 0) {
+                final long onTime = now;
+                now += jitter == null ? 0 : 1 + jitter.nextInt(5);
+                polling.run();
+                polls++;
+                if (eventPoller.due != -1 && eventPoller.due <= now) {
+                    eventDriven.run();
+                    eventTicks++;
+                }
+                assertEquals("at " + new DateTime(now, LONDON), polling.getFare(), eventDriven.getFare());
+                now = onTime;
+            }
+        }
+
+        assertTrue(polling.getFare().compareTo(new BigDecimal("30.00")) > 0);
+        assertTrue("event driven meter ticked " + eventTicks + " times", eventTicks * 10 < polls);
+    }
+
+    class ManualPoller extends Poller {
+
+        long due = -1;
+
+        @Override
+        public synchronized void start(final Runnable runnable) {
+        }
+
+        @Override
+        public synchronized void schedule(final Runnable runnable, final long delayInMillis) {
+            this.due = now + delayInMillis;
+        }
+
+        @Override
+        public synchronized void stop() {
+            this.due = -1;
+        }
+    }
+
+    class ManualOdometer implements Odometer {
+
+        volatile BigDecimal distance = BigDecimal.ZERO;
+
+        @Override
+        public BigDecimal getDistance() {
+            return distance;
+        }
+
+        @Override
+        public void reset() {
+            distance = BigDecimal.ZERO;
+        }
+    }
+
+    class ManualObservableOdometer extends ManualOdometer implements ObservableOdometer {
+
+        DistanceListener listener;
+
+        void travel(final BigDecimal distance) {
+            this.distance = distance;
+            if (listener != null) {
+                listener.distanceChanged(distance);
+            }
+        }
+
+        @Override
+        public void setDistanceListener(final DistanceListener listener) {
+            this.listener = listener;
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package uk.co.epsilontechnologies.taximeter;
+
+import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.model.MeterSnapshot;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Class for {@link MeterSnapshotHolder}.
+ *
+ * @author Shane Gibson
+ */
+public class MeterSnapshotHolderTest {
+
+    private final MeterSnapshotHolder underTest = new MeterSnapshotHolder();
+
+    @Test
+    public void shouldHoldNoSnapshotUntilPublished() {
+
+        // act / assert
+        assertNull(underTest.toSnapshot());
+        assertNull(underTest.getFareAmount());
+        assertEquals(-1, underTest.getSequence());
+    }
+
+    @Test
+    public void shouldCopyThePublishedState() {
+
+        // arrange
+        underTest.publish(1020, 123457, 60000, 2, 1);
+
+        // act
+        final MeterSnapshot result = underTest.toSnapshot();
+
+        // assert
+        assertEquals(1020, result.getFare());
+        assertEquals(123457, result.getDistance());
+        assertEquals(60000, result.getDuration());
+        assertEquals(2, result.getBand());
+        assertEquals(1, result.getSequence());
+        assertEquals(new BigDecimal("10.20"), underTest.getFareAmount());
+    }
+
+    @Test
+    public void shouldClearThePublishedState() {
+
+        // arrange
+        underTest.publish(1020, 123457, 60000, 2, 1);
+
+        // act
+        underTest.clear();
+
+        // assert
+        assertNull(underTest.toSnapshot());
+    }
+
+    @Test
+    public void shouldNotValidateAReadDuringWhichATickWasPublished() {
+
+        // arrange
+        underTest.publish(240, 0, 0, 0, 0);
+        final long stamp = underTest.beginRead();
+
+        // act
+        underTest.publish(260, 100000, 60000, 0, 1);
+
+        // assert
+        assertEquals(false, underTest.validate(stamp));
+        assertTrue(underTest.validate(underTest.beginRead()));
+    }
+
+    @Test
+    public void shouldReadEveryFieldAsAtTheSameTick() throws InterruptedException {
+
+        // arrange - a tick thread publishing states whose fields all derive from the sequence
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final Thread ticker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (long sequence = 0; running.get(); sequence++) {
+                    underTest.publish(sequence * 20, sequence * 1000, sequence * 100, (int) (sequence % 3), sequence);
+                }
+            }
+        });
+        ticker.start();
+
+        // act / assert
+        try {
+            final long end = System.currentTimeMillis() + 200;
+            while (System.currentTimeMillis() < end) {
+                final MeterSnapshot snapshot = underTest.toSnapshot();
+                if (snapshot != null) {
+                    final long sequence = snapshot.getSequence();
+                    assertEquals(sequence * 20, snapshot.getFare());
+                    assertEquals(sequence * 1000, snapshot.getDistance());
+                    assertEquals(sequence * 100, snapshot.getDuration());
+                    assertEquals(sequence % 3, snapshot.getBand());
+                }
+            }
+        } finally {
+            running.set(false);
+            ticker.join();
+        }
+    }
+
+}
@@ -4,6 +4,7 @@ import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.junit.Before;
 import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.calculator.FareEngine;
 
 import java.math.BigDecimal;
 import java.util.TimeZone;
@@ -132,6 +133,44 @@ public class TaxiMeter2017Test {
 
     }
 
+    @Test
+    public void shouldCalculateFareTariff1WithFixedPointEngine() throws InterruptedException {
+
+        underTest = new TflTaxiMeter2017(new Odometer() {
+            @Override
+            public BigDecimal getDistance() {
+                return distanceTravelled;
+            }
+
+            @Override
+            public void reset() {
+            }
+        }, new ManualClock(), FareEngine.FIXED_POINT);
+
+        currentTime = new DateTime(2017,9, 29, 9,0,0, DateTimeZone.forTimeZone(TimeZone.getTimeZone("Europe/London")));
+        underTest.startJourney();
+
+        // wait for taxi meter to tick over
+        Thread.sleep(meterTickTime);
+
+        // arrange
+        assertEquals(new BigDecimal("2.60"), underTest.getFare() );
+
+        distanceTravelled = new BigDecimal("234.0");
+        Thread.sleep(meterTickTime);
+        assertEquals(new BigDecimal("2.60"), underTest.getFare() );
+
+        distanceTravelled = new BigDecimal("235.1");
+        Thread.sleep(meterTickTime);
+        assertEquals(new BigDecimal("2.80"), underTest.getFare() );
+
+        // 30 seconds later, fare should go up again
+        currentTime = new DateTime(2017,9, 29, 9,0,30, DateTimeZone.forTimeZone(TimeZone.getTimeZone("Europe/London")));
+        Thread.sleep(meterTickTime);
+        assertEquals(new BigDecimal("3.00"), underTest.getFare() );
+
+    }
+
     class ManualClock extends Clock {
 
         @Override
@@ -1,17 +1,24 @@
 package uk.co.epsilontechnologies.taximeter;
 
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import uk.co.epsilontechnologies.taximeter.calculator.FareCalculator;
 import uk.co.epsilontechnologies.taximeter.model.Fare;
+import uk.co.epsilontechnologies.taximeter.model.MeterSnapshot;
+import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
 
 import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNull;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
@@ -36,17 +43,33 @@ public class TaxiMeterTest {
     @Mock
     private Odometer mockOdometer;
 
+    @Mock
+    private TariffLookup mockTariffLookup;
+
     @Before
     public void setUp() {
         initMocks(this);
+        when(mockFareCalculator.getTariffLookup()).thenReturn(mockTariffLookup);
         this.underTest = new TflTaxiMeter(mockPoller, mockFareCalculator, mockOdometer);
     }
 
+    @Test
+    public void shouldShareTheStandardTariffLookupBetweenMeters() {
+
+        // act
+        final TariffLookup result = TflTaxiMeter.standardTariffLookup();
+
+        // assert
+        assertSame(result, TflTaxiMeter.standardTariffLookup());
+        assertSame(TflTaxiMeter2017.tariffLookup2017(), TflTaxiMeter2017.tariffLookup2017());
+    }
+
     @Test
     public void shouldStartJourney() {
 
         // arrange
         final Fare fare = mock(Fare.class);
+        when(fare.getAmount()).thenReturn(new BigDecimal("2.40"));
         when(mockFareCalculator.getFlagFall(any(DateTime.class))).thenReturn(fare);
 
         // act
@@ -165,14 +188,104 @@ public class TaxiMeterTest {
         this.underTest.fare = existingFare;
         this.underTest.startTime = new DateTime();
         when(mockOdometer.getDistance()).thenReturn(distance);
-        when(mockFareCalculator.calculateFare(eq(existingFare), any(BigDecimal.class), eq(distance), any(DateTime.class))).thenReturn(newFare);
+        when(mockFareCalculator.catchUpFare(eq(existingFare), any(BigDecimal.class), eq(distance), anyLong(), any(DateTimeZone.class))).thenReturn(newFare);
+
+        // act
+        this.underTest.run();
+
+        // assert
+        verify(mockFareCalculator).catchUpFare(eq(existingFare), any(BigDecimal.class), eq(distance), anyLong(), any(DateTimeZone.class));
+
+    }
+
+    @Test
+    public void shouldCalculateFareForTheExactDistanceOfTheOdometer() {
+
+        // arrange - an odometer that reads finer than a millimetre
+        final Fare existingFare = new Fare(new BigDecimal("10.00"), new BigDecimal("100"), new BigDecimal("60"));
+        final Fare newFare = new Fare(new BigDecimal("10.20"), new BigDecimal("123.4567"), new BigDecimal("60"));
+        final BigDecimal distance = new BigDecimal("123.4567");
+        this.underTest.fare = existingFare;
+        this.underTest.startTime = new DateTime();
+        when(mockOdometer.getDistance()).thenReturn(distance);
+        when(mockFareCalculator.catchUpFare(eq(existingFare), any(BigDecimal.class), eq(distance), anyLong(), any(DateTimeZone.class))).thenReturn(newFare);
 
         // act
         this.underTest.run();
 
         // assert
-        verify(mockFareCalculator).calculateFare(eq(existingFare), any(BigDecimal.class), eq(distance), any(DateTime.class));
+        verify(mockFareCalculator).catchUpFare(eq(existingFare), any(BigDecimal.class), eq(distance), anyLong(), any(DateTimeZone.class));
+        assertEquals(123457, this.underTest.getSnapshot().getDistance());
+    }
+
+    @Test
+    public void shouldPublishSnapshotOfTick() {
+
+        // arrange
+        final Fare existingFare = new Fare(new BigDecimal("10.00"), new BigDecimal("100"), new BigDecimal("60"));
+        final Fare newFare = new Fare(new BigDecimal("10.20"), new BigDecimal("227.3"), new BigDecimal("60"));
+        this.underTest.fare = existingFare;
+        this.underTest.startTime = new DateTime();
+        when(mockOdometer.getDistance()).thenReturn(new BigDecimal("123.4567"));
+        when(mockTariffLookup.lookupBand(anyLong(), any(DateTimeZone.class))).thenReturn(2);
+        when(mockFareCalculator.catchUpFare(any(Fare.class), any(BigDecimal.class), any(BigDecimal.class), anyLong(), any(DateTimeZone.class))).thenReturn(newFare);
+
+        // act
+        this.underTest.run();
+        this.underTest.run();
+
+        // assert
+        final MeterSnapshot result = this.underTest.getSnapshot();
+        assertEquals(1020, result.getFare());
+        assertEquals(123457, result.getDistance());
+        assertEquals(2, result.getBand());
+        assertEquals(1, result.getSequence());
+    }
+
+    @Test
+    public void shouldWaitForTheTickInProgressWhenEndingJourney() throws InterruptedException {
+
+        // arrange - a tick that blocks reading the odometer
+        final Fare newFare = new Fare(new BigDecimal("10.20"), new BigDecimal("227.3"), new BigDecimal("60"));
+        this.underTest.fare = new Fare(new BigDecimal("10.00"), new BigDecimal("100"), new BigDecimal("60"));
+        this.underTest.startTime = new DateTime();
+        final CountDownLatch reading = new CountDownLatch(1);
+        final CountDownLatch read = new CountDownLatch(1);
+        when(mockOdometer.getDistance()).thenAnswer(new Answer<BigDecimal>() {
+            @Override
+            public BigDecimal answer(final InvocationOnMock invocation) throws Throwable {
+                reading.countDown();
+                read.await();
+                return new BigDecimal("227.3");
+            }
+        });
+        when(mockFareCalculator.catchUpFare(any(Fare.class), any(BigDecimal.class), any(BigDecimal.class), anyLong(), any(DateTimeZone.class))).thenReturn(newFare);
+        final Thread tick = new Thread(this.underTest);
+        tick.start();
+        reading.await();
+        final Thread end = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                underTest.endJourney();
+            }
+        });
+
+        // act
+        end.start();
+        end.join(100);
+        final boolean endedDuringTick = !end.isAlive();
+        read.countDown();
+        end.join();
+        tick.join();
+        this.underTest.run();
+        final BigDecimal finalFare = this.underTest.getFare();
+        this.underTest.reset();
 
+        // assert - the journey ended once the tick had published, and no tick ran after it ended
+        assertEquals(false, endedDuringTick);
+        assertEquals(new BigDecimal("10.20"), finalFare);
+        verify(mockFareCalculator, times(1)).catchUpFare(any(Fare.class), any(BigDecimal.class), any(BigDecimal.class), anyLong(), any(DateTimeZone.class));
+        assertNull(this.underTest.getSnapshot());
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package uk.co.epsilontechnologies.taximeter.audit;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>Test Class for {@link BulkTripAuditor}
+ *
+ * @author Shane Gibson
+ */
+public class BulkTripAuditorTest {
+
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    @Test
+    public void shouldWriteDiscrepanciesInOrder() throws IOException {
+
+        // arrange
+        final long start = new DateTime(2013, 11, 25, 10, 0, LONDON).getMillis();
+        final StringBuilder samples = new StringBuilder();
+        for (int trip = 0; trip < 100; trip++) {
+            // every tenth trip is overcharged by 20p
+            samples.append("V").append(trip).append(',').append(start).append(",0,2.40\n");
+            samples.append("V").append(trip).append(',').append(start + 120000).append(",0,").append(trip % 10 == 0 ? "3.20" : "3.00").append('\n');
+        }
+        final StringWriter discrepancies = new StringWriter();
+        final BulkTripAuditor underTest = new BulkTripAuditor(
+                new TripAuditor(TflTaxiMeter.standardTariffLookup(), LONDON), new ForkJoinPool(4), LONDON, 8);
+
+        // act
+        final BulkTripAuditor.Summary result = underTest.audit(new TripSampleReader(new StringReader(samples.toString())), discrepancies);
+
+        // assert
+        assertEquals(100, result.getTrips());
+        assertEquals(200, result.getSamples());
+        assertEquals(10, result.getDiscrepancies());
+        final String[] lines = discrepancies.toString().split("\n");
+        assertEquals(11, lines.length);
+        assertEquals(BulkTripAuditor.HEADER, lines[0]);
+        for (int i = 1; i < lines.length; i++) {
+            assertEquals("V" + (i - 1) * 10 + ","
+                    + new DateTime(start, LONDON) + ","
+                    + new DateTime(start + 120000, LONDON) + ",0.000,3.20,3.00", lines[i]);
+        }
+    }
+
+}
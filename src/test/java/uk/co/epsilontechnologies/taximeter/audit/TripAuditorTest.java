@@ -0,0 +1,102 @@
+package uk.co.epsilontechnologies.taximeter.audit;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * <p>Test Class for {@link TripAuditor}
+ *
+ * @author Shane Gibson
+ */
+public class TripAuditorTest {
+
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    private static final long START = new DateTime(2013, 11, 25, 10, 0, LONDON).getMillis();
+
+    private TripAuditor underTest;
+
+    @Before
+    public void setUp() {
+        this.underTest = new TripAuditor(TflTaxiMeter.standardTariffLookup(), LONDON);
+    }
+
+    @Test
+    public void shouldPriceFlagFallForSingleSample() {
+
+        // act
+        final long result = underTest.price(new Trip("V1").addSample(START, 0, 240));
+
+        // assert
+        assertEquals(240, result);
+    }
+
+    @Test
+    public void shouldCatchUpOnIncrementsBetweenSparseSamples() {
+
+        // arrange
+        final Trip trip = new Trip("V1")
+                .addSample(START, 0, 240)
+                .addSample(START + 120000, 0, 300);
+
+        // act
+        final long result = underTest.price(trip);
+
+        // assert - time increments at 54.8s, 82.2s and 109.6s
+        assertEquals(300, result);
+    }
+
+    @Test
+    public void shouldPriceDistanceIncrements() {
+
+        // arrange
+        final Trip trip = new Trip("V1")
+                .addSample(START, 0, 240)
+                .addSample(START + 10000, 254601, 260)
+                .addSample(START + 20000, 381901, 280);
+
+        // act
+        final long result = underTest.price(trip);
+
+        // assert
+        assertEquals(280, result);
+    }
+
+    @Test
+    public void shouldFindNoDiscrepancyWhenRecordedFareIsCorrect() {
+
+        // arrange
+        final Trip trip = new Trip("V1")
+                .addSample(START, 0, 240)
+                .addSample(START + 120000, 0, 300);
+
+        // act
+        final Discrepancy result = underTest.audit(trip);
+
+        // assert
+        assertNull(result);
+    }
+
+    @Test
+    public void shouldFindDiscrepancyWhenRecordedFareIsWrong() {
+
+        // arrange
+        final Trip trip = new Trip("V1")
+                .addSample(START, 0, 240)
+                .addSample(START + 120000, 0, 280);
+
+        // act
+        final Discrepancy result = underTest.audit(trip);
+
+        // assert
+        assertEquals(280, result.getRecordedFare());
+        assertEquals(300, result.getExpectedFare());
+    }
+
+}
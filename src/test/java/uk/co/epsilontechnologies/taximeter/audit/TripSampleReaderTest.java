@@ -0,0 +1,80 @@
+package uk.co.epsilontechnologies.taximeter.audit;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * <p>Test Class for {@link TripSampleReader}
+ *
+ * @author Shane Gibson
+ */
+public class TripSampleReaderTest {
+
+    @Test
+    public void shouldReadSamplesOfTrip() throws IOException {
+
+        // arrange
+        final TripSampleReader underTest = new TripSampleReader(new StringReader(
+                "vehicle,timestamp,distance,fare\n" +
+                "V1,1385373600000,0,2.40\n" +
+                "V1,2013-11-25T10:01:00Z,127.3004,2.6\n"));
+
+        // act
+        final Trip result = underTest.next();
+
+        // assert
+        assertEquals("V1", result.getVehicle());
+        assertEquals(2, result.getSampleCount());
+        assertEquals(1385373600000L, result.getTimestamp(0));
+        assertEquals(0, result.getDistance(0));
+        assertEquals(240, result.getFare(0));
+        assertEquals(new DateTime(2013, 11, 25, 10, 1, DateTimeZone.UTC).getMillis(), result.getTimestamp(1));
+        assertEquals(127301, result.getDistance(1));
+        assertEquals(260, result.getFare(1));
+        assertNull(underTest.next());
+    }
+
+    @Test
+    public void shouldStartNewTripWhenVehicleChangesOrDistanceIsReset() throws IOException {
+
+        // arrange
+        final TripSampleReader underTest = new TripSampleReader(new StringReader(
+                "V1,1000,0,2.40\n" +
+                "V1,2000,10,2.40\n" +
+                "\n" +
+                "# new hiring\n" +
+                "V1,3000,0,2.40\n" +
+                "V2,3000,0,2.40\n" +
+                "V2,4000,5,2.40\n"));
+
+        // act / assert
+        assertEquals(2, underTest.next().getSampleCount());
+        assertEquals(1, underTest.next().getSampleCount());
+        final Trip last = underTest.next();
+        assertEquals("V2", last.getVehicle());
+        assertEquals(2, last.getSampleCount());
+        assertNull(underTest.next());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectFareThatIsNotExactToThePenny() throws IOException {
+
+        // act
+        new TripSampleReader(new StringReader("V1,1000,0,2.405\n")).next();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectSampleWithMissingFields() throws IOException {
+
+        // act
+        new TripSampleReader(new StringReader("V1,1000,0\n")).next();
+    }
+
+}
@@ -0,0 +1,652 @@
+package uk.co.epsilontechnologies.taximeter.calculator;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.model.Fare;
+import uk.co.epsilontechnologies.taximeter.model.FixedPointFare;
+import uk.co.epsilontechnologies.taximeter.tariff.CachedTariffLookup;
+import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
+import uk.co.epsilontechnologies.taximeter.utils.CalendarUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromMillimetres;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromMillis;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromPence;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.measuredMillimetres;
+
+/**
+ * <p>Differential test harness, which runs randomly generated journeys through the reference fare engine - the
+ * {@link FareCalculator}, applying {@link FareCalculator#calculateFare} until the fare stops changing at each tick -
+ * and through each of a number of alternative engines, and reports the first tick at which any engine's fare differs.
+ *
+ * <p>The journeys are biased towards the awkward cases: starting shortly before a change of band (06:00, 20:00, 22:00
+ * and midnight), a public holiday or a change of the clocks, and running long and fast enough to pass the high low fare
+ * boundary. The taxi speeds up, slows down and stops, and the ticks are jittered - mostly a tenth of a second apart,
+ * but sometimes late, or after a long pause. The odometer reads to the micrometre, and each reading is measured to
+ * the millimetre - rounding up, as the meter does for the fixed-point engine - before it is given to both engines,
+ * since comparing them is only meaningful for the whole millimetres that the fixed-point engine can account for.
+ *
+ * <p>Each journey is generated from the seed and its index alone, so a divergence can be replayed on its own, and the
+ * journeys are shared between threads. The divergence reported is that of the lowest journey index, whatever the number
+ * of threads.
+ *
+ * <p>A sweep of millions of journeys can be run from the command line, given the number of journeys and optionally the
+ * number of threads and the seed:
+ *
+ * <pre>
+ *   mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=uk.co.epsilontechnologies.taximeter.calculator.DifferentialFareHarness -Dexec.args="2000000"
+ * </pre>
+ *
+ * @author Shane Gibson
+ */
+public class DifferentialFareHarness {
+
+    /**
+     * The time zone in which the journeys are made.
+     */
+    public static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    /**
+     * The number of journeys each thread takes at a time.
+     */
+    private static final int CHUNK_SIZE = 64;
+
+    /**
+     * The local hours at which the standard tariffs change band.
+     */
+    private static final int[] BAND_CHANGE_HOURS = { 0, 5, 6, 20, 22 };
+
+    /**
+     * The instants at which the clocks change, within the public holidays known.
+     */
+    private static final long[] CLOCK_CHANGES = {
+            new DateTime(2013, 3, 31, 1, 0, DateTimeZone.UTC).getMillis(),
+            new DateTime(2013, 10, 27, 1, 0, DateTimeZone.UTC).getMillis(),
+            new DateTime(2014, 3, 30, 1, 0, DateTimeZone.UTC).getMillis(),
+            new DateTime(2014, 10, 26, 1, 0, DateTimeZone.UTC).getMillis() };
+
+    private static final LocalDate FIRST_DAY = new LocalDate(2013, 1, 1);
+
+    private static final int DAYS = 730;
+
+    private final FareCalculator referenceCalculator;
+
+    private final long seed;
+
+    private final Engine[] engines;
+
+    /**
+     * Constructs the harness, to compare the given engines against the reference engine.
+     *
+     * @param tariffLookup the tariff lookup for the reference engine
+     * @param seed the seed the journeys are generated from
+     * @param engines the engines to compare
+     */
+    public DifferentialFareHarness(final TariffLookup tariffLookup, final long seed, final Engine... engines) {
+        this.referenceCalculator = new FareCalculator(tariffLookup);
+        this.seed = seed;
+        this.engines = engines.clone();
+    }
+
+    /**
+     * Creates the alternative fare engines in the tree, for the given tariff lookup: the fixed-point engine, both
+     * stepping and catching up, with and without a cache of the tariff, and the decimal engine catching up.
+     *
+     * @param tariffLookup the tariff lookup
+     * @return the engines
+     */
+    public static Engine[] alternativeEngines(final TariffLookup tariffLookup) {
+        final FixedPointFareCalculator fixedPointFareCalculator = new FixedPointFareCalculator(tariffLookup);
+        final FareCalculator fareCalculator = new FareCalculator(tariffLookup);
+        return new Engine[] {
+                new Engine("fixed-point catch-up") {
+                    @Override
+                    public EngineJourney start(final DateTime startTime) {
+                        return new FixedPointJourney(fixedPointFareCalculator, startTime, true);
+                    }
+                },
+                new Engine("fixed-point catch-up, cached tariff") {
+                    @Override
+                    public EngineJourney start(final DateTime startTime) {
+                        // a cache per journey, as per a meter
+                        return new FixedPointJourney(new FixedPointFareCalculator(new CachedTariffLookup(tariffLookup)), startTime, true);
+                    }
+                },
+                new Engine("fixed-point step") {
+                    @Override
+                    public EngineJourney start(final DateTime startTime) {
+                        return new FixedPointJourney(fixedPointFareCalculator, startTime, false);
+                    }
+                },
+                new Engine("decimal catch-up") {
+                    @Override
+                    public EngineJourney start(final DateTime startTime) {
+                        return new DecimalJourney(fareCalculator, startTime);
+                    }
+                } };
+    }
+
+    /**
+     * Runs the given number of journeys, from index 0, across the given number of threads - stopping early once a
+     * divergence has been found in every journey still to be run.
+     *
+     * @param journeys the number of journeys to run
+     * @param threads the number of threads to run them on
+     * @return the result of the sweep
+     * @throws InterruptedException the sweep was interrupted
+     */
+    public Result run(final long journeys, final int threads) throws InterruptedException {
+        final AtomicLong nextJourney = new AtomicLong();
+        final AtomicLong journeysRun = new AtomicLong();
+        final AtomicLong ticksRun = new AtomicLong();
+        final Divergence[] first = new Divergence[1];
+        final long startNanos = System.nanoTime();
+
+        final Thread[] workers = new Thread[threads];
+        final Throwable[] failure = new Throwable[1];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        long from;
+                        while ((from = nextJourney.getAndAdd(CHUNK_SIZE)) < journeys) {
+                            synchronized (first) {
+                                if (first[0] != null && first[0].journey < from) {
+                                    return;
+                                }
+                            }
+                            final long to = Math.min(from + CHUNK_SIZE, journeys);
+                            long ticks = 0;
+                            for (long journey = from; journey < to; journey++) {
+                                final Outcome outcome = runJourney(journey);
+                                ticks += outcome.ticks;
+                                if (outcome.divergence != null) {
+                                    synchronized (first) {
+                                        if (first[0] == null || outcome.divergence.journey < first[0].journey) {
+                                            first[0] = outcome.divergence;
+                                        }
+                                    }
+                                    journeysRun.addAndGet(journey - from + 1);
+                                    ticksRun.addAndGet(ticks);
+                                    return;
+                                }
+                            }
+                            journeysRun.addAndGet(to - from);
+                            ticksRun.addAndGet(ticks);
+                        }
+                    } catch (final Throwable t) {
+                        synchronized (failure) {
+                            failure[0] = t;
+                        }
+                    }
+                }
+            }, "differential-"+i);
+            workers[i].start();
+        }
+        for (final Thread worker : workers) {
+            worker.join();
+        }
+        synchronized (failure) {
+            if (failure[0] != null) {
+                throw new IllegalStateException("Differential sweep failed", failure[0]);
+            }
+        }
+        synchronized (first) {
+            return new Result(journeysRun.get(), ticksRun.get(), (System.nanoTime() - startNanos) / 1000000, first[0]);
+        }
+    }
+
+    /**
+     * Runs the journey of the given index through the reference engine and each alternative engine.
+     *
+     * @param journey the index of the journey
+     * @return the number of ticks run, and the first divergence, if any
+     */
+    Outcome runJourney(final long journey) {
+        final Random random = new Random(seed * 0x9E3779B97F4A7C15L + journey);
+        final DateTime startTime = new DateTime(startTime(random), LONDON);
+        final long startMillis = startTime.getMillis();
+        final boolean longJourney = random.nextInt(4) == 0;
+        final long journeyDuration = longJourney
+                ? 1200000 + (long) random.nextInt(2400000)
+                : 30000 + (long) random.nextInt(1500000);
+
+        Fare reference = referenceCalculator.getFlagFall(startTime);
+        final EngineJourney[] engineJourneys = new EngineJourney[engines.length];
+        for (int i = 0; i < engines.length; i++) {
+            engineJourneys[i] = engines[i].start(startTime);
+        }
+        Divergence divergence = compare(journey, 0, startTime, 0, 0, null, reference, engineJourneys);
+        if (divergence != null) {
+            return new Outcome(1, divergence);
+        }
+
+        long duration = 0;
+        long distance = 0;
+        long reading = 0;
+        long speed = 0;
+        long segmentEnd = 0;
+        long tick = 0;
+        while (duration < journeyDuration) {
+            final long gap = tickGap(random);
+            if (duration + gap > segmentEnd) {
+                // a new speed, in micrometres per second - stopped a quarter of the time, up to 25 metres per second
+                speed = random.nextInt(4) == 0 ? 0 : random.nextInt(longJourney ? 25000000 : 15000000);
+                segmentEnd = duration + 5000 + random.nextInt(115000);
+            }
+            duration += gap;
+            reading += speed * gap / 1000;
+            distance = measuredMillimetres(BigDecimal.valueOf(reading, 6));
+            tick++;
+
+            final DateTime now = new DateTime(startMillis + duration, LONDON);
+            final Fare previous = reference;
+            reference = catchUp(reference, duration, distance, now);
+            for (final EngineJourney engineJourney : engineJourneys) {
+                engineJourney.tick(duration, distance, now);
+            }
+            divergence = compare(journey, tick, now, duration, distance, previous, reference, engineJourneys);
+            if (divergence != null) {
+                return new Outcome(tick + 1, divergence);
+            }
+        }
+        return new Outcome(tick + 1, null);
+    }
+
+    /**
+     * Applies the reference engine's calculation until the fare stops changing.
+     */
+    private Fare catchUp(final Fare fare, final long duration, final long distance, final DateTime now) {
+        final BigDecimal journeyDuration = fromMillis(duration);
+        final BigDecimal journeyDistance = fromMillimetres(distance);
+        Fare current = fare;
+        while (true) {
+            final Fare next = referenceCalculator.calculateFare(current, journeyDuration, journeyDistance, now);
+            if (next == current) {
+                return current;
+            }
+            current = next;
+        }
+    }
+
+    private Divergence compare(
+            final long journey,
+            final long tick,
+            final DateTime now,
+            final long duration,
+            final long distance,
+            final Fare previous,
+            final Fare expected,
+            final EngineJourney[] engineJourneys) {
+        for (int i = 0; i < engineJourneys.length; i++) {
+            final EngineJourney actual = engineJourneys[i];
+            if (fromPence(actual.getAmount()).compareTo(expected.getAmount()) != 0
+                    || fromMillimetres(actual.getDistanceAccountedFor()).compareTo(expected.getJourneyDistanceAccountedFor()) != 0
+                    || fromMillis(actual.getDurationAccountedFor()).compareTo(expected.getJourneyDurationAccountedFor()) != 0) {
+                return new Divergence(engines[i].name, seed, journey, tick, new DateTime(now.getMillis() - duration, LONDON), now,
+                        duration, distance, previous, expected,
+                        new Fare(fromPence(actual.getAmount()), fromMillimetres(actual.getDistanceAccountedFor()), fromMillis(actual.getDurationAccountedFor())));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Chooses the start of a journey, in milliseconds since the epoch.
+     */
+    private static long startTime(final Random random) {
+        final int choice = random.nextInt(10);
+        final LocalDate day = FIRST_DAY.plusDays(random.nextInt(DAYS));
+        final long jitter = random.nextInt(1800000);
+        if (choice < 4) {
+            // up to half an hour before a change of band
+            final int hour = BAND_CHANGE_HOURS[random.nextInt(BAND_CHANGE_HOURS.length)];
+            return new DateTime(day.getYear(), day.getMonthOfYear(), day.getDayOfMonth(), hour, 0, LONDON).getMillis() - jitter;
+        }
+        if (choice == 4) {
+            // up to half an hour before the clocks change
+            return CLOCK_CHANGES[random.nextInt(CLOCK_CHANGES.length)] - jitter;
+        }
+        if (choice == 5) {
+            // up to half an hour before the start or the end of a public holiday
+            final List<LocalDate> holidays = CalendarUtils.getPublicHolidays(day.getYear());
+            final LocalDate holiday = holidays.get(random.nextInt(holidays.size())).plusDays(random.nextInt(2));
+            return holiday.toDateTimeAtStartOfDay(LONDON).getMillis() - jitter;
+        }
+        return day.toDateTimeAtStartOfDay(LONDON).getMillis() + (long) random.nextInt(86400000);
+    }
+
+    /**
+     * Chooses the gap before the next tick, in milliseconds - mostly a tenth of a second give or take 20 milliseconds,
+     * sometimes up to a second late, and occasionally after a pause of up to 10 seconds.
+     */
+    private static long tickGap(final Random random) {
+        final int choice = random.nextInt(100);
+        if (choice < 80) {
+            return 80 + random.nextInt(41);
+        }
+        if (choice < 97) {
+            return 100 + random.nextInt(900);
+        }
+        return 1000 + random.nextInt(9000);
+    }
+
+    /**
+     * Runs a sweep, as per the class description.
+     *
+     * @param args the number of journeys, and optionally the number of threads and the seed
+     * @throws InterruptedException the sweep was interrupted
+     */
+    public static void main(final String[] args) throws InterruptedException {
+        final long journeys = args.length > 0 ? Long.parseLong(args[0]) : 1000000;
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        final TariffLookup tariffLookup = TflTaxiMeter.standardTariffLookup();
+        final DifferentialFareHarness harness = new DifferentialFareHarness(tariffLookup, seed, alternativeEngines(tariffLookup));
+        System.out.println("Running "+journeys+" journeys on "+threads+" threads, seed "+seed);
+        final Result result = harness.run(journeys, threads);
+        System.out.println(result);
+        if (result.getDivergence() != null) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * <p>An alternative fare engine, to compare against the reference engine.
+     */
+    public abstract static class Engine {
+
+        private final String name;
+
+        /**
+         * Constructs the engine.
+         *
+         * @param name the name of the engine, for reporting
+         */
+        protected Engine(final String name) {
+            this.name = name;
+        }
+
+        /**
+         * Starts a journey at the given time, setting the fare to the flag fall.
+         *
+         * @param startTime the start of the journey
+         * @return the journey
+         */
+        public abstract EngineJourney start(DateTime startTime);
+
+    }
+
+    /**
+     * <p>A journey through an alternative fare engine. Amounts are in pence, distances in millimetres and durations in
+     * milliseconds.
+     */
+    public abstract static class EngineJourney {
+
+        /**
+         * Updates the fare at a tick.
+         *
+         * @param duration the duration of the journey so far
+         * @param distance the distance of the journey so far
+         * @param now the time of the tick
+         */
+        public abstract void tick(long duration, long distance, DateTime now);
+
+        /**
+         * @return the fare, in pence
+         */
+        public abstract long getAmount();
+
+        /**
+         * @return the journey distance accounted for by the fare, in millimetres
+         */
+        public abstract long getDistanceAccountedFor();
+
+        /**
+         * @return the journey duration accounted for by the fare, in milliseconds
+         */
+        public abstract long getDurationAccountedFor();
+
+    }
+
+    private static final class FixedPointJourney extends EngineJourney {
+
+        private final FixedPointFareCalculator fareCalculator;
+        private final boolean catchUp;
+        private final FixedPointFare fare;
+
+        private FixedPointJourney(final FixedPointFareCalculator fareCalculator, final DateTime startTime, final boolean catchUp) {
+            this.fareCalculator = fareCalculator;
+            this.catchUp = catchUp;
+            this.fare = fareCalculator.getFlagFall(startTime, new FixedPointFare());
+        }
+
+        @Override
+        public void tick(final long duration, final long distance, final DateTime now) {
+            if (catchUp) {
+                fareCalculator.catchUpFare(fare, duration, distance, now.getMillis(), now.getZone());
+            } else {
+                while (fareCalculator.calculateFare(fare, duration, distance, now)) {
+                    // step until the fare stops changing
+                }
+            }
+        }
+
+        @Override
+        public long getAmount() {
+            return fare.getAmount();
+        }
+
+        @Override
+        public long getDistanceAccountedFor() {
+            return fare.getJourneyDistanceAccountedFor();
+        }
+
+        @Override
+        public long getDurationAccountedFor() {
+            return fare.getJourneyDurationAccountedFor();
+        }
+
+    }
+
+    private static final class DecimalJourney extends EngineJourney {
+
+        private final FareCalculator fareCalculator;
+        private Fare fare;
+
+        private DecimalJourney(final FareCalculator fareCalculator, final DateTime startTime) {
+            this.fareCalculator = fareCalculator;
+            this.fare = fareCalculator.getFlagFall(startTime);
+        }
+
+        @Override
+        public void tick(final long duration, final long distance, final DateTime now) {
+            fare = fareCalculator.catchUpFare(fare, fromMillis(duration), fromMillimetres(distance), now.getMillis(), now.getZone());
+        }
+
+        @Override
+        public long getAmount() {
+            return fare.getAmount().movePointRight(2).longValueExact();
+        }
+
+        @Override
+        public long getDistanceAccountedFor() {
+            return fare.getJourneyDistanceAccountedFor().movePointRight(3).longValueExact();
+        }
+
+        @Override
+        public long getDurationAccountedFor() {
+            return fare.getJourneyDurationAccountedFor().movePointRight(3).longValueExact();
+        }
+
+    }
+
+    /**
+     * <p>The number of ticks of a journey, and its first divergence, if any.
+     */
+    static final class Outcome {
+
+        private final long ticks;
+        private final Divergence divergence;
+
+        private Outcome(final long ticks, final Divergence divergence) {
+            this.ticks = ticks;
+            this.divergence = divergence;
+        }
+
+        Divergence getDivergence() {
+            return divergence;
+        }
+
+    }
+
+    /**
+     * <p>The first tick of a journey at which an engine's fare differed from the reference engine's, and the full state
+     * of the journey at that tick.
+     */
+    public static final class Divergence {
+
+        private final String engine;
+        private final long seed;
+        private final long journey;
+        private final long tick;
+        private final DateTime startTime;
+        private final DateTime time;
+        private final long duration;
+        private final long distance;
+        private final Fare previous;
+        private final Fare expected;
+        private final Fare actual;
+
+        private Divergence(
+                final String engine,
+                final long seed,
+                final long journey,
+                final long tick,
+                final DateTime startTime,
+                final DateTime time,
+                final long duration,
+                final long distance,
+                final Fare previous,
+                final Fare expected,
+                final Fare actual) {
+            this.engine = engine;
+            this.seed = seed;
+            this.journey = journey;
+            this.tick = tick;
+            this.startTime = startTime;
+            this.time = time;
+            this.duration = duration;
+            this.distance = distance;
+            this.previous = previous;
+            this.expected = expected;
+            this.actual = actual;
+        }
+
+        /**
+         * Getter for the engine
+         * @return the name of the engine that diverged
+         */
+        public String getEngine() {
+            return engine;
+        }
+
+        /**
+         * Getter for the journey
+         * @return the index of the journey
+         */
+        public long getJourney() {
+            return journey;
+        }
+
+        /**
+         * Getter for the tick
+         * @return the tick of the journey at which the engine diverged, from 0 for the flag fall
+         */
+        public long getTick() {
+            return tick;
+        }
+
+        /**
+         * @see Object#toString()
+         */
+        @Override
+        public String toString() {
+            return "Engine '"+engine+"' diverged at tick "+tick+" of journey "+journey+" (seed "+seed+")"
+                    +"\n  journey started: "+startTime
+                    +"\n  tick time:       "+time
+                    +"\n  duration:        "+duration+"ms"
+                    +"\n  distance:        "+distance+"mm"
+                    +"\n  previous fare:   "+describe(previous)
+                    +"\n  expected fare:   "+describe(expected)
+                    +"\n  actual fare:     "+describe(actual);
+        }
+
+        private static String describe(final Fare fare) {
+            return fare == null
+                    ? "none"
+                    : fare.getAmount()+" accounting for "+fare.getJourneyDistanceAccountedFor()+"m and "+fare.getJourneyDurationAccountedFor()+"s";
+        }
+
+    }
+
+    /**
+     * <p>The result of a sweep.
+     */
+    public static final class Result {
+
+        private final long journeys;
+        private final long ticks;
+        private final long elapsedMillis;
+        private final Divergence divergence;
+
+        private Result(final long journeys, final long ticks, final long elapsedMillis, final Divergence divergence) {
+            this.journeys = journeys;
+            this.ticks = ticks;
+            this.elapsedMillis = elapsedMillis;
+            this.divergence = divergence;
+        }
+
+        /**
+         * Getter for the journeys
+         * @return the number of journeys run
+         */
+        public long getJourneys() {
+            return journeys;
+        }
+
+        /**
+         * Getter for the ticks
+         * @return the number of ticks run, across all journeys
+         */
+        public long getTicks() {
+            return ticks;
+        }
+
+        /**
+         * Getter for the divergence
+         * @return the divergence of the lowest journey index, or null if every engine matched the reference engine
+         */
+        public Divergence getDivergence() {
+            return divergence;
+        }
+
+        /**
+         * @see Object#toString()
+         */
+        @Override
+        public String toString() {
+            return journeys+" journeys ("+ticks+" ticks) in "+elapsedMillis+"ms: "
+                    +(divergence == null ? "every engine matched the reference engine" : divergence.toString());
+        }
+
+    }
+
+}
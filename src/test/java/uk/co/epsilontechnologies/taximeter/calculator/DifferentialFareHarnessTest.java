@@ -0,0 +1,101 @@
+package uk.co.epsilontechnologies.taximeter.calculator;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter2017;
+import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * <p>Test Class for {@link DifferentialFareHarness}, which runs a short sweep of the alternative fare engines against
+ * the reference engine - the harness's main method runs the full sweep of millions of journeys.
+ *
+ * @author Shane Gibson
+ */
+public class DifferentialFareHarnessTest {
+
+    private static final int JOURNEYS = 400;
+
+    @Test
+    public void shouldMatchTheReferenceEngineUnderTheStandardTariffs() throws InterruptedException {
+
+        // arrange
+        final TariffLookup tariffLookup = TflTaxiMeter.standardTariffLookup();
+        final DifferentialFareHarness underTest = new DifferentialFareHarness(
+                tariffLookup, 2013, DifferentialFareHarness.alternativeEngines(tariffLookup));
+
+        // act
+        final DifferentialFareHarness.Result result = underTest.run(JOURNEYS, 2);
+
+        // assert
+        assertNull(String.valueOf(result.getDivergence()), result.getDivergence());
+        assertEquals(JOURNEYS, result.getJourneys());
+    }
+
+    @Test
+    public void shouldMatchTheReferenceEngineUnderThe2017Tariffs() throws InterruptedException {
+
+        // arrange
+        final TariffLookup tariffLookup = TflTaxiMeter2017.tariffLookup2017();
+        final DifferentialFareHarness underTest = new DifferentialFareHarness(
+                tariffLookup, 2017, DifferentialFareHarness.alternativeEngines(tariffLookup));
+
+        // act
+        final DifferentialFareHarness.Result result = underTest.run(JOURNEYS, 2);
+
+        // assert
+        assertNull(String.valueOf(result.getDivergence()), result.getDivergence());
+    }
+
+    @Test
+    public void shouldReportTheFirstDivergingTickWhateverTheThreads() throws InterruptedException {
+
+        // arrange - an engine that overcharges by a penny once the fare passes 1000 pence
+        final TariffLookup tariffLookup = TflTaxiMeter.standardTariffLookup();
+        final DifferentialFareHarness.Engine overcharging = new DifferentialFareHarness.Engine("overcharging") {
+            @Override
+            public DifferentialFareHarness.EngineJourney start(final DateTime startTime) {
+                final DifferentialFareHarness.EngineJourney journey = DifferentialFareHarness.alternativeEngines(tariffLookup)[0].start(startTime);
+                return new DifferentialFareHarness.EngineJourney() {
+                    @Override
+                    public void tick(final long duration, final long distance, final DateTime now) {
+                        journey.tick(duration, distance, now);
+                    }
+
+                    @Override
+                    public long getAmount() {
+                        return journey.getAmount() > 1000 ? journey.getAmount() + 1 : journey.getAmount();
+                    }
+
+                    @Override
+                    public long getDistanceAccountedFor() {
+                        return journey.getDistanceAccountedFor();
+                    }
+
+                    @Override
+                    public long getDurationAccountedFor() {
+                        return journey.getDurationAccountedFor();
+                    }
+                };
+            }
+        };
+        final DifferentialFareHarness underTest = new DifferentialFareHarness(tariffLookup, 42, overcharging);
+
+        // act
+        final DifferentialFareHarness.Result singleThreaded = underTest.run(JOURNEYS, 1);
+        final DifferentialFareHarness.Result multiThreaded = underTest.run(JOURNEYS, 4);
+
+        // assert
+        final DifferentialFareHarness.Divergence divergence = singleThreaded.getDivergence();
+        assertNotNull(divergence);
+        assertEquals("overcharging", divergence.getEngine());
+        assertEquals(divergence.getJourney(), multiThreaded.getDivergence().getJourney());
+        assertEquals(divergence.getTick(), multiThreaded.getDivergence().getTick());
+        assertEquals(divergence.toString(), multiThreaded.getDivergence().toString());
+    }
+
+}
@@ -121,4 +121,63 @@ public class FareCalculatorTest {
         assertEquals(new BigDecimal("2101.2"), result.getJourneyDurationAccountedFor());
     }
 
+    @Test
+    public void shouldCatchUpOnAllIncrementsDueInOneCall() {
+
+        // arrange
+        final Fare flagFall = new Fare(new BigDecimal("2.40"), new BigDecimal("254.6"), new BigDecimal("54.8"));
+
+        // act
+        final Fare result = this.underTest.catchUpFare(flagFall, new BigDecimal("110.0"), new BigDecimal("100"), new DateTime());
+
+        // assert - time increments at 54.8, 82.2 and 109.6 seconds
+        assertEquals(new Fare(new BigDecimal("3.00"), new BigDecimal("227.3"), new BigDecimal("137.0")), result);
+    }
+
+    @Test
+    public void shouldNotCatchUpWhenMinimumChargeNotExceeded() {
+
+        // arrange
+        final Fare flagFall = new Fare(new BigDecimal("2.40"), new BigDecimal("254.6"), new BigDecimal("54.8"));
+
+        // act
+        final Fare result = this.underTest.catchUpFare(flagFall, new BigDecimal("40"), new BigDecimal("100"), new DateTime());
+
+        // assert
+        assertEquals(flagFall, result);
+    }
+
+    @Test
+    public void shouldCatchUpIdenticallyToRepeatedCalculation() {
+
+        // arrange
+        final Fare flagFall = new Fare(new BigDecimal("2.40"), new BigDecimal("254.6"), new BigDecimal("54.8"));
+        final String[][] jumps = {
+                { "60", "10000" },      // distance only, crossing into the high fare
+                { "7200", "300" },      // duration only, crossing into the high fare
+                { "900", "2500.5" },    // both behind
+                { "55", "254.7" },      // a single increment
+                { "2000.3", "7000" }    // both, finishing in the high fare
+        };
+
+        for (final String[] jump : jumps) {
+            final BigDecimal duration = new BigDecimal(jump[0]);
+            final BigDecimal distance = new BigDecimal(jump[1]);
+
+            // act
+            final Fare result = this.underTest.catchUpFare(flagFall, duration, distance, new DateTime());
+
+            // assert
+            Fare expected = flagFall;
+            Fare previous;
+            do {
+                previous = expected;
+                expected = this.underTest.calculateFare(previous, duration, distance, new DateTime());
+            } while (expected != previous);
+            assertEquals(expected.getAmount(), result.getAmount());
+            assertEquals(0, expected.getJourneyDistanceAccountedFor().compareTo(result.getJourneyDistanceAccountedFor()));
+            assertEquals(0, expected.getJourneyDurationAccountedFor().compareTo(result.getJourneyDurationAccountedFor()));
+        }
+    }
+
 }
@@ -0,0 +1,151 @@
+package uk.co.epsilontechnologies.taximeter.calculator;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.model.FixedPointFare;
+import uk.co.epsilontechnologies.taximeter.tariff.CompiledTariffLookup;
+import uk.co.epsilontechnologies.taximeter.tariff.Tariff;
+import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Test Class for {@link FareQuoter}
+ *
+ * @author Shane Gibson
+ */
+public class FareQuoterTest {
+
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    private final TariffLookup tariffLookup = TflTaxiMeter.standardTariffLookup();
+
+    private final FareQuoter underTest = new FareQuoter(tariffLookup);
+
+    @Test
+    public void shouldQuoteFlagFallForShortJourney() {
+
+        // act
+        final BigDecimal quote = underTest.quote(new DateTime(2013, 11, 25, 10, 0, LONDON), new BigDecimal("100"), new BigDecimal("20"));
+
+        // assert
+        assertEquals(new BigDecimal("2.40"), quote);
+    }
+
+    @Test
+    public void shouldQuoteAsPolledMeterWouldChargeWithinOneTariff() {
+        // weekday daytime, weekday evening, night and holiday - at walking pace, in traffic and on the open road
+        for (final DateTime pickupTime : new DateTime[] {
+                new DateTime(2013, 11, 25, 10, 0, LONDON),
+                new DateTime(2013, 11, 25, 20, 15, LONDON),
+                new DateTime(2013, 11, 26, 1, 0, LONDON),
+                new DateTime(2013, 12, 25, 12, 0, LONDON) }) {
+            assertQuoteAsPolled(pickupTime, 500000, 900000);
+            assertQuoteAsPolled(pickupTime, 5000000, 1200000);
+            assertQuoteAsPolled(pickupTime, 20000000, 1200000);
+        }
+    }
+
+    @Test
+    public void shouldQuoteAsPolledMeterWouldChargeThroughChangesOfTariff() {
+        // a Monday evening journey through the 20:00 and 22:00 tariff changes
+        assertQuoteAsPolled(new DateTime(2013, 11, 25, 19, 40, LONDON), 60000000, 3 * 3600000);
+        // a Friday night journey through the 06:00 change
+        assertQuoteAsPolled(new DateTime(2013, 11, 29, 5, 50, LONDON), 8000000, 1800000);
+    }
+
+    @Test
+    public void shouldLookUpTheTariffOnlyWhereItCouldChange() {
+
+        // arrange - the standard tariffs, counting how often the band is looked up
+        final AtomicInteger lookups = new AtomicInteger();
+        final CompiledTariffLookup countingLookup = new CompiledTariffLookup(tariffLookup.getTariffs().toArray(new Tariff[0])) {
+            @Override
+            public int lookupBand(final long epochMillis, final DateTimeZone zone) {
+                lookups.incrementAndGet();
+                return super.lookupBand(epochMillis, zone);
+            }
+        };
+        final FareQuoter underTest = new FareQuoter(countingLookup);
+        lookups.set(0);
+
+        // act - a Monday evening journey through the 20:00 and 22:00 tariff changes, three hours long
+        final long quote = underTest.quote(new DateTime(2013, 11, 25, 19, 40, LONDON).getMillis(), LONDON, 60000000, 3 * 3600000);
+
+        // assert - the same quote, looking up the band around each change, rather than at each of the 180 minutes
+        assertEquals(this.underTest.quote(new DateTime(2013, 11, 25, 19, 40, LONDON).getMillis(), LONDON, 60000000, 3 * 3600000), quote);
+        assertTrue("band looked up " + lookups.get() + " times", lookups.get() <= 10);
+    }
+
+    @Test
+    public void shouldRoundUpToBuckets() {
+
+        // arrange - a quote is that of the journey rounded up to the next 10 metres and second
+        final long pickupTime = new DateTime(2013, 11, 25, 10, 0, LONDON).getMillis();
+
+        // act
+        final long quote = underTest.quote(pickupTime, LONDON, 5000001, 600001);
+
+        // assert
+        assertEquals(underTest.quote(pickupTime, LONDON, 5010000, 601000), quote);
+    }
+
+    @Test
+    public void shouldServeQuotesWithinOneTariffFromCache() {
+
+        // arrange - two weekday daytime pickups, on different days
+        final long monday = new DateTime(2013, 11, 25, 10, 0, LONDON).getMillis();
+        final long tuesday = new DateTime(2013, 11, 26, 14, 30, LONDON).getMillis();
+
+        // act
+        final long first = underTest.quote(monday, LONDON, 5000000, 900000);
+        final long second = underTest.quote(tuesday, LONDON, 5000000, 900000);
+
+        // assert
+        assertEquals(first, second);
+        assertEquals(1, underTest.getCacheMisses());
+        assertEquals(1, underTest.getCacheHits());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedQuotes() {
+
+        // arrange
+        final FareQuoter underTest = new FareQuoter(tariffLookup, FareQuoter.DEFAULT_DISTANCE_BUCKET, FareQuoter.DEFAULT_DURATION_BUCKET, 2);
+        final long pickupTime = new DateTime(2013, 11, 25, 10, 0, LONDON).getMillis();
+        underTest.quote(pickupTime, LONDON, 1000000, 300000);
+        underTest.quote(pickupTime, LONDON, 2000000, 300000);
+
+        // act
+        underTest.quote(pickupTime, LONDON, 1000000, 300000);
+        underTest.quote(pickupTime, LONDON, 3000000, 300000);
+        underTest.quote(pickupTime, LONDON, 1000000, 300000);
+        underTest.quote(pickupTime, LONDON, 2000000, 300000);
+
+        // assert
+        assertEquals(2, underTest.getCacheHits());
+        assertEquals(4, underTest.getCacheMisses());
+    }
+
+    /**
+     * Checks the quote against the fare of a meter polled every tenth of a second, the taxi travelling at a steady
+     * speed.
+     */
+    private void assertQuoteAsPolled(final DateTime pickupTime, final long distance, final long duration) {
+        final FixedPointFareCalculator fareCalculator = new FixedPointFareCalculator(tariffLookup);
+        final FixedPointFare fare = fareCalculator.getFlagFall(pickupTime, new FixedPointFare());
+        for (long journeyDuration = 100; journeyDuration <= duration; journeyDuration += 100) {
+            fareCalculator.catchUpFare(fare, journeyDuration, distance * journeyDuration / duration,
+                    pickupTime.getMillis() + journeyDuration, pickupTime.getZone());
+        }
+        assertEquals(pickupTime+": "+distance+"mm in "+duration+"ms",
+                fare.getAmount(), underTest.quote(pickupTime.getMillis(), pickupTime.getZone(), distance, duration));
+    }
+
+}
@@ -0,0 +1,201 @@
+package uk.co.epsilontechnologies.taximeter.calculator;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import uk.co.epsilontechnologies.taximeter.model.Fare;
+import uk.co.epsilontechnologies.taximeter.model.FixedPointFare;
+import uk.co.epsilontechnologies.taximeter.tariff.Tariff1;
+import uk.co.epsilontechnologies.taximeter.tariff.TariffLookup;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromMillimetres;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.fromMillis;
+import static uk.co.epsilontechnologies.taximeter.utils.FixedPointUtils.measuredMillimetres;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+/**
+ * <p>Test Class for {@link FixedPointFareCalculator}
+ *
+ * @author Shane Gibson
+ */
+public class FixedPointFareCalculatorTest {
+
+    private FixedPointFareCalculator underTest;
+
+    @Mock
+    private TariffLookup mockTariffLookup;
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+        when(mockTariffLookup.lookupTariff(any(DateTime.class))).thenReturn(new Tariff1());
+        this.underTest = new FixedPointFareCalculator(mockTariffLookup);
+    }
+
+    @Test
+    public void shouldGetFlagFallForTariff() {
+
+        // act
+        final FixedPointFare result = this.underTest.getFlagFall(new DateTime(), new FixedPointFare());
+
+        // assert
+        assertEquals(240, result.getAmount());
+        assertEquals(254600, result.getJourneyDistanceAccountedFor());
+        assertEquals(54800, result.getJourneyDurationAccountedFor());
+    }
+
+    @Test
+    public void shouldNotIncrementFareWhenMinimumChargeNotExceeded() {
+
+        // arrange
+        final FixedPointFare fare = new FixedPointFare().set(240, 254600, 54800);
+
+        // act
+        final boolean result = this.underTest.calculateFare(fare, 40000, 100000, new DateTime());
+
+        // assert
+        assertFalse(result);
+        assertEquals(240, fare.getAmount());
+        assertEquals(254600, fare.getJourneyDistanceAccountedFor());
+        assertEquals(54800, fare.getJourneyDurationAccountedFor());
+    }
+
+    @Test
+    public void shouldIncrementFareWhenTimeLimitExceeded() {
+
+        // arrange
+        final FixedPointFare fare = new FixedPointFare().set(240, 254600, 54800);
+
+        // act
+        final boolean result = this.underTest.calculateFare(fare, 60000, 250000, new DateTime());
+
+        // assert
+        assertTrue(result);
+        assertEquals(260, fare.getAmount());
+        assertEquals(377300, fare.getJourneyDistanceAccountedFor());
+        assertEquals(82200, fare.getJourneyDurationAccountedFor());
+    }
+
+    @Test
+    public void shouldIncrementFareWhenDistanceLimitExceeded() {
+
+        // arrange
+        final FixedPointFare fare = new FixedPointFare().set(240, 254600, 54800);
+
+        // act
+        final boolean result = this.underTest.calculateFare(fare, 40000, 270000, new DateTime());
+
+        // assert
+        assertTrue(result);
+        assertEquals(260, fare.getAmount());
+        assertEquals(381900, fare.getJourneyDistanceAccountedFor());
+        assertEquals(67400, fare.getJourneyDurationAccountedFor());
+    }
+
+    @Test
+    public void shouldIncrementHighFareAccordingToHighFareSubTariff() {
+
+        // arrange
+        final FixedPointFare fare = new FixedPointFare().set(1720, 9674800, 2082400);
+
+        // act
+        this.underTest.calculateFare(fare, 2082000, 9700000, new DateTime());
+
+        // assert
+        assertEquals(1740, fare.getAmount());
+        assertEquals(9764000, fare.getJourneyDistanceAccountedFor());
+        assertEquals(2101200, fare.getJourneyDurationAccountedFor());
+    }
+
+    @Test
+    public void shouldCalculateTheSameFaresAsTheFareCalculator() {
+
+        // arrange
+        final FareCalculator fareCalculator = new FareCalculator(mockTariffLookup);
+        final DateTime now = new DateTime();
+        Fare expected = fareCalculator.getFlagFall(now);
+        final FixedPointFare actual = this.underTest.getFlagFall(now, new FixedPointFare());
+
+        // act / assert - alternate between driving and waiting in traffic for an hour, ticking every tenth of a second
+        long distance = 0;
+        for (long duration = 100; duration <= 3600000; duration += 100) {
+            distance += (duration / 60000) % 2 == 0 ? 700 : 0;
+            expected = fareCalculator.calculateFare(
+                    expected, BigDecimal.valueOf(duration, 3), BigDecimal.valueOf(distance, 3), now);
+            this.underTest.calculateFare(actual, duration, distance, now);
+            assertEquals(0, expected.getAmount().compareTo(actual.toFare().getAmount()));
+            assertEquals(0, expected.getJourneyDistanceAccountedFor().compareTo(actual.toFare().getJourneyDistanceAccountedFor()));
+            assertEquals(0, expected.getJourneyDurationAccountedFor().compareTo(actual.toFare().getJourneyDurationAccountedFor()));
+        }
+    }
+
+    @Test
+    public void shouldCalculateTheSameFaresAsTheFareCalculatorForDistancesMeasuredToTheMillimetre() {
+
+        // arrange - odometer readings finer than a millimetre, the first when the flag fall time limit has run out
+        final FareCalculator fareCalculator = new FareCalculator(mockTariffLookup);
+        final DateTime now = new DateTime();
+        final BigDecimal[] readings = { new BigDecimal("100.0004"), new BigDecimal("227.3005") };
+        final long[] durations = { 60000, 70000 };
+        Fare expected = fareCalculator.getFlagFall(now);
+        Fare unmeasured = expected;
+        final FixedPointFare actual = this.underTest.getFlagFall(now, new FixedPointFare());
+
+        for (int i = 0; i < readings.length; i++) {
+
+            // act
+            final long distance = measuredMillimetres(readings[i]);
+            expected = fareCalculator.catchUpFare(expected, fromMillis(durations[i]), fromMillimetres(distance), now);
+            unmeasured = fareCalculator.catchUpFare(unmeasured, fromMillis(durations[i]), readings[i], now);
+            this.underTest.catchUpFare(actual, durations[i], distance, now);
+
+            // assert
+            assertEquals(0, expected.getAmount().compareTo(actual.toFare().getAmount()));
+            assertEquals(0, expected.getJourneyDistanceAccountedFor().compareTo(actual.toFare().getJourneyDistanceAccountedFor()));
+        }
+        assertEquals(260, actual.getAmount());
+        assertEquals(227301, actual.getJourneyDistanceAccountedFor());
+        // unmeasured, the reference accounts for 227.3004 metres, and so charges again at 227.3005
+        assertEquals(new BigDecimal("2.80"), unmeasured.getAmount());
+    }
+
+    @Test
+    public void shouldCatchUpIdenticallyToRepeatedCalculation() {
+
+        // arrange
+        final long[][] jumps = {
+                { 60000, 10000000 },
+                { 7200000, 300000 },
+                { 900000, 2500500 },
+                { 55000, 254700 },
+                { 2000300, 7000000 }
+        };
+
+        for (final long[] jump : jumps) {
+            final FixedPointFare result = new FixedPointFare().set(240, 254600, 54800);
+            final FixedPointFare expected = new FixedPointFare().set(240, 254600, 54800);
+
+            // act
+            final long increments = this.underTest.catchUpFare(result, jump[0], jump[1], new DateTime());
+
+            // assert
+            long expectedIncrements = 0;
+            while (this.underTest.calculateFare(expected, jump[0], jump[1], new DateTime())) {
+                expectedIncrements++;
+            }
+            assertEquals(expectedIncrements, increments);
+            assertEquals(expected.getAmount(), result.getAmount());
+            assertEquals(expected.getJourneyDistanceAccountedFor(), result.getJourneyDistanceAccountedFor());
+            assertEquals(expected.getJourneyDurationAccountedFor(), result.getJourneyDurationAccountedFor());
+        }
+    }
+
+}
@@ -0,0 +1,213 @@
+package uk.co.epsilontechnologies.taximeter.checkpoint;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.co.epsilontechnologies.taximeter.Clock;
+import uk.co.epsilontechnologies.taximeter.Odometer;
+import uk.co.epsilontechnologies.taximeter.Poller;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.calculator.FareEngine;
+import uk.co.epsilontechnologies.taximeter.model.Fare;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Class for {@link MeterCheckpointer} and {@link CheckpointFile}.
+ *
+ * @author Shane Gibson
+ */
+public class MeterCheckpointerTest {
+
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private long now = new DateTime(2013, 11, 25, 19, 50, LONDON).getMillis();
+
+    private final Clock clock = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return now;
+        }
+        @Override
+        public long nanoTime() {
+            return now * 1000000;
+        }
+        @Override
+        public DateTimeZone getZone() {
+            return LONDON;
+        }
+    };
+
+    @Test
+    public void shouldResumeJourneyAsIfUninterruptedWithDecimalEngine() throws IOException {
+        shouldResumeJourneyAsIfUninterrupted(FareEngine.BIG_DECIMAL);
+    }
+
+    @Test
+    public void shouldResumeJourneyAsIfUninterruptedWithFixedPointEngine() throws IOException {
+        shouldResumeJourneyAsIfUninterrupted(FareEngine.FIXED_POINT);
+    }
+
+    @Test
+    public void shouldTimeResumedJourneyFromCheckpointAcrossRestart() throws IOException {
+
+        // arrange
+        final MeterCheckpointer underTest = new MeterCheckpointer(folder.newFile("checkpoint"));
+        final TflTaxiMeter meter = meter(FareEngine.FIXED_POINT, new ManualOdometer());
+        meter.startJourney();
+        now += 30000;
+        meter.run();
+        underTest.register(1, meter);
+        assertEquals(1, underTest.checkpoint());
+
+        // act - the host is down for a minute
+        now += 60000;
+        final Map<Long, TflTaxiMeter> recovered = new MeterCheckpointer(underTest.getFile()).recover(factory(FareEngine.FIXED_POINT, new ManualOdometer()));
+
+        // assert
+        assertEquals(90.0, recovered.get(1L).getDuration().doubleValue(), 0.0001);
+    }
+
+    @Test
+    public void shouldNotCheckpointMetersWithoutJourneyInProgress() throws IOException {
+
+        // arrange
+        final MeterCheckpointer underTest = new MeterCheckpointer(folder.newFile("checkpoint"));
+        final TflTaxiMeter idle = meter(FareEngine.FIXED_POINT, new ManualOdometer());
+        final TflTaxiMeter ended = meter(FareEngine.FIXED_POINT, new ManualOdometer());
+        ended.startJourney();
+        ended.endJourney();
+        underTest.register(1, idle);
+        underTest.register(2, ended);
+
+        // act
+        final int checkpointed = underTest.checkpoint();
+
+        // assert
+        assertEquals(0, checkpointed);
+        assertTrue(underTest.recover(factory(FareEngine.FIXED_POINT, new ManualOdometer())).isEmpty());
+    }
+
+    @Test
+    public void shouldReadBackWrittenCheckpoints() throws IOException {
+
+        // arrange
+        final File file = folder.newFile("checkpoint");
+        final MeterCheckpoint london = new MeterCheckpoint(1, 1000, LONDON, 2000, 1000, 254600, 10,
+                new Fare(new BigDecimal("2.60"), new BigDecimal("381.9123"), new BigDecimal("82.2")));
+        final MeterCheckpoint utc = new MeterCheckpoint(2, 3000, DateTimeZone.UTC, 4000, 1000, 0, 0,
+                new Fare(new BigDecimal("2.40"), new BigDecimal("254.6"), new BigDecimal("54.8")));
+
+        // act
+        CheckpointFile.write(file, Arrays.asList(london, utc));
+        final List<MeterCheckpoint> checkpoints = CheckpointFile.read(file);
+
+        // assert
+        assertEquals(2, checkpoints.size());
+        assertEquals(1, checkpoints.get(0).getMeterId());
+        assertEquals(LONDON, checkpoints.get(0).getZone());
+        assertEquals(1000, checkpoints.get(0).getStartTime());
+        assertEquals(2000, checkpoints.get(0).getCheckpointTime());
+        assertEquals(254600, checkpoints.get(0).getDistance());
+        assertEquals(10, checkpoints.get(0).getSequence());
+        assertEquals(london.getFare(), checkpoints.get(0).getFare());
+        assertEquals(DateTimeZone.UTC, checkpoints.get(1).getZone());
+        assertEquals(utc.getFare(), checkpoints.get(1).getFare());
+    }
+
+    private void shouldResumeJourneyAsIfUninterrupted(final FareEngine fareEngine) throws IOException {
+
+        // arrange - a Monday evening journey at 10 metres per second, through the 20:00 tariff change
+        final ManualOdometer uninterruptedOdometer = new ManualOdometer();
+        final TflTaxiMeter uninterrupted = meter(fareEngine, uninterruptedOdometer);
+        final ManualOdometer checkpointedOdometer = new ManualOdometer();
+        final TflTaxiMeter checkpointed = meter(fareEngine, checkpointedOdometer);
+        final MeterCheckpointer underTest = new MeterCheckpointer(folder.newFile("checkpoint"));
+        underTest.register(7, checkpointed);
+        uninterrupted.startJourney();
+        checkpointed.startJourney();
+        for (int tick = 0; tick < 5 * 600; tick++) {
+            now += 100;
+            uninterruptedOdometer.travel(new BigDecimal("1.0"));
+            checkpointedOdometer.travel(new BigDecimal("1.0"));
+            uninterrupted.run();
+            checkpointed.run();
+        }
+        underTest.checkpoint();
+
+        // act - the host restarts, and the odometer starts again from zero
+        final ManualOdometer recoveredOdometer = new ManualOdometer();
+        final TflTaxiMeter recovered = new MeterCheckpointer(underTest.getFile()).recover(factory(fareEngine, recoveredOdometer)).get(7L);
+        for (int tick = 0; tick < 15 * 600; tick++) {
+            now += 100;
+            uninterruptedOdometer.travel(new BigDecimal("1.0"));
+            recoveredOdometer.travel(new BigDecimal("1.0"));
+            uninterrupted.run();
+            recovered.run();
+            // assert
+            assertEquals(uninterrupted.getFare(), recovered.getFare());
+        }
+        assertEquals(uninterrupted.getSnapshot().getSequence(), recovered.getSnapshot().getSequence());
+        assertEquals(uninterrupted.getSnapshot().getDistance(), recovered.getSnapshot().getDistance());
+        assertEquals(uninterrupted.getSnapshot().getDuration(), recovered.getSnapshot().getDuration());
+    }
+
+    private TflTaxiMeter meter(final FareEngine fareEngine, final Odometer odometer) {
+        return TflTaxiMeter.builder(odometer).fareEngine(fareEngine).poller(new ManualPoller()).clock(clock).build();
+    }
+
+    private MeterCheckpointer.MeterFactory factory(final FareEngine fareEngine, final Odometer odometer) {
+        return new MeterCheckpointer.MeterFactory() {
+            @Override
+            public TflTaxiMeter create(final long meterId) {
+                return meter(fareEngine, odometer);
+            }
+        };
+    }
+
+    private static final class ManualOdometer implements Odometer {
+
+        private BigDecimal distance = BigDecimal.ZERO;
+
+        private void travel(final BigDecimal metres) {
+            distance = distance.add(metres);
+        }
+
+        @Override
+        public BigDecimal getDistance() {
+            return distance;
+        }
+
+        @Override
+        public void reset() {
+            distance = BigDecimal.ZERO;
+        }
+
+    }
+
+    private static final class ManualPoller extends Poller {
+
+        @Override
+        public synchronized void start(final Runnable runnable) {
+        }
+
+        @Override
+        public synchronized void stop() {
+        }
+
+    }
+
+}
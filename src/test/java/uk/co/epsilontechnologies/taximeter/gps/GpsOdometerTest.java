@@ -0,0 +1,153 @@
+package uk.co.epsilontechnologies.taximeter.gps;
+
+import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.ObservableOdometer;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test Class for {@link GpsOdometer}.
+ *
+ * @author Shane Gibson
+ */
+public class GpsOdometerTest {
+
+    /**
+     * A thousandth of a degree of latitude, in metres.
+     */
+    private static final double MILLIDEGREE = 111.195;
+
+    @Test
+    public void shouldAccumulateDistanceBetweenFixes() {
+
+        // arrange - ten metres per second, due north along the Greenwich meridian
+        final GpsOdometer underTest = new GpsOdometer(1, GpsOdometer.DEFAULT_MAXIMUM_SPEED);
+
+        // act
+        for (int fix = 0; fix <= 10; fix++) {
+            underTest.addFix(fix * 11120L, 51.5 + fix * 0.001, 0);
+        }
+
+        // assert
+        assertEquals(10 * MILLIDEGREE, underTest.getDistance().doubleValue(), 0.01);
+        assertEquals(underTest.getDistance().movePointRight(3).longValue(), underTest.getDistanceInMillimetres());
+    }
+
+    @Test
+    public void shouldApproximateHaversineOverShortDistances() {
+
+        // arrange - 100 metres north-east across London
+        final double latitude1 = 51.5007, longitude1 = -0.1246, latitude2 = 51.50134, longitude2 = -0.12357;
+        final double sinHalfLatitude = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        final double sinHalfLongitude = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        final double haversine = 2 * 6371008.8 * Math.asin(Math.sqrt(sinHalfLatitude * sinHalfLatitude
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * sinHalfLongitude * sinHalfLongitude));
+
+        // act
+        final double distance = GpsOdometer.equirectangularDistance(latitude1, longitude1, latitude2, longitude2);
+
+        // assert - to within a millimetre
+        assertEquals(haversine, distance, 0.001);
+    }
+
+    @Test
+    public void shouldTakeShortWayRoundAcrossAntimeridian() {
+
+        // act
+        final double distance = GpsOdometer.equirectangularDistance(0, 179.9995, 0, -179.9995);
+
+        // assert
+        assertEquals(111.2, distance, 0.1);
+    }
+
+    @Test
+    public void shouldDropOutlierFixes() {
+
+        // arrange
+        final GpsOdometer underTest = new GpsOdometer(1, GpsOdometer.DEFAULT_MAXIMUM_SPEED);
+        underTest.addFix(0, 51.5, 0);
+
+        // act - a jump of a kilometre in a second, a fix from the past, an invalid fix, then a good fix
+        underTest.addFix(1000, 51.509, 0);
+        underTest.addFix(-1000, 51.5001, 0);
+        underTest.addFix(2000, Double.NaN, 0);
+        underTest.addFix(10000, 51.501, 0);
+
+        // assert
+        assertEquals(3, underTest.getDroppedFixes());
+        assertEquals(MILLIDEGREE, underTest.getDistance().doubleValue(), 0.01);
+    }
+
+    @Test
+    public void shouldPublishDistanceOnceBatchIsFull() {
+
+        // arrange
+        final GpsOdometer underTest = new GpsOdometer(3, GpsOdometer.DEFAULT_MAXIMUM_SPEED);
+        underTest.addFix(0, 51.5, 0);
+        underTest.addFix(10000, 51.501, 0);
+
+        // act / assert
+        assertEquals(BigDecimal.ZERO, underTest.getDistance());
+        underTest.addFix(20000, 51.502, 0);
+        assertEquals(2 * MILLIDEGREE, underTest.getDistance().doubleValue(), 0.01);
+        underTest.addFix(30000, 51.503, 0);
+        assertEquals(2 * MILLIDEGREE, underTest.getDistance().doubleValue(), 0.01);
+        underTest.flush();
+        assertEquals(3 * MILLIDEGREE, underTest.getDistance().doubleValue(), 0.01);
+    }
+
+    @Test
+    public void shouldNotAllocateOnGetDistance() {
+
+        // arrange
+        final GpsOdometer underTest = new GpsOdometer(1, GpsOdometer.DEFAULT_MAXIMUM_SPEED);
+        underTest.addFix(0, 51.5, 0);
+        underTest.addFix(10000, 51.501, 0);
+
+        // act / assert
+        assertSame(underTest.getDistance(), underTest.getDistance());
+    }
+
+    @Test
+    public void shouldNotifyListenerOfDistance() {
+
+        // arrange
+        final GpsOdometer underTest = new GpsOdometer(1, GpsOdometer.DEFAULT_MAXIMUM_SPEED);
+        final BigDecimal[] notified = new BigDecimal[1];
+        underTest.setDistanceListener(new ObservableOdometer.DistanceListener() {
+            @Override
+            public void distanceChanged(final BigDecimal distance) {
+                notified[0] = distance;
+            }
+        });
+        underTest.addFix(0, 51.5, 0);
+
+        // act
+        underTest.addFix(10000, 51.501, 0);
+
+        // assert
+        assertSame(underTest.getDistance(), notified[0]);
+    }
+
+    @Test
+    public void shouldStartAfreshFromNextFixWhenReset() {
+
+        // arrange
+        final GpsOdometer underTest = new GpsOdometer(1, GpsOdometer.DEFAULT_MAXIMUM_SPEED);
+        underTest.addFix(0, 51.5, 0);
+        underTest.addFix(10000, 51.501, 0);
+
+        // act - the taxi is reset well away from the last fix
+        underTest.reset();
+        underTest.addFix(600000, 51.6, 0);
+        underTest.addFix(610000, 51.601, 0);
+
+        // assert
+        assertEquals(MILLIDEGREE, underTest.getDistance().doubleValue(), 0.01);
+        assertEquals(0, underTest.getDroppedFixes());
+    }
+
+}
@@ -0,0 +1,201 @@
+package uk.co.epsilontechnologies.taximeter.journal;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.co.epsilontechnologies.taximeter.Clock;
+import uk.co.epsilontechnologies.taximeter.Odometer;
+import uk.co.epsilontechnologies.taximeter.Poller;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.calculator.FareEngine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Test Class for {@link JourneyJournal} and {@link JournalReader}.
+ *
+ * @author Shane Gibson
+ */
+public class JourneyJournalTest {
+
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldReadBackAppendedRecords() throws IOException {
+
+        // arrange
+        final File directory = folder.newFolder("journal");
+        final JourneyJournal underTest = new JourneyJournal(directory, 4096, ForcePolicy.ON_ROLL);
+
+        // act
+        underTest.append(7, 0, 1371029400000L, 0, 0, 240, 0);
+        underTest.append(7, 12, 1371029401200L, 254600, 1200, 260, 1);
+        underTest.close();
+
+        // assert
+        final JournalReader reader = new JournalReader(directory);
+        final JournalRecord flagFall = reader.next();
+        assertEquals(7, flagFall.getMeterId());
+        assertEquals(0, flagFall.getSequence());
+        assertEquals(1371029400000L, flagFall.getTimestamp());
+        assertEquals(240, flagFall.getFare());
+        final JournalRecord increment = reader.next();
+        assertEquals(12, increment.getSequence());
+        assertEquals(1371029401200L, increment.getTimestamp());
+        assertEquals(254600, increment.getDistance());
+        assertEquals(1200, increment.getDuration());
+        assertEquals(260, increment.getFare());
+        assertEquals(1, increment.getBand());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void shouldRollSegmentsBySize() throws IOException {
+
+        // arrange - room for three records per segment
+        final File directory = folder.newFolder("journal");
+        final JourneyJournal underTest = new JourneyJournal(
+                directory, JourneyJournal.HEADER_SIZE + 3 * JourneyJournal.RECORD_SIZE, ForcePolicy.NEVER);
+
+        // act
+        for (int i = 0; i < 10; i++) {
+            underTest.append(1, i, i, i, i, i, 0);
+        }
+        underTest.close();
+
+        // assert
+        assertEquals(4, JourneyJournal.segments(directory).length);
+        final JournalReader reader = new JournalReader(directory);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, reader.next().getSequence());
+        }
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void shouldAppendAfterExistingSegmentsWhenReopened() throws IOException {
+
+        // arrange
+        final File directory = folder.newFolder("journal");
+        final JourneyJournal first = new JourneyJournal(directory, 4096, ForcePolicy.ON_ROLL);
+        first.append(1, 0, 0, 0, 0, 240, 0);
+        first.close();
+
+        // act
+        final JourneyJournal second = new JourneyJournal(directory, 4096, ForcePolicy.EVERY_RECORD);
+        second.append(2, 0, 0, 0, 0, 240, 0);
+        second.close();
+
+        // assert
+        final JournalReader reader = new JournalReader(directory);
+        assertEquals(1, reader.next().getMeterId());
+        assertEquals(2, reader.next().getMeterId());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void shouldSkipUncommittedRecords() throws IOException {
+
+        // arrange
+        final File directory = folder.newFolder("journal");
+        final JourneyJournal underTest = new JourneyJournal(directory, 4096, ForcePolicy.ON_ROLL);
+        underTest.append(1, 0, 0, 0, 0, 240, 0);
+        underTest.append(1, 1, 0, 0, 0, 260, 0);
+        underTest.append(1, 2, 0, 0, 0, 280, 0);
+        underTest.close();
+
+        // act - as if the meter had crashed part-way through appending the second record
+        final RandomAccessFile segment = new RandomAccessFile(JourneyJournal.segments(directory)[0], "rw");
+        segment.seek(JourneyJournal.HEADER_SIZE + JourneyJournal.RECORD_SIZE + JourneyJournal.COMMIT_OFFSET);
+        segment.writeInt(0);
+        segment.close();
+
+        // assert
+        final JournalReader reader = new JournalReader(directory);
+        assertEquals(240, reader.next().getFare());
+        assertEquals(280, reader.next().getFare());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void shouldJournalEveryFareChangeOfMeter() throws IOException {
+
+        // arrange - a weekday morning, in tariff 1
+        final File directory = folder.newFolder("journal");
+        final JourneyJournal journal = new JourneyJournal(directory, 4096, ForcePolicy.ON_ROLL);
+        final long[] now = { new DateTime(2013, 11, 25, 10, 0, LONDON).getMillis() };
+        final TflTaxiMeter meter = TflTaxiMeter.builder(new Odometer() {
+            @Override
+            public BigDecimal getDistance() {
+                return BigDecimal.ZERO;
+            }
+            @Override
+            public void reset() {
+            }
+        }).fareEngine(FareEngine.FIXED_POINT).journal(journal, 42).poller(new Poller() {
+            @Override
+            public synchronized void start(final Runnable runnable) {
+            }
+            @Override
+            public synchronized void stop() {
+            }
+        }).clock(new Clock() {
+            @Override
+            public DateTime getNow() {
+                return new DateTime(now[0], LONDON);
+            }
+        }).build();
+
+        // act - tick every tenth of a second for a minute, stood still
+        meter.startJourney();
+        for (int tick = 0; tick < 600; tick++) {
+            now[0] += 100;
+            meter.run();
+        }
+        meter.endJourney();
+        journal.close();
+
+        // assert - the flag fall, then an increment at the first tick beyond 54.8 seconds
+        final JournalReader reader = new JournalReader(directory);
+        final JournalRecord flagFall = reader.next();
+        assertEquals(42, flagFall.getMeterId());
+        assertEquals(0, flagFall.getSequence());
+        assertEquals(240, flagFall.getFare());
+        final JournalRecord increment = reader.next();
+        assertEquals(549, increment.getSequence());
+        assertEquals(54900, increment.getDuration());
+        assertEquals(260, increment.getFare());
+        assertEquals(0, increment.getBand());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void shouldRejectAppendOnceClosed() throws IOException {
+
+        // arrange
+        final JourneyJournal underTest = new JourneyJournal(folder.newFolder("journal"), 4096, ForcePolicy.ON_ROLL);
+        underTest.close();
+
+        // act
+        try {
+            underTest.append(1, 0, 0, 0, 0, 240, 0);
+            fail("Expected IOException");
+        } catch (final IOException e) {
+            // assert
+            assertEquals(true, e.getMessage().startsWith("Journal closed"));
+        }
+    }
+
+}
@@ -0,0 +1,224 @@
+package uk.co.epsilontechnologies.taximeter.metrics;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.Clock;
+import uk.co.epsilontechnologies.taximeter.Odometer;
+import uk.co.epsilontechnologies.taximeter.Poller;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.calculator.FareEngine;
+import uk.co.epsilontechnologies.taximeter.scheduler.TickScheduler;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * <p>Test Class for {@link MeterMetrics}
+ *
+ * @author Shane Gibson
+ */
+public class MeterMetricsTest {
+
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    private long now = new DateTime(2013, 11, 25, 10, 0, LONDON).getMillis();
+
+    @Test
+    public void shouldRecordTicksAndJourneysOfMeter() {
+
+        // arrange
+        final MeterMetrics underTest = new MeterMetrics(1);
+        final TflTaxiMeter meter = TflTaxiMeter.builder(new StationaryOdometer())
+                .fareEngine(FareEngine.FIXED_POINT)
+                .poller(new Poller(new IdleTickScheduler(), underTest))
+                .clock(new Clock() {
+                    @Override
+                    public DateTime getNow() {
+                        return new DateTime(now, LONDON);
+                    }
+                })
+                .metrics(underTest)
+                .build();
+
+        // act
+        meter.startJourney();
+        final long activeJourneys = underTest.getActiveJourneys();
+        now += 30000;
+        meter.run();
+        now += 30000;
+        meter.run();
+        meter.endJourney();
+
+        // assert
+        assertEquals(1, activeJourneys);
+        assertEquals(0, underTest.getActiveJourneys());
+        assertEquals(2, underTest.getTicks());
+        assertEquals(1, underTest.getIncrementTicks());
+        assertArrayEquals(new long[] { 2, 0, 0, 0, 0, 0, 0, 0 }, underTest.getTicksByBand());
+        assertEquals(2, underTest.getTickDuration().getCount());
+    }
+
+    @Test
+    public void shouldCountTheTicksSinceTheLatestSampleWhenTheJourneyEnds() {
+
+        // arrange
+        final MeterMetrics underTest = new MeterMetrics();
+        final TflTaxiMeter meter = TflTaxiMeter.builder(new StationaryOdometer())
+                .fareEngine(FareEngine.FIXED_POINT)
+                .poller(new Poller(new IdleTickScheduler(), underTest))
+                .clock(new Clock() {
+                    @Override
+                    public DateTime getNow() {
+                        return new DateTime(now, LONDON);
+                    }
+                })
+                .metrics(underTest)
+                .build();
+        meter.startJourney();
+        for (int tick = 0; tick < 3; tick++) {
+            now += 100;
+            meter.run();
+        }
+
+        // act
+        meter.endJourney();
+
+        // assert - none of the ticks was sampled
+        assertEquals(3, underTest.getTicks());
+        assertArrayEquals(new long[] { 3, 0, 0, 0, 0, 0, 0, 0 }, underTest.getTicksByBand());
+        assertEquals(0, underTest.getTickDuration().getCount());
+    }
+
+    @Test
+    public void shouldCountFromManyThreads() throws InterruptedException {
+
+        // arrange
+        final MeterMetrics underTest = new MeterMetrics();
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int tick = 0; tick < 10000; tick++) {
+                        underTest.recordTick(tick % 3, tick % 2 == 0);
+                    }
+                }
+            }));
+        }
+
+        // act
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        // assert
+        assertEquals(80000, underTest.getTicks());
+        assertEquals(40000, underTest.getIncrementTicks());
+        final long[] ticksByBand = underTest.getTicksByBand();
+        assertEquals(80000, ticksByBand[0] + ticksByBand[1] + ticksByBand[2]);
+    }
+
+    @Test
+    public void shouldEstimatePercentilesWithinFactorOfTwo() {
+
+        // arrange
+        final Histogram underTest = new Histogram();
+
+        // act
+        for (int value = 1; value <= 1000; value++) {
+            underTest.record(value);
+        }
+
+        // assert
+        assertEquals(1000, underTest.getCount());
+        assertEquals(500, underTest.getMean());
+        assertEquals(1000, underTest.getMax());
+        final long median = underTest.getPercentile(50);
+        assertTrue("median " + median, median >= 500 && median < 1000);
+        assertEquals(1000, underTest.getPercentile(99));
+    }
+
+    @Test
+    public void shouldSampleOneInEveryInterval() {
+
+        // arrange
+        final MeterMetrics underTest = new MeterMetrics(4);
+
+        // act / assert
+        assertTrue(underTest.isSampled(0));
+        assertTrue(!underTest.isSampled(1));
+        assertTrue(!underTest.isSampled(3));
+        assertTrue(underTest.isSampled(4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectSampleIntervalThatIsNotPowerOfTwo() {
+
+        // act
+        new MeterMetrics(10);
+
+        // assert
+        fail("IllegalArgumentException was expected but not thrown");
+    }
+
+    @Test
+    public void shouldExposeMetricsOverJmx() throws Exception {
+
+        // arrange
+        final MeterMetrics underTest = new MeterMetrics().register("test");
+        underTest.recordTick(0, true);
+
+        // act
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final Object result = server.getAttribute(
+                new ObjectName("uk.co.epsilontechnologies.taximeter:type=MeterMetrics,name=\"test\""), "IncrementTicks");
+
+        // assert
+        assertEquals(1L, result);
+    }
+
+    private static final class StationaryOdometer implements Odometer {
+
+        @Override
+        public BigDecimal getDistance() {
+            return BigDecimal.ZERO;
+        }
+
+        @Override
+        public void reset() {
+        }
+
+    }
+
+    private static final class IdleTickScheduler implements TickScheduler {
+
+        @Override
+        public ScheduledTick scheduleAtFixedRate(final Runnable task, final long periodInMillis) {
+            return schedule(task, periodInMillis);
+        }
+
+        @Override
+        public ScheduledTick schedule(final Runnable task, final long delayInMillis) {
+            return new ScheduledTick() {
+                @Override
+                public void cancel() {
+                }
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,48 @@
+package uk.co.epsilontechnologies.taximeter.scheduler;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test Class for {@link ExecutorTickScheduler}.
+ *
+ * @author Shane Gibson
+ */
+public class ExecutorTickSchedulerTest {
+
+    private final ScheduledThreadPoolExecutor executor = ExecutorTickScheduler.newSharedExecutor();
+
+    private final ExecutorTickScheduler underTest = new ExecutorTickScheduler(executor);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldRemoveCancelledTicksFromTheQueue() {
+
+        // arrange
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        for (int i = 0; i < 100; i++) {
+            underTest.schedule(task, 60000).cancel();
+        }
+
+        // act
+        final TickScheduler.ScheduledTick tick = underTest.schedule(task, 60000);
+
+        // assert
+        assertEquals(1, executor.getQueue().size());
+        tick.cancel();
+        assertEquals(0, executor.getQueue().size());
+    }
+
+}
@@ -0,0 +1,139 @@
+package uk.co.epsilontechnologies.taximeter.scheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Class for {@link HashedWheelTickScheduler}.
+ *
+ * @author Shane Gibson
+ */
+public class HashedWheelTickSchedulerTest {
+
+    private HashedWheelTickScheduler underTest;
+
+    @Before
+    public void setUp() {
+        underTest = new HashedWheelTickScheduler(2, 10, TimeUnit.MILLISECONDS, 8);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        underTest.shutdown();
+    }
+
+    @Test
+    public void shouldRunScheduledTickOnce() throws InterruptedException {
+
+        // arrange
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        // act
+        underTest.schedule(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+                latch.countDown();
+            }
+        }, 50);
+
+        // assert
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void shouldRunTickBeyondOneTurnOfTheWheel() throws InterruptedException {
+
+        // arrange
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long start = System.nanoTime();
+
+        // act
+        underTest.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 250);
+
+        // assert
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 250);
+    }
+
+    @Test
+    public void shouldRunTickAtFixedRateUntilCancelled() throws InterruptedException {
+
+        // arrange
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(5);
+
+        // act
+        final TickScheduler.ScheduledTick tick = underTest.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+                latch.countDown();
+            }
+        }, 20);
+
+        // assert
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        tick.cancel();
+        Thread.sleep(50);
+        final int runsAfterCancel = runs.get();
+        Thread.sleep(100);
+        assertEquals(runsAfterCancel, runs.get());
+    }
+
+    @Test
+    public void shouldNotRunCancelledTick() throws InterruptedException {
+
+        // arrange
+        final AtomicInteger runs = new AtomicInteger();
+        final TickScheduler.ScheduledTick tick = underTest.schedule(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        }, 50);
+
+        // act
+        tick.cancel();
+
+        // assert
+        Thread.sleep(150);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void shouldKeepRunningTicksAfterTaskFails() throws InterruptedException {
+
+        // arrange
+        final CountDownLatch latch = new CountDownLatch(3);
+
+        // act
+        underTest.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+                throw new IllegalStateException("expected");
+            }
+        }, 10);
+
+        // assert
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+}
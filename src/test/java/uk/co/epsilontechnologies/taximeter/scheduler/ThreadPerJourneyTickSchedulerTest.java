@@ -0,0 +1,180 @@
+package uk.co.epsilontechnologies.taximeter.scheduler;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test Class for {@link ThreadPerJourneyTickScheduler}.
+ *
+ * @author Shane Gibson
+ */
+public class ThreadPerJourneyTickSchedulerTest {
+
+    private final ThreadPerJourneyTickScheduler underTest = new ThreadPerJourneyTickScheduler();
+
+    @Test
+    public void shouldRunScheduledTickOnce() throws InterruptedException {
+
+        // arrange
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        // act
+        underTest.schedule(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+                latch.countDown();
+            }
+        }, 50);
+
+        // assert
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void shouldRunRepeatingTickUntilCancelled() throws InterruptedException {
+
+        // arrange
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(3);
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+                latch.countDown();
+            }
+        };
+
+        // act
+        final TickScheduler.ScheduledTick tick = underTest.scheduleAtFixedRate(task, 20);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        tick.cancel();
+        Thread.sleep(50);
+        final int runsAfterCancel = runs.get();
+        Thread.sleep(100);
+
+        // assert
+        assertEquals(runsAfterCancel, runs.get());
+    }
+
+    @Test
+    public void shouldNotRunCancelledTick() throws InterruptedException {
+
+        // arrange
+        final AtomicInteger runs = new AtomicInteger();
+        final TickScheduler.ScheduledTick tick = underTest.schedule(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        }, 50);
+
+        // act
+        tick.cancel();
+        Thread.sleep(150);
+
+        // assert
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void shouldRunRescheduledTicksOnTheThreadOfTheJourney() throws InterruptedException {
+
+        // arrange - each tick reschedules the next, as an event driven meter does
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(3);
+        final AtomicReference<TickScheduler.ReschedulableTick> tick = new AtomicReference<>();
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                threads.add(Thread.currentThread());
+                latch.countDown();
+                if (latch.getCount() > 0) {
+                    assertTrue(tick.get().reschedule(this, 20));
+                }
+            }
+        };
+
+        // act
+        tick.set(underTest.schedule(task, 100));
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        tick.get().cancel();
+
+        // assert
+        assertEquals(3, threads.size());
+        assertSame(threads.get(0), threads.get(1));
+        assertSame(threads.get(0), threads.get(2));
+    }
+
+    @Test
+    public void shouldWakeTheJourneyWhenATickIsBroughtForward() throws InterruptedException {
+
+        // arrange - as when the odometer passes the distance at which the fare next increments
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+        final TickScheduler.ReschedulableTick tick = underTest.schedule(task, 60000);
+        Thread.sleep(50);
+
+        // act
+        final boolean result = tick.reschedule(task, 10);
+
+        // assert
+        assertTrue(result);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        tick.cancel();
+    }
+
+    @Test
+    public void shouldNotRescheduleCancelledTick() {
+
+        // arrange
+        final TickScheduler.ReschedulableTick tick = underTest.schedule(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, 60000);
+        tick.cancel();
+
+        // act
+        final boolean result = tick.reschedule(new Runnable() {
+            @Override
+            public void run() {
+                fail("Cancelled tick was run");
+            }
+        }, 0);
+
+        // assert
+        assertFalse(result);
+    }
+
+    @Test
+    public void shouldFallBackToPlatformThreadsWhenVirtualThreadsNotPreferred() {
+
+        // act
+        final ThreadPerJourneyTickScheduler platform = new ThreadPerJourneyTickScheduler(false);
+
+        // assert
+        assertFalse(platform.isVirtual());
+    }
+
+}
@@ -0,0 +1,156 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * <p>Test Class for {@link CachedTariffLookup}
+ *
+ * @author Shane Gibson
+ */
+public class CachedTariffLookupTest {
+
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    private final Tariff1 tariff1 = new Tariff1();
+    private final Tariff2 tariff2 = new Tariff2();
+    private final Tariff3 tariff3 = new Tariff3();
+
+    private final CountingTariffLookup tariffLookup = new CountingTariffLookup(tariff1, tariff2, tariff3);
+
+    private final CachedTariffLookup underTest = new CachedTariffLookup(tariffLookup);
+
+    @Test
+    public void shouldReuseTheTariffUntilTheNextChange() {
+
+        // arrange - Monday 25th November 2013, changing from Tariff 1 to Tariff 2 at 20:00
+        final long start = new DateTime(2013, 11, 25, 19, 58, LONDON).getMillis();
+        final long end = new DateTime(2013, 11, 25, 20, 2, LONDON).getMillis();
+        final long change = new DateTime(2013, 11, 25, 20, 0, LONDON).getMillis();
+
+        // act / assert - every tenth of a second
+        for (long now = start; now < end; now += 100) {
+            assertSame(now < change ? tariff1 : tariff2, underTest.lookupTariff(now, LONDON));
+            assertEquals(now < change ? 0 : 1, underTest.lookupBand(now, LONDON));
+        }
+        assertEquals(2, tariffLookup.lookups);
+    }
+
+    @Test
+    public void shouldRememberTheBandOfTheLatestTariffLookedUp() {
+
+        // arrange - Monday 25th November 2013, in Tariff 2 from 20:00
+        final long now = new DateTime(2013, 11, 25, 20, 30, LONDON).getMillis();
+        final int before = underTest.getLatestBand();
+
+        // act
+        underTest.lookupTariff(now, LONDON);
+
+        // assert
+        assertEquals(-1, before);
+        assertEquals(1, underTest.getLatestBand());
+        assertEquals(1, tariffLookup.lookups);
+    }
+
+    @Test
+    public void shouldLookUpTheTariffAgainWhenTheClocksChange() {
+
+        // arrange - Sunday 27th October 2013, when the clocks go back from 02:00 BST to 01:00 GMT
+        final long transition = new DateTime(2013, 10, 27, 1, 0, DateTimeZone.UTC).getMillis();
+
+        // act
+        underTest.lookupTariff(transition - 1, LONDON);
+        underTest.lookupTariff(transition, LONDON);
+
+        // assert
+        assertEquals(2, tariffLookup.lookups);
+        assertEquals(new DateTime(2013, 10, 27, 6, 0, LONDON).getMillis(), underTest.nextChange(transition, LONDON));
+    }
+
+    @Test
+    public void shouldLookUpTheTariffAgainWhenTimeGoesBackwards() {
+
+        // arrange
+        final long now = new DateTime(2013, 11, 25, 20, 0, LONDON).getMillis();
+        underTest.lookupTariff(now, LONDON);
+
+        // act
+        final Tariff result = underTest.lookupTariff(now - 1, LONDON);
+
+        // assert
+        assertSame(tariff1, result);
+        assertEquals(2, tariffLookup.lookups);
+    }
+
+    @Test
+    public void shouldLookUpTheTariffAgainInAnotherTimeZone() {
+
+        // arrange - 19:30 in London is 20:30 in Paris
+        final long now = new DateTime(2013, 11, 25, 19, 30, LONDON).getMillis();
+        underTest.lookupTariff(now, LONDON);
+
+        // act
+        final Tariff result = underTest.lookupTariff(now, DateTimeZone.forID("Europe/Paris"));
+
+        // assert
+        assertSame(tariff2, result);
+    }
+
+    @Test
+    public void shouldLookUpTheTariffAgainWhenTheTariffsAreSwapped() throws IOException {
+
+        // arrange
+        final TariffDefinition tariffs2013 = TariffDefinitionLoader.loadResource("/tariffs/tfl-2013.properties");
+        final TariffDefinition tariffs2017 = TariffDefinitionLoader.loadResource("/tariffs/tfl-2017.properties");
+        final SwappableTariffLookup swappableTariffLookup = new SwappableTariffLookup(tariffs2013);
+        final CachedTariffLookup underTest = new CachedTariffLookup(swappableTariffLookup);
+        final long now = new DateTime(2017, 4, 10, 12, 0, LONDON).getMillis();
+        underTest.lookupTariff(now, LONDON);
+
+        // act
+        swappableTariffLookup.install(new TariffDefinition("TfL 2017", tariffs2013.getEffectiveFrom(), tariffs2017.getTariffs().toArray(new Tariff[3])));
+
+        // assert
+        assertSame(tariffs2017.getTariffs().get(0), underTest.lookupTariff(now + 100, LONDON));
+    }
+
+    @Test
+    public void shouldResolveTheSameTariffsAsTheTariffLookup() {
+
+        // arrange
+        final DateTime end = new DateTime(2015, 1, 1, 0, 0, LONDON);
+
+        // act / assert - every 7 minutes across two years, including both daylight saving transitions and the holidays
+        for (DateTime dateTime = new DateTime(2013, 1, 1, 0, 0, LONDON); dateTime.isBefore(end); dateTime = dateTime.plusMinutes(7)) {
+            assertSame(dateTime.toString(), tariffLookup.lookupTariff(dateTime), underTest.lookupTariff(dateTime.getMillis(), LONDON));
+            assertEquals(dateTime.toString(), tariffLookup.lookupBand(dateTime), underTest.lookupBand(dateTime));
+        }
+    }
+
+    /**
+     * A compiled tariff lookup that counts the times it is asked when the tariff could next change - once per lookup
+     * made by the cache.
+     */
+    private static final class CountingTariffLookup extends CompiledTariffLookup {
+
+        private int lookups;
+
+        private CountingTariffLookup(final Tariff... tariffs) {
+            super(tariffs);
+        }
+
+        @Override
+        public long nextChange(final long epochMillis, final DateTimeZone zone) {
+            lookups++;
+            return super.nextChange(epochMillis, zone);
+        }
+
+    }
+
+}
@@ -0,0 +1,139 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static uk.co.epsilontechnologies.taximeter.utils.CalendarUtils.isBetweenHours;
+
+/**
+ * <p>Test Class for {@link CompiledTariffLookup}
+ *
+ * @author Shane Gibson
+ */
+public class CompiledTariffLookupTest {
+
+    private final Tariff1 tariff1 = new Tariff1();
+    private final Tariff2 tariff2 = new Tariff2();
+    private final Tariff3 tariff3 = new Tariff3();
+
+    private final CompiledTariffLookup underTest = new CompiledTariffLookup(tariff1, tariff2, tariff3);
+
+    @Test
+    public void shouldGetTariffForTheGivenTime() {
+        assertSame(tariff1, underTest.lookupTariff(new DateTime(2013, 11, 25, 6, 0, 0, 0)));
+        assertSame(tariff2, underTest.lookupTariff(new DateTime(2013, 11, 25, 20, 0, 0, 0)));
+        assertSame(tariff2, underTest.lookupTariff(new DateTime(2013, 11, 23, 6, 0, 0, 0)));
+        assertSame(tariff3, underTest.lookupTariff(new DateTime(2013, 11, 24, 22, 0, 0, 0)));
+        assertSame(tariff3, underTest.lookupTariff(new DateTime(2014, 1, 1, 12, 30, 0, 0)));
+    }
+
+    @Test
+    public void shouldGetTariffInTheZoneOfTheGivenTime() {
+        final DateTimeZone london = DateTimeZone.forID("Europe/London");
+        assertSame(tariff1, underTest.lookupTariff(new DateTime(2013, 7, 1, 19, 59, 0, 0, london)));
+        assertSame(tariff2, underTest.lookupTariff(new DateTime(2013, 7, 1, 20, 0, 0, 0, london)));
+        assertSame(tariff1, underTest.lookupTariff(new DateTime(2013, 7, 1, 20, 0, 0, 0, london).withZone(DateTimeZone.UTC)));
+    }
+
+    @Test
+    public void shouldResolveTheSameTariffsAsTheTariffLookup() {
+
+        // arrange
+        final TariffLookup tariffLookup = new TariffLookup(tariff1, tariff2, tariff3);
+        final DateTime end = new DateTime(2015, 1, 1, 0, 0, DateTimeZone.forID("Europe/London"));
+
+        // act / assert - every 7 minutes across two years, including both daylight saving transitions and the holidays
+        for (DateTime dateTime = new DateTime(2013, 1, 1, 0, 0, DateTimeZone.forID("Europe/London")); dateTime.isBefore(end); dateTime = dateTime.plusMinutes(7)) {
+            assertSame(dateTime.toString(), tariffLookup.lookupTariff(dateTime), underTest.lookupTariff(dateTime));
+            assertEquals(dateTime.toString(), tariffLookup.lookupBand(dateTime), underTest.lookupBand(dateTime));
+        }
+    }
+
+    @Test
+    public void shouldFindTheNextChangeOfTariff() {
+
+        // arrange
+        final DateTimeZone london = DateTimeZone.forID("Europe/London");
+
+        // act / assert - Monday 25th November 2013
+        assertEquals(new DateTime(2013, 11, 25, 20, 0, london).getMillis(), underTest.nextChange(new DateTime(2013, 11, 25, 12, 30, 15, 0, london).getMillis(), london));
+        assertEquals(new DateTime(2013, 11, 25, 22, 0, london).getMillis(), underTest.nextChange(new DateTime(2013, 11, 25, 20, 0, london).getMillis(), london));
+        assertEquals(new DateTime(2013, 11, 26, 0, 0, london).getMillis(), underTest.nextChange(new DateTime(2013, 11, 25, 22, 0, london).getMillis(), london));
+        assertEquals(new DateTime(2013, 11, 26, 6, 0, london).getMillis(), underTest.nextChange(new DateTime(2013, 11, 26, 0, 0, london).getMillis(), london));
+    }
+
+    @Test
+    public void shouldFindTheNextChangeOfTariffAtATransitionOfTheTimeZone() {
+
+        // arrange - Sunday 27th October 2013, when the clocks go back from 02:00 BST to 01:00 GMT during Tariff 3
+        final DateTimeZone london = DateTimeZone.forID("Europe/London");
+        final DateTime transition = new DateTime(2013, 10, 27, 1, 0, DateTimeZone.UTC);
+
+        // act
+        final long result = underTest.nextChange(transition.getMillis() - 1, london);
+
+        // assert
+        assertEquals(transition.getMillis(), result);
+        assertEquals(new DateTime(2013, 10, 27, 6, 0, london).getMillis(), underTest.nextChange(result, london));
+    }
+
+    @Test
+    public void shouldNotChangeTariffBeforeTheNextChange() {
+
+        // arrange
+        final DateTimeZone london = DateTimeZone.forID("Europe/London");
+        final DateTime end = new DateTime(2015, 1, 1, 0, 0, london);
+
+        // act / assert - every 97 minutes across two years, checking every minute until the next change
+        for (DateTime dateTime = new DateTime(2013, 1, 1, 0, 0, london); dateTime.isBefore(end); dateTime = dateTime.plusMinutes(97)) {
+            final long now = dateTime.getMillis();
+            final int band = underTest.lookupBand(now, london);
+            final long change = underTest.nextChange(now, london);
+            assertTrue(dateTime.toString(), change > now);
+            for (long minute = change - 60000; minute > now; minute -= 60000) {
+                assertEquals(dateTime.toString(), band, underTest.lookupBand(minute, london));
+            }
+            assertEquals(dateTime.toString(), band, underTest.lookupBand(change - 1, london));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToCompileTariffsWithAGap() {
+
+        // act
+        new CompiledTariffLookup(tariff1, tariff2);
+
+        // assert
+        fail("IllegalArgumentException was expected but not thrown");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToCompileTariffsThatOverlap() {
+
+        // arrange
+        final Tariff mornings = GenericTariff.builder()
+                .flagFall("2.40", "254.6", "54.8")
+                .highLowFareBoundary("17.20")
+                .lowFare("127.3", "27.4", "0.20")
+                .highFare("89.2", "19.2", "0.20")
+                .timeFilter(new TariffTimeFilter() {
+                    @Override
+                    public boolean applies(final DateTime dateTime) {
+                        return isBetweenHours(dateTime, 0, 12);
+                    }
+                })
+                .build();
+
+        // act
+        new CompiledTariffLookup(tariff1, tariff2, tariff3, mornings);
+
+        // assert
+        fail("IllegalArgumentException was expected but not thrown");
+    }
+
+}
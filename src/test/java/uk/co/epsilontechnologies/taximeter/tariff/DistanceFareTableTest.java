@@ -0,0 +1,91 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.calculator.FixedPointFareCalculator;
+import uk.co.epsilontechnologies.taximeter.model.FixedPointFare;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Test Class for {@link DistanceFareTable}
+ *
+ * @author Shane Gibson
+ */
+public class DistanceFareTableTest {
+
+    private final DistanceFareTable underTest = new DistanceFareTable(new FixedPointTariff(new Tariff1()));
+
+    @Test
+    public void shouldLookUpTheFlagFallWithinTheFlagFallDistance() {
+
+        // act / assert
+        assertEquals(240, underTest.getFare(0));
+        assertEquals(240, underTest.getFare(254600));
+        assertEquals(254600, underTest.getDistanceAccountedFor(254600));
+    }
+
+    @Test
+    public void shouldLookUpTheFareOfEachIncrement() {
+
+        // act / assert - the first increment of 127.3 metres, and the first of 89.2 metres once the fare reaches 1720 pence
+        assertEquals(260, underTest.getFare(254601));
+        assertEquals(381900, underTest.getDistanceAccountedFor(254601));
+        assertEquals(260, underTest.getFare(381900));
+        assertEquals(280, underTest.getFare(381901));
+        assertEquals(1720, underTest.getFare(254600 + 74 * 127300));
+        assertEquals(1740, underTest.getFare(254600 + 74 * 127300 + 1));
+        assertEquals(254600 + 74 * 127300 + 89200, underTest.getDistanceAccountedFor(254600 + 74 * 127300 + 1));
+    }
+
+    @Test
+    public void shouldLookUpTheSameFaresAsTheFareCalculator() {
+
+        // arrange - a time in each of the bands of the standard tariffs
+        final TariffLookup tariffLookup = TflTaxiMeter.standardTariffLookup();
+        final FixedPointFareCalculator fareCalculator = new FixedPointFareCalculator(tariffLookup);
+        final DateTime[] times = {
+                new DateTime(2013, 11, 25, 12, 0, 0, 0),
+                new DateTime(2013, 11, 25, 21, 0, 0, 0),
+                new DateTime(2013, 11, 25, 23, 0, 0, 0) };
+
+        for (final DateTime time : times) {
+            final FixedPointTariff tariff = new FixedPointTariff(tariffLookup.lookupTariff(time));
+            final DistanceFareTable table = new DistanceFareTable(tariff, 20000000);
+
+            // act / assert - every 7.3 metres to 40 kilometres, half of which is beyond the table
+            for (long distance = 0; distance < 40000000; distance += 7300) {
+                final FixedPointFare fare = fareCalculator.getFlagFall(time, new FixedPointFare());
+                fareCalculator.catchUpFare(fare, 0, distance, time);
+                assertEquals(time+" "+distance, fare.getAmount(), table.getFare(distance));
+                assertEquals(time+" "+distance, fare.getJourneyDistanceAccountedFor(), table.getDistanceAccountedFor(distance));
+            }
+        }
+    }
+
+    @Test
+    public void shouldTabulateBeyondTheHighLowFareBoundary() {
+
+        // act
+        final DistanceFareTable result = new DistanceFareTable(new FixedPointTariff(new Tariff1()), 0);
+
+        // assert - the flag fall and the 74 increments of the low fare sub-tariff
+        assertEquals(75, result.size());
+        assertEquals(254600 + 74 * 127300, result.getMaximumDistance());
+    }
+
+    @Test
+    public void shouldReportTheMemoryFootprint() {
+
+        // act
+        final long result = underTest.getMemoryFootprint();
+
+        // assert
+        assertTrue(underTest.getMaximumDistance() >= DistanceFareTable.DEFAULT_MAXIMUM_DISTANCE);
+        assertEquals(2 * (16 + 8L * underTest.size()), result);
+        assertTrue(underTest.toString().contains(result+" bytes"));
+    }
+
+}
@@ -0,0 +1,137 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * <p>Test Class for {@link GenericTariff}
+ *
+ * @author Shane Gibson
+ */
+public class GenericTariffTest {
+
+    private static final TariffTimeFilter ALWAYS = new TariffTimeFilter() {
+        @Override
+        public boolean applies(final DateTime dateTime) {
+            return true;
+        }
+    };
+
+    @Test
+    public void shouldBuildTariffFromNamedRates() {
+
+        // act
+        final GenericTariff result = GenericTariff.builder()
+                .flagFall("2.40", "254.6", "54.8")
+                .highLowFareBoundary("17.20")
+                .lowFare("127.3", "27.4", "0.20")
+                .highFare("89.2", "19.2", "0.30")
+                .timeFilter(ALWAYS)
+                .build();
+
+        // assert
+        assertEquals(new BigDecimal("2.40"), result.getFlagFallAmount());
+        assertEquals(new BigDecimal("254.6"), result.getFlagFallDistanceLimit());
+        assertEquals(new BigDecimal("54.8"), result.getFlagFallTimeLimit());
+        assertEquals(new BigDecimal("17.20"), result.getHighLowFareBoundary());
+        assertEquals(new BigDecimal("127.3"), result.getLowFareSubTariff().getDistanceLimit());
+        assertEquals(new BigDecimal("27.4"), result.getLowFareSubTariff().getTimeLimit());
+        assertEquals(new BigDecimal("0.20"), result.getLowFareSubTariff().getIncrementAmount());
+        assertEquals(new BigDecimal("89.2"), result.getHighFareSubTariff().getDistanceLimit());
+        assertEquals(new BigDecimal("19.2"), result.getHighFareSubTariff().getTimeLimit());
+        assertEquals(new BigDecimal("0.30"), result.getHighFareSubTariff().getIncrementAmount());
+    }
+
+    @Test
+    public void shouldShareSubTariffsBetweenCalls() {
+
+        // arrange
+        final Tariff1 underTest = new Tariff1();
+
+        // act / assert
+        assertSame(underTest.getLowFareSubTariff(), underTest.getLowFareSubTariff());
+        assertSame(underTest.getHighFareSubTariff(), underTest.getHighFareSubTariff());
+        assertSame(underTest.getHighLowFareBoundary(), underTest.getHighLowFareBoundary());
+    }
+
+    @Test
+    public void shouldBuildTheSameTariffFromPositionalRates() {
+
+        // act
+        final GenericTariff result = new GenericTariff("2.40","254.6", "54.8", "17.20", "127.3", "27.4", "0.20", "89.2", "19.2", "0.30", ALWAYS);
+
+        // assert
+        assertEquals(new BigDecimal("17.20"), result.getHighLowFareBoundary());
+        assertEquals(new BigDecimal("127.3"), result.getLowFareSubTariff().getDistanceLimit());
+        assertEquals(new BigDecimal("0.30"), result.getHighFareSubTariff().getIncrementAmount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToBuildTariffWithMissingRate() {
+
+        // act
+        GenericTariff.builder()
+                .flagFall("2.40", "254.6", "54.8")
+                .lowFare("127.3", "27.4", "0.20")
+                .highFare("89.2", "19.2", "0.20")
+                .timeFilter(ALWAYS)
+                .build();
+
+        // assert
+        fail("IllegalArgumentException was expected but not thrown");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToBuildTariffWithMalformedRate() {
+
+        // act
+        GenericTariff.builder()
+                .flagFall("2.40", "254,6", "54.8")
+                .highLowFareBoundary("17.20")
+                .lowFare("127.3", "27.4", "0.20")
+                .highFare("89.2", "19.2", "0.20")
+                .timeFilter(ALWAYS)
+                .build();
+
+        // assert
+        fail("IllegalArgumentException was expected but not thrown");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToBuildTariffWithZeroLimit() {
+
+        // act
+        GenericTariff.builder()
+                .flagFall("2.40", "254.6", "54.8")
+                .highLowFareBoundary("17.20")
+                .lowFare("0", "27.4", "0.20")
+                .highFare("89.2", "19.2", "0.20")
+                .timeFilter(ALWAYS)
+                .build();
+
+        // assert
+        fail("IllegalArgumentException was expected but not thrown");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToBuildTariffWithoutTimeFilter() {
+
+        // act
+        GenericTariff.builder()
+                .flagFall("2.40", "254.6", "54.8")
+                .highLowFareBoundary("17.20")
+                .lowFare("127.3", "27.4", "0.20")
+                .highFare("89.2", "19.2", "0.20")
+                .build();
+
+        // assert
+        fail("IllegalArgumentException was expected but not thrown");
+    }
+
+}
@@ -0,0 +1,129 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.calculator.FixedPointFareCalculator;
+import uk.co.epsilontechnologies.taximeter.model.FixedPointFare;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * <p>Test Class for {@link SwappableTariffLookup}
+ *
+ * @author Shane Gibson
+ */
+public class SwappableTariffLookupTest {
+
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    @Test
+    public void shouldLookUpTheTariffsOfTheDefinitionInEffect() throws IOException {
+
+        // arrange
+        final TariffDefinition tariffs2013 = TariffDefinitionLoader.loadResource("/tariffs/tfl-2013.properties");
+        final TariffDefinition tariffs2017 = TariffDefinitionLoader.loadResource("/tariffs/tfl-2017.properties");
+        final SwappableTariffLookup underTest = new SwappableTariffLookup(tariffs2017, tariffs2013);
+
+        // act / assert - 05:30 on a weekday is Tariff 3 under the 2013 tariffs, but Tariff 1 under the 2017 tariffs
+        final DateTime before = new DateTime(2017, 4, 7, 5, 30, LONDON);
+        final DateTime after = new DateTime(2017, 4, 10, 5, 30, LONDON);
+        assertSame(tariffs2013.getTariffs().get(2), underTest.lookupTariff(before));
+        assertSame(tariffs2017.getTariffs().get(0), underTest.lookupTariff(after));
+        assertEquals(2, underTest.lookupBand(before.getMillis(), LONDON));
+        assertEquals(0, underTest.lookupBand(after.getMillis(), LONDON));
+        assertEquals(tariffs2017.getTariffs(), underTest.getTariffs());
+        assertEquals(2, underTest.getDefinitions().size());
+        assertSame(tariffs2013, underTest.getDefinitions().get(0));
+    }
+
+    @Test
+    public void shouldInstallADefinitionUnderALiveCalculator() throws IOException {
+
+        // arrange
+        final TariffDefinition tariffs2013 = TariffDefinitionLoader.loadResource("/tariffs/tfl-2013.properties");
+        final TariffDefinition tariffs2017 = TariffDefinitionLoader.loadResource("/tariffs/tfl-2017.properties");
+        final TariffDefinition replacement = new TariffDefinition("TfL 2017", tariffs2013.getEffectiveFrom(), tariffs2017.getTariffs().toArray(new Tariff[3]));
+        final SwappableTariffLookup underTest = new SwappableTariffLookup(tariffs2013);
+        final FixedPointFareCalculator calculator = new FixedPointFareCalculator(underTest);
+        final DateTime now = new DateTime(2017, 4, 10, 12, 0, LONDON);
+        final long before = calculator.getFlagFall(now, new FixedPointFare()).getAmount();
+
+        // act
+        underTest.install(replacement);
+
+        // assert
+        assertEquals(240, before);
+        assertEquals(260, calculator.getFlagFall(now, new FixedPointFare()).getAmount());
+        assertEquals(1, underTest.getDefinitions().size());
+        assertSame(replacement, underTest.getDefinitions().get(0));
+    }
+
+    @Test
+    public void shouldChangeTariffWhenTheNextDefinitionTakesEffect() throws IOException {
+
+        // arrange
+        final TariffDefinition tariffs2013 = TariffDefinitionLoader.loadResource("/tariffs/tfl-2013.properties");
+        final TariffDefinition tariffs2017 = TariffDefinitionLoader.loadResource("/tariffs/tfl-2017.properties");
+        final SwappableTariffLookup underTest = new SwappableTariffLookup(tariffs2013, tariffs2017);
+
+        // act - 22:30 on the Friday before, during Tariff 3 until 06:00 under the 2013 tariffs
+        final long result = underTest.nextChange(new DateTime(2017, 4, 7, 22, 30, LONDON).getMillis(), LONDON);
+
+        // assert
+        assertEquals(tariffs2017.getEffectiveFrom().getMillis(), result);
+    }
+
+    @Test
+    public void shouldChangeTheRevisionWhenADefinitionIsInstalled() throws IOException {
+
+        // arrange
+        final TariffDefinition tariffs2013 = TariffDefinitionLoader.loadResource("/tariffs/tfl-2013.properties");
+        final SwappableTariffLookup underTest = new SwappableTariffLookup(tariffs2013);
+        final long revision = underTest.getRevision();
+
+        // act
+        underTest.install(TariffDefinitionLoader.loadResource("/tariffs/tfl-2017.properties"));
+
+        // assert
+        assertEquals(revision + 1, underTest.getRevision());
+    }
+
+    @Test
+    public void shouldKeepTheCurrentLookupWhenADefinitionIsInstalled() throws IOException {
+
+        // arrange
+        final TariffDefinition tariffs2013 = TariffDefinitionLoader.loadResource("/tariffs/tfl-2013.properties");
+        final TariffDefinition tariffs2017 = TariffDefinitionLoader.loadResource("/tariffs/tfl-2017.properties");
+        final SwappableTariffLookup underTest = new SwappableTariffLookup(tariffs2013);
+        final TariffLookup current = underTest.getCurrentLookup();
+        final DateTime dateTime = new DateTime(2018, 3, 5, 12, 0, LONDON);
+
+        // act
+        underTest.install(tariffs2017);
+
+        // assert - the lookup taken before the install still looks up the tariffs of its own schedule
+        assertEquals(underTest.getRevision() - 1, current.getRevision());
+        assertSame(tariffs2013.getTariffLookup().lookupTariff(dateTime), current.lookupTariff(dateTime));
+        assertSame(tariffs2017.getTariffLookup().lookupTariff(dateTime), underTest.getCurrentLookup().lookupTariff(dateTime));
+        assertEquals(tariffs2013.getTariffLookup().nextChange(dateTime.getMillis(), LONDON), current.nextChange(dateTime.getMillis(), LONDON));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailToLookUpATariffBeforeAnyDefinitionIsInEffect() throws IOException {
+
+        // arrange
+        final SwappableTariffLookup underTest = new SwappableTariffLookup(TariffDefinitionLoader.loadResource("/tariffs/tfl-2013.properties"));
+
+        // act
+        underTest.lookupTariff(new DateTime(2013, 4, 5, 12, 0, LONDON));
+
+        // assert
+        fail("IllegalStateException was expected but not thrown");
+    }
+
+}
@@ -0,0 +1,123 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter2017;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * <p>Test Class for {@link TariffDefinitionLoader}
+ *
+ * @author Shane Gibson
+ */
+public class TariffDefinitionLoaderTest {
+
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    @Test
+    public void shouldLoadTheStandardTariffs() throws IOException {
+
+        // act
+        final TariffDefinition result = TariffDefinitionLoader.loadResource("/tariffs/tfl-2013.properties");
+
+        // assert
+        assertEquals("TfL 2013", result.getName());
+        assertEquals(new DateTime(2013, 4, 6, 0, 0, LONDON), result.getEffectiveFrom());
+        assertSameTariffs(TflTaxiMeter.standardTariffLookup(), result.getTariffLookup());
+    }
+
+    @Test
+    public void shouldLoadThe2017Tariffs() throws IOException {
+
+        // act
+        final TariffDefinition result = TariffDefinitionLoader.loadResource("/tariffs/tfl-2017.properties");
+
+        // assert
+        assertEquals("TfL 2017", result.getName());
+        assertSameTariffs(TflTaxiMeter2017.tariffLookup2017(), result.getTariffLookup());
+    }
+
+    @Test
+    public void shouldFailToLoadAMissingRate() throws IOException {
+
+        // arrange
+        final String definition = definition("Mon-Sun 00:00-24:00").replace("tariff.1.lowFare = 127.3, 27.4, 0.20\n", "");
+
+        // act
+        try {
+            TariffDefinitionLoader.load(new StringReader(definition));
+            fail("IllegalArgumentException was expected but not thrown");
+        } catch (final IllegalArgumentException e) {
+            // assert
+            assertEquals("Tariff definition has no tariff.1.lowFare", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldFailToLoadAMalformedRule() throws IOException {
+
+        // act
+        try {
+            TariffDefinitionLoader.load(new StringReader(definition("Mon-Sun 00:00")));
+            fail("IllegalArgumentException was expected but not thrown");
+        } catch (final IllegalArgumentException e) {
+            // assert
+            assertEquals("Tariff definition tariff.1: Malformed tariff rule: Mon-Sun 00:00", e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToLoadTariffsWithAGap() throws IOException {
+
+        // act
+        TariffDefinitionLoader.load(new StringReader(definition("Mon-Fri 00:00-24:00")));
+
+        // assert
+        fail("IllegalArgumentException was expected but not thrown");
+    }
+
+    private static String definition(final String applies) {
+        return "name = Test\n" +
+                "effective = 2013-04-06T00:00\n" +
+                "zone = Europe/London\n" +
+                "tariffs = 1\n" +
+                "tariff.1.flagFall = 2.40, 254.6, 54.8\n" +
+                "tariff.1.highLowFareBoundary = 17.20\n" +
+                "tariff.1.lowFare = 127.3, 27.4, 0.20\n" +
+                "tariff.1.highFare = 89.2, 19.2, 0.20\n" +
+                "tariff.1.applies = "+applies+"\n";
+    }
+
+    private static void assertSameTariffs(final TariffLookup expected, final TariffLookup actual) {
+        final List<Tariff> expectedTariffs = expected.getTariffs();
+        final List<Tariff> actualTariffs = actual.getTariffs();
+        assertEquals(expectedTariffs.size(), actualTariffs.size());
+        for (int band = 0; band < expectedTariffs.size(); band++) {
+            final FixedPointTariff expectedTariff = new FixedPointTariff(expectedTariffs.get(band));
+            final FixedPointTariff actualTariff = new FixedPointTariff(actualTariffs.get(band));
+            assertEquals(expectedTariff.getFlagFallAmount(), actualTariff.getFlagFallAmount());
+            assertEquals(expectedTariff.getFlagFallDistanceLimit(), actualTariff.getFlagFallDistanceLimit());
+            assertEquals(expectedTariff.getFlagFallTimeLimit(), actualTariff.getFlagFallTimeLimit());
+            assertEquals(expectedTariff.getHighLowFareBoundary(), actualTariff.getHighLowFareBoundary());
+            for (final long amount : new long[] { 0, expectedTariff.getHighLowFareBoundary() }) {
+                assertEquals(expectedTariff.getIncrementAmount(amount), actualTariff.getIncrementAmount(amount));
+                assertEquals(expectedTariff.getDistanceLimit(amount), actualTariff.getDistanceLimit(amount));
+                assertEquals(expectedTariff.getTimeLimit(amount), actualTariff.getTimeLimit(amount));
+            }
+        }
+        // every 7 minutes across two years, including both daylight saving transitions and the holidays
+        final DateTime end = new DateTime(2015, 1, 1, 0, 0, LONDON);
+        for (DateTime dateTime = new DateTime(2013, 1, 1, 0, 0, LONDON); dateTime.isBefore(end); dateTime = dateTime.plusMinutes(7)) {
+            assertEquals(dateTime.toString(), expected.lookupBand(dateTime), actual.lookupBand(dateTime));
+        }
+    }
+
+}
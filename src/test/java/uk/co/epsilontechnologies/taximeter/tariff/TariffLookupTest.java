@@ -1,6 +1,7 @@
 package uk.co.epsilontechnologies.taximeter.tariff;
 
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -65,4 +66,33 @@ public class TariffLookupTest {
         // assert
         fail("IllegalStateException was expected but not thrown");
     }
+
+    @Test
+    public void shouldFindTheNextChangeAtTheNextMinute() {
+
+        // arrange
+        final DateTimeZone london = DateTimeZone.forID("Europe/London");
+        final DateTime now = new DateTime(2013, 11, 25, 19, 59, 30, 0, london);
+
+        // act
+        final long result = this.underTest.nextChange(now.getMillis(), london);
+
+        // assert
+        assertEquals(new DateTime(2013, 11, 25, 20, 0, 0, 0, london).getMillis(), result);
+    }
+
+    @Test
+    public void shouldFindTheNextChangeAtATransitionOfTheTimeZone() {
+
+        // arrange - the clocks go back from 02:00 BST to 01:00 GMT
+        final DateTimeZone london = DateTimeZone.forID("Europe/London");
+        final DateTime now = new DateTime(2013, 10, 27, 0, 59, 59, 0, DateTimeZone.UTC);
+
+        // act
+        final long result = this.underTest.nextChange(now.getMillis(), london);
+
+        // assert
+        assertEquals(new DateTime(2013, 10, 27, 1, 0, 0, 0, DateTimeZone.UTC).getMillis(), result);
+    }
+
 }
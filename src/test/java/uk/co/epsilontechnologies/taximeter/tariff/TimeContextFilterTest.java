@@ -0,0 +1,77 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.utils.TimeContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Test Class for {@link TimeContextFilter}
+ *
+ * @author Shane Gibson
+ */
+public class TimeContextFilterTest {
+
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    @Test
+    public void shouldAdaptAFilterOfDateTimes() {
+
+        // arrange - a filter that checks a field the time context does not break down
+        final TariffTimeFilter filter = new TariffTimeFilter() {
+            @Override
+            public boolean applies(final DateTime dateTime) {
+                return dateTime.getMonthOfYear() == 12;
+            }
+        };
+
+        // act
+        final TimeContextFilter result = TimeContextFilter.adapt(filter);
+
+        // assert
+        assertTrue(result.applies(TimeContext.of(new DateTime(2013, 12, 1, 0, 0, LONDON))));
+        assertEquals(false, result.applies(TimeContext.of(new DateTime(2013, 11, 30, 23, 59, LONDON))));
+    }
+
+    @Test
+    public void shouldNotAdaptAFilterOfTimeContexts() {
+
+        // arrange
+        final TimeContextFilter filter = new WeeklyTariffTimeFilter("Mon-Sun 00:00-24:00");
+
+        // act / assert
+        assertSame(filter, TimeContextFilter.adapt(filter));
+    }
+
+    @Test
+    public void shouldLookUpTariffsOfBothKindsOfFilter() {
+
+        // arrange - Tariff 1 by a filter of date times, and Tariffs 2 and 3 by filters of time contexts
+        final TariffLookup tariffLookup = new TariffLookup(
+                GenericTariff.builder()
+                        .flagFall("2.40", "254.6", "54.8")
+                        .highLowFareBoundary("17.20")
+                        .lowFare("127.3", "27.4", "0.20")
+                        .highFare("89.2", "19.2", "0.20")
+                        .timeFilter(new TariffTimeFilter() {
+                            @Override
+                            public boolean applies(final DateTime dateTime) {
+                                return new Tariff1().applies(dateTime);
+                            }
+                        }).build(),
+                new Tariff2(),
+                new Tariff3());
+        final TariffLookup expected = new TariffLookup(new Tariff1(), new Tariff2(), new Tariff3());
+        final DateTime end = new DateTime(2013, 12, 30, 0, 0, LONDON);
+
+        // act / assert - every 7 minutes across Christmas
+        for (DateTime dateTime = new DateTime(2013, 12, 16, 0, 0, LONDON); dateTime.isBefore(end); dateTime = dateTime.plusMinutes(7)) {
+            assertEquals(dateTime.toString(), expected.lookupBand(dateTime), tariffLookup.lookupBand(dateTime.getMillis(), LONDON));
+        }
+    }
+
+}
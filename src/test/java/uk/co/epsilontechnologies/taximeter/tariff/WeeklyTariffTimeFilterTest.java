@@ -0,0 +1,81 @@
+package uk.co.epsilontechnologies.taximeter.tariff;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * <p>Test Class for {@link WeeklyTariffTimeFilter}
+ *
+ * @author Shane Gibson
+ */
+public class WeeklyTariffTimeFilterTest {
+
+    @Test
+    public void shouldApplyOnTheGivenDaysBetweenTheGivenTimes() {
+
+        // arrange
+        final WeeklyTariffTimeFilter underTest = new WeeklyTariffTimeFilter("Mon-Fri 20:00-22:00; Sat,Sun 06:00-22:00");
+
+        // act / assert - Monday 25th November 2013, and the weekend before
+        assertFalse(underTest.applies(new DateTime(2013, 11, 25, 19, 59, 0, 0)));
+        assertTrue(underTest.applies(new DateTime(2013, 11, 25, 20, 0, 0, 0)));
+        assertTrue(underTest.applies(new DateTime(2013, 11, 25, 21, 59, 0, 0)));
+        assertFalse(underTest.applies(new DateTime(2013, 11, 25, 22, 0, 0, 0)));
+        assertTrue(underTest.applies(new DateTime(2013, 11, 23, 6, 0, 0, 0)));
+        assertTrue(underTest.applies(new DateTime(2013, 11, 24, 12, 0, 0, 0)));
+        assertFalse(underTest.applies(new DateTime(2013, 11, 24, 5, 59, 0, 0)));
+    }
+
+    @Test
+    public void shouldApplyPastMidnightAndAcrossTheEndOfTheWeek() {
+
+        // arrange
+        final WeeklyTariffTimeFilter underTest = new WeeklyTariffTimeFilter("Sat-Mon 22:00-06:00");
+
+        // act / assert - Saturday 23rd November 2013 to Wednesday 27th
+        assertTrue(underTest.applies(new DateTime(2013, 11, 23, 22, 0, 0, 0)));
+        assertTrue(underTest.applies(new DateTime(2013, 11, 25, 5, 59, 0, 0)));
+        assertTrue(underTest.applies(new DateTime(2013, 11, 26, 5, 59, 0, 0)));
+        assertFalse(underTest.applies(new DateTime(2013, 11, 26, 6, 0, 0, 0)));
+        assertFalse(underTest.applies(new DateTime(2013, 11, 26, 22, 0, 0, 0)));
+        assertFalse(underTest.applies(new DateTime(2013, 11, 23, 5, 59, 0, 0)));
+    }
+
+    @Test
+    public void shouldApplyOnlyTheHolidayRulesOnAPublicHoliday() {
+
+        // arrange
+        final WeeklyTariffTimeFilter underTest = new WeeklyTariffTimeFilter("Mon-Sun 06:00-20:00; holiday 10:00-12:00");
+
+        // act / assert - Christmas Day 2013
+        assertFalse(underTest.applies(new DateTime(2013, 12, 25, 9, 59, 0, 0)));
+        assertTrue(underTest.applies(new DateTime(2013, 12, 25, 10, 0, 0, 0)));
+        assertFalse(underTest.applies(new DateTime(2013, 12, 25, 12, 0, 0, 0)));
+        assertTrue(underTest.applies(new DateTime(2013, 12, 24, 9, 59, 0, 0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToParseAnUnknownDay() {
+
+        // act
+        new WeeklyTariffTimeFilter("Mon-Fry 06:00-20:00");
+
+        // assert
+        fail("IllegalArgumentException was expected but not thrown");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailToParseAMalformedTime() {
+
+        // act
+        new WeeklyTariffTimeFilter("Mon-Fri 06:00-25:00");
+
+        // assert
+        fail("IllegalArgumentException was expected but not thrown");
+    }
+
+}
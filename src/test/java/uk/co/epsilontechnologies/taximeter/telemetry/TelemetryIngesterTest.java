@@ -0,0 +1,253 @@
+package uk.co.epsilontechnologies.taximeter.telemetry;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.After;
+import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.Clock;
+import uk.co.epsilontechnologies.taximeter.ObservableOdometer;
+import uk.co.epsilontechnologies.taximeter.Poller;
+import uk.co.epsilontechnologies.taximeter.TflTaxiMeter;
+import uk.co.epsilontechnologies.taximeter.calculator.FareEngine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test Class for {@link TelemetryIngester}.
+ *
+ * @author Shane Gibson
+ */
+public class TelemetryIngesterTest {
+
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    private TelemetryIngester underTest;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (underTest != null) {
+            underTest.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldRouteReadingsToOdometerOfEachVehicle() throws InterruptedException {
+
+        // arrange - a small ring, so that the writer wraps around it many times
+        underTest = new TelemetryIngester(8, 3, 4);
+        final TelemetryOdometer[] odometers = new TelemetryOdometer[5];
+        for (int vehicle = 0; vehicle < odometers.length; vehicle++) {
+            odometers[vehicle] = new TelemetryOdometer();
+            underTest.register(vehicle, odometers[vehicle]);
+        }
+        underTest.start();
+
+        // act - each vehicle travels a metre per reading, plus readings of an unregistered vehicle
+        for (int reading = 0; reading <= 1000; reading++) {
+            for (int vehicle = 0; vehicle < odometers.length; vehicle++) {
+                underTest.publish(vehicle, reading * 100L, 1000000L * vehicle + reading * 1000L);
+            }
+            underTest.publish(99, reading * 100L, reading);
+        }
+        awaitConsumed();
+
+        // assert
+        for (final TelemetryOdometer odometer : odometers) {
+            assertEquals(new BigDecimal("1000.000"), odometer.getDistance());
+        }
+        assertEquals(6006, underTest.getPublished());
+        assertEquals(1001, underTest.getUnrouted());
+    }
+
+    @Test
+    public void shouldApplyOnlyLatestReadingOfEachBatch() throws InterruptedException {
+
+        // arrange - readings published before the consumers start are consumed in one batch
+        underTest = new TelemetryIngester(64, 2, 64);
+        final TelemetryOdometer odometer = new TelemetryOdometer();
+        final AtomicInteger notifications = new AtomicInteger();
+        odometer.setDistanceListener(new ObservableOdometer.DistanceListener() {
+            @Override
+            public void distanceChanged(final BigDecimal distance) {
+                notifications.incrementAndGet();
+            }
+        });
+        underTest.register(7, odometer);
+        odometer.update(0, 0);
+        for (int reading = 1; reading <= 10; reading++) {
+            underTest.publish(7, reading * 100L, reading * 1000L);
+        }
+        // a stale reading, which is dropped
+        underTest.publish(7, 500, 5000);
+
+        // act
+        underTest.start();
+        awaitConsumed();
+
+        // assert
+        assertEquals(new BigDecimal("10.000"), odometer.getDistance());
+        assertEquals(1, notifications.get());
+        assertEquals(1, odometer.getDroppedReadings());
+    }
+
+    @Test
+    public void shouldWakeParkedConsumersWhenReadingIsPublished() throws InterruptedException {
+
+        // arrange - consumers that have been idle long enough to park
+        underTest = new TelemetryIngester(2);
+        final TelemetryOdometer odometer = new TelemetryOdometer();
+        odometer.update(0, 0);
+        underTest.register(5, odometer);
+        underTest.start();
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!allConsumersParked()) {
+            assertTrue("Consumers not parked in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+
+        // act
+        underTest.publish(5, 100, 1000);
+        awaitConsumed();
+
+        // assert
+        assertEquals(new BigDecimal("1.000"), odometer.getDistance());
+    }
+
+    @Test
+    public void shouldDiscardReadingsOfUnregisteredVehicle() throws InterruptedException {
+
+        // arrange
+        underTest = new TelemetryIngester(2);
+        final TelemetryOdometer odometer = new TelemetryOdometer();
+        odometer.update(0, 0);
+        underTest.register(5, odometer);
+        underTest.start();
+        underTest.publish(5, 100, 1000);
+        awaitConsumed();
+
+        // act
+        underTest.unregister(5);
+        underTest.publish(5, 200, 2000);
+        awaitConsumed();
+
+        // assert
+        assertEquals(new BigDecimal("1.000"), odometer.getDistance());
+        assertEquals(1, underTest.getUnrouted());
+    }
+
+    @Test
+    public void shouldPublishTelemetryFromSocket() throws IOException, InterruptedException {
+
+        // arrange
+        underTest = new TelemetryIngester(2);
+        final TelemetryOdometer odometer = new TelemetryOdometer();
+        underTest.register(12, odometer);
+        underTest.start();
+        final ServerSocket server = new ServerSocket(0);
+        final Thread bus = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try (final Socket socket = server.accept(); final OutputStream out = socket.getOutputStream()) {
+                    out.write("# vehicle,timestamp,distance\n12,1000,52000.5\n\n12,2000,52010.0004\n".getBytes(StandardCharsets.US_ASCII));
+                } catch (final IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        bus.start();
+
+        // act
+        final long published;
+        try (final TelemetrySource source = TelemetrySource.connect("localhost", server.getLocalPort())) {
+            published = source.publishTo(underTest);
+        } finally {
+            server.close();
+        }
+        awaitConsumed();
+
+        // assert - any fraction of a millimetre is rounded up
+        assertEquals(2, published);
+        assertEquals(9501, odometer.getDistanceInMillimetres());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMalformedTelemetry() throws IOException {
+
+        // arrange
+        underTest = new TelemetryIngester(1);
+        final TelemetrySource source = new TelemetrySource(new StringReader("12,1000,52000.5\n12,2000\n"));
+
+        // act
+        source.publishTo(underTest);
+
+        // assert
+        fail("IllegalArgumentException was expected but not thrown");
+    }
+
+    @Test
+    public void shouldUpdateFareOfMeterFedByTelemetry() throws InterruptedException {
+
+        // arrange - a weekday morning, in tariff 1
+        underTest = new TelemetryIngester(2);
+        underTest.start();
+        final long[] now = { new DateTime(2013, 11, 25, 10, 0, LONDON).getMillis() };
+        final TelemetryOdometer odometer = new TelemetryOdometer();
+        underTest.register(3, odometer);
+        underTest.publish(3, now[0], 80000000);
+        awaitConsumed();
+        final TflTaxiMeter meter = TflTaxiMeter.builder(odometer).fareEngine(FareEngine.FIXED_POINT).poller(new Poller() {
+            @Override
+            public synchronized void start(final Runnable runnable) {
+            }
+            @Override
+            public synchronized void stop() {
+            }
+        }).clock(new Clock() {
+            @Override
+            public DateTime getNow() {
+                return new DateTime(now[0], LONDON);
+            }
+        }).build();
+        meter.startJourney();
+
+        // act - 300 metres in 10 seconds
+        now[0] += 10000;
+        underTest.publish(3, now[0], 80300000);
+        awaitConsumed();
+        meter.run();
+
+        // assert - beyond the flag fall's 254.6 metres, so one increment
+        assertEquals(new BigDecimal("2.60"), meter.getFare());
+    }
+
+    private static boolean allConsumersParked() {
+        int parked = 0;
+        for (final Map.Entry<Thread, StackTraceElement[]> thread : Thread.getAllStackTraces().entrySet()) {
+            if (thread.getKey().getName().startsWith("telemetry-consumer-") && thread.getKey().getState() == Thread.State.WAITING) {
+                parked++;
+            }
+        }
+        return parked == 2;
+    }
+
+    private void awaitConsumed() throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (underTest.getConsumed() < underTest.getPublished()) {
+            assertTrue("Telemetry not consumed in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+}
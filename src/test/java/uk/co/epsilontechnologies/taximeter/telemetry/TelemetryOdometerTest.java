@@ -0,0 +1,80 @@
+package uk.co.epsilontechnologies.taximeter.telemetry;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Class for {@link TelemetryOdometer}.
+ *
+ * @author Shane Gibson
+ */
+public class TelemetryOdometerTest {
+
+    @Test
+    public void shouldMeasureDistanceFromFirstReading() {
+
+        // arrange
+        final TelemetryOdometer underTest = new TelemetryOdometer();
+
+        // act
+        underTest.update(1000, 52000000);
+        underTest.update(2000, 52000010);
+
+        // assert
+        assertEquals(new BigDecimal("0.010"), underTest.getDistance());
+        assertEquals(10, underTest.getDistanceInMillimetres());
+    }
+
+    @Test
+    public void shouldMeasureDistanceFromLatestReadingWhenReset() {
+
+        // arrange
+        final TelemetryOdometer underTest = new TelemetryOdometer();
+        underTest.update(1000, 52000000);
+        underTest.update(2000, 52100000);
+
+        // act
+        underTest.reset();
+        underTest.update(3000, 52100500);
+
+        // assert
+        assertEquals(new BigDecimal("0.500"), underTest.getDistance());
+    }
+
+    @Test
+    public void shouldDropReadingsOlderThanLatest() {
+
+        // arrange
+        final TelemetryOdometer underTest = new TelemetryOdometer();
+        underTest.update(1000, 52000000);
+        underTest.update(3000, 52000300);
+
+        // act / assert - earlier in time, then backwards in distance
+        assertFalse(underTest.update(2000, 52000400));
+        assertFalse(underTest.update(4000, 52000200));
+        assertTrue(underTest.update(4000, 52000300));
+
+        // assert
+        assertEquals(2, underTest.getDroppedReadings());
+        assertEquals(300, underTest.getDistanceInMillimetres());
+    }
+
+    @Test
+    public void shouldNotAllocateOnGetDistance() {
+
+        // arrange
+        final TelemetryOdometer underTest = new TelemetryOdometer();
+        underTest.update(1000, 0);
+        underTest.update(2000, 10000);
+
+        // act / assert
+        assertSame(underTest.getDistance(), underTest.getDistance());
+    }
+
+}
@@ -0,0 +1,88 @@
+package uk.co.epsilontechnologies.taximeter.telemetry;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test Class for {@link VehicleOdometers}.
+ *
+ * @author Shane Gibson
+ */
+public class VehicleOdometersTest {
+
+    private final VehicleOdometers underTest = new VehicleOdometers();
+
+    @Test
+    public void shouldHoldOdometerOfEachVehicle() {
+
+        // arrange
+        final TelemetryOdometer zero = new TelemetryOdometer();
+        final TelemetryOdometer negative = new TelemetryOdometer();
+        final TelemetryOdometer replacement = new TelemetryOdometer();
+
+        // act
+        underTest.put(0, zero);
+        underTest.put(-7, new TelemetryOdometer());
+        underTest.put(-7, negative);
+        underTest.put(Long.MAX_VALUE, replacement);
+
+        // assert
+        assertSame(zero, underTest.get(0));
+        assertSame(negative, underTest.get(-7));
+        assertSame(replacement, underTest.get(Long.MAX_VALUE));
+        assertNull(underTest.get(1));
+        assertEquals(3, underTest.size());
+    }
+
+    @Test
+    public void shouldRemoveOdometerOfVehicle() {
+
+        // arrange
+        final TelemetryOdometer kept = new TelemetryOdometer();
+        underTest.put(1, new TelemetryOdometer());
+        underTest.put(2, kept);
+
+        // act
+        underTest.remove(1);
+        underTest.remove(3);
+
+        // assert
+        assertNull(underTest.get(1));
+        assertSame(kept, underTest.get(2));
+        assertEquals(1, underTest.size());
+    }
+
+    @Test
+    public void shouldHoldTheSameOdometersAsAHashMap() {
+
+        // arrange - ids from a narrow range, so that vehicles are often put, replaced and removed
+        final Map<Long, TelemetryOdometer> expected = new HashMap<>();
+        final Random random = new Random(42);
+
+        // act / assert
+        for (int i = 0; i < 100000; i++) {
+            final long vehicleId = random.nextInt(2000) - 1000;
+            if (random.nextInt(3) == 0) {
+                underTest.remove(vehicleId);
+                expected.remove(vehicleId);
+            } else {
+                final TelemetryOdometer odometer = new TelemetryOdometer();
+                underTest.put(vehicleId, odometer);
+                expected.put(vehicleId, odometer);
+            }
+            assertSame(expected.get(vehicleId), underTest.get(vehicleId));
+        }
+        assertEquals(expected.size(), underTest.size());
+        for (long vehicleId = -1000; vehicleId < 1000; vehicleId++) {
+            assertSame(expected.get(vehicleId), underTest.get(vehicleId));
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+package uk.co.epsilontechnologies.taximeter.util;
+
+import org.junit.After;
+import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.utils.AsyncLogger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Class for {@link AsyncLogger}.
+ *
+ * @author Shane Gibson
+ */
+public class AsyncLoggerTest {
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    private AsyncLogger underTest = new AsyncLogger(new PrintStream(output, true), 16, 60000);
+
+    @After
+    public void tearDown() throws InterruptedException {
+        underTest.shutdown();
+    }
+
+    @Test
+    public void shouldWriteTheMessagesInOrderOnTheWriterThread() {
+
+        // arrange
+        underTest.start();
+
+        // act
+        for (int i = 0; i < 100; i++) {
+            assertTrue(underTest.info("message " + i));
+            if (i % 10 == 9) {
+                assertTrue(underTest.awaitWritten(5000));
+            }
+        }
+
+        // assert - stamped with the time and the id of the thread that logged them
+        final String[] lines = lines();
+        assertEquals(100, lines.length);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(lines[i], lines[i].endsWith(":T" + Thread.currentThread().getId() + ":message " + i));
+        }
+        assertEquals(0, underTest.getDropped());
+    }
+
+    @Test
+    public void shouldWakeTheParkedWriterWhenAMessageIsLogged() throws InterruptedException {
+
+        // arrange - a writer that has been idle long enough to park, with no timeout
+        underTest.start();
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!writersParked()) {
+            assertTrue("Writer not parked in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+
+        // act
+        assertTrue(underTest.info("wake up"));
+
+        // assert
+        assertTrue(underTest.awaitWritten(5000));
+        assertTrue(lines()[0].endsWith(":wake up"));
+    }
+
+    @Test
+    public void shouldDropTheMessagesLoggedWhenFullWithoutBlocking() {
+
+        // arrange - the writer is not started, so nothing is taken from the ring
+        for (int i = 0; i < 16; i++) {
+            underTest.info("message " + i);
+        }
+
+        // act
+        final boolean result = underTest.info("message 16");
+
+        // assert
+        assertFalse(result);
+        assertEquals(1, underTest.getDropped());
+        underTest.start();
+        assertTrue(underTest.awaitWritten(5000));
+        assertEquals(16, lines().length);
+        assertTrue(underTest.info("message 17"));
+    }
+
+    @Test
+    public void shouldSuppressDuplicateExceptionsWithinTheWindow() {
+
+        // arrange
+        underTest.start();
+
+        // act - the same exception from the same place, as on every tick of a meter whose odometer fails
+        for (int i = 0; i < 10; i++) {
+            underTest.exception(fail("odometer failed"));
+            assertTrue(underTest.awaitWritten(5000));
+        }
+        underTest.exception(new IllegalStateException("another failure"));
+        assertTrue(underTest.awaitWritten(5000));
+
+        // assert - each written once, with its stack trace
+        final String output = this.output.toString();
+        assertEquals(1, occurrences(output, "odometer failed"));
+        assertEquals(1, occurrences(output, "another failure"));
+        assertTrue(output.contains(AsyncLoggerTest.class.getName() + ".fail("));
+        assertEquals(9, underTest.getSuppressed());
+    }
+
+    @Test
+    public void shouldReportTheDuplicatesSuppressedOnceTheWindowHasPassed() throws InterruptedException {
+
+        // arrange
+        this.underTest = new AsyncLogger(new PrintStream(output, true), 16, 50);
+        underTest.start();
+        underTest.exception(fail("odometer failed"));
+        underTest.exception(fail("odometer failed"));
+        Thread.sleep(100);
+
+        // act
+        underTest.exception(fail("odometer failed"));
+        assertTrue(underTest.awaitWritten(5000));
+
+        // assert
+        final String output = this.output.toString();
+        assertEquals(2, occurrences(output, "odometer failed"));
+        assertTrue(output, output.contains("Suppressed 1 duplicates of java.lang.RuntimeException@"));
+    }
+
+    private static RuntimeException fail(final String message) {
+        return new RuntimeException(message);
+    }
+
+    private String[] lines() {
+        final String output = this.output.toString();
+        return output.isEmpty() ? new String[0] : output.split(System.lineSeparator());
+    }
+
+    private static int occurrences(final String output, final String message) {
+        int occurrences = 0;
+        for (int index = output.indexOf(message); index >= 0; index = output.indexOf(message, index + 1)) {
+            occurrences++;
+        }
+        return occurrences;
+    }
+
+    /**
+     * Determines whether the writers of all the loggers started - including that of the shared log - are parked.
+     */
+    private static boolean writersParked() {
+        int writers = 0;
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("async-logger")) {
+                if (thread.getState() != Thread.State.WAITING) {
+                    return false;
+                }
+                writers++;
+            }
+        }
+        return writers > 0;
+    }
+
+}
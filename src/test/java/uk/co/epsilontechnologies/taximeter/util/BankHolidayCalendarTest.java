@@ -0,0 +1,89 @@
+package uk.co.epsilontechnologies.taximeter.util;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.utils.BankHolidayCalendar;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static uk.co.epsilontechnologies.taximeter.utils.CalendarUtils.toEpochDay;
+
+/**
+ * Test Class for {@link BankHolidayCalendar}.
+ *
+ * @author Shane Gibson
+ */
+public class BankHolidayCalendarTest {
+
+    private final BankHolidayCalendar underTest = new BankHolidayCalendar();
+
+    @Test
+    public void shouldComputeTheBankHolidaysOfAYear() {
+
+        // act
+        final List<LocalDate> result = underTest.getHolidays(2019);
+
+        // assert
+        assertEquals(dates(2019, 1, 1, 4, 19, 4, 22, 5, 6, 5, 27, 8, 26, 12, 25, 12, 26), result);
+    }
+
+    @Test
+    public void shouldSubstituteTheHolidaysThatFallAtAWeekend() {
+
+        // act / assert - Christmas on a Saturday, on a Sunday, and Boxing Day on a Saturday
+        assertEquals(dates(2021, 1, 1, 4, 2, 4, 5, 5, 3, 5, 31, 8, 30, 12, 27, 12, 28), underTest.getHolidays(2021));
+        assertEquals(dates(2022, 1, 3, 4, 15, 4, 18, 5, 2, 5, 30, 8, 29, 12, 26, 12, 27), underTest.getHolidays(2022));
+        assertEquals(dates(2026, 1, 1, 4, 3, 4, 6, 5, 4, 5, 25, 8, 31, 12, 25, 12, 28), underTest.getHolidays(2026));
+    }
+
+    @Test
+    public void shouldDetermineEasterSunday() {
+
+        // act / assert
+        assertEquals(new LocalDate(2013, 3, 31), BankHolidayCalendar.easterSunday(2013));
+        assertEquals(new LocalDate(2019, 4, 21), BankHolidayCalendar.easterSunday(2019));
+        assertEquals(new LocalDate(2038, 4, 25), BankHolidayCalendar.easterSunday(2038));
+        assertEquals(new LocalDate(2285, 3, 22), BankHolidayCalendar.easterSunday(2285));
+    }
+
+    @Test
+    public void shouldOverrideTheRules() {
+
+        // arrange - the Early May bank holiday of 2020 was moved to VE Day
+        final BankHolidayCalendar underTest = new BankHolidayCalendar(
+                Collections.singletonList(new LocalDate(2020, 5, 8)),
+                Collections.singletonList(new LocalDate(2020, 5, 4)));
+
+        // act / assert
+        assertTrue(underTest.isHoliday(toEpochDay(new LocalDate(2020, 5, 8))));
+        assertFalse(underTest.isHoliday(toEpochDay(new LocalDate(2020, 5, 4))));
+        assertTrue(this.underTest.isHoliday(toEpochDay(new LocalDate(2020, 5, 4))));
+    }
+
+    @Test
+    public void shouldLookUpTheSameHolidaysAsListed() {
+
+        // act / assert - every day of leap and other years, in and beyond the cached years
+        for (final int year : new int[] { 1977, 2000, 2023, 2024, 2399, 2400 }) {
+            final List<LocalDate> holidays = underTest.getHolidays(year);
+            assertEquals(year < 1978 ? 0 : 8, holidays.size());
+            for (LocalDate day = new LocalDate(year, 1, 1); day.getYear() == year; day = day.plusDays(1)) {
+                assertEquals(day.toString(), holidays.contains(day), underTest.isHoliday(toEpochDay(day)));
+            }
+        }
+    }
+
+    private static List<LocalDate> dates(final int year, final int... monthsAndDays) {
+        final LocalDate[] dates = new LocalDate[monthsAndDays.length / 2];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = new LocalDate(year, monthsAndDays[2 * i], monthsAndDays[2 * i + 1]);
+        }
+        return Arrays.asList(dates);
+    }
+
+}
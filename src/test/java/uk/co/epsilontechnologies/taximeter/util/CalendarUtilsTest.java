@@ -1,6 +1,8 @@
 package uk.co.epsilontechnologies.taximeter.util;
 
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
 import org.junit.Test;
 
 import java.math.BigDecimal;
@@ -27,6 +29,52 @@ public class CalendarUtilsTest {
         assertFalse(isPublicHoliday(new DateTime(2014, 1, 2, 0, 0)));
     }
 
+    @Test
+    public void shouldReturnTrueIfEpochDayIsPublicHoliday() {
+        assertTrue(isPublicHolidayOnEpochDay(toEpochDay(new LocalDate(2014, 1, 1))));
+    }
+
+    @Test
+    public void shouldReturnFalseIfEpochDayIsNotPublicHoliday() {
+        assertFalse(isPublicHolidayOnEpochDay(toEpochDay(new LocalDate(2014, 1, 2))));
+    }
+
+    @Test
+    public void shouldDeterminePublicHolidaysBeyondThoseListed() {
+        assertTrue(isPublicHolidayOnEpochDay(toEpochDay(new LocalDate(1999, 12, 27))));
+        assertTrue(isPublicHolidayOnEpochDay(toEpochDay(new LocalDate(2099, 12, 25))));
+        assertFalse(isPublicHolidayOnEpochDay(toEpochDay(new LocalDate(2099, 12, 24))));
+    }
+
+    @Test
+    public void shouldOverrideThePublicHolidaysByThoseListed() {
+        assertTrue(isPublicHolidayOnEpochDay(toEpochDay(new LocalDate(2020, 5, 8))));
+        assertFalse(isPublicHolidayOnEpochDay(toEpochDay(new LocalDate(2020, 5, 4))));
+    }
+
+    @Test
+    public void shouldDetermineThePublicHolidaysOf2013And2014ByTheRules() {
+        // Good Friday and Easter Monday, but not Easter Sunday
+        assertTrue(isPublicHolidayOnEpochDay(toEpochDay(new LocalDate(2014, 4, 18))));
+        assertFalse(isPublicHolidayOnEpochDay(toEpochDay(new LocalDate(2014, 4, 20))));
+        assertTrue(isPublicHolidayOnEpochDay(toEpochDay(new LocalDate(2014, 4, 21))));
+        assertFalse(isPublicHolidayOnEpochDay(toEpochDay(new LocalDate(2013, 3, 31))));
+        // the Sundays before the May, Spring and Summer bank holidays, and after Christmas, are not holidays
+        assertFalse(isPublicHolidayOnEpochDay(toEpochDay(new LocalDate(2014, 5, 4))));
+        assertFalse(isPublicHolidayOnEpochDay(toEpochDay(new LocalDate(2014, 5, 25))));
+        assertFalse(isPublicHolidayOnEpochDay(toEpochDay(new LocalDate(2014, 8, 31))));
+        assertFalse(isPublicHolidayOnEpochDay(toEpochDay(new LocalDate(2014, 12, 28))));
+        assertTrue(isPublicHolidayOnEpochDay(toEpochDay(new LocalDate(2014, 12, 26))));
+    }
+
+    @Test
+    public void shouldDeterminePublicHolidayInTheGivenZone() {
+        final DateTimeZone london = DateTimeZone.forID("Europe/London");
+        final long justAfterMidnightInLondon = new DateTime(2013, 5, 27, 0, 30, london).getMillis();
+        assertTrue(isPublicHoliday(justAfterMidnightInLondon, london));
+        assertFalse(isPublicHoliday(justAfterMidnightInLondon, DateTimeZone.UTC));
+    }
+
     @Test
     public void shouldCalculateDifferenceInSecondsBetweenTwoDateTimes() {
         final DateTime from = new DateTime(2000, 1, 1, 12, 0, 5, 250);
@@ -0,0 +1,63 @@
+package uk.co.epsilontechnologies.taximeter.util;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import uk.co.epsilontechnologies.taximeter.utils.CalendarUtils;
+import uk.co.epsilontechnologies.taximeter.utils.TimeContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Class for {@link TimeContext}.
+ *
+ * @author Shane Gibson
+ */
+public class TimeContextTest {
+
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    @Test
+    public void shouldBreakDownTheSameFieldsAsTheDateTime() {
+
+        // arrange
+        final DateTime end = new DateTime(2015, 1, 1, 0, 0, LONDON);
+
+        // act / assert - every 7 minutes across two years, including both daylight saving transitions and the holidays
+        for (DateTime dateTime = new DateTime(2013, 1, 1, 0, 0, LONDON); dateTime.isBefore(end); dateTime = dateTime.plusMinutes(7)) {
+            final TimeContext result = TimeContext.of(dateTime.getMillis(), LONDON);
+            assertEquals(dateTime.toString(), dateTime.getMinuteOfDay(), result.getMinuteOfDay());
+            assertEquals(dateTime.toString(), dateTime.getHourOfDay(), result.getHourOfDay());
+            assertEquals(dateTime.toString(), dateTime.getDayOfWeek(), result.getDayOfWeek());
+            assertEquals(dateTime.toString(), CalendarUtils.isPublicHoliday(dateTime), result.isPublicHoliday());
+            assertEquals(dateTime.toString(), CalendarUtils.isWeekday(dateTime), CalendarUtils.isWeekday(result));
+            assertEquals(dateTime.toString(), CalendarUtils.isWeekend(dateTime), CalendarUtils.isWeekend(result));
+            assertEquals(dateTime.toString(), dateTime, result.toDateTime());
+        }
+    }
+
+    @Test
+    public void shouldBreakDownTheTimeBeforeTheEpoch() {
+
+        // act - Wednesday 31st December 1969, 23:59 UTC
+        final TimeContext result = TimeContext.of(-60000, DateTimeZone.UTC);
+
+        // assert
+        assertEquals(1439, result.getMinuteOfDay());
+        assertEquals(3, result.getDayOfWeek());
+    }
+
+    @Test
+    public void shouldDetermineWhetherTheTimeIsBetweenHours() {
+
+        // arrange
+        final TimeContext context = TimeContext.of(new DateTime(2013, 11, 25, 19, 59, LONDON));
+
+        // act / assert
+        assertTrue(CalendarUtils.isBetweenHours(context, 6, 20));
+        assertFalse(CalendarUtils.isBetweenHours(context, 20, 22));
+    }
+
+}